@@ -0,0 +1,107 @@
+package com.adendl.traveljournalai.benchmark;
+
+import com.adendl.traveljournalai.service.TripPlanParser;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Realistic model outputs for the benchmarks: ~100-word introductions and five places of interest per day,
+ * which puts a 14-day plan in the 30-60 KB range seen in production.
+ */
+final class BenchmarkPayloads {
+
+    private static final String INTRODUCTION = "Welcome to a town that rewards slow travel, where weathered sandstone "
+            + "terraces line the main street and the smell of fresh bread drifts out of bakeries that have traded for "
+            + "more than a century. Spend the morning walking the river path past heritage-listed bridges, then head "
+            + "to the regional gallery for a surprisingly strong collection of colonial and contemporary works. In the "
+            + "afternoon the surrounding hills open up into vineyards and orchards, many with cellar doors and farm "
+            + "gates selling seasonal produce. As the sun goes down, locals gather at the pub on the corner for hearty "
+            + "meals and live music, a perfect end to a day on the road.";
+
+    private BenchmarkPayloads() {
+    }
+
+    static String content(int days) {
+        List<Map<String, Object>> dayList = new ArrayList<>();
+        double lat = -33.8688;
+        double lon = 151.2093;
+        for (int d = 1; d <= days; d++) {
+            double nextLat = lat - 0.35;
+            double nextLon = lon - 0.45;
+            Map<String, Object> day = new LinkedHashMap<>();
+            day.put("day", d);
+            day.put("startLocation", location("Town " + d, lat, lon));
+            day.put("finishLocation", location("Town " + (d + 1), nextLat, nextLon));
+            day.put("distanceKm", 180 + d);
+            day.put("introduction", INTRODUCTION);
+            List<Map<String, Object>> places = new ArrayList<>();
+            for (int p = 1; p <= 5; p++) {
+                Map<String, Object> poi = location("Point of interest " + d + "-" + p, nextLat + p * 0.01, nextLon + p * 0.01);
+                poi.put("description", "A local favourite with sweeping views, a small museum and a cafe serving regional produce.");
+                places.add(poi);
+            }
+            day.put("placesOfInterest", places);
+            dayList.add(day);
+            lat = nextLat;
+            lon = nextLon;
+        }
+        return write(Map.of("days", dayList));
+    }
+
+    static String completion(int days) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("role", "assistant");
+        message.put("content", content(days));
+        Map<String, Object> choice = new LinkedHashMap<>();
+        choice.put("index", 0);
+        choice.put("message", message);
+        choice.put("finish_reason", "stop");
+        Map<String, Object> completion = new LinkedHashMap<>();
+        completion.put("id", "chatcmpl-benchmark");
+        completion.put("object", "chat.completion");
+        completion.put("model", "gpt-4.1-mini");
+        completion.put("choices", List.of(choice));
+        completion.put("usage", Map.of("prompt_tokens", 310, "completion_tokens", 700 * days));
+        return write(completion);
+    }
+
+    private static Map<String, Object> location(String name, double lat, double lon) {
+        Map<String, Object> location = new LinkedHashMap<>();
+        location.put("name", name);
+        location.put("latitude", lat);
+        location.put("longitude", lon);
+        return location;
+    }
+
+    private static String write(Object value) {
+        try {
+            return TripPlanParser.MAPPER.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Road geometry like a router returns for one day's leg: [latitude, longitude] points every 5 to 15 m
+     * on a course that bends gently.
+     */
+    static double[][] road(int points, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] route = new double[points][];
+        double latitude = -33.8688;
+        double longitude = 151.2093;
+        double heading = random.nextDouble(0, 2 * Math.PI);
+        for (int i = 0; i < points; i++) {
+            route[i] = new double[] {latitude, longitude};
+            heading += random.nextDouble(-0.05, 0.05);
+            double metres = random.nextDouble(5, 15);
+            latitude += metres * Math.cos(heading) / 111_320.0;
+            longitude += metres * Math.sin(heading) / (111_320.0 * Math.cos(Math.toRadians(latitude)));
+        }
+        return route;
+    }
+}
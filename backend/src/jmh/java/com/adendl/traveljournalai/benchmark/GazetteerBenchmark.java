@@ -0,0 +1,90 @@
+package com.adendl.traveljournalai.benchmark;
+
+import com.adendl.traveljournalai.service.Gazetteer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures city lookups and prefix suggestions against the memory-mapped {@link Gazetteer} index
+ * and the cost of starting it from an existing index file. The bundled dataset is used unless
+ * {@code -Dgazetteer.dataset=/path/to/cities500.txt} points at a full GeoNames file. With the GC
+ * profiler, {@code load} reports the bytes allocated per startup; the resident index itself is
+ * mapped outside the heap. Run with {@code ./gradlew jmh -PjmhIncludes=GazetteerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GazetteerBenchmark {
+
+    private static final String[] QUERIES = {"Sydney", "melbourne", "Wagga-Wagga", "Perth, SCT", "Alice Springs", "gold coast"};
+    private static final String[] PREFIXES = {"s", "me", "wag", "p", "alice", "gold c", "b", "port"};
+
+    private Resource dataset;
+    private String indexFile;
+    private Gazetteer gazetteer;
+    private int next;
+    private int nextPrefix;
+
+    @Setup
+    public void setUp() throws Exception {
+        String path = System.getProperty("gazetteer.dataset");
+        dataset = path == null ? new ClassPathResource("gazetteer/cities.tsv") : new FileSystemResource(path);
+        indexFile = Files.createTempDirectory("gazetteer-benchmark").resolve("cities.idx").toString();
+        gazetteer = new Gazetteer(new SimpleMeterRegistry(), dataset, indexFile, true);
+    }
+
+    @Benchmark
+    public Optional<Gazetteer.City> resolveKnown() {
+        next = (next + 1) % QUERIES.length;
+        return gazetteer.resolve(QUERIES[next]);
+    }
+
+    @Benchmark
+    public Optional<Gazetteer.City> resolveUnknown() {
+        return gazetteer.resolve("Atlantis");
+    }
+
+    /**
+     * Autocomplete as typed in the trip form; sampled so the results include p99.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public List<Gazetteer.City> suggest() {
+        nextPrefix = (nextPrefix + 1) % PREFIXES.length;
+        return gazetteer.suggest(PREFIXES[nextPrefix], 10);
+    }
+
+    /**
+     * Startup with the index already built: read and checksum the dataset, then map the index.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Gazetteer load() {
+        return new Gazetteer(new SimpleMeterRegistry(), dataset, indexFile, true);
+    }
+
+    /**
+     * Cold startup: parse the dataset, build and write the index, then map it.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Gazetteer build() throws Exception {
+        Files.deleteIfExists(Path.of(indexFile));
+        return new Gazetteer(new SimpleMeterRegistry(), dataset, indexFile, true);
+    }
+}
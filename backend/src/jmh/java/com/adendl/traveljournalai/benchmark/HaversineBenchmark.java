@@ -0,0 +1,101 @@
+package com.adendl.traveljournalai.benchmark;
+
+import com.adendl.traveljournalai.model.Location;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.service.GeometryService;
+import com.adendl.traveljournalai.service.TripPlanParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the haversine kernel of {@link GeometryService} over flat primitive arrays against the
+ * same formula applied segment by segment to {@link Location} objects, and the cost of computing
+ * every distance of a realistic plan. Run with {@code ./gradlew jmh -PjmhIncludes=HaversineBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HaversineBenchmark {
+
+    @Param({"100", "10000"})
+    private int segments;
+
+    private double[] fromLatitudes;
+    private double[] fromLongitudes;
+    private double[] toLatitudes;
+    private double[] toLongitudes;
+    private double[] distances;
+    private Location[] from;
+    private Location[] to;
+    private TripPlan plan;
+    private final GeometryService geometryService = new GeometryService();
+
+    @Setup
+    public void setUp() throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        fromLatitudes = new double[segments];
+        fromLongitudes = new double[segments];
+        toLatitudes = new double[segments];
+        toLongitudes = new double[segments];
+        distances = new double[segments];
+        from = new Location[segments];
+        to = new Location[segments];
+        for (int i = 0; i < segments; i++) {
+            fromLatitudes[i] = random.nextDouble(-80, 80);
+            fromLongitudes[i] = random.nextDouble(-180, 180);
+            toLatitudes[i] = fromLatitudes[i] + random.nextDouble(-3, 3);
+            toLongitudes[i] = fromLongitudes[i] + random.nextDouble(-3, 3);
+            from[i] = location(fromLatitudes[i], fromLongitudes[i]);
+            to[i] = location(toLatitudes[i], toLongitudes[i]);
+        }
+        plan = TripPlanParser.parseCompletion(BenchmarkPayloads.completion(14));
+    }
+
+    @Benchmark
+    public double[] primitiveArrays() {
+        GeometryService.haversineKm(fromLatitudes, fromLongitudes, toLatitudes, toLongitudes, distances, segments);
+        return distances;
+    }
+
+    @Benchmark
+    public double[] locationObjects() {
+        for (int i = 0; i < segments; i++) {
+            distances[i] = distance(from[i], to[i]);
+        }
+        return distances;
+    }
+
+    /**
+     * Every leg and places of interest chain of a 14 day plan; independent of the segments parameter.
+     */
+    @Benchmark
+    public double fourteenDayPlan() {
+        return geometryService.applyDistances(plan.getDays());
+    }
+
+    private static double distance(Location from, Location to) {
+        double fromLatitude = Math.toRadians(from.getLatitude());
+        double toLatitude = Math.toRadians(to.getLatitude());
+        double sinHalfLatitude = Math.sin((toLatitude - fromLatitude) * 0.5);
+        double sinHalfLongitude = Math.sin(Math.toRadians(to.getLongitude() - from.getLongitude()) * 0.5);
+        double a = sinHalfLatitude * sinHalfLatitude
+                + Math.cos(fromLatitude) * Math.cos(toLatitude) * sinHalfLongitude * sinHalfLongitude;
+        return 2 * GeometryService.EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, a)));
+    }
+
+    private static Location location(double latitude, double longitude) {
+        Location location = new Location();
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+}
@@ -0,0 +1,116 @@
+package com.adendl.traveljournalai.benchmark;
+
+import com.adendl.traveljournalai.service.GeometryService;
+import com.adendl.traveljournalai.service.IndexedPlace;
+import com.adendl.traveljournalai.service.NearbyPlace;
+import com.adendl.traveljournalai.service.PlaceIndex;
+import com.adendl.traveljournalai.service.RoutePolylines;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PlaceIndex} over places of interest spread uniformly across Australia: a 10 km
+ * {@code nearby} lookup against a linear scan of every place, a 20 km corridor along a simplified
+ * 20,000 point route, saving and deleting an 80 place trip, and building the tree from scratch.
+ * Run with {@code ./gradlew jmh -PjmhIncludes=PlaceIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlaceIndexBenchmark {
+
+    private static final int QUERY_POINTS = 1024;
+    private static final long TRIP_ID = -1;
+
+    @Param({"100000", "1000000"})
+    private int places;
+
+    private List<IndexedPlace> indexed;
+    private List<IndexedPlace> trip;
+    private double[][] queries;
+    private List<double[][]> route;
+    private PlaceIndex index;
+    private int nextQuery;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        indexed = new ArrayList<>(places);
+        for (int i = 0; i < places; i++) {
+            indexed.add(new IndexedPlace(i, i / 80, "Place " + i, random.nextDouble(-44, -10), random.nextDouble(113, 154)));
+        }
+        queries = new double[QUERY_POINTS][];
+        for (int i = 0; i < QUERY_POINTS; i++) {
+            queries[i] = new double[] {random.nextDouble(-44, -10), random.nextDouble(113, 154)};
+        }
+        trip = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            trip.add(new IndexedPlace(-1 - i, TRIP_ID, "Trip place " + i, random.nextDouble(-38, -33), random.nextDouble(145, 151)));
+        }
+        route = List.of(RoutePolylines.simplify(BenchmarkPayloads.road(20_000, 42), 10));
+        // Never rebuilds in the background, so every iteration measures the same tree
+        index = new PlaceIndex(null, new SimpleMeterRegistry(), Integer.MAX_VALUE);
+        index.rebuild(indexed);
+    }
+
+    @Benchmark
+    public List<NearbyPlace> nearby() {
+        double[] point = nextQuery();
+        return index.nearby(point[0], point[1], 10, 20);
+    }
+
+    /**
+     * What {@link #nearby()} would cost without an index.
+     */
+    @Benchmark
+    public int nearbyLinearScan() {
+        double[] point = nextQuery();
+        int found = 0;
+        for (IndexedPlace place : indexed) {
+            if (GeometryService.haversineKm(point[0], point[1], place.latitude(), place.longitude()) <= 10) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public List<NearbyPlace> nearRoute() {
+        return index.nearRoute(route, 20, 0, 20);
+    }
+
+    /**
+     * A trip saved and then deleted; neither touches the tree.
+     */
+    @Benchmark
+    public void addAndRemoveTrip() {
+        index.add(trip);
+        index.removeTrip(TRIP_ID);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int build() {
+        PlaceIndex built = new PlaceIndex(null, new SimpleMeterRegistry(), Integer.MAX_VALUE);
+        built.rebuild(indexed);
+        return built.size();
+    }
+
+    private double[] nextQuery() {
+        nextQuery = (nextQuery + 1) % QUERY_POINTS;
+        return queries[nextQuery];
+    }
+}
@@ -0,0 +1,100 @@
+package com.adendl.traveljournalai.benchmark;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open-loop load test of {@code GET /api/places/suggest} against a running backend: requests are
+ * started at a fixed rate whether or not earlier ones have finished, so queueing shows up in the
+ * latencies instead of silently lowering the rate (no coordinated omission). Latency is measured
+ * from each request's scheduled start. Start the backend with the loadtest profile, then run
+ * <pre>
+ * ./gradlew jmhJar
+ * java -cp build/libs/*-jmh.jar com.adendl.traveljournalai.benchmark.PlaceSuggestLoadTest [baseUrl] [requestsPerSecond] [seconds]
+ * </pre>
+ * Defaults: http://localhost:8080, 3000 requests per second, 30 seconds.
+ */
+public final class PlaceSuggestLoadTest {
+
+    private static final String[] PREFIXES = {"s", "sy", "syd", "m", "me", "mel", "b", "br", "bri", "p", "pe", "per",
+            "a", "ad", "ade", "c", "ca", "cai", "h", "ho", "hob", "d", "da", "dar", "wag", "port", "gold c", "alice"};
+
+    private PlaceSuggestLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int rate = args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int total = rate * seconds;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+                .build();
+        URI[] uris = new URI[PREFIXES.length];
+        for (int i = 0; i < PREFIXES.length; i++) {
+            uris[i] = URI.create(baseUrl + "/api/places/suggest?q=" + URLEncoder.encode(PREFIXES[i], StandardCharsets.UTF_8));
+        }
+
+        // Warm up the JIT and the connection pool before measuring
+        for (int i = 0; i < 2000; i++) {
+            client.send(HttpRequest.newBuilder(uris[i % uris.length]).build(), HttpResponse.BodyHandlers.discarding());
+        }
+
+        long[] latencies = new long[total];
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(total);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        AtomicInteger next = new AtomicInteger();
+        scheduler.scheduleAtFixedRate(() -> {
+            // Catch up on every request due by now, so a slow tick does not lower the offered rate
+            long due = Math.min(total, (System.nanoTime() - start) / periodNanos + 1);
+            for (int i = next.get(); i < due; i = next.incrementAndGet()) {
+                int request = i;
+                long scheduled = start + request * periodNanos;
+                client.sendAsync(HttpRequest.newBuilder(uris[request % uris.length]).build(), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, failure) -> {
+                            latencies[request] = System.nanoTime() - scheduled;
+                            if (failure != null || response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                            done.countDown();
+                        });
+            }
+        }, 0, 1, TimeUnit.MILLISECONDS);
+
+        done.await(seconds + 60L, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+        scheduler.shutdownNow();
+
+        long[] sorted = Arrays.copyOf(latencies, total - (int) done.getCount());
+        Arrays.sort(sorted);
+        System.out.printf("%d requests in %.1f s (%.0f/s offered %d/s), %d errors%n",
+                sorted.length, elapsed / 1e9, sorted.length / (elapsed / 1e9), rate, errors.get());
+        System.out.printf("latency ms: p50 %.3f, p90 %.3f, p99 %.3f, p99.9 %.3f, max %.3f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        System.exit(errors.get() == 0 ? 0 : 1);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+}
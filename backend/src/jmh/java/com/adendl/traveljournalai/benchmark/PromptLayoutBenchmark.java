@@ -0,0 +1,196 @@
+package com.adendl.traveljournalai.benchmark;
+
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.service.OpenAiTripPlanGenerator;
+import com.adendl.traveljournalai.service.TokenEstimator;
+import com.adendl.traveljournalai.service.TripPlanParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the static-prefix prompt layout with the previous one, where the trip parameters came
+ * first and the response format was described in the user message. Each operation sends the next
+ * of a rotating set of trips to a stub provider that models prompt caching: prefixes are cached in
+ * 512 character blocks, the structured output schema is part of the prefix, and time to first
+ * token is a fixed latency plus a prefill cost per uncached prompt token.
+ * Run with {@code ./gradlew jmh -PjmhIncludes=PromptLayoutBenchmark}; besides the time to first
+ * token, the promptBytes, uncachedBytes and calls counters give the bytes sent and not served
+ * from the cache per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PromptLayoutBenchmark {
+
+    private static final List<String[]> ROUTES = List.of(
+            new String[]{"Sydney", "Melbourne"}, new String[]{"Brisbane", "Cairns"}, new String[]{"Perth", "Broome"},
+            new String[]{"Adelaide", "Alice Springs"}, new String[]{"Hobart", "Launceston"}, new String[]{"Darwin", "Kakadu"});
+    private static final List<List<String>> INTERESTS = List.of(
+            List.of("Food", "Wine"), List.of("Beaches"), List.of("History", "Architecture", "Museums"), List.of("Wildlife", "Hiking"));
+
+    @Param({"legacy", "static-prefix"})
+    private String layout;
+
+    @Param({"3", "7"})
+    private int days;
+
+    private StubProvider provider;
+    private int next;
+
+    /**
+     * Per-call byte counters; divide by calls for the mean of one request.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+        public long promptBytes;
+        public long uncachedBytes;
+        public long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            promptBytes = 0;
+            uncachedBytes = 0;
+            calls = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        provider = new StubProvider(50, 0.1);
+        next = 0;
+    }
+
+    @Benchmark
+    public int timeToFirstToken(Bytes bytes) throws Exception {
+        Trip trip = nextTrip();
+        String prompt;
+        Map<String, Object> body;
+        if ("legacy".equals(layout)) {
+            prompt = legacyPrompt(trip);
+            body = legacyRequestBody(prompt, 2000);
+        } else {
+            prompt = OpenAiTripPlanGenerator.buildPrompt(trip);
+            body = OpenAiTripPlanGenerator.tripPlanRequestBody(prompt, 2000);
+        }
+        byte[] request = TripPlanParser.MAPPER.writeValueAsBytes(body);
+        int uncached = provider.firstToken(request);
+        bytes.promptBytes += request.length;
+        bytes.uncachedBytes += uncached;
+        bytes.calls++;
+        return uncached;
+    }
+
+    private Trip nextTrip() {
+        int index = next++;
+        String[] route = ROUTES.get(index % ROUTES.size());
+        Trip trip = new Trip();
+        trip.setFromCity(route[0]);
+        trip.setToCity(route[1]);
+        trip.setRoundtrip(index % 3 == 0);
+        trip.setDays(days);
+        trip.setInterests(INTERESTS.get(index % INTERESTS.size()));
+        trip.setDistanceKm(index % 2 == 0 ? 0 : 400 + index % 7 * 100);
+        return trip;
+    }
+
+    /**
+     * The buildPrompt this layout replaced: trip parameters first, format described inline.
+     */
+    private static String legacyPrompt(Trip trip) {
+        String roundtripStr = trip.isRoundtrip() ? "roundtrip" : "one-way trip";
+        String interestsStr = String.join(", ", trip.getInterests());
+        return String.format(
+                "Generate a detailed trip plan for a %s from %s to %s over %d days, with interests in %s. " +
+                        "For each day, provide the start and finish locations with their latitudes and longitudes, " +
+                        "the distance between them, an in-depth introduction (roughly 100 words) to the destination, and some places of interest along the way. " +
+                        "Return the response in JSON format with the following structure: " +
+                        "{\"days\": [{\"day\": 1, \"startLocation\": {\"name\": \"City A\", \"latitude\": 12.34, \"longitude\": 56.78}, " +
+                        "\"finishLocation\": {\"name\": \"City B\", \"latitude\": 23.45, \"longitude\": 67.89}, \"distanceKm\": 150, " +
+                        "\"introduction\": \"Welcome to City B, known for its...\", \"placesOfInterest\": [{\"name\": \"Museum X\", " +
+                        "\"description\": \"A great museum...\", \"latitude\": 23.46, \"longitude\": 67.90}, ...]}]}",
+                roundtripStr, trip.getFromCity(), trip.getToCity(), trip.getDays(), interestsStr
+        );
+    }
+
+    private static Map<String, Object> legacyRequestBody(String prompt, int maxTokens) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", "gpt-4.1-mini");
+        body.put("messages", List.of(
+                Map.of("role", "system", "content", "You are a helpful assistant that generates trip plans."),
+                Map.of("role", "user", "content", prompt)
+        ));
+        body.put("max_tokens", maxTokens);
+        body.put("response_format", Map.of("type", "json_object"));
+        return body;
+    }
+
+    /**
+     * A provider with a prefix cache. The prompt it caches is the response schema followed by the
+     * messages in order, as the chat completions API lays it out.
+     */
+    static final class StubProvider {
+
+        private static final int BLOCK_CHARS = 512;
+
+        private final long baseLatencyMicros;
+        private final double prefillMicrosPerToken;
+        private final Set<Integer> cachedBlocks = new HashSet<>();
+
+        StubProvider(long baseLatencyMillis, double prefillMillisPerToken) {
+            this.baseLatencyMicros = baseLatencyMillis * 1000;
+            this.prefillMicrosPerToken = prefillMillisPerToken * 1000;
+        }
+
+        /**
+         * Waits until the first token would arrive.
+         * @return The number of prompt bytes that were not served from the cache
+         */
+        int firstToken(byte[] request) throws Exception {
+            String prompt = prompt(TripPlanParser.MAPPER.readTree(request));
+            int cachedChars = 0;
+            boolean hit = true;
+            for (int end = BLOCK_CHARS; end <= prompt.length(); end += BLOCK_CHARS) {
+                // Blocks are keyed by the whole prefix up to them, so a hit means everything before matched too
+                boolean cached = !cachedBlocks.add(prompt.substring(0, end).hashCode());
+                if (hit && cached) {
+                    cachedChars = end;
+                } else {
+                    hit = false;
+                }
+            }
+            String uncached = prompt.substring(cachedChars);
+            TimeUnit.MICROSECONDS.sleep(baseLatencyMicros + (long) (TokenEstimator.estimate(uncached) * prefillMicrosPerToken));
+            return uncached.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        private static String prompt(JsonNode body) {
+            StringBuilder prompt = new StringBuilder();
+            JsonNode schema = body.path("response_format").path("json_schema");
+            if (!schema.isMissingNode()) {
+                prompt.append(schema.toString());
+            }
+            for (JsonNode message : body.path("messages")) {
+                prompt.append(message.path("role").asText()).append('\n').append(message.path("content").asText()).append('\n');
+            }
+            return prompt.toString();
+        }
+    }
+}
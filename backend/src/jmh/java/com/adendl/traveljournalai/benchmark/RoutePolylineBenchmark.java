@@ -0,0 +1,61 @@
+package com.adendl.traveljournalai.benchmark;
+
+import com.adendl.traveljournalai.service.RoutePolylines;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what {@code GET /api/trips/{id}/routes} does per leg: simplify a full-resolution route
+ * for a zoom level and encode it as a polyline, against serializing every point as JSON the way
+ * the endpoint first did. The payload sizes of each form are printed once per trial, so the size
+ * reduction can be read next to the timings. Run with {@code ./gradlew jmh -PjmhIncludes=RoutePolylineBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoutePolylineBenchmark {
+
+    @Param({"2000", "20000"})
+    private int points;
+
+    @Param({"6", "12", "16"})
+    private int zoom;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private double[][] route;
+
+    @Setup
+    public void setUp() throws Exception {
+        route = BenchmarkPayloads.road(points, 42);
+        int json = objectMapper.writeValueAsBytes(route).length;
+        int full = RoutePolylines.encode(route).length();
+        double[][] simplified = RoutePolylines.simplify(route, zoom);
+        int encoded = RoutePolylines.encode(simplified).length();
+        System.out.printf("%n%d points at zoom %d: JSON %d bytes, full polyline %d bytes, simplified %d points in %d bytes (%.0fx smaller than JSON)%n",
+                points, zoom, json, full, simplified.length, encoded, (double) json / encoded);
+    }
+
+    @Benchmark
+    public String simplifyAndEncode() {
+        return RoutePolylines.encode(RoutePolylines.simplify(route, zoom));
+    }
+
+    @Benchmark
+    public String encodeFullResolution() {
+        return RoutePolylines.encode(route);
+    }
+
+    @Benchmark
+    public byte[] jsonFullResolution() throws Exception {
+        return objectMapper.writeValueAsBytes(route);
+    }
+}
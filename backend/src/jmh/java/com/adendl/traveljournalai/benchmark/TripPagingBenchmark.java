@@ -0,0 +1,141 @@
+package com.adendl.traveljournalai.benchmark;
+
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.repository.TripRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading one page of a user's trip summaries at increasing depths with the keyset
+ * queries of {@link TripRepository} against the same page read with an offset, for a user with
+ * 10,000 trips among 50,000. It runs the SQL those queries produce directly against an in-memory
+ * H2 database with the trips (user_id, created_at, trip_id) index, so no Spring context is needed.
+ * Run with {@code ./gradlew jmh -PjmhIncludes=TripPagingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TripPagingBenchmark {
+
+    private static final int USERS = 5;
+    private static final int TRIPS_PER_USER = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final long USER_ID = 3;
+    private static final String COLUMNS =
+            "select trip_id, from_city, to_city, roundtrip, days, distance_km, created_at from trips ";
+
+    /** Zero-based page number; 499 is the last page. */
+    @Param({"0", "50", "250", "499"})
+    private int page;
+
+    private Connection connection;
+    private PreparedStatement offsetQuery;
+    private PreparedStatement keysetQuery;
+    private String afterCreatedAt;
+    private long afterTripId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:trip-paging;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists trips");
+            statement.execute("create table trips (trip_id bigint primary key, user_id bigint not null, " +
+                    "from_city varchar(255) not null, to_city varchar(255) not null, roundtrip boolean not null, " +
+                    "days integer not null, distance_km double precision not null, created_at varchar(255) not null)");
+            statement.execute("create index trips_user_created_at_idx on trips (user_id, created_at, trip_id)");
+        }
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        try (PreparedStatement insert = connection.prepareStatement("insert into trips values (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            long tripId = 1;
+            for (int i = 0; i < TRIPS_PER_USER; i++) {
+                for (long userId = 1; userId <= USERS; userId++) {
+                    insert.setLong(1, tripId++);
+                    insert.setLong(2, userId);
+                    insert.setString(3, "Sydney");
+                    insert.setString(4, "Melbourne");
+                    insert.setBoolean(5, false);
+                    insert.setInt(6, 1 + i % 7);
+                    insert.setDouble(7, 880);
+                    // Pairs of trips share a creation time, so the trip id has to break ties
+                    insert.setString(8, Trip.formatCreatedAt(start.plusSeconds(60L * (i / 2))));
+                    insert.addBatch();
+                }
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        offsetQuery = connection.prepareStatement(COLUMNS +
+                "where user_id = ? order by created_at desc, trip_id desc offset ? rows fetch first ? rows only");
+        keysetQuery = connection.prepareStatement(COLUMNS +
+                "where user_id = ? and created_at <= ? and (created_at < ? or trip_id < ?) " +
+                "order by created_at desc, trip_id desc fetch first ? rows only");
+
+        // The cursor the previous page would have returned
+        if (page > 0) {
+            offsetQuery.setLong(1, USER_ID);
+            offsetQuery.setInt(2, page * PAGE_SIZE - 1);
+            offsetQuery.setInt(3, 1);
+            try (ResultSet rows = offsetQuery.executeQuery()) {
+                rows.next();
+                afterTripId = rows.getLong("trip_id");
+                afterCreatedAt = rows.getString("created_at");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long offset() throws SQLException {
+        offsetQuery.setLong(1, USER_ID);
+        offsetQuery.setInt(2, page * PAGE_SIZE);
+        // One row past the page, as TripService reads it
+        offsetQuery.setInt(3, PAGE_SIZE + 1);
+        return read(offsetQuery);
+    }
+
+    @Benchmark
+    public long keyset() throws SQLException {
+        if (page == 0) {
+            return offset();
+        }
+        keysetQuery.setLong(1, USER_ID);
+        keysetQuery.setString(2, afterCreatedAt);
+        keysetQuery.setString(3, afterCreatedAt);
+        keysetQuery.setLong(4, afterTripId);
+        keysetQuery.setInt(5, PAGE_SIZE + 1);
+        return read(keysetQuery);
+    }
+
+    private static long read(PreparedStatement query) throws SQLException {
+        long checksum = 0;
+        try (ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                checksum += rows.getLong(1) + rows.getString(7).length();
+            }
+        }
+        return checksum;
+    }
+}
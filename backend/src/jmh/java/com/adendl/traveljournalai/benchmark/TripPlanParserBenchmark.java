@@ -0,0 +1,97 @@
+package com.adendl.traveljournalai.benchmark;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Location;
+import com.adendl.traveljournalai.model.PlaceOfInterest;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.service.TripPlanParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming trip plan parser with the previous tree-based implementation.
+ * Run with {@code ./gradlew jmh -PjmhIncludes=TripPlanParserBenchmark}; the gc profiler
+ * reports gc.alloc.rate.norm, i.e. bytes allocated per parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TripPlanParserBenchmark {
+
+    @Param({"3", "7", "14"})
+    private int days;
+
+    private String completion;
+
+    @Setup
+    public void setUp() {
+        completion = BenchmarkPayloads.completion(days);
+    }
+
+    @Benchmark
+    public TripPlan streamingParser() throws Exception {
+        return TripPlanParser.parseCompletion(completion);
+    }
+
+    @Benchmark
+    public TripPlan treeParser() throws Exception {
+        return parseWithTrees(completion);
+    }
+
+    /**
+     * The parseTripPlan implementation this benchmark replaced: a fresh ObjectMapper per call and two full trees.
+     */
+    private static TripPlan parseWithTrees(String json) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode root = mapper.readTree(json);
+        JsonNode contentNode = root.path("choices").get(0).path("message").path("content");
+        JsonNode tripPlanNode = mapper.readTree(contentNode.asText().trim());
+
+        TripPlan tripPlan = new TripPlan();
+        List<DayPlan> days = new ArrayList<>();
+        for (JsonNode dayNode : tripPlanNode.get("days")) {
+            DayPlan dayPlan = new DayPlan();
+            dayPlan.setTripPlan(tripPlan);
+            dayPlan.setDayNumber(dayNode.get("day").asInt());
+            dayPlan.setStartLocation(location(dayNode.get("startLocation")));
+            dayPlan.setFinishLocation(location(dayNode.get("finishLocation")));
+            dayPlan.setDistanceKm(dayNode.get("distanceKm").asDouble());
+            dayPlan.setIntroduction(dayNode.get("introduction").asText());
+
+            List<PlaceOfInterest> places = new ArrayList<>();
+            for (JsonNode poiNode : dayNode.get("placesOfInterest")) {
+                PlaceOfInterest poi = new PlaceOfInterest();
+                poi.setDayPlan(dayPlan);
+                poi.setName(poiNode.get("name").asText());
+                poi.setDescription(poiNode.get("description").asText());
+                poi.setLatitude(poiNode.get("latitude").asDouble());
+                poi.setLongitude(poiNode.get("longitude").asDouble());
+                places.add(poi);
+            }
+            dayPlan.setPlacesOfInterest(places);
+            days.add(dayPlan);
+        }
+        tripPlan.setDays(days);
+        return tripPlan;
+    }
+
+    private static Location location(JsonNode node) {
+        Location location = new Location();
+        location.setName(node.get("name").asText());
+        location.setLatitude(node.get("latitude").asDouble());
+        location.setLongitude(node.get("longitude").asDouble());
+        return location;
+    }
+}
@@ -0,0 +1,67 @@
+package com.adendl.traveljournalai.config;
+
+import com.adendl.traveljournalai.service.AdaptiveConcurrencyLimiter;
+import com.adendl.traveljournalai.service.LlmHttpClient;
+import com.adendl.traveljournalai.service.LlmRetryPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class LlmHttpClientConfig {
+
+    @Value("${openai.http.connect-timeout-ms:10000}")
+    private long connectTimeoutMs;
+
+    @Value("${openai.http.first-byte-timeout-ms:120000}")
+    private long firstByteTimeoutMs;
+
+    @Value("${openai.http.total-timeout-ms:600000}")
+    private long totalTimeoutMs;
+
+    @Value("${openai.http.max-concurrent-requests-per-host:16}")
+    private int maxConcurrentRequestsPerHost;
+
+    @Value("${openai.http.limiter.initial-limit:8}")
+    private int initialLimit;
+
+    @Value("${openai.http.limiter.min-limit:1}")
+    private int minLimit;
+
+    @Value("${openai.http.limiter.max-queued:64}")
+    private int maxQueued;
+
+    @Value("${openai.http.limiter.backoff-ratio:0.75}")
+    private double backoffRatio;
+
+    @Value("${openai.http.limiter.latency-tolerance:3.0}")
+    private double latencyTolerance;
+
+    @Value("${openai.http.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${openai.http.retry.base-delay-ms:500}")
+    private long baseDelayMs;
+
+    @Value("${openai.http.retry.max-delay-ms:20000}")
+    private long maxDelayMs;
+
+    /**
+     * Client for the LLM provider. The adaptive limit starts at {@code initial-limit} and moves
+     * between {@code min-limit} and {@code max-concurrent-requests-per-host}.
+     */
+    @Bean
+    public LlmHttpClient llmHttpClient(MeterRegistry meterRegistry) {
+        return new LlmHttpClient(
+                LlmHttpClient.newHttpClient(Duration.ofMillis(connectTimeoutMs)),
+                Duration.ofMillis(firstByteTimeoutMs),
+                Duration.ofMillis(totalTimeoutMs),
+                new LlmRetryPolicy(maxAttempts, Duration.ofMillis(baseDelayMs), Duration.ofMillis(maxDelayMs)),
+                new AdaptiveConcurrencyLimiter.Settings(initialLimit, minLimit, maxConcurrentRequestsPerHost,
+                        maxQueued, backoffRatio, latencyTolerance),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.adendl.traveljournalai.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class RouteConfig {
+
+    @Value("${routes.max-concurrent-requests:4}")
+    private int maxConcurrentRequests;
+
+    @Value("${routes.queue-capacity:200}")
+    private int queueCapacity;
+
+    /**
+     * Fetches route legs from the router. The pool size caps how many router calls are in flight
+     * across all trips; when the queue is full the requesting thread fetches the leg itself.
+     */
+    @Bean(name = "routeExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor routeExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "route-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(
+                maxConcurrentRequests,
+                maxConcurrentRequests,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
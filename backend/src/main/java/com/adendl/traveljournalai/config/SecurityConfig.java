@@ -34,6 +34,7 @@ public class SecurityConfig {
                             "/api/entries/public",
                             "/api/entries/share/**",
                             "/api/trips/**",
+                            "/api/places/suggest",
                             "/actuator/health",
                             "/actuator/info"
                         ).permitAll()
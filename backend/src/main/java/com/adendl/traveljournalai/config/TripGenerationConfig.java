@@ -0,0 +1,70 @@
+package com.adendl.traveljournalai.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class TripGenerationConfig {
+
+    @Value("${trips.generation.max-concurrent-jobs:8}")
+    private int maxConcurrentJobs;
+
+    @Value("${trips.generation.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${trips.generation.parallel.max-concurrent-calls:8}")
+    private int maxConcurrentDayCalls;
+
+    @Value("${trips.generation.parallel.queue-capacity:200}")
+    private int dayQueueCapacity;
+
+    /**
+     * Bounded executor that runs trip generations off the request threads.
+     * Submissions beyond the queue capacity are rejected instead of piling up.
+     */
+    @Bean(name = "tripGenerationExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor tripGenerationExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "trip-generation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(
+                maxConcurrentJobs,
+                maxConcurrentJobs,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs the per-day calls of a parallel generation. The pool size caps how many day calls are in
+     * flight across all trips; when the queue is full the generating thread runs the call itself,
+     * so a busy pool slows a trip down instead of failing it.
+     */
+    @Bean(name = "tripDayGenerationExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor tripDayGenerationExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "trip-day-generation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(
+                maxConcurrentDayCalls,
+                maxConcurrentDayCalls,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(dayQueueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
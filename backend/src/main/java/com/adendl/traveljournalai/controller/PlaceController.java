@@ -0,0 +1,90 @@
+package com.adendl.traveljournalai.controller;
+
+import com.adendl.traveljournalai.service.Gazetteer;
+import com.adendl.traveljournalai.service.NearbyPlace;
+import com.adendl.traveljournalai.service.PlaceIndex;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/places")
+public class PlaceController {
+
+    private static final Logger logger = LogManager.getLogger(PlaceController.class);
+
+    @Autowired
+    private Gazetteer gazetteer;
+
+    @Autowired
+    private PlaceIndex placeIndex;
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<PlaceSuggestion>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        logger.debug("Suggesting places for '{}'", query);
+        List<PlaceSuggestion> suggestions = gazetteer.suggest(query, limit).stream()
+                .map(PlaceSuggestion::of)
+                .toList();
+        // The gazetteer only changes on redeploy, so browsers may reuse answers while the user types
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic())
+                .body(suggestions);
+    }
+
+    /**
+     * Places of interest from stored trips within {@code radiusKm} of a point, closest first.
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyPlaceResponse>> nearby(
+            @RequestParam("lat") double latitude,
+            @RequestParam("lon") double longitude,
+            @RequestParam(value = "radiusKm", defaultValue = "10") double radiusKm,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        logger.debug("Finding places within {} km of {}, {}", radiusKm, latitude, longitude);
+        List<NearbyPlaceResponse> places = placeIndex.nearby(latitude, longitude, radiusKm, limit).stream()
+                .map(NearbyPlaceResponse::of)
+                .toList();
+        return ResponseEntity.ok(places);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
+
+/**
+ * @param name What the trip form should send back as the city: resolves to exactly this place
+ */
+record PlaceSuggestion(String name, String displayName, String admin1, String country,
+                       double latitude, double longitude, int population) {
+
+    static PlaceSuggestion of(Gazetteer.City city) {
+        return new PlaceSuggestion(city.canonicalName(), city.name() + ", " + city.admin1() + ", " + city.country(),
+                city.admin1(), city.country(), city.latitude(), city.longitude(), city.population());
+    }
+}
+
+/**
+ * @param distanceKm From the query point, or from the closest point of the route
+ */
+record NearbyPlaceResponse(String name, double latitude, double longitude, double distanceKm) {
+
+    static NearbyPlaceResponse of(NearbyPlace nearby) {
+        return new NearbyPlaceResponse(nearby.place().name(), nearby.place().latitude(), nearby.place().longitude(),
+                Math.round(nearby.distanceKm() * 10) / 10.0);
+    }
+}
@@ -1,22 +1,40 @@
 package com.adendl.traveljournalai.controller;
 
+import com.adendl.traveljournalai.model.DayPlan;
 import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripGenerationJob;
 import com.adendl.traveljournalai.model.User;
 import com.adendl.traveljournalai.repository.UserRepository;
+import com.adendl.traveljournalai.service.DayRoute;
+import com.adendl.traveljournalai.service.PlaceIndex;
+import com.adendl.traveljournalai.service.RouteService;
+import com.adendl.traveljournalai.service.TripGenerationJobService;
+import com.adendl.traveljournalai.service.TripGenerationUnavailableException;
 import com.adendl.traveljournalai.service.TripService;
+import com.adendl.traveljournalai.service.TripAccessDeniedException;
+import com.adendl.traveljournalai.service.TripNotFoundException;
+import com.adendl.traveljournalai.service.TripStreamingService;
+import com.adendl.traveljournalai.service.TripSummaryPage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/trips")
@@ -24,21 +42,40 @@ public class TripController {
 
     private static final Logger logger = LogManager.getLogger(TripController.class);
 
+    /** Routes are simplified to about 60 m before corridor queries, far below any useful radius. */
+    private static final int CORRIDOR_ZOOM = 10;
+
     @Autowired
     private TripService tripService;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TripGenerationJobService tripGenerationJobService;
+
+    @Autowired
+    private TripStreamingService tripStreamingService;
+
+    @Autowired
+    private RouteService routeService;
+
+    @Autowired
+    private PlaceIndex placeIndex;
+
+    @Value("${trips.generation.async-enabled:true}")
+    private boolean asyncGenerationEnabled;
+
     @PostMapping("/create")
-    public ResponseEntity<Trip> createTrip(
+    public ResponseEntity<?> createTrip(
             @RequestHeader("Authorization") String authorizationHeader,
             @RequestBody TripRequest tripRequest) {
         logger.info("Creating new trip from {} to {} for {} days", 
                    tripRequest.getFromCity(), tripRequest.getToCity(), tripRequest.getDays());
         
         String jwtToken = authorizationHeader.replace("Bearer ", "");
-            Trip trip = tripService.createTrip(
+        if (asyncGenerationEnabled) {
+            TripGenerationJob job = tripGenerationJobService.submit(
                     jwtToken,
                     tripRequest.getFromCity(),
                     tripRequest.getToCity(),
@@ -47,8 +84,49 @@ public class TripController {
                     tripRequest.getInterests(),
                     tripRequest.getDistanceKm()
             );
+            logger.info("Accepted trip generation job with ID: {}", job.getJobId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        }
+        Trip trip = tripService.createTrip(
+                jwtToken,
+                tripRequest.getFromCity(),
+                tripRequest.getToCity(),
+                tripRequest.isRoundtrip(),
+                tripRequest.getDays(),
+                tripRequest.getInterests(),
+                tripRequest.getDistanceKm()
+        );
         logger.info("Successfully created trip with ID: {}", trip.getTripId());
-            return ResponseEntity.ok(trip);
+        return ResponseEntity.ok(trip);
+    }
+
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTrip(
+            @RequestHeader("Authorization") String authorizationHeader,
+            @RequestBody TripRequest tripRequest) {
+        logger.info("Streaming new trip from {} to {} for {} days",
+                   tripRequest.getFromCity(), tripRequest.getToCity(), tripRequest.getDays());
+        String jwtToken = authorizationHeader.replace("Bearer ", "");
+        return tripStreamingService.streamTrip(
+                jwtToken,
+                tripRequest.getFromCity(),
+                tripRequest.getToCity(),
+                tripRequest.isRoundtrip(),
+                tripRequest.getDays(),
+                tripRequest.getInterests(),
+                tripRequest.getDistanceKm()
+        );
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<TripGenerationJob> getJob(
+            @PathVariable String jobId,
+            @RequestHeader("Authorization") String authorizationHeader) {
+        logger.debug("Getting trip generation job: {}", jobId);
+        String jwtToken = authorizationHeader.replace("Bearer ", "");
+        return tripGenerationJobService.findJob(jwtToken, jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
     @GetMapping("/user")
@@ -68,6 +146,76 @@ public class TripController {
         return ResponseEntity.ok(trips);
     }
 
+    /**
+     * A page of the caller's trips without their plans, newest first, for the dashboard cards. Pass
+     * the returned {@code nextCursor} back as {@code cursor} for the next page. Plans are fetched
+     * one trip at a time from {@code GET /api/trips/{tripId}}.
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<TripSummaryPage> getUserTripSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        logger.debug("Getting trip summaries for authenticated user");
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth.getName() == null) {
+            logger.warn("Unauthorized access attempt to getUserTripSummaries");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String username = auth.getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        TripSummaryPage page = tripService.getTripSummaries(user, cursor, limit);
+        logger.info("Retrieved {} trip summaries for user: {}", page.trips().size(), username);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/{tripId}")
+    public ResponseEntity<Trip> getTrip(
+            @PathVariable Long tripId,
+            @RequestHeader("Authorization") String authorizationHeader) {
+        logger.debug("Getting trip: {}", tripId);
+        String jwtToken = authorizationHeader.replace("Bearer ", "");
+        return ResponseEntity.ok(tripService.getTrip(jwtToken, tripId));
+    }
+
+    @GetMapping("/{tripId}/routes")
+    public ResponseEntity<List<DayRoute>> getTripRoutes(
+            @PathVariable Long tripId,
+            @RequestParam(defaultValue = "12") int zoom,
+            @RequestHeader("Authorization") String authorizationHeader) {
+        logger.debug("Getting routes for trip: {} at zoom {}", tripId, zoom);
+        String jwtToken = authorizationHeader.replace("Bearer ", "");
+        List<DayPlan> days = tripService.getTripDays(jwtToken, tripId);
+        List<DayRoute> routes = routeService.routesFor(days, zoom);
+        // A trip's days never change, but a straight-line fallback should be retried soon
+        boolean complete = routes.stream().allMatch(DayRoute::routed);
+        return ResponseEntity.ok()
+                .cacheControl(complete ? CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate() : CacheControl.noStore())
+                .body(routes);
+    }
+
+    /**
+     * Places of interest from other trips within {@code radiusKm} of this trip's route, or of one day's leg.
+     */
+    @GetMapping("/{tripId}/nearby-places")
+    public ResponseEntity<List<NearbyPlaceResponse>> getNearbyPlaces(
+            @PathVariable Long tripId,
+            @RequestParam(defaultValue = "20") double radiusKm,
+            @RequestParam(required = false) Integer day,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestHeader("Authorization") String authorizationHeader) {
+        logger.debug("Finding places within {} km of trip {} day {}", radiusKm, tripId, day);
+        String jwtToken = authorizationHeader.replace("Bearer ", "");
+        List<DayPlan> days = tripService.getTripDays(jwtToken, tripId).stream()
+                .filter(dayPlan -> day == null || dayPlan.getDayNumber() == day)
+                .toList();
+        List<double[][]> routes = routeService.geometriesFor(days, CORRIDOR_ZOOM);
+        List<NearbyPlaceResponse> places = placeIndex.nearRoute(routes, radiusKm, tripId, limit).stream()
+                .map(NearbyPlaceResponse::of)
+                .toList();
+        return ResponseEntity.ok(places);
+    }
+
     @DeleteMapping("/{tripId}")
     public ResponseEntity<Void> deleteTrip(
             @PathVariable Long tripId,
@@ -91,6 +239,24 @@ class TripControllerAdvice {
     public ResponseEntity<String> handleBadRequest(HttpMessageNotReadableException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Malformed JSON request");
     }
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejected(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Trip generation is at capacity, please try again shortly");
+    }
+    @ExceptionHandler(TripGenerationUnavailableException.class)
+    public ResponseEntity<String> handleUnavailable(TripGenerationUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body("Trip generation is temporarily unavailable and no saved plan exists for this route, please try again shortly");
+    }
+    @ExceptionHandler(TripNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(TripNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+    @ExceptionHandler(TripAccessDeniedException.class)
+    public ResponseEntity<String> handleAccessDenied(TripAccessDeniedException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ex.getMessage());
+    }
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
@@ -25,4 +25,60 @@ CREATE TABLE journal_entries (
 );
 
 -- Index for geospatial queries
-CREATE INDEX journal_entries_location_idx ON journal_entries USING GIST (location);
\ No newline at end of file
+CREATE INDEX journal_entries_location_idx ON journal_entries USING GIST (location);
+
+-- Persistent tier of the generated trip plan cache
+CREATE TABLE trip_plan_cache (
+    cache_key VARCHAR(1024) PRIMARY KEY,
+    from_city VARCHAR(255) NOT NULL,
+    to_city VARCHAR(255) NOT NULL,
+    roundtrip BOOLEAN NOT NULL,
+    days INTEGER NOT NULL,
+    content TEXT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX trip_plan_cache_route_idx ON trip_plan_cache (from_city, to_city, roundtrip);
+CREATE INDEX trip_plan_cache_created_at_idx ON trip_plan_cache (created_at);
+
+-- Spatial columns of trip plans, written by the application from the latitude and longitude columns.
+-- Run once against an existing database; the backfills cover rows saved before the columns existed.
+ALTER TABLE places_of_interest ADD COLUMN IF NOT EXISTS location GEOGRAPHY(POINT, 4326);
+UPDATE places_of_interest
+SET location = CAST(ST_SetSRID(ST_MakePoint(longitude, latitude), 4326) AS GEOGRAPHY)
+WHERE location IS NULL;
+
+-- ST_DWithin lookups
+CREATE INDEX IF NOT EXISTS places_of_interest_location_idx ON places_of_interest USING GIST (location);
+-- Latitude/longitude box lookups, which are planar in degrees
+CREATE INDEX IF NOT EXISTS places_of_interest_location_geometry_idx ON places_of_interest USING GIST (CAST(location AS GEOMETRY));
+
+ALTER TABLE day_plans ADD COLUMN IF NOT EXISTS route GEOGRAPHY(LINESTRING, 4326);
+UPDATE day_plans
+SET route = CAST(ST_MakeLine(ST_SetSRID(ST_MakePoint(start_longitude, start_latitude), 4326),
+                             ST_SetSRID(ST_MakePoint(finish_longitude, finish_latitude), 4326)) AS GEOGRAPHY)
+WHERE route IS NULL AND start_latitude IS NOT NULL AND finish_latitude IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS day_plans_route_idx ON day_plans USING GIST (route);
+
+-- Keyset pagination of a user's trips, newest first
+CREATE INDEX IF NOT EXISTS trips_user_created_at_idx ON trips (user_id, created_at, trip_id);
+
+-- Trips are paged in string order of created_at, so every value is written with nine fraction
+-- digits (Trip.formatCreatedAt). Rewrites the shorter Instant.toString() forms of existing trips.
+UPDATE trips
+SET created_at = to_char(CAST(created_at AS TIMESTAMPTZ) AT TIME ZONE 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS.US') || '000Z'
+WHERE length(created_at) <> 30;
+
+-- Id sequences of the trip plan tables, which replace their identity columns so Hibernate can batch
+-- the inserts of a plan. Each nextval reserves a block of 50 ids (INCREMENT BY must match the
+-- entities' allocationSize). Run once against an existing database; setval starts each sequence
+-- after the ids already in use.
+CREATE SEQUENCE IF NOT EXISTS trips_seq INCREMENT BY 50;
+SELECT setval('trips_seq', (SELECT COALESCE(MAX(trip_id), 0) + 1 FROM trips), false);
+CREATE SEQUENCE IF NOT EXISTS trip_plans_seq INCREMENT BY 50;
+SELECT setval('trip_plans_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM trip_plans), false);
+CREATE SEQUENCE IF NOT EXISTS day_plans_seq INCREMENT BY 50;
+SELECT setval('day_plans_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM day_plans), false);
+CREATE SEQUENCE IF NOT EXISTS places_of_interest_seq INCREMENT BY 50;
+SELECT setval('places_of_interest_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM places_of_interest), false);
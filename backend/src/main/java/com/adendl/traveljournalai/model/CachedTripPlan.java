@@ -0,0 +1,40 @@
+package com.adendl.traveljournalai.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Persistent tier of the trip plan cache. The plan is stored in the same JSON document format the model returns.
+ */
+@Entity
+@Table(name = "trip_plan_cache", indexes = {
+        @Index(name = "trip_plan_cache_route_idx", columnList = "from_city, to_city, roundtrip"),
+        @Index(name = "trip_plan_cache_created_at_idx", columnList = "created_at")
+})
+@Data
+public class CachedTripPlan {
+
+    @Id
+    @Column(name = "cache_key", length = 1024)
+    private String cacheKey;
+
+    @Column(name = "from_city", nullable = false)
+    private String fromCity;
+
+    @Column(name = "to_city", nullable = false)
+    private String toCity;
+
+    @Column(nullable = false)
+    private boolean roundtrip;
+
+    @Column(nullable = false)
+    private int days;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
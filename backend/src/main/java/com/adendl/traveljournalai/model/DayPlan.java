@@ -1,19 +1,22 @@
 package com.adendl.traveljournalai.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.locationtech.jts.geom.LineString;
 
 import java.util.List;
 
 @Entity
 @Table(name = "day_plans")
 @Data
-@EqualsAndHashCode(exclude = {"tripPlan", "placesOfInterest"})
+@EqualsAndHashCode(exclude = {"tripPlan", "placesOfInterest", "route"})
 public class DayPlan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "day_plans_seq")
+    @SequenceGenerator(name = "day_plans_seq", sequenceName = "day_plans_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -40,9 +43,25 @@ public class DayPlan {
 
     private double distanceKm;
 
+    private double placesOfInterestDistanceKm;
+
     @Column(length = 1000)
     private String introduction;
 
     @OneToMany(mappedBy = "dayPlan", cascade = CascadeType.ALL)
     private List<PlaceOfInterest> placesOfInterest;
+
+    /**
+     * The day's leg from start to finish for spatial queries; geography(LineString, 4326) on PostGIS.
+     * Written from the locations on every insert and update.
+     */
+    @JsonIgnore
+    @Column(name = "route")
+    private LineString route;
+
+    @PrePersist
+    @PreUpdate
+    void updateRoute() {
+        route = SpatialColumns.line(startLocation, finishLocation);
+    }
 }
\ No newline at end of file
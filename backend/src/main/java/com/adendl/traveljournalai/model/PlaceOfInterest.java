@@ -1,17 +1,20 @@
 package com.adendl.traveljournalai.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.locationtech.jts.geom.Point;
 
 @Entity
 @Table(name = "places_of_interest")
 @Data
-@EqualsAndHashCode(exclude = "dayPlan")
+@EqualsAndHashCode(exclude = {"dayPlan", "location"})
 public class PlaceOfInterest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "places_of_interest_seq")
+    @SequenceGenerator(name = "places_of_interest_seq", sequenceName = "places_of_interest_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -22,4 +25,18 @@ public class PlaceOfInterest {
     private String description;
     private double latitude;
     private double longitude;
+
+    /**
+     * Latitude and longitude as a point for spatial queries; geography(Point, 4326) on PostGIS.
+     * Written from the coordinates on every insert and update.
+     */
+    @JsonIgnore
+    @Column(name = "location")
+    private Point location;
+
+    @PrePersist
+    @PreUpdate
+    void updateLocation() {
+        location = SpatialColumns.point(latitude, longitude);
+    }
 }
\ No newline at end of file
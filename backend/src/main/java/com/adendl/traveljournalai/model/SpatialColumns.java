@@ -0,0 +1,37 @@
+package com.adendl.traveljournalai.model;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+
+/**
+ * Builds the values of the spatial columns from the latitude and longitude columns, which stay the
+ * source of truth. JTS coordinates are (x, y), so longitude comes first.
+ */
+final class SpatialColumns {
+
+    static final int WGS84 = 4326;
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), WGS84);
+
+    private SpatialColumns() {
+    }
+
+    static Point point(double latitude, double longitude) {
+        return GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
+    }
+
+    /**
+     * @return The straight line from start to finish, or null unless both are set
+     */
+    static LineString line(Location start, Location finish) {
+        if (start == null || finish == null) {
+            return null;
+        }
+        return GEOMETRY_FACTORY.createLineString(new Coordinate[] {
+                new Coordinate(start.getLongitude(), start.getLatitude()),
+                new Coordinate(finish.getLongitude(), finish.getLatitude())});
+    }
+}
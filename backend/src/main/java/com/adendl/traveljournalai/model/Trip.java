@@ -1,20 +1,33 @@
 package com.adendl.traveljournalai.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @Entity
-@Table(name = "trips")
+@Table(name = "trips", indexes = {
+        // Keyset pagination of a user's trips, newest first
+        @Index(name = "trips_user_created_at_idx", columnList = "user_id, created_at, trip_id")
+})
 @Data
 @EqualsAndHashCode(exclude = {"tripPlans", "user"}) // Exclude tripPlans and user to break circular references
 public class Trip {
 
+    private static final DateTimeFormatter CREATED_AT_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSSSS'Z'").withZone(ZoneOffset.UTC);
+
+    // Sequence ids let Hibernate batch the inserts of a plan, which IDENTITY rules out. Each call
+    // reserves allocationSize ids (pooled-lo, see hibernate.properties); keep it equal to the
+    // sequence's INCREMENT BY in CreateTable.sql.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trips_seq")
+    @SequenceGenerator(name = "trips_seq", sequenceName = "trips_seq", allocationSize = 50)
     private Long tripId;
 
     @Column(nullable = false)
@@ -37,9 +50,14 @@ public class Trip {
     @Column(nullable = false)
     private double distanceKm;
 
+    // Written by formatCreatedAt: trips are paged in string order of this column, which only matches
+    // time order when every value has the same width
     @Column(nullable = false)
     private String createdAt;
 
+    // Never serialized: it would expose the owner's account, and outside a transaction it is an
+    // uninitialized proxy
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -49,4 +67,12 @@ public class Trip {
 
     public Long getTripId() { return tripId; }
 
-}
\ No newline at end of file
+    /**
+     * @return The instant in UTC with all nine fraction digits, e.g. 2025-01-01T10:00:00.500000000Z.
+     * {@link Instant#toString()} drops trailing zero groups of the fraction, so its strings do not sort
+     * in time order within a second.
+     */
+    public static String formatCreatedAt(Instant instant) {
+        return CREATED_AT_FORMAT.format(instant);
+    }
+}
@@ -0,0 +1,29 @@
+package com.adendl.traveljournalai.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+/**
+ * In-memory record of an asynchronous trip generation. Not persisted.
+ */
+@Data
+public class TripGenerationJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private String jobId;
+
+    @JsonIgnore
+    private String username;
+
+    private volatile Status status;
+    private String createdAt;
+    private volatile String completedAt;
+    private volatile Trip trip;
+    private volatile String error;
+}
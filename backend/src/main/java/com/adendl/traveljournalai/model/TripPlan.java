@@ -13,7 +13,8 @@ import java.util.List;
 public class TripPlan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trip_plans_seq")
+    @SequenceGenerator(name = "trip_plans_seq", sequenceName = "trip_plans_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
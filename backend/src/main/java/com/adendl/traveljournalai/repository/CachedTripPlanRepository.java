@@ -0,0 +1,31 @@
+package com.adendl.traveljournalai.repository;
+
+import com.adendl.traveljournalai.model.CachedTripPlan;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CachedTripPlanRepository extends JpaRepository<CachedTripPlan, String> {
+
+    /**
+     * Plans for a route, the ones with the closest number of days first and the newest among equals.
+     */
+    @Query("select c from CachedTripPlan c where c.fromCity = :fromCity and c.toCity = :toCity and c.roundtrip = :roundtrip " +
+            "order by abs(c.days - :days), c.createdAt desc")
+    List<CachedTripPlan> findClosestForRoute(@Param("fromCity") String fromCity,
+                                             @Param("toCity") String toCity,
+                                             @Param("roundtrip") boolean roundtrip,
+                                             @Param("days") int days,
+                                             Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("delete from CachedTripPlan c where c.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -3,5 +3,5 @@ package com.adendl.traveljournalai.repository;
 import com.adendl.traveljournalai.model.DayPlan;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface DayPlanRepository extends JpaRepository<DayPlan, Long> {
+public interface DayPlanRepository extends JpaRepository<DayPlan, Long>, DayPlanSpatialQueries {
 }
\ No newline at end of file
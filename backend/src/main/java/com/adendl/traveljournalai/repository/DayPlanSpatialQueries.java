@@ -0,0 +1,17 @@
+package com.adendl.traveljournalai.repository;
+
+import com.adendl.traveljournalai.model.DayPlan;
+
+import java.util.List;
+
+/**
+ * Spatial lookups of day legs. On PostGIS they use the GIST index on the route column; elsewhere
+ * they are answered from the start and finish columns.
+ */
+public interface DayPlanSpatialQueries {
+
+    /**
+     * @return The days whose start to finish leg passes within {@code radiusKm} of the point, closest first
+     */
+    List<DayPlan> findLegsWithinDistance(double latitude, double longitude, double radiusKm);
+}
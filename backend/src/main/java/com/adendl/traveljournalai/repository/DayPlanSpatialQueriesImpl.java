@@ -0,0 +1,60 @@
+package com.adendl.traveljournalai.repository;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.service.GeometryService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Comparator;
+import java.util.List;
+
+class DayPlanSpatialQueriesImpl implements DayPlanSpatialQueries {
+
+    // Measured on the sphere rather than the spheroid so PostGIS and the fallback agree
+    private static final String LEGS_WITHIN_DISTANCE_POSTGIS = "select d.* from day_plans d " +
+            "where ST_DWithin(d.route, cast(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) as geography), :radiusMetres, false) " +
+            "order by ST_Distance(d.route, cast(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) as geography), false), d.id";
+
+    // Legs whose own bounding box overlaps the padded box around the point. A leg crossing the
+    // antimeridian has no such box in plain longitudes, so only its latitudes are compared.
+    private static final String LEGS_NEAR_BOX = "select d from DayPlan d " +
+            "where least(d.startLocation.latitude, d.finishLocation.latitude) <= :maxLatitude " +
+            "and greatest(d.startLocation.latitude, d.finishLocation.latitude) >= :minLatitude " +
+            "and ((least(d.startLocation.longitude, d.finishLocation.longitude) <= :maxLongitude " +
+            "and greatest(d.startLocation.longitude, d.finishLocation.longitude) >= :minLongitude) " +
+            "or abs(d.startLocation.longitude - d.finishLocation.longitude) > 180)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<DayPlan> findLegsWithinDistance(double latitude, double longitude, double radiusKm) {
+        if (SpatialDialect.isPostgis(entityManager)) {
+            return entityManager.createNativeQuery(LEGS_WITHIN_DISTANCE_POSTGIS, DayPlan.class)
+                    .setParameter("latitude", latitude)
+                    .setParameter("longitude", longitude)
+                    .setParameter("radiusMetres", radiusKm * 1000)
+                    .getResultList();
+        }
+        return GeometryService.boundingBoxes(latitude, longitude, latitude, longitude, radiusKm).stream()
+                .flatMap(box -> entityManager.createQuery(LEGS_NEAR_BOX, DayPlan.class)
+                        .setParameter("minLatitude", box[0])
+                        .setParameter("minLongitude", box[1])
+                        .setParameter("maxLatitude", box[2])
+                        .setParameter("maxLongitude", box[3])
+                        .getResultList().stream())
+                // A leg crossing the antimeridian matches both halves of a box that does
+                .distinct()
+                .filter(day -> distanceKm(day, latitude, longitude) <= radiusKm)
+                .sorted(Comparator.comparingDouble((DayPlan day) -> distanceKm(day, latitude, longitude))
+                        .thenComparing(DayPlan::getId))
+                .toList();
+    }
+
+    private static double distanceKm(DayPlan day, double latitude, double longitude) {
+        return GeometryService.segmentDistanceKm(latitude, longitude,
+                new double[] {day.getStartLocation().getLatitude(), day.getStartLocation().getLongitude()},
+                new double[] {day.getFinishLocation().getLatitude(), day.getFinishLocation().getLongitude()});
+    }
+}
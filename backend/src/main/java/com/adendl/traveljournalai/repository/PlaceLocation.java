@@ -0,0 +1,12 @@
+package com.adendl.traveljournalai.repository;
+
+/**
+ * Where a place of interest is and which trip it belongs to, without loading the entity graph.
+ */
+public interface PlaceLocation {
+    Long getId();
+    Long getTripId();
+    String getName();
+    double getLatitude();
+    double getLongitude();
+}
@@ -1,7 +1,21 @@
 package com.adendl.traveljournalai.repository;
 
 import com.adendl.traveljournalai.model.PlaceOfInterest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface PlaceOfInterestRepository extends JpaRepository<PlaceOfInterest, Long> {
-}
\ No newline at end of file
+import java.util.List;
+
+public interface PlaceOfInterestRepository extends JpaRepository<PlaceOfInterest, Long>, PlaceOfInterestSpatialQueries {
+
+    /**
+     * One page of every place of interest with an id above {@code afterId}, in id order, for walking
+     * the whole table in batches.
+     */
+    @Query("select p.id as id, t.tripId as tripId, p.name as name, p.latitude as latitude, p.longitude as longitude " +
+            "from PlaceOfInterest p join p.dayPlan d join d.tripPlan tp join tp.trip t " +
+            "where p.id > :afterId order by p.id")
+    List<PlaceLocation> findLocationsAfter(@Param("afterId") long afterId, Pageable pageable);
+}
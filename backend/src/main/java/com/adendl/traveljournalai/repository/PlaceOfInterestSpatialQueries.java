@@ -0,0 +1,22 @@
+package com.adendl.traveljournalai.repository;
+
+import com.adendl.traveljournalai.model.PlaceOfInterest;
+
+import java.util.List;
+
+/**
+ * Spatial lookups of places of interest. On PostGIS they use the GIST indexes on the location
+ * column; elsewhere they are answered from the latitude and longitude columns with the same results.
+ */
+public interface PlaceOfInterestSpatialQueries {
+
+    /**
+     * @return The places inside the latitude and longitude box, edges included, in id order
+     */
+    List<PlaceOfInterest> findWithinBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude);
+
+    /**
+     * @return The places within {@code radiusKm} great-circle distance of the point, closest first
+     */
+    List<PlaceOfInterest> findWithinDistance(double latitude, double longitude, double radiusKm);
+}
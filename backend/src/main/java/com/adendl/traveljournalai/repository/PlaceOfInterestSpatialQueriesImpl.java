@@ -0,0 +1,72 @@
+package com.adendl.traveljournalai.repository;
+
+import com.adendl.traveljournalai.model.PlaceOfInterest;
+import com.adendl.traveljournalai.service.GeometryService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Comparator;
+import java.util.List;
+
+class PlaceOfInterestSpatialQueriesImpl implements PlaceOfInterestSpatialQueries {
+
+    // Planar in degrees, so it uses the expression index on location::geometry; the geography index
+    // would treat the box edges as great circles
+    private static final String WITHIN_BOX_POSTGIS = "select p.* from places_of_interest p " +
+            "where cast(p.location as geometry) && ST_MakeEnvelope(:minLongitude, :minLatitude, :maxLongitude, :maxLatitude, 4326) " +
+            "order by p.id";
+
+    // Measured on the sphere rather than the spheroid so PostGIS and the fallback agree
+    private static final String WITHIN_DISTANCE_POSTGIS = "select p.* from places_of_interest p " +
+            "where ST_DWithin(p.location, cast(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) as geography), :radiusMetres, false) " +
+            "order by ST_Distance(p.location, cast(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) as geography), false), p.id";
+
+    private static final String WITHIN_BOX = "select p from PlaceOfInterest p " +
+            "where p.latitude between :minLatitude and :maxLatitude and p.longitude between :minLongitude and :maxLongitude " +
+            "order by p.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<PlaceOfInterest> findWithinBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        if (SpatialDialect.isPostgis(entityManager)) {
+            return entityManager.createNativeQuery(WITHIN_BOX_POSTGIS, PlaceOfInterest.class)
+                    .setParameter("minLatitude", minLatitude)
+                    .setParameter("minLongitude", minLongitude)
+                    .setParameter("maxLatitude", maxLatitude)
+                    .setParameter("maxLongitude", maxLongitude)
+                    .getResultList();
+        }
+        return entityManager.createQuery(WITHIN_BOX, PlaceOfInterest.class)
+                .setParameter("minLatitude", minLatitude)
+                .setParameter("minLongitude", minLongitude)
+                .setParameter("maxLatitude", maxLatitude)
+                .setParameter("maxLongitude", maxLongitude)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<PlaceOfInterest> findWithinDistance(double latitude, double longitude, double radiusKm) {
+        if (SpatialDialect.isPostgis(entityManager)) {
+            return entityManager.createNativeQuery(WITHIN_DISTANCE_POSTGIS, PlaceOfInterest.class)
+                    .setParameter("latitude", latitude)
+                    .setParameter("longitude", longitude)
+                    .setParameter("radiusMetres", radiusKm * 1000)
+                    .getResultList();
+        }
+        // The padded box narrows the scan, the exact distance decides
+        return GeometryService.boundingBoxes(latitude, longitude, latitude, longitude, radiusKm).stream()
+                .flatMap(box -> findWithinBox(box[0], box[1], box[2], box[3]).stream())
+                .filter(place -> distanceKm(place, latitude, longitude) <= radiusKm)
+                .sorted(Comparator.comparingDouble((PlaceOfInterest place) -> distanceKm(place, latitude, longitude))
+                        .thenComparing(PlaceOfInterest::getId))
+                .toList();
+    }
+
+    private static double distanceKm(PlaceOfInterest place, double latitude, double longitude) {
+        return GeometryService.haversineKm(latitude, longitude, place.getLatitude(), place.getLongitude());
+    }
+}
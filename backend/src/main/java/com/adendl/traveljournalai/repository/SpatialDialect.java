@@ -0,0 +1,20 @@
+package com.adendl.traveljournalai.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Tells the spatial repository methods whether they run against PostGIS or have to fall back to
+ * the plain latitude and longitude columns (H2 in tests, development and load testing).
+ */
+final class SpatialDialect {
+
+    private SpatialDialect() {
+    }
+
+    static boolean isPostgis(EntityManager entityManager) {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+}
@@ -0,0 +1,9 @@
+package com.adendl.traveljournalai.repository;
+
+/**
+ * One interest of one trip.
+ */
+public interface TripInterest {
+    Long getTripId();
+    String getInterest();
+}
@@ -1,11 +1,104 @@
 package com.adendl.traveljournalai.repository;
 
+import com.adendl.traveljournalai.model.DayPlan;
 import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
 import com.adendl.traveljournalai.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface TripRepository extends JpaRepository<Trip, Long> {
     List<Trip> findByUser(User user);
-}
\ No newline at end of file
+
+    /**
+     * A user's trips with their interests, plans, days and places of interest all loaded, in four
+     * queries however many trips there are.
+     */
+    @Transactional(readOnly = true)
+    default List<Trip> findByUserWithPlans(User user) {
+        return fetchPlanGraph(findWithTripPlansByUser(user));
+    }
+
+    /**
+     * One trip with its interests, plans, days and places of interest all loaded.
+     */
+    @Transactional(readOnly = true)
+    default Optional<Trip> findByIdWithPlans(Long tripId) {
+        return fetchPlanGraph(findWithTripPlansById(tripId)).stream().findFirst();
+    }
+
+    /**
+     * Loads the rest of the plan graph of trips fetched with their plans, in the caller's
+     * transaction. The collections are lists, and Hibernate can fetch only one list per query, so
+     * each level is fetched by its own query and joins the entities the previous one loaded.
+     */
+    default List<Trip> fetchPlanGraph(List<Trip> trips) {
+        if (trips.isEmpty()) {
+            return trips;
+        }
+        fetchInterests(trips);
+        // Null only for trips saved without plans in the current persistence context
+        List<TripPlan> tripPlans = trips.stream()
+                .filter(trip -> trip.getTripPlans() != null)
+                .flatMap(trip -> trip.getTripPlans().stream())
+                .toList();
+        if (tripPlans.isEmpty()) {
+            return trips;
+        }
+        List<DayPlan> days = fetchDays(tripPlans).stream()
+                .filter(tripPlan -> tripPlan.getDays() != null)
+                .flatMap(tripPlan -> tripPlan.getDays().stream())
+                .toList();
+        if (!days.isEmpty()) {
+            fetchPlacesOfInterest(days);
+        }
+        return trips;
+    }
+
+    String SUMMARY_COLUMNS = "select t.tripId as tripId, t.fromCity as fromCity, t.toCity as toCity, " +
+            "t.roundtrip as roundtrip, t.days as days, t.distanceKm as distanceKm, t.createdAt as createdAt ";
+
+    /**
+     * The first page of a user's trips without their plans, newest first. Read later pages with
+     * {@link #findSummariesByUserAfter} rather than an offset.
+     */
+    @Query(SUMMARY_COLUMNS + "from Trip t where t.user = :user order by t.createdAt desc, t.tripId desc")
+    List<TripSummaryRow> findSummariesByUser(@Param("user") User user, Pageable pageable);
+
+    /**
+     * The page of a user's trips after the given one, in the order of {@link #findSummariesByUser}.
+     * It seeks into the trips (user_id, created_at, trip_id) index, so it costs the same however
+     * deep the page; the redundant {@code createdAt <= :createdAt} gives the index scan its bound,
+     * which the {@code or} alone would not.
+     */
+    @Query(SUMMARY_COLUMNS + "from Trip t where t.user = :user and t.createdAt <= :createdAt " +
+            "and (t.createdAt < :createdAt or t.tripId < :tripId) " +
+            "order by t.createdAt desc, t.tripId desc")
+    List<TripSummaryRow> findSummariesByUserAfter(@Param("user") User user, @Param("createdAt") String createdAt,
+                                                  @Param("tripId") Long tripId, Pageable pageable);
+
+    @Query("select t.tripId as tripId, i as interest from Trip t join t.interests i where t.tripId in :tripIds")
+    List<TripInterest> findInterestsByTripIds(@Param("tripIds") Collection<Long> tripIds);
+
+    @Query("select t from Trip t left join fetch t.tripPlans where t.user = :user")
+    List<Trip> findWithTripPlansByUser(@Param("user") User user);
+
+    @Query("select t from Trip t left join fetch t.tripPlans where t.tripId = :tripId")
+    List<Trip> findWithTripPlansById(@Param("tripId") Long tripId);
+
+    @Query("select t from Trip t left join fetch t.interests where t in :trips")
+    List<Trip> fetchInterests(@Param("trips") Collection<Trip> trips);
+
+    @Query("select tp from TripPlan tp left join fetch tp.days where tp in :tripPlans")
+    List<TripPlan> fetchDays(@Param("tripPlans") Collection<TripPlan> tripPlans);
+
+    @Query("select d from DayPlan d left join fetch d.placesOfInterest where d in :days")
+    List<DayPlan> fetchPlacesOfInterest(@Param("days") Collection<DayPlan> days);
+}
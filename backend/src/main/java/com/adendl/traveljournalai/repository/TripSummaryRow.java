@@ -0,0 +1,14 @@
+package com.adendl.traveljournalai.repository;
+
+/**
+ * The columns of a trip shown on a dashboard card, without its plan.
+ */
+public interface TripSummaryRow {
+    Long getTripId();
+    String getFromCity();
+    String getToCity();
+    boolean isRoundtrip();
+    int getDays();
+    double getDistanceKm();
+    String getCreatedAt();
+}
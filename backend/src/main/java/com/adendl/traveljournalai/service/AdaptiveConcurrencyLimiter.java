@@ -0,0 +1,201 @@
+package com.adendl.traveljournalai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limit for calls to one upstream host. The limit grows by roughly one per
+ * round of successful calls while it is being used, and is cut multiplicatively when the host
+ * signals overload: a rate limit or overload status, a timeout, or a latency spike well above the
+ * smoothed latency. Latency is the time to the first byte of the response, which does not depend
+ * on how long an answer is, so short and long calls can share a limiter. Callers over the limit
+ * wait in a bounded queue until a deadline.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    /**
+     * How a call that held a permit ended, which decides how the limit moves.
+     */
+    public enum Outcome {
+        /** The call succeeded; its latency is sampled. */
+        SUCCESS,
+        /** The host signalled overload; the limit is decreased. */
+        DROPPED,
+        /** The call failed for a reason unrelated to load; the limit is left alone. */
+        IGNORED
+    }
+
+    /**
+     * @param initialLimit Concurrent calls allowed before any feedback
+     * @param minLimit The limit never drops below this
+     * @param maxLimit The limit never grows above this
+     * @param maxQueued Callers allowed to wait for a permit; more are rejected immediately
+     * @param backoffRatio Multiplier applied to the limit on overload, e.g. 0.75
+     * @param latencyTolerance A success whose first byte is slower than this multiple of the smoothed latency counts as overload
+     */
+    public record Settings(int initialLimit, int minLimit, int maxLimit, int maxQueued, double backoffRatio, double latencyTolerance) {
+    }
+
+    private static final double LATENCY_SMOOTHING = 0.1;
+
+    private final String name;
+    private final Settings settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private double smoothedLatencyNanos;
+
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+    private final Counter decreases;
+
+    public AdaptiveConcurrencyLimiter(String name, Settings settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.limit = Math.max(settings.minLimit(), Math.min(settings.maxLimit(), settings.initialLimit()));
+
+        Gauge.builder("llm.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit).tag("host", name).register(meterRegistry);
+        Gauge.builder("llm.limiter.in-flight", this, AdaptiveConcurrencyLimiter::getInFlight).tag("host", name).register(meterRegistry);
+        Gauge.builder("llm.limiter.queued", this, AdaptiveConcurrencyLimiter::getQueued).tag("host", name).register(meterRegistry);
+        this.queueFullRejections = meterRegistry.counter("llm.limiter.rejections", "host", name, "reason", "queue-full");
+        this.timeoutRejections = meterRegistry.counter("llm.limiter.rejections", "host", name, "reason", "timeout");
+        this.decreases = meterRegistry.counter("llm.limiter.decreases", "host", name);
+    }
+
+    /**
+     * Takes a permit, waiting in the queue if the limit is reached.
+     * @param deadlineNanos {@link System#nanoTime()} value after which the caller gives up
+     * @return A permit that must be released exactly once
+     * @throws LlmHttpException When the queue is full, the deadline passes, or the thread is interrupted
+     */
+    public Permit acquire(long deadlineNanos) {
+        lock.lock();
+        try {
+            if (inFlight >= currentLimit()) {
+                if (queued >= settings.maxQueued()) {
+                    queueFullRejections.increment();
+                    throw new LlmHttpException(0, "Too many concurrent requests to " + name + ", wait queue is full");
+                }
+                queued++;
+                try {
+                    long remaining = deadlineNanos - System.nanoTime();
+                    while (inFlight >= currentLimit()) {
+                        if (remaining <= 0) {
+                            timeoutRejections.increment();
+                            throw new LlmHttpException(0, "Too many concurrent requests to " + name);
+                        }
+                        remaining = permitReleased.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new LlmHttpException("Interrupted while waiting to call " + name, e);
+                } finally {
+                    queued--;
+                }
+            }
+            inFlight++;
+            return new Permit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private void release(Outcome outcome, long latencyNanos) {
+        lock.lock();
+        try {
+            // Only grow when the limit is actually being used, otherwise it drifts up while idle
+            boolean utilised = inFlight * 2 >= limit;
+            inFlight--;
+            switch (outcome) {
+                case SUCCESS -> {
+                    boolean spike = smoothedLatencyNanos > 0 && latencyNanos > smoothedLatencyNanos * settings.latencyTolerance();
+                    smoothedLatencyNanos = smoothedLatencyNanos == 0
+                            ? latencyNanos
+                            : smoothedLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - smoothedLatencyNanos);
+                    if (spike) {
+                        decrease();
+                    } else if (utilised) {
+                        limit = Math.min(settings.maxLimit(), limit + 1.0 / limit);
+                    }
+                }
+                case DROPPED -> decrease();
+                case IGNORED -> {
+                }
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease() {
+        decreases.increment();
+        limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyLimiter[" + name + ", limit=" + String.format("%.2f", getLimit()) + "]";
+    }
+
+    /**
+     * One call's share of the limit.
+     */
+    public final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        /**
+         * Returns the permit and feeds the outcome back into the limit. Later calls are ignored.
+         * @param outcome How the call ended
+         * @param latencyNanos Time from sending the request to the response headers, used for {@link Outcome#SUCCESS}
+         */
+        public void release(Outcome outcome, long latencyNanos) {
+            if (released.compareAndSet(false, true)) {
+                AdaptiveConcurrencyLimiter.this.release(outcome, latencyNanos);
+            }
+        }
+    }
+}
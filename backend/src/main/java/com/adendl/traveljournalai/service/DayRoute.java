@@ -0,0 +1,9 @@
+package com.adendl.traveljournalai.service;
+
+/**
+ * The driving route of one day of a trip, as returned by {@code GET /api/trips/{id}/routes}.
+ * @param routed False when the router failed or timed out and the polyline is the straight line
+ * @param polyline Google encoded polyline from the day's start to its finish, simplified for the requested zoom
+ */
+public record DayRoute(int dayNumber, double distanceKm, boolean routed, String polyline) {
+}
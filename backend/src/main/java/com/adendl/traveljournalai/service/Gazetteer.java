@@ -0,0 +1,241 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Resolves free-text city names to known places before any plan is generated. The dataset (a
+ * GeoNames style cities file) is compiled once into a {@link GazetteerIndex} file, in the temp
+ * directory unless configured, and memory-mapped: restarts only re-map it, and the names,
+ * coordinates and populations stay off the heap. Lookups ignore case, accents and punctuation,
+ * and pick the most populous match unless the query names its state or country, as in "Perth, SCT".
+ */
+@Component
+public class Gazetteer {
+
+    private static final Logger logger = LoggingUtils.getLogger(Gazetteer.class);
+
+    /** Most suggestions returned for one prefix. */
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private final GazetteerIndex index;
+    private final PrefixRanking ranking;
+    private final boolean rejectUnknown;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * A resolved city.
+     * @param primary True when this is the most populous city of its name, so the bare name resolves to it
+     */
+    public record City(int id, String name, String admin1, String country,
+                       double latitude, double longitude, int population, boolean primary) {
+
+        /**
+         * @return The name that resolves back to this city: the bare name for primary cities, else qualified by state and country
+         */
+        public String canonicalName() {
+            return primary ? name : name + ", " + admin1 + ", " + country;
+        }
+    }
+
+    @Autowired
+    public Gazetteer(MeterRegistry meterRegistry,
+                     @Value("${gazetteer.dataset:classpath:gazetteer/cities.tsv}") Resource dataset,
+                     @Value("${gazetteer.index-file:}") String indexFile,
+                     @Value("${gazetteer.reject-unknown:false}") boolean rejectUnknown) {
+        this.rejectUnknown = rejectUnknown;
+        long startTime = System.nanoTime();
+        boolean built;
+        try {
+            byte[] source;
+            try (InputStream in = dataset.getInputStream()) {
+                source = in.readAllBytes();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(source);
+            long checksum = crc.getValue();
+            Path file = indexFile == null || indexFile.isBlank()
+                    ? Path.of(System.getProperty("java.io.tmpdir"), "roadtrip-gazetteer-" + Long.toHexString(checksum) + ".idx")
+                    : Path.of(indexFile);
+
+            built = GazetteerIndex.readSourceChecksum(file) != checksum;
+            if (built) {
+                GazetteerIndex.write(GazetteerIndex.parse(new ByteArrayInputStream(source)), checksum, file);
+            }
+            this.index = GazetteerIndex.open(file);
+            this.ranking = new PrefixRanking(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load gazetteer from " + dataset.getDescription(), e);
+        }
+        Duration loadTime = Duration.ofNanos(System.nanoTime() - startTime);
+
+        meterRegistry.timer("gazetteer.load", "index", built ? "built" : "mapped").record(loadTime);
+        Gauge.builder("gazetteer.cities", index, GazetteerIndex::cityCount).register(meterRegistry);
+        Gauge.builder("gazetteer.index.bytes", index, GazetteerIndex::byteSize).register(meterRegistry);
+        this.hits = meterRegistry.counter("gazetteer.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("gazetteer.lookups", "result", "miss");
+
+        logger.info("Gazetteer {} index of {} cities and {} names in {} ms: {} KB mapped off-heap, {} KB prefix ranking on heap, from {}",
+                built ? "built" : "mapped", index.cityCount(), index.nameCount(), loadTime.toMillis(),
+                index.byteSize() / 1024, ranking.heapBytes() / 1024, dataset.getDescription());
+    }
+
+    /**
+     * @param query A city name, optionally followed by comma separated state and country codes, e.g. "Portland, VIC"
+     * @return The most populous city of that name that matches every qualifier
+     */
+    public Optional<City> resolve(String query) {
+        if (query == null) {
+            return Optional.empty();
+        }
+        String[] parts = query.split(",");
+        byte[] key = normalize(parts[0]).getBytes(StandardCharsets.UTF_8);
+        List<String> qualifiers = new ArrayList<>();
+        for (int i = 1; i < parts.length; i++) {
+            String qualifier = normalize(parts[i]);
+            if (!qualifier.isEmpty()) {
+                qualifiers.add(qualifier);
+            }
+        }
+
+        if (key.length > 0) {
+            // Entries of one key are ordered by city id, which is by population descending
+            for (int entry = index.lowerBound(key); entry < index.nameCount() && index.keyEquals(entry, key); entry++) {
+                int city = index.nameCity(entry);
+                if (matches(city, qualifiers)) {
+                    hits.increment();
+                    return Optional.of(city(city));
+                }
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Autocomplete for city names: the most populous cities with a name or alternate name starting
+     * with {@code prefix}, each city once. Anything from the first comma on is ignored.
+     * @param limit Suggestions wanted, capped at {@link #MAX_SUGGESTIONS}
+     * @return Matching cities, most populous first; empty for a blank prefix
+     */
+    public List<City> suggest(String prefix, int limit) {
+        if (prefix == null || limit <= 0) {
+            return List.of();
+        }
+        int comma = prefix.indexOf(',');
+        byte[] key = normalize(comma < 0 ? prefix : prefix.substring(0, comma)).getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0) {
+            return List.of();
+        }
+        int[] cities = new int[Math.min(limit, MAX_SUGGESTIONS)];
+        int count = ranking.top(index.lowerBound(key), index.prefixEnd(key), cities);
+        List<City> suggestions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            suggestions.add(city(cities[i]));
+        }
+        return suggestions;
+    }
+
+    /**
+     * @param query A city name as typed by the user
+     * @return The canonical name of the city, which is also what trips and plan cache keys store
+     * @throws IllegalArgumentException When the city is unknown and unknown cities are rejected
+     */
+    public String canonicalName(String query) {
+        Optional<City> city = resolve(query);
+        if (city.isPresent()) {
+            return city.get().canonicalName();
+        }
+        if (rejectUnknown) {
+            throw new IllegalArgumentException("Unknown city: " + (query == null ? "" : query.trim()));
+        }
+        logger.warn("City '{}' is not in the gazetteer; using it as typed", query);
+        return query == null ? null : query.trim();
+    }
+
+    /**
+     * @return The number of cities in the index
+     */
+    public int size() {
+        return index.cityCount();
+    }
+
+    City city(int id) {
+        return new City(id, index.name(id), index.admin1(id), index.country(id),
+                index.latitude(id), index.longitude(id), index.population(id), index.isPrimary(id));
+    }
+
+    private boolean matches(int city, List<String> qualifiers) {
+        for (String qualifier : qualifiers) {
+            if (!qualifier.equals(normalize(index.admin1(city))) && !qualifier.equals(normalize(index.country(city)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lookup key of a name: accents stripped, lower case, and runs of anything but letters and
+     * digits collapsed to one space, so "Wagga-Wagga" and "wagga wagga" are the same key.
+     */
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String text = isAscii(name) ? name : Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(text.length());
+        boolean separator = false;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isMark(codePoint)) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (separator && !key.isEmpty()) {
+                    key.append(' ');
+                }
+                separator = false;
+                key.appendCodePoint(Character.toLowerCase(codePoint));
+            } else {
+                separator = true;
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isMark(int codePoint) {
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK;
+    }
+}
@@ -0,0 +1,366 @@
+package com.adendl.traveljournalai.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only, memory-mapped binary index of the gazetteer. Every city is a fixed size record of
+ * primitives and every name under which it can be found is an 8 byte entry in a table sorted by
+ * its normalized key, so a lookup is a binary search over the mapped file and allocates nothing
+ * but the decoded result. The index lives outside the heap and is paged in by the OS.
+ * <pre>
+ * header   magic, version, source checksum (long), city count, name count, names offset, strings offset
+ * cities   latitude (float), longitude (float), population, name, admin1, country, flags; by population descending
+ * names    key, city id; by key (unsigned bytes), then city id
+ * strings  length (unsigned short) followed by UTF-8 bytes
+ * </pre>
+ */
+final class GazetteerIndex {
+
+    static final int MAGIC = 0x475A5431;
+    static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 32;
+    private static final int CITY_BYTES = 28;
+    private static final int NAME_BYTES = 8;
+    private static final int PRIMARY = 1;
+
+    private final ByteBuffer buffer;
+    private final long sourceChecksum;
+    private final int cityCount;
+    private final int nameCount;
+    private final int namesOffset;
+    private final int stringsOffset;
+
+    private GazetteerIndex(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a gazetteer index of version " + VERSION);
+        }
+        this.buffer = buffer;
+        this.sourceChecksum = buffer.getLong(8);
+        this.cityCount = buffer.getInt(16);
+        this.nameCount = buffer.getInt(20);
+        this.namesOffset = buffer.getInt(24);
+        this.stringsOffset = buffer.getInt(28);
+    }
+
+    /**
+     * One row of the source dataset.
+     */
+    record Row(String name, String asciiName, List<String> alternateNames,
+               double latitude, double longitude, String country, String admin1, int population) {
+    }
+
+    /**
+     * Maps an index written by {@link #write}. The mapping stays valid after the channel is closed.
+     */
+    static GazetteerIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new GazetteerIndex(mapped);
+        }
+    }
+
+    /**
+     * Parses tab separated rows, either the full 19 column GeoNames format (cities500.txt and friends)
+     * or the 8 column subset of the bundled dataset. Blank lines and lines starting with '#' are skipped.
+     */
+    static List<Row> parse(InputStream dataset) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(dataset, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            try {
+                if (columns.length >= 15) {
+                    rows.add(row(columns[1], columns[2], columns[3], columns[4], columns[5], columns[8], columns[10], columns[14]));
+                } else if (columns.length == 8) {
+                    rows.add(row(columns[0], columns[1], columns[2], columns[3], columns[4], columns[5], columns[6], columns[7]));
+                } else {
+                    throw new IllegalArgumentException("expected 8 or 19 columns but found " + columns.length);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid gazetteer row at line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return rows;
+    }
+
+    private static Row row(String name, String asciiName, String alternateNames, String latitude, String longitude,
+                           String country, String admin1, String population) {
+        List<String> alternates = alternateNames.isBlank() ? List.of() : Arrays.asList(alternateNames.split(","));
+        return new Row(name, asciiName, alternates, Double.parseDouble(latitude), Double.parseDouble(longitude),
+                country, admin1, population.isBlank() ? 0 : (int) Math.min(Integer.MAX_VALUE, Long.parseLong(population)));
+    }
+
+    /**
+     * Builds the index of {@code rows} and writes it to {@code file}, replacing it atomically so a
+     * concurrent reader never maps a partial file.
+     */
+    static void write(List<Row> rows, long sourceChecksum, Path file) throws IOException {
+        List<Row> cities = new ArrayList<>(rows);
+        cities.sort(Comparator.comparingInt(Row::population).reversed());
+
+        Strings strings = new Strings();
+        int[] nameRefs = new int[cities.size()];
+        int[] admin1Refs = new int[cities.size()];
+        int[] countryRefs = new int[cities.size()];
+        List<NameEntry> names = new ArrayList<>();
+        for (int id = 0; id < cities.size(); id++) {
+            Row city = cities.get(id);
+            nameRefs[id] = strings.ref(city.name());
+            admin1Refs[id] = strings.ref(city.admin1());
+            countryRefs[id] = strings.ref(city.country());
+            Set<String> keys = new LinkedHashSet<>();
+            keys.add(Gazetteer.normalize(city.name()));
+            keys.add(Gazetteer.normalize(city.asciiName()));
+            for (String alternate : city.alternateNames()) {
+                keys.add(Gazetteer.normalize(alternate));
+            }
+            for (String key : keys) {
+                if (!key.isEmpty()) {
+                    names.add(new NameEntry(strings.ref(key), key.getBytes(StandardCharsets.UTF_8), id));
+                }
+            }
+        }
+        names.sort(NameEntry.ORDER);
+
+        // A city is primary when it is the most populous holder of its own name
+        Map<String, Integer> firstHolder = new HashMap<>();
+        for (NameEntry entry : names) {
+            firstHolder.putIfAbsent(new String(entry.key(), StandardCharsets.UTF_8), entry.cityId());
+        }
+
+        int namesOffset = HEADER_BYTES + CITY_BYTES * cities.size();
+        int stringsOffset = namesOffset + NAME_BYTES * names.size();
+        ByteBuffer out = ByteBuffer.allocate(stringsOffset + strings.size());
+        out.putInt(MAGIC).putInt(VERSION).putLong(sourceChecksum)
+                .putInt(cities.size()).putInt(names.size()).putInt(namesOffset).putInt(stringsOffset);
+        for (int id = 0; id < cities.size(); id++) {
+            Row city = cities.get(id);
+            Integer holder = firstHolder.get(Gazetteer.normalize(city.name()));
+            boolean primary = holder != null && holder == id;
+            out.putFloat((float) city.latitude()).putFloat((float) city.longitude()).putInt(city.population())
+                    .putInt(nameRefs[id]).putInt(admin1Refs[id]).putInt(countryRefs[id]).putInt(primary ? PRIMARY : 0);
+        }
+        for (NameEntry entry : names) {
+            out.putInt(entry.keyRef()).putInt(entry.cityId());
+        }
+        strings.writeTo(out);
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        Files.write(temporary, out.array());
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return The checksum stored in the header of {@code file}, or -1 when it is not a readable index of this version
+     */
+    static long readSourceChecksum(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (channel.read(header, 0) < HEADER_BYTES
+                    || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                return -1;
+            }
+            return header.getLong(8);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    long sourceChecksum() {
+        return sourceChecksum;
+    }
+
+    int cityCount() {
+        return cityCount;
+    }
+
+    int nameCount() {
+        return nameCount;
+    }
+
+    /**
+     * @return The size of the mapped index in bytes
+     */
+    int byteSize() {
+        return buffer.capacity();
+    }
+
+    double latitude(int city) {
+        return buffer.getFloat(cityOffset(city));
+    }
+
+    double longitude(int city) {
+        return buffer.getFloat(cityOffset(city) + 4);
+    }
+
+    int population(int city) {
+        return buffer.getInt(cityOffset(city) + 8);
+    }
+
+    String name(int city) {
+        return string(buffer.getInt(cityOffset(city) + 12));
+    }
+
+    String admin1(int city) {
+        return string(buffer.getInt(cityOffset(city) + 16));
+    }
+
+    String country(int city) {
+        return string(buffer.getInt(cityOffset(city) + 20));
+    }
+
+    boolean isPrimary(int city) {
+        return (buffer.getInt(cityOffset(city) + 24) & PRIMARY) != 0;
+    }
+
+    /**
+     * @return The city of the name entry at {@code entry}
+     */
+    int nameCity(int entry) {
+        return buffer.getInt(namesOffset + entry * NAME_BYTES + 4);
+    }
+
+    /**
+     * @return The first name entry whose key is not less than {@code key}, or {@link #nameCount()} when there is none
+     */
+    int lowerBound(byte[] key) {
+        int low = 0;
+        int high = nameCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareKey(middle, key, false) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The first name entry after {@link #lowerBound(byte[]) lowerBound(prefix)} whose key does not
+     *         start with {@code prefix}, so the entries with that prefix are the range between the two
+     */
+    int prefixEnd(byte[] prefix) {
+        int low = 0;
+        int high = nameCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareKey(middle, prefix, true) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return True when the key of the name entry at {@code entry} is exactly {@code key}
+     */
+    boolean keyEquals(int entry, byte[] key) {
+        return compareKey(entry, key, false) == 0;
+    }
+
+    /**
+     * @return True when the key of the name entry at {@code entry} starts with {@code prefix}
+     */
+    boolean keyStartsWith(int entry, byte[] prefix) {
+        return compareKey(entry, prefix, true) == 0;
+    }
+
+    private int compareKey(int entry, byte[] key, boolean prefix) {
+        int position = stringsOffset + buffer.getInt(namesOffset + entry * NAME_BYTES);
+        int length = buffer.getShort(position) & 0xFFFF;
+        position += 2;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (buffer.get(position + i) & 0xFF) - (key[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        if (prefix && length >= key.length) {
+            return 0;
+        }
+        return length - key.length;
+    }
+
+    private int cityOffset(int city) {
+        return HEADER_BYTES + city * CITY_BYTES;
+    }
+
+    private String string(int ref) {
+        int position = stringsOffset + ref;
+        byte[] bytes = new byte[buffer.getShort(position) & 0xFFFF];
+        buffer.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record NameEntry(int keyRef, byte[] key, int cityId) {
+        static final Comparator<NameEntry> ORDER = Comparator.<NameEntry, byte[]>comparing(NameEntry::key, Arrays::compareUnsigned)
+                .thenComparingInt(NameEntry::cityId);
+    }
+
+    /**
+     * Deduplicated strings blob; admin1 codes, countries and keys repeat across many cities.
+     */
+    private static final class Strings {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+        private int size;
+
+        int ref(String value) {
+            return refs.computeIfAbsent(value, key -> {
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > 0xFFFF) {
+                    throw new IllegalArgumentException("Gazetteer string too long: " + key.substring(0, 32));
+                }
+                int ref = size;
+                values.add(bytes);
+                size += 2 + bytes.length;
+                return ref;
+            });
+        }
+
+        int size() {
+            return size;
+        }
+
+        void writeTo(ByteBuffer out) {
+            for (byte[] value : values) {
+                out.putShort((short) value.length).put(value);
+            }
+        }
+    }
+}
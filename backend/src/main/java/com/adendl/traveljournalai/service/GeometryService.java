@@ -0,0 +1,201 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.PlaceOfInterest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Computes the distances of a plan from its coordinates instead of trusting numbers written by
+ * the model. Each day gets the great-circle distance of its start to finish leg and of the chain
+ * start, places of interest in order, finish. All segments of a plan are gathered into flat
+ * primitive arrays and measured by one loop, which keeps the kernel free of object access and
+ * lets the JIT unroll it.
+ */
+@Service
+public class GeometryService {
+
+    /** Mean earth radius (IUGG) in kilometres. */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /** Kilometres per degree of latitude, and of longitude at the equator. */
+    public static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180;
+
+    /**
+     * Sets {@code distanceKm} and {@code placesOfInterestDistanceKm} on every day with both locations,
+     * rounded to 0.1 km.
+     * @param days The days of one plan, in order
+     * @return The total of the day legs in kilometres, rounded to 0.1 km
+     */
+    public double applyDistances(List<DayPlan> days) {
+        if (days == null || days.isEmpty()) {
+            return 0;
+        }
+        int segments = 0;
+        for (DayPlan day : days) {
+            if (hasLocations(day)) {
+                segments += 2 + places(day).size();
+            }
+        }
+        double[] fromLatitudes = new double[segments];
+        double[] fromLongitudes = new double[segments];
+        double[] toLatitudes = new double[segments];
+        double[] toLongitudes = new double[segments];
+
+        // Per day: the leg, then the chain through its places of interest
+        int i = 0;
+        for (DayPlan day : days) {
+            if (!hasLocations(day)) {
+                continue;
+            }
+            double startLatitude = day.getStartLocation().getLatitude();
+            double startLongitude = day.getStartLocation().getLongitude();
+            fromLatitudes[i] = startLatitude;
+            fromLongitudes[i] = startLongitude;
+            toLatitudes[i] = day.getFinishLocation().getLatitude();
+            toLongitudes[i] = day.getFinishLocation().getLongitude();
+            i++;
+            double latitude = startLatitude;
+            double longitude = startLongitude;
+            for (PlaceOfInterest poi : places(day)) {
+                fromLatitudes[i] = latitude;
+                fromLongitudes[i] = longitude;
+                latitude = toLatitudes[i] = poi.getLatitude();
+                longitude = toLongitudes[i] = poi.getLongitude();
+                i++;
+            }
+            fromLatitudes[i] = latitude;
+            fromLongitudes[i] = longitude;
+            toLatitudes[i] = day.getFinishLocation().getLatitude();
+            toLongitudes[i] = day.getFinishLocation().getLongitude();
+            i++;
+        }
+
+        double[] distances = new double[segments];
+        haversineKm(fromLatitudes, fromLongitudes, toLatitudes, toLongitudes, distances, segments);
+
+        double total = 0;
+        i = 0;
+        for (DayPlan day : days) {
+            if (!hasLocations(day)) {
+                continue;
+            }
+            double leg = distances[i++];
+            double chain = 0;
+            for (int end = i + places(day).size() + 1; i < end; i++) {
+                chain += distances[i];
+            }
+            day.setDistanceKm(round(leg));
+            day.setPlacesOfInterestDistanceKm(round(chain));
+            total += leg;
+        }
+        return round(total);
+    }
+
+    /**
+     * Great-circle distance of each segment {@code i}, from ({@code fromLatitudes[i]}, {@code fromLongitudes[i]})
+     * to ({@code toLatitudes[i]}, {@code toLongitudes[i]}), by the haversine formula.
+     * @param distances Receives the distances in kilometres
+     * @param count The number of segments to measure
+     */
+    public static void haversineKm(double[] fromLatitudes, double[] fromLongitudes,
+                                   double[] toLatitudes, double[] toLongitudes,
+                                   double[] distances, int count) {
+        for (int i = 0; i < count; i++) {
+            distances[i] = haversineKm(fromLatitudes[i], fromLongitudes[i], toLatitudes[i], toLongitudes[i]);
+        }
+    }
+
+    /**
+     * @return The great-circle distance between two points in kilometres
+     */
+    public static double haversineKm(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double fromLatitudeRadians = Math.toRadians(fromLatitude);
+        double toLatitudeRadians = Math.toRadians(toLatitude);
+        double sinHalfLatitude = Math.sin((toLatitudeRadians - fromLatitudeRadians) * 0.5);
+        double sinHalfLongitude = Math.sin(Math.toRadians(toLongitude - fromLongitude) * 0.5);
+        double a = sinHalfLatitude * sinHalfLatitude
+                + Math.cos(fromLatitudeRadians) * Math.cos(toLatitudeRadians) * sinHalfLongitude * sinHalfLongitude;
+        // min guards against rounding pushing a just above 1 for antipodal points
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, a)));
+    }
+
+    /**
+     * The box around a segment, padded by the radius in every direction. The segment is taken the
+     * short way round, so one from 179 to -179 degrees of longitude crosses the antimeridian; such a
+     * box has {@code minLongitude > maxLongitude}. A box reaching a pole spans every longitude.
+     * @return {minLatitude, minLongitude, maxLatitude, maxLongitude}
+     */
+    public static double[] boundingBox(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude, double radiusKm) {
+        double latitudePadding = radiusKm / KM_PER_DEGREE;
+        double minLatitude = Math.max(-90, Math.min(fromLatitude, toLatitude) - latitudePadding);
+        double maxLatitude = Math.min(90, Math.max(fromLatitude, toLatitude) + latitudePadding);
+        if (minLatitude <= -90 || maxLatitude >= 90) {
+            return new double[] {minLatitude, -180, maxLatitude, 180};
+        }
+        // Degrees of longitude are shortest at the latitude furthest from the equator
+        double widestLatitude = Math.max(Math.abs(minLatitude), Math.abs(maxLatitude));
+        double longitudePadding = radiusKm / (KM_PER_DEGREE * Math.cos(Math.toRadians(widestLatitude)));
+        double unwrappedToLongitude = fromLongitude + longitudeDifference(fromLongitude, toLongitude);
+        double minLongitude = Math.min(fromLongitude, unwrappedToLongitude) - longitudePadding;
+        double maxLongitude = Math.max(fromLongitude, unwrappedToLongitude) + longitudePadding;
+        if (maxLongitude - minLongitude >= 360) {
+            return new double[] {minLatitude, -180, maxLatitude, 180};
+        }
+        return new double[] {minLatitude, normalizeLongitude(minLongitude), maxLatitude, normalizeLongitude(maxLongitude)};
+    }
+
+    /**
+     * {@link #boundingBox} split at the antimeridian, for lookups that compare longitudes directly.
+     * @return One box, or two when the box crosses the antimeridian; in each, min is at most max
+     */
+    public static List<double[]> boundingBoxes(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude, double radiusKm) {
+        double[] box = boundingBox(fromLatitude, fromLongitude, toLatitude, toLongitude, radiusKm);
+        if (box[1] <= box[3]) {
+            return List.of(box);
+        }
+        return List.of(new double[] {box[0], box[1], box[2], 180}, new double[] {box[0], -180, box[2], box[3]});
+    }
+
+    /**
+     * Distance in kilometres from a point to a [latitude, longitude] segment, on a plane tangent at
+     * the point; accurate to well under a percent within a hundred kilometres.
+     */
+    public static double segmentDistanceKm(double latitude, double longitude, double[] from, double[] to) {
+        double longitudeScale = KM_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        double ax = longitudeDifference(longitude, from[1]) * longitudeScale;
+        double ay = (from[0] - latitude) * KM_PER_DEGREE;
+        double bx = longitudeDifference(longitude, to[1]) * longitudeScale;
+        double by = (to[0] - latitude) * KM_PER_DEGREE;
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared));
+        return Math.hypot(ax + t * dx, ay + t * dy);
+    }
+
+    /**
+     * @return Degrees east from one longitude to another the short way round, in [-180, 180]
+     */
+    private static double longitudeDifference(double fromLongitude, double toLongitude) {
+        double difference = toLongitude - fromLongitude;
+        return difference > 180 ? difference - 360 : difference < -180 ? difference + 360 : difference;
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        return longitude > 180 ? longitude - 360 : longitude < -180 ? longitude + 360 : longitude;
+    }
+
+    private static boolean hasLocations(DayPlan day) {
+        return day.getStartLocation() != null && day.getFinishLocation() != null;
+    }
+
+    private static List<PlaceOfInterest> places(DayPlan day) {
+        return day.getPlacesOfInterest() == null ? List.of() : day.getPlacesOfInterest();
+    }
+
+    private static double round(double km) {
+        return Math.round(km * 10) / 10.0;
+    }
+}
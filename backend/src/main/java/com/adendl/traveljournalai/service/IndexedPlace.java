@@ -0,0 +1,7 @@
+package com.adendl.traveljournalai.service;
+
+/**
+ * A place of interest as held by the {@link PlaceIndex}.
+ */
+public record IndexedPlace(long id, long tripId, String name, double latitude, double longitude) {
+}
@@ -0,0 +1,356 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.service.AdaptiveConcurrencyLimiter.Outcome;
+import com.adendl.traveljournalai.service.AdaptiveConcurrencyLimiter.Permit;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.Logger;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP client for the LLM provider, built on a single JDK {@link HttpClient} so connections are
+ * pooled and kept alive (and multiplexed over HTTP/2 where the server supports it) across calls.
+ * <p>
+ * Each call is bounded by three timeouts: establishing the connection, waiting for the response
+ * headers (first byte), and an overall deadline that also covers reading the body and any retries.
+ * Concurrent requests to one host go through an {@link AdaptiveConcurrencyLimiter}, and rate
+ * limits, server errors and transport failures are retried according to the {@link LlmRetryPolicy}.
+ */
+public class LlmHttpClient {
+
+    private static final Logger logger = LoggingUtils.getLogger(LlmHttpClient.class);
+
+    private static final int MAX_ERROR_BODY_LENGTH = 500;
+
+    /** Expires response streams at their deadline; cancelled tasks leave the queue at once. */
+    static final ScheduledThreadPoolExecutor DEADLINES = newDeadlineScheduler();
+
+    private final HttpClient httpClient;
+    private final Duration firstByteTimeout;
+    private final Duration totalTimeout;
+    private final LlmRetryPolicy retryPolicy;
+    private final AdaptiveConcurrencyLimiter.Settings limiterSettings;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public LlmHttpClient(HttpClient httpClient,
+                         Duration firstByteTimeout,
+                         Duration totalTimeout,
+                         LlmRetryPolicy retryPolicy,
+                         AdaptiveConcurrencyLimiter.Settings limiterSettings,
+                         MeterRegistry meterRegistry) {
+        this.httpClient = httpClient;
+        this.firstByteTimeout = firstByteTimeout;
+        this.totalTimeout = totalTimeout;
+        this.retryPolicy = retryPolicy;
+        this.limiterSettings = limiterSettings;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param connectTimeout How long to wait for a new connection to be established
+     * @return A pooled HTTP/2 client suitable for this class
+     */
+    public static HttpClient newHttpClient(Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /**
+     * POSTs a JSON body and returns the whole response body.
+     * @param url The endpoint
+     * @param apiKey Sent as a bearer token
+     * @param json The request body
+     * @return The response body of a 2xx response
+     * @throws LlmHttpException On an error status, a timeout, or when the host's concurrency limit is reached
+     */
+    public String postJson(String url, String apiKey, String json) {
+        long deadline = System.nanoTime() + totalTimeout.toNanos();
+        HttpRequest request = buildRequest(url, apiKey, json, "application/json");
+        Exchange<String> exchange = send(request, HttpResponse.BodyHandlers.ofString(), deadline);
+        exchange.permit().release(Outcome.SUCCESS, exchange.latencyNanos());
+        return exchange.response().body();
+    }
+
+    /**
+     * POSTs a JSON body and returns the response as a stream, for Server-Sent Event completions.
+     * The caller must close the stream; the concurrency permit is held until then. Reads fail once
+     * the overall deadline has passed.
+     * @param url The endpoint
+     * @param apiKey Sent as a bearer token
+     * @param json The request body
+     * @return The body of a 2xx response
+     * @throws LlmHttpException On an error status, a timeout, or when the host's concurrency limit is reached
+     */
+    public InputStream postJsonForStream(String url, String apiKey, String json) {
+        long deadline = System.nanoTime() + totalTimeout.toNanos();
+        HttpRequest request = buildRequest(url, apiKey, json, "text/event-stream");
+        Exchange<InputStream> exchange = send(request, HttpResponse.BodyHandlers.ofInputStream(), deadline);
+        DeadlineInputStream body = new DeadlineInputStream(exchange.response().body(), deadline, exchange.permit(), exchange.latencyNanos());
+        // Unblocks a reader stuck on a stalled connection once the deadline passes; cancelled on close
+        body.expireAt(DEADLINES.schedule(body::expire, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+        return body;
+    }
+
+    private static ScheduledThreadPoolExecutor newDeadlineScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "llm-stream-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    AdaptiveConcurrencyLimiter limiterFor(URI uri) {
+        return limiters.computeIfAbsent(uri.getAuthority(),
+                host -> new AdaptiveConcurrencyLimiter(host, limiterSettings, meterRegistry));
+    }
+
+    private HttpRequest buildRequest(String url, String apiKey, String json, String accept) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(firstByteTimeout)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private <T> Exchange<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, long deadline) {
+        URI uri = request.uri();
+        AdaptiveConcurrencyLimiter limiter = limiterFor(uri);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt(request, bodyHandler, limiter, deadline);
+            } catch (LlmHttpException e) {
+                Optional<Duration> delay = retryPolicy.delayBeforeRetry(e, attempt);
+                if (delay.isEmpty() || System.nanoTime() + delay.get().toNanos() - deadline > 0) {
+                    throw e;
+                }
+                meterRegistry.counter("llm.http.retries", "host", uri.getAuthority(),
+                        "reason", e.getStatusCode() == 0 ? "transport" : String.valueOf(e.getStatusCode())).increment();
+                logger.warn("Attempt {} to {} failed ({}), retrying in {}ms", attempt, uri.getHost(), e.getMessage(), delay.get().toMillis());
+                try {
+                    Thread.sleep(delay.get().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private <T> Exchange<T> attempt(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                    AdaptiveConcurrencyLimiter limiter, long deadline) {
+        URI uri = request.uri();
+        // Time spent waiting for a permit counts against the first-byte budget
+        Permit permit = limiter.acquire(Math.min(System.nanoTime() + firstByteTimeout.toNanos(), deadline));
+        long startTime = System.nanoTime();
+        // The limiter samples the time to the response headers: one limiter serves short route calls
+        // and whole plans alike, and the time to read a body depends on its length, not on load
+        AtomicLong headersTime = new AtomicLong();
+        HttpResponse.BodyHandler<T> timedBodyHandler = responseInfo -> {
+            headersTime.set(System.nanoTime());
+            return bodyHandler.apply(responseInfo);
+        };
+        HttpResponse<T> response;
+        try {
+            response = await(httpClient.sendAsync(request, timedBodyHandler), uri, deadline);
+        } catch (LlmHttpException e) {
+            boolean overload = e.getCause() instanceof TimeoutException
+                    || (e.getCause() instanceof HttpTimeoutException && !(e.getCause() instanceof HttpConnectTimeoutException));
+            permit.release(overload ? Outcome.DROPPED : Outcome.IGNORED, 0L);
+            throw e;
+        }
+        long latencyNanos = (headersTime.get() != 0 ? headersTime.get() : System.nanoTime()) - startTime;
+
+        int status = response.statusCode();
+        if (status / 100 != 2) {
+            boolean overload = status == 429 || status == 503 || status == 504;
+            permit.release(overload ? Outcome.DROPPED : Outcome.IGNORED, latencyNanos);
+            throw errorStatus(uri, status, errorBody(response.body()), retryAfter(response.headers()));
+        }
+        return new Exchange<>(response, permit, latencyNanos);
+    }
+
+    private <T> HttpResponse<T> await(CompletableFuture<HttpResponse<T>> future, URI uri, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new LlmHttpException("Request to " + uri.getHost() + " exceeded the deadline of " + totalTimeout.toMillis() + "ms", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LlmHttpException("Interrupted while calling " + uri.getHost(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof HttpConnectTimeoutException) {
+                throw new LlmHttpException("Timed out connecting to " + uri.getHost(), cause, true);
+            }
+            if (cause instanceof HttpTimeoutException) {
+                throw new LlmHttpException("No response from " + uri.getHost() + " within " + firstByteTimeout.toMillis() + "ms", cause, true);
+            }
+            throw new LlmHttpException("Request to " + uri.getHost() + " failed: " + cause.getMessage(), cause, cause instanceof IOException);
+        }
+    }
+
+    private static String errorBody(Object body) {
+        if (body instanceof InputStream stream) {
+            try (stream) {
+                return new String(stream.readNBytes(MAX_ERROR_BODY_LENGTH), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                return "";
+            }
+        }
+        return body == null ? "" : body.toString();
+    }
+
+    /**
+     * Reads the provider's back-off hint: {@code retry-after-ms}, or {@code Retry-After} as seconds or an HTTP date.
+     */
+    static Duration retryAfter(HttpHeaders headers) {
+        Optional<String> millis = headers.firstValue("retry-after-ms");
+        if (millis.isPresent()) {
+            try {
+                return Duration.ofMillis((long) Double.parseDouble(millis.get().trim()));
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring malformed retry-after-ms header: {}", millis.get());
+            }
+        }
+        Optional<String> value = headers.firstValue("retry-after");
+        if (value.isEmpty()) {
+            return null;
+        }
+        String retryAfter = value.get().trim();
+        try {
+            return Duration.ofSeconds(Long.parseLong(retryAfter));
+        } catch (NumberFormatException e) {
+            try {
+                Duration untilDate = Duration.between(Instant.now(),
+                        ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            } catch (DateTimeParseException malformed) {
+                logger.debug("Ignoring malformed Retry-After header: {}", retryAfter);
+                return null;
+            }
+        }
+    }
+
+    private LlmHttpException errorStatus(URI uri, int statusCode, String body, Duration retryAfter) {
+        String excerpt = body.substring(0, Math.min(MAX_ERROR_BODY_LENGTH, body.length()));
+        logger.error("Request to {} failed with status {}: {}", uri.getAuthority(), statusCode, excerpt);
+        return new LlmHttpException(statusCode, "Request to " + uri.getAuthority() + " failed with status " + statusCode, retryAfter);
+    }
+
+    private record Exchange<T>(HttpResponse<T> response, Permit permit, long latencyNanos) {
+    }
+
+    /**
+     * Response body that releases its limiter permit on close and refuses reads past the deadline.
+     * Closing it cancels the task that would expire it at the deadline.
+     */
+    private static final class DeadlineInputStream extends FilterInputStream {
+
+        private final long deadline;
+        private final Permit permit;
+        private final long latencyNanos;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile ScheduledFuture<?> expiry;
+
+        private DeadlineInputStream(InputStream in, long deadline, Permit permit, long latencyNanos) {
+            super(in);
+            this.deadline = deadline;
+            this.permit = permit;
+            this.latencyNanos = latencyNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            checkDeadline();
+            return super.read(buffer, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            close(Outcome.SUCCESS);
+        }
+
+        private void close(Outcome outcome) throws IOException {
+            if (closed.compareAndSet(false, true)) {
+                try {
+                    super.close();
+                } finally {
+                    ScheduledFuture<?> pending = expiry;
+                    if (pending != null) {
+                        pending.cancel(false);
+                    }
+                    permit.release(outcome, latencyNanos);
+                }
+            }
+        }
+
+        private void expireAt(ScheduledFuture<?> expiry) {
+            this.expiry = expiry;
+            // Closed before the task was recorded, so close could not cancel it
+            if (closed.get()) {
+                expiry.cancel(false);
+            }
+        }
+
+        private void checkDeadline() throws IOException {
+            if (closed.get()) {
+                throw new IOException("Response stream closed");
+            }
+            if (System.nanoTime() - deadline > 0) {
+                close(Outcome.DROPPED);
+                throw new IOException("Response stream exceeded its deadline");
+            }
+        }
+
+        private void expire() {
+            try {
+                close(Outcome.DROPPED);
+            } catch (IOException e) {
+                logger.debug("Failed to close response stream: {}", e.getMessage());
+            }
+        }
+    }
+}
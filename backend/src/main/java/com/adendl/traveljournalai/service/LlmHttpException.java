@@ -0,0 +1,56 @@
+package com.adendl.traveljournalai.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a call to the LLM provider fails: an error status, a timeout, or a local concurrency limit.
+ */
+public class LlmHttpException extends RuntimeException {
+
+    private final int statusCode;
+    private final Duration retryAfter;
+    private final boolean retryable;
+
+    public LlmHttpException(int statusCode, String message) {
+        this(statusCode, message, null);
+    }
+
+    public LlmHttpException(int statusCode, String message, Duration retryAfter) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+        this.retryable = statusCode == 429 || statusCode / 100 == 5;
+    }
+
+    public LlmHttpException(String message, Throwable cause) {
+        this(message, cause, false);
+    }
+
+    public LlmHttpException(String message, Throwable cause, boolean retryable) {
+        super(message, cause);
+        this.statusCode = 0;
+        this.retryAfter = null;
+        this.retryable = retryable;
+    }
+
+    /**
+     * @return The HTTP status returned by the provider, or 0 when no response was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return How long the provider asked us to wait before retrying, or null when it gave no hint
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * @return Whether the same request may succeed if sent again: rate limits, server errors and transport failures
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -0,0 +1,35 @@
+package com.adendl.traveljournalai.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter for retryable LLM calls. A {@code Retry-After} hint from
+ * the provider is used as the minimum delay, with jitter on top so waiting clients don't all
+ * come back at the same instant.
+ * @param maxAttempts Total attempts including the first, so 1 disables retries
+ * @param baseDelay Backoff ceiling for the first retry; it doubles on every further attempt
+ * @param maxDelay Upper bound of the backoff ceiling
+ */
+public record LlmRetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+
+    public static final LlmRetryPolicy NO_RETRIES = new LlmRetryPolicy(1, Duration.ZERO, Duration.ZERO);
+
+    /**
+     * @param failure The failure of the attempt that just finished
+     * @param attempt The number of that attempt, starting at 1
+     * @return How long to wait before the next attempt, or empty when the call should not be retried
+     */
+    public Optional<Duration> delayBeforeRetry(LlmHttpException failure, int attempt) {
+        if (!failure.isRetryable() || attempt >= maxAttempts) {
+            return Optional.empty();
+        }
+        long ceilingMillis = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(attempt - 1, 20));
+        long jitterMillis = ThreadLocalRandom.current().nextLong(ceilingMillis + 1);
+        if (failure.getRetryAfter() != null) {
+            return Optional.of(failure.getRetryAfter().plusMillis(jitterMillis / 4));
+        }
+        return Optional.of(Duration.ofMillis(jitterMillis));
+    }
+}
@@ -0,0 +1,8 @@
+package com.adendl.traveljournalai.service;
+
+/**
+ * A place of interest found by a {@link PlaceIndex} query.
+ * @param distanceKm From the query point, or from the closest point of the route for corridor queries
+ */
+public record NearbyPlace(IndexedPlace place, double distanceKm) {
+}
@@ -0,0 +1,347 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Generates trip plans with OpenAI chat completions. Long trips are handed to the
+ * {@link ParallelTripPlanGenerator}; shorter ones are generated by a single call. Requests put
+ * the fixed instructions first and enforce the response shape with a {@link TripPlanSchema}, so
+ * only the short user message differs between trips. Streamed generation uses one streamed call
+ * and hands over each day as soon as the model has finished writing it. When
+ * {@code trips.generator.record-directory} is set, every generated plan is also written there
+ * in the format the {@link ReplayTripPlanGenerator} reads.
+ */
+@Service
+@ConditionalOnProperty(name = "trips.generator", havingValue = "openai", matchIfMissing = true)
+public class OpenAiTripPlanGenerator implements TripPlanGenerator {
+
+    private static final Logger logger = LoggingUtils.getLogger(OpenAiTripPlanGenerator.class);
+
+    static final String OPENAI_CHAT_COMPLETIONS_URL = "https://api.openai.com/v1/chat/completions";
+    static final String OPENAI_MODEL = "gpt-4.1-mini";
+
+    /**
+     * Everything about a trip plan request that does not depend on the trip. It must stay
+     * byte-for-byte identical between requests to keep the cached prefix, so nothing variable
+     * belongs here.
+     */
+    static final String SYSTEM_PROMPT = "You are a road trip planner. You turn a trip request into a day by day driving itinerary.\n"
+            + "Rules for the itinerary:\n"
+            + "- Plan exactly the requested number of days, numbered from 1, or only the days you are asked to continue with.\n"
+            + "- Day 1 starts at the origin. Every later day starts at the previous day's finish location.\n"
+            + "- A one-way trip finishes its last day at the destination. A roundtrip reaches the destination about halfway "
+            + "and finishes its last day back at the origin.\n"
+            + "- Finish each day in a real town or city with somewhere to stay, and keep daily driving distances realistic and balanced.\n"
+            + "- Give latitudes and longitudes in decimal degrees, precise enough to find the place on a map.\n"
+            + "- Write an in-depth introduction of roughly 100 words to each day's finish location: what it is known for, "
+            + "its history and why it is worth the stop. Keep it under 900 characters.\n"
+            + "- Pick three to five places of interest along each day's route or at its finish location, favouring the "
+            + "traveller's interests. Each description is one or two sentences and under 250 characters.\n"
+            + "- Only include places that exist. Do not invent names or coordinates.\n"
+            + "Answer with the itinerary only, in the JSON format you are given.";
+
+    private final LlmHttpClient llmHttpClient;
+    private final TokenBudget tokenBudget;
+    private final ParallelTripPlanGenerator parallelTripPlanGenerator;
+    private final TruncatedTripPlanRecovery truncatedTripPlanRecovery;
+    private final String openAiApiKey;
+    private final boolean parallelGenerationEnabled;
+    private final int parallelGenerationMinDays;
+    private final String recordDirectory;
+
+    @Autowired
+    public OpenAiTripPlanGenerator(LlmHttpClient llmHttpClient,
+                                   TokenBudget tokenBudget,
+                                   ParallelTripPlanGenerator parallelTripPlanGenerator,
+                                   TruncatedTripPlanRecovery truncatedTripPlanRecovery,
+                                   @Value("${openai.api.key}") String openAiApiKey,
+                                   @Value("${trips.generation.parallel.enabled:true}") boolean parallelGenerationEnabled,
+                                   @Value("${trips.generation.parallel.min-days:4}") int parallelGenerationMinDays,
+                                   @Value("${trips.generator.record-directory:}") String recordDirectory) {
+        this.llmHttpClient = llmHttpClient;
+        this.tokenBudget = tokenBudget;
+        this.parallelTripPlanGenerator = parallelTripPlanGenerator;
+        this.truncatedTripPlanRecovery = truncatedTripPlanRecovery;
+        this.openAiApiKey = openAiApiKey;
+        this.parallelGenerationEnabled = parallelGenerationEnabled;
+        this.parallelGenerationMinDays = parallelGenerationMinDays;
+        this.recordDirectory = recordDirectory;
+    }
+
+    @Override
+    public TripPlan generate(Trip trip) {
+        TripPlan tripPlan;
+        if (parallelGenerationEnabled && trip.getDays() >= parallelGenerationMinDays) {
+            tripPlan = parallelTripPlanGenerator.generate(trip);
+        } else {
+            String prompt = buildPrompt(trip);
+            logger.debug("Generated prompt: {}...", prompt.substring(0, Math.min(200, prompt.length())));
+            TokenBudget.Allocation allocation = tokenBudget.allocateTrip(SYSTEM_PROMPT + prompt, trip.getDays(), trip.getInterests());
+            if (allocation.fits()) {
+                String jsonResponse = callOpenAiApi(prompt, allocation);
+                logger.debug("Received OpenAI response: {}...", jsonResponse.substring(0, Math.min(200, jsonResponse.length())));
+                tripPlan = parseTripPlan(jsonResponse, trip, prompt);
+            } else if (parallelGenerationEnabled) {
+                // Too long for one completion; one call per day keeps each response well within the limit
+                tokenBudget.recordOverflow(allocation, "split");
+                tripPlan = parallelTripPlanGenerator.generate(trip);
+            } else {
+                tokenBudget.recordOverflow(allocation, "rejected");
+                throw new IllegalArgumentException("A " + trip.getDays() + " day trip is too long to generate in one request");
+            }
+        }
+        if (!recordDirectory.isBlank()) {
+            record(TripPlanCacheKey.of(trip), tripPlan);
+        }
+        return tripPlan;
+    }
+
+    /**
+     * Generates the plan with one streamed completion, handing over each day as soon as its
+     * closing brace arrives. A stream that was cut off is completed like a truncated completion:
+     * the days that closed are kept and only the missing ones are generated, then handed over.
+     * @throws IllegalArgumentException When the trip is too long for one completion
+     * @throws TripPlanParseException When the stream holds more days than the trip asked for
+     * @throws RuntimeException When a cut-off stream could not be completed
+     */
+    @Override
+    public TripPlan generate(Trip trip, Consumer<DayPlan> onDay) {
+        String prompt = buildPrompt(trip);
+        TokenBudget.Allocation allocation = tokenBudget.allocateTrip(SYSTEM_PROMPT + prompt, trip.getDays(), trip.getInterests());
+        if (!allocation.fits()) {
+            tokenBudget.recordOverflow(allocation, "rejected");
+            throw new IllegalArgumentException("A " + trip.getDays() + " day trip is too long to stream, create it instead");
+        }
+        TripPlan tripPlan = new TripPlan();
+        tripPlan.setTrip(trip);
+        List<DayPlan> days = new ArrayList<>();
+        StreamingDayExtractor extractor = new StreamingDayExtractor();
+        StreamedCompletion completion = streamCompletion(prompt, allocation, delta -> {
+            for (String dayJson : extractor.feed(delta)) {
+                DayPlan dayPlan = TripPlanParser.parseDay(dayJson);
+                dayPlan.setTripPlan(tripPlan);
+                TripService.linkPlacesOfInterest(dayPlan);
+                days.add(dayPlan);
+                onDay.accept(dayPlan);
+            }
+        });
+        if (days.size() > trip.getDays()) {
+            throw new TripPlanParseException("Streamed trip plan has " + days.size() + " of " + trip.getDays() + " days");
+        }
+        // A short plan must never be cached or saved; the days already handed over are kept
+        String truncation = null;
+        if (!completion.done()) {
+            truncation = "Stream ended before the completion finished";
+        } else if ("length".equals(completion.finishReason())) {
+            truncation = "Completion was cut off at max_tokens";
+        } else if (!extractor.isBalanced()) {
+            truncation = "Streamed trip plan is not a complete JSON document";
+        } else if (days.size() < trip.getDays()) {
+            truncation = "Streamed trip plan has " + days.size() + " of " + trip.getDays() + " days";
+        }
+        TripPlan result = tripPlan;
+        if (truncation == null) {
+            result.setDays(days);
+        } else {
+            result = truncatedTripPlanRecovery.recover(trip, prompt, days, new TripPlanParseException(truncation));
+            result.setTrip(trip);
+            result.getDays().subList(days.size(), result.getDays().size()).forEach(onDay);
+        }
+        if (!recordDirectory.isBlank()) {
+            record(TripPlanCacheKey.of(trip), result);
+        }
+        return result;
+    }
+
+    /**
+     * The user message: only the parameters of this trip. Every fixed instruction is in
+     * {@link #SYSTEM_PROMPT} and the response format, so consecutive requests share a long
+     * identical prefix the provider can serve from its prompt cache.
+     */
+    public static String buildPrompt(Trip trip) {
+        String roundtripStr = trip.isRoundtrip() ? "roundtrip" : "one-way trip";
+        String prompt = String.format("Plan a %s from %s to %s over %d days, with interests in %s.",
+                roundtripStr, trip.getFromCity(), trip.getToCity(), trip.getDays(), String.join(", ", trip.getInterests()));
+        if (trip.getDistanceKm() > 0) {
+            prompt += String.format(" The whole route is about %.0f km.", trip.getDistanceKm());
+        }
+        return prompt;
+    }
+
+    /**
+     * The full request for a whole plan, enforcing {@link TripPlanSchema#TRIP_PLAN}.
+     * @return A mutable body, so callers can add options such as stream
+     */
+    public static Map<String, Object> tripPlanRequestBody(String prompt, int maxTokens) {
+        return openAiRequestBody(SYSTEM_PROMPT, prompt, TripPlanSchema.responseFormat("trip_plan", TripPlanSchema.TRIP_PLAN), maxTokens);
+    }
+
+    /**
+     * Lays the request out static parts first: model, system message, user message, then the
+     * response format and max_tokens, in insertion order.
+     */
+    static Map<String, Object> openAiRequestBody(String systemPrompt, String prompt, Map<String, Object> responseFormat, int maxTokens) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", OPENAI_MODEL);
+        body.put("messages", List.of(
+                Map.of("role", "system", "content", systemPrompt),
+                Map.of("role", "user", "content", prompt)
+        ));
+        body.put("response_format", responseFormat);
+        body.put("max_tokens", maxTokens);
+        return body;
+    }
+
+    private String callOpenAiApi(String prompt, TokenBudget.Allocation allocation) {
+        LoggingUtils.logMethodEntry(logger, "callOpenAiApi", "promptLength", prompt.length());
+        long startTime = System.currentTimeMillis();
+
+        try {
+            logger.debug("Calling OpenAI API with prompt...");
+            String requestJson = TripPlanParser.MAPPER.writeValueAsString(tripPlanRequestBody(prompt, allocation.maxTokens()));
+            String response = llmHttpClient.postJson(OPENAI_CHAT_COMPLETIONS_URL, openAiApiKey, requestJson);
+            tokenBudget.recordUsage(allocation, response);
+            logger.info("OpenAI API call successful");
+            LoggingUtils.logPerformance(logger, "OpenAI API call", startTime);
+            LoggingUtils.logMethodExit(logger, "callOpenAiApi", "Response received");
+            return response;
+        } catch (JsonProcessingException e) {
+            LoggingUtils.logMethodExitWithException(logger, "callOpenAiApi", e);
+            throw new RuntimeException("Failed to serialize OpenAI request", e);
+        } catch (Exception e) {
+            LoggingUtils.logMethodExitWithException(logger, "callOpenAiApi", e);
+            throw e;
+        }
+    }
+
+    private StreamedCompletion streamCompletion(String prompt, TokenBudget.Allocation allocation, ContentListener listener) {
+        long startTime = System.currentTimeMillis();
+        String finishReason = null;
+        try {
+            Map<String, Object> body = tripPlanRequestBody(prompt, allocation.maxTokens());
+            body.put("stream", true);
+            // The token counts arrive in a last chunk of their own
+            body.put("stream_options", Map.of("include_usage", true));
+            String requestJson = TripPlanParser.MAPPER.writeValueAsString(body);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    llmHttpClient.postJsonForStream(OPENAI_CHAT_COMPLETIONS_URL, openAiApiKey, requestJson),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith("data:")) {
+                        continue;
+                    }
+                    String data = line.substring(5).trim();
+                    if ("[DONE]".equals(data)) {
+                        LoggingUtils.logPerformance(logger, "OpenAI streamed API call", startTime);
+                        return new StreamedCompletion(true, finishReason);
+                    }
+                    JsonNode chunk = TripPlanParser.MAPPER.readTree(data);
+                    if (chunk.path("usage").isObject()) {
+                        tokenBudget.recordUsage(allocation, data);
+                    }
+                    JsonNode choice = chunk.path("choices").path(0);
+                    JsonNode delta = choice.path("delta").path("content");
+                    if (delta.isTextual()) {
+                        listener.onContent(delta.asText());
+                    }
+                    if (choice.path("finish_reason").isTextual()) {
+                        finishReason = choice.path("finish_reason").asText();
+                    }
+                }
+                logger.warn("OpenAI stream ended without [DONE], finish reason {}", finishReason);
+            } catch (IOException | TripPlanParseException e) {
+                // The connection broke off or a day was malformed; the days that closed before are kept
+                logger.warn("OpenAI stream broke off: {}", e.getMessage());
+            }
+            return new StreamedCompletion(false, finishReason);
+        } catch (IOException e) {
+            throw new RuntimeException("Streamed OpenAI call failed: " + e.getMessage(), e);
+        }
+    }
+
+    private TripPlan parseTripPlan(String json, Trip trip, String prompt) {
+        LoggingUtils.logMethodEntry(logger, "parseTripPlan", "tripId", trip.getTripId(), "jsonLength", json.length());
+        long startTime = System.currentTimeMillis();
+
+        Exception failure;
+        if (TruncatedTripPlanRecovery.isTruncated(json)) {
+            failure = new TripPlanParseException("Completion was cut off at max_tokens");
+        } else {
+            try {
+                logger.debug("Parsing trip plan JSON for trip ID: {}", trip.getTripId());
+                TripPlan tripPlan = TripPlanParser.parseCompletion(json);
+                tripPlan.setTrip(trip);
+                logger.info("Trip plan parsed successfully with {} days", tripPlan.getDays().size());
+
+                LoggingUtils.logMethodExit(logger, "parseTripPlan", tripPlan);
+                LoggingUtils.logPerformance(logger, "parseTripPlan", startTime);
+                return tripPlan;
+            } catch (Exception e) {
+                logger.error("Failed to parse trip plan JSON: {}", e.getMessage(), e);
+                failure = e;
+            }
+        }
+
+        // Keep the complete days and only generate the rest, rather than failing the whole request
+        try {
+            TripPlan tripPlan = truncatedTripPlanRecovery.recover(trip, prompt, json, failure);
+            tripPlan.setTrip(trip);
+            LoggingUtils.logMethodExit(logger, "parseTripPlan", tripPlan);
+            LoggingUtils.logPerformance(logger, "parseTripPlan", startTime);
+            return tripPlan;
+        } catch (Exception e) {
+            LoggingUtils.logMethodExitWithException(logger, "parseTripPlan", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the plan for later replay. Failures are logged and never affect the caller.
+     */
+    private void record(TripPlanCacheKey key, TripPlan tripPlan) {
+        try {
+            Path directory = Files.createDirectories(Path.of(recordDirectory));
+            Path file = directory.resolve(ReplayTripPlanGenerator.fileName(key));
+            Files.writeString(file, TripPlanParser.writeContent(tripPlan), StandardCharsets.UTF_8);
+            logger.debug("Recorded trip plan for {} to {}", key, file);
+        } catch (Exception e) {
+            logger.warn("Failed to record trip plan for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface ContentListener {
+        void onContent(String delta) throws IOException;
+    }
+
+    /**
+     * How a streamed completion ended.
+     * @param done Whether the stream reached its {@code [DONE]} marker
+     * @param finishReason Why the model stopped, or null if it never said
+     */
+    private record StreamedCompletion(boolean done, String finishReason) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.adendl.traveljournalai.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Fetches driving routes from an OSRM server, by default the public demo server the frontend used
+ * to call directly. One pooled client is shared by all calls.
+ */
+@Service
+@ConditionalOnProperty(name = "routes.router", havingValue = "osrm", matchIfMissing = true)
+public class OsrmRouteClient implements RouteClient {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    @Autowired
+    public OsrmRouteClient(@Value("${routes.osrm.base-url:https://router.project-osrm.org}") String baseUrl,
+                           @Value("${routes.osrm.timeout-ms:10000}") long timeoutMs) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public RouteGeometry route(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) throws IOException {
+        // OSRM takes longitude first
+        URI uri = URI.create(String.format(Locale.ROOT, "%s/route/v1/driving/%.5f,%.5f;%.5f,%.5f?overview=full&geometries=geojson",
+                baseUrl, fromLongitude, fromLatitude, toLongitude, toLatitude));
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for OSRM");
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("OSRM returned HTTP " + response.statusCode());
+        }
+        return parse(response.body());
+    }
+
+    static RouteGeometry parse(byte[] body) throws IOException {
+        JsonNode root = objectMapper.readTree(body);
+        JsonNode route = root.path("routes").path(0);
+        JsonNode points = route.path("geometry").path("coordinates");
+        if (!"Ok".equals(root.path("code").asText()) || !points.isArray() || points.isEmpty()) {
+            throw new IOException("OSRM found no route: " + root.path("code").asText("no code"));
+        }
+        double[][] coordinates = new double[points.size()][];
+        for (int i = 0; i < coordinates.length; i++) {
+            JsonNode point = points.get(i);
+            coordinates[i] = new double[] {point.get(1).asDouble(), point.get(0).asDouble()};
+        }
+        return new RouteGeometry(coordinates, route.path("distance").asDouble() / 1000.0);
+    }
+}
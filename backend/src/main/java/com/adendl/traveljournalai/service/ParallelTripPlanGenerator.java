@@ -0,0 +1,187 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Generates long trips in two phases. A short skeleton call fixes each day's start and finish
+ * locations, then every day's introduction and places of interest are generated by its own call,
+ * in parallel on the {@code tripDayGenerationExecutor}. Wall-clock time is roughly the skeleton
+ * call plus the slowest day, instead of growing with the number of days.
+ */
+@Service
+public class ParallelTripPlanGenerator {
+
+    private static final Logger logger = LoggingUtils.getLogger(ParallelTripPlanGenerator.class);
+
+    static final int SKELETON_BASE_TOKENS = 256;
+    static final int SKELETON_TOKENS_PER_DAY = 128;
+
+    // Fixed instructions of each kind of call; see OpenAiTripPlanGenerator.SYSTEM_PROMPT
+    static final String SKELETON_SYSTEM_PROMPT = "You are a road trip planner. You plan the route of a trip request as a day by day list of stops.\n"
+            + "Rules for the route:\n"
+            + "- Plan exactly the requested number of days, numbered from 1.\n"
+            + "- Day 1 starts at the origin. Every later day starts at the previous day's finish location.\n"
+            + "- A one-way trip finishes its last day at the destination. A roundtrip reaches the destination about halfway "
+            + "and finishes its last day back at the origin.\n"
+            + "- Finish each day in a real town or city with somewhere to stay, and keep daily driving distances realistic and balanced.\n"
+            + "- Give latitudes and longitudes in decimal degrees, precise enough to find the place on a map.\n"
+            + "Answer with the route only, in the JSON format you are given.";
+    static final String DAY_SYSTEM_PROMPT = "You are a road trip planner. You describe one day of a planned driving trip.\n"
+            + "Rules for the day:\n"
+            + "- Write an in-depth introduction of roughly 100 words to the day's finish location: what it is known for, "
+            + "its history and why it is worth the stop. Keep it under 900 characters.\n"
+            + "- Pick three to five places of interest along the day's route or at its finish location, favouring the "
+            + "traveller's interests. Each description is one or two sentences and under 250 characters.\n"
+            + "- Give latitudes and longitudes in decimal degrees, precise enough to find the place on a map.\n"
+            + "- Only include places that exist. Do not invent names or coordinates.\n"
+            + "Answer with the day only, in the JSON format you are given.";
+
+    private final LlmHttpClient llmHttpClient;
+    private final TokenBudget tokenBudget;
+    private final ThreadPoolExecutor dayExecutor;
+    private final String openAiApiKey;
+
+    @Autowired
+    public ParallelTripPlanGenerator(LlmHttpClient llmHttpClient,
+                                     TokenBudget tokenBudget,
+                                     @Qualifier("tripDayGenerationExecutor") ThreadPoolExecutor dayExecutor,
+                                     @Value("${openai.api.key}") String openAiApiKey) {
+        this.llmHttpClient = llmHttpClient;
+        this.tokenBudget = tokenBudget;
+        this.dayExecutor = dayExecutor;
+        this.openAiApiKey = openAiApiKey;
+    }
+
+    /**
+     * @param trip The trip to plan
+     * @return The assembled plan, linked to the trip, with days and places of interest linked
+     */
+    public TripPlan generate(Trip trip) {
+        LoggingUtils.logMethodEntry(logger, "generate", "tripId", trip.getTripId(), "days", trip.getDays());
+        long startTime = System.currentTimeMillis();
+
+        List<DayPlan> days = generateSkeleton(trip);
+        LoggingUtils.logPerformance(logger, "Skeleton generation", startTime);
+
+        List<CompletableFuture<DayPlan>> details = new ArrayList<>(days.size());
+        for (DayPlan day : days) {
+            details.add(CompletableFuture.supplyAsync(() -> generateDayDetails(trip, day), dayExecutor));
+        }
+        awaitAll(details);
+
+        TripPlan tripPlan = new TripPlan();
+        for (int i = 0; i < days.size(); i++) {
+            DayPlan day = days.get(i);
+            DayPlan detail = details.get(i).join();
+            day.setIntroduction(detail.getIntroduction());
+            day.setPlacesOfInterest(detail.getPlacesOfInterest());
+            day.setTripPlan(tripPlan);
+            TripService.linkPlacesOfInterest(day);
+        }
+        tripPlan.setDays(days);
+        tripPlan.setTrip(trip);
+
+        LoggingUtils.logPerformance(logger, "Parallel generation of " + days.size() + " days", startTime);
+        return tripPlan;
+    }
+
+    String buildSkeletonPrompt(Trip trip) {
+        String roundtripStr = trip.isRoundtrip() ? "roundtrip" : "one-way trip";
+        return String.format("Plan the route for a %s from %s to %s over %d days, with interests in %s.",
+                roundtripStr, trip.getFromCity(), trip.getToCity(), trip.getDays(), String.join(", ", trip.getInterests()));
+    }
+
+    String buildDayPrompt(Trip trip, DayPlan day) {
+        return String.format("Day %d of a %d day trip from %s to %s, with interests in %s, goes from %s to %s.",
+                day.getDayNumber(), trip.getDays(), trip.getFromCity(), trip.getToCity(), String.join(", ", trip.getInterests()),
+                day.getStartLocation().getName(), day.getFinishLocation().getName());
+    }
+
+    private List<DayPlan> generateSkeleton(Trip trip) {
+        String prompt = buildSkeletonPrompt(trip);
+        TokenBudget.Allocation allocation = tokenBudget.allocate("skeleton", SKELETON_SYSTEM_PROMPT + prompt,
+                SKELETON_BASE_TOKENS + SKELETON_TOKENS_PER_DAY * trip.getDays());
+        if (!allocation.fits()) {
+            tokenBudget.recordOverflow(allocation, "rejected");
+            throw new IllegalArgumentException("A " + trip.getDays() + " day trip is too long to plan");
+        }
+        String content = complete(SKELETON_SYSTEM_PROMPT, prompt, TripPlanSchema.responseFormat("trip_skeleton", TripPlanSchema.SKELETON),
+                allocation, "skeleton");
+        try {
+            List<DayPlan> days = TripPlanParser.parseSkeleton(content);
+            logger.info("Skeleton for trip ID {} has {} days", trip.getTripId(), days.size());
+            return days;
+        } catch (IOException | TripPlanParseException e) {
+            throw new RuntimeException("Failed to parse trip skeleton JSON: " + e.getMessage(), e);
+        }
+    }
+
+    private DayPlan generateDayDetails(Trip trip, DayPlan day) {
+        long startTime = System.currentTimeMillis();
+        String prompt = buildDayPrompt(trip, day);
+        int interests = trip.getInterests() == null ? 0 : trip.getInterests().size();
+        TokenBudget.Allocation allocation = tokenBudget.allocate("day", DAY_SYSTEM_PROMPT + prompt, tokenBudget.expectedDayTokens(interests));
+        String content = complete(DAY_SYSTEM_PROMPT, prompt, TripPlanSchema.responseFormat("trip_day", TripPlanSchema.DAY_DETAILS),
+                allocation, "day " + day.getDayNumber());
+        try {
+            DayPlan detail = TripPlanParser.parseDayDetails(content);
+            LoggingUtils.logPerformance(logger, "Day " + day.getDayNumber() + " generation", startTime);
+            return detail;
+        } catch (IOException | TripPlanParseException e) {
+            throw new RuntimeException("Failed to parse day " + day.getDayNumber() + " JSON: " + e.getMessage(), e);
+        }
+    }
+
+    private String complete(String systemPrompt, String prompt, Map<String, Object> responseFormat,
+                            TokenBudget.Allocation allocation, String description) {
+        try {
+            String requestJson = TripPlanParser.MAPPER.writeValueAsString(
+                    OpenAiTripPlanGenerator.openAiRequestBody(systemPrompt, prompt, responseFormat, allocation.maxTokens()));
+            String response = llmHttpClient.postJson(OpenAiTripPlanGenerator.OPENAI_CHAT_COMPLETIONS_URL, openAiApiKey, requestJson);
+            tokenBudget.recordUsage(allocation, response);
+            return TripPlanParser.extractContent(response).trim();
+        } catch (IOException | TripPlanParseException e) {
+            throw new RuntimeException("Failed to read OpenAI response for " + description + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Waits for every day, failing as soon as any one of them fails; the remaining queued days are cancelled.
+     */
+    private static void awaitAll(List<CompletableFuture<DayPlan>> details) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(details.toArray(CompletableFuture[]::new));
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        for (CompletableFuture<DayPlan> detail : details) {
+            detail.whenComplete((day, error) -> {
+                if (error != null) {
+                    firstFailure.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            CompletableFuture.anyOf(all, firstFailure).join();
+        } catch (CompletionException e) {
+            details.forEach(detail -> detail.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.PlaceOfInterest;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.repository.PlaceLocation;
+import com.adendl.traveljournalai.repository.PlaceOfInterestRepository;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.Logger;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory spatial index of every stored place of interest, for "what is near here" and "what is
+ * near this route" questions without scanning the table.
+ * <p>
+ * Places live in a JTS {@link STRtree}, which is bulk-loaded and can't change once built. Trips
+ * created or deleted since the last build are kept beside it as a second, small tree of added
+ * places, rebuilt on every change, and a set of removed trip ids; every query consults both. When
+ * those pending updates pass {@code places.index.rebuild-threshold} the tree is rebuilt in the
+ * background and the updates that arrived meanwhile are carried over. Readers never lock: each
+ * query works on one immutable snapshot.
+ */
+@Service
+public class PlaceIndex {
+
+    private static final Logger logger = LoggingUtils.getLogger(PlaceIndex.class);
+
+    public static final int MAX_RESULTS = 100;
+    public static final double MAX_RADIUS_KM = 100;
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final PlaceOfInterestRepository repository;
+    private final int rebuildThreshold;
+    private final Executor rebuildExecutor;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Timer buildTimer;
+
+    private volatile Snapshot snapshot = new Snapshot(buildTree(List.of()), List.of(), List.of(), buildTree(List.of()), Set.of());
+
+    /**
+     * @param indexed The places in {@code tree}
+     * @param added Places of trips created since the tree was built
+     * @param addedTree The places in {@code added}
+     * @param removedTrips Trips deleted since the tree was built; their places in the tree are skipped
+     */
+    private record Snapshot(STRtree tree, List<IndexedPlace> indexed, List<IndexedPlace> added, STRtree addedTree,
+                            Set<Long> removedTrips) {
+
+        int pendingUpdates() {
+            return added.size() + removedTrips.size();
+        }
+    }
+
+    @Autowired
+    public PlaceIndex(PlaceOfInterestRepository repository,
+                      MeterRegistry meterRegistry,
+                      @Value("${places.index.rebuild-threshold:2000}") int rebuildThreshold) {
+        this(repository, meterRegistry, rebuildThreshold, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "place-index-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    PlaceIndex(PlaceOfInterestRepository repository, MeterRegistry meterRegistry, int rebuildThreshold, Executor rebuildExecutor) {
+        this.repository = repository;
+        this.rebuildThreshold = Math.max(1, rebuildThreshold);
+        this.rebuildExecutor = rebuildExecutor;
+        this.buildTimer = meterRegistry.timer("places.index.build");
+        // Entries include places of deleted trips until the next rebuild
+        meterRegistry.gauge("places.index.entries", this, index -> index.snapshot.indexed().size() + index.snapshot.added().size());
+        meterRegistry.gauge("places.index.pending", this, PlaceIndex::pendingUpdates);
+    }
+
+    /**
+     * Builds the index from the places of interest table, reading it in id order in batches. Trips
+     * added or removed while the table is read are kept as pending updates.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long startTime = System.currentTimeMillis();
+        // Taken before the first page, so install carries over every update made during the scan
+        Snapshot base = snapshot;
+        List<IndexedPlace> places = new ArrayList<>();
+        long afterId = 0;
+        List<PlaceLocation> page;
+        do {
+            page = repository.findLocationsAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (PlaceLocation location : page) {
+                IndexedPlace place = new IndexedPlace(location.getId(), location.getTripId(), location.getName(),
+                        location.getLatitude(), location.getLongitude());
+                if (isValid(place)) {
+                    places.add(place);
+                }
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == LOAD_BATCH_SIZE);
+        // Places of a trip added during the scan may also have been read; they stay pending only
+        Set<Long> addedDuringScan = new HashSet<>();
+        Set<IndexedPlace> addedBefore = Collections.newSetFromMap(new IdentityHashMap<>());
+        addedBefore.addAll(base.added());
+        for (IndexedPlace place : snapshot.added()) {
+            if (!addedBefore.contains(place)) {
+                addedDuringScan.add(place.id());
+            }
+        }
+        List<IndexedPlace> indexed = places.stream().filter(place -> !addedDuringScan.contains(place.id())).toList();
+        install(base, build(indexed), indexed);
+        logger.info("Indexed {} places of interest", indexed.size());
+        LoggingUtils.logPerformance(logger, "PlaceIndex.load", startTime);
+    }
+
+    /**
+     * Replaces the indexed places. Updates made while the tree is built are kept.
+     */
+    public void rebuild(Collection<IndexedPlace> places) {
+        Snapshot base = snapshot;
+        List<IndexedPlace> indexed = List.copyOf(places);
+        install(base, build(indexed), indexed);
+    }
+
+    /**
+     * Adds the places of interest of a saved trip.
+     */
+    public void addTrip(Trip trip) {
+        if (trip.getTripId() == null || trip.getTripPlans() == null) {
+            return;
+        }
+        List<IndexedPlace> places = new ArrayList<>();
+        for (TripPlan plan : trip.getTripPlans()) {
+            for (DayPlan day : plan.getDays() == null ? List.<DayPlan>of() : plan.getDays()) {
+                for (PlaceOfInterest poi : day.getPlacesOfInterest() == null ? List.<PlaceOfInterest>of() : day.getPlacesOfInterest()) {
+                    if (poi.getId() != null) {
+                        places.add(new IndexedPlace(poi.getId(), trip.getTripId(), poi.getName(), poi.getLatitude(), poi.getLongitude()));
+                    }
+                }
+            }
+        }
+        add(places);
+    }
+
+    public void add(Collection<IndexedPlace> places) {
+        List<IndexedPlace> valid = places.stream().filter(PlaceIndex::isValid).toList();
+        if (valid.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            Snapshot current = snapshot;
+            List<IndexedPlace> added = new ArrayList<>(current.added().size() + valid.size());
+            added.addAll(current.added());
+            added.addAll(valid);
+            snapshot = new Snapshot(current.tree(), current.indexed(), Collections.unmodifiableList(added), buildTree(added),
+                    current.removedTrips());
+        }
+        rebuildIfNeeded();
+    }
+
+    public void removeTrip(long tripId) {
+        synchronized (this) {
+            Snapshot current = snapshot;
+            List<IndexedPlace> added = current.added().stream().filter(place -> place.tripId() != tripId).toList();
+            STRtree addedTree = added.size() == current.added().size() ? current.addedTree() : buildTree(added);
+            Set<Long> removedTrips = new HashSet<>(current.removedTrips());
+            removedTrips.add(tripId);
+            snapshot = new Snapshot(current.tree(), current.indexed(), added, addedTree, Collections.unmodifiableSet(removedTrips));
+        }
+        rebuildIfNeeded();
+    }
+
+    /**
+     * @param radiusKm Search radius, at most {@link #MAX_RADIUS_KM}
+     * @param limit Results wanted, at most {@link #MAX_RESULTS}
+     * @return The places within the radius, closest first
+     * @throws IllegalArgumentException If the point or radius is out of range
+     */
+    public List<NearbyPlace> nearby(double latitude, double longitude, double radiusKm, int limit) {
+        checkPoint(latitude, longitude);
+        checkRadius(radiusKm);
+        Snapshot current = snapshot;
+        Map<Long, NearbyPlace> found = new HashMap<>();
+        search(current, envelopes(latitude, longitude, latitude, longitude, radiusKm), place -> {
+            double distance = GeometryService.haversineKm(latitude, longitude, place.latitude(), place.longitude());
+            if (distance <= radiusKm) {
+                found.putIfAbsent(place.id(), new NearbyPlace(place, distance));
+            }
+        });
+        return closest(found, limit);
+    }
+
+    /**
+     * Corridor query: places within {@code radiusKm} of any segment of the routes.
+     * @param routes [latitude, longitude] polylines, best simplified first since each segment is one index lookup
+     * @param excludeTripId Trip whose own places are left out
+     * @return The places in the corridor, closest to the route first
+     * @throws IllegalArgumentException If a point or the radius is out of range
+     */
+    public List<NearbyPlace> nearRoute(List<double[][]> routes, double radiusKm, long excludeTripId, int limit) {
+        checkRadius(radiusKm);
+        Snapshot current = snapshot;
+        Map<Long, NearbyPlace> found = new HashMap<>();
+        for (double[][] route : routes) {
+            // A single point is searched as a zero-length segment
+            for (int i = 0; i == 0 || i < route.length - 1; i++) {
+                double[] from = route[i];
+                double[] to = route[Math.min(i + 1, route.length - 1)];
+                checkPoint(from[0], from[1]);
+                checkPoint(to[0], to[1]);
+                search(current, envelopes(from[0], from[1], to[0], to[1], radiusKm), place -> {
+                    if (place.tripId() == excludeTripId) {
+                        return;
+                    }
+                    double distance = GeometryService.segmentDistanceKm(place.latitude(), place.longitude(), from, to);
+                    if (distance <= radiusKm) {
+                        found.merge(place.id(), new NearbyPlace(place, distance),
+                                (previous, next) -> next.distanceKm() < previous.distanceKm() ? next : previous);
+                    }
+                });
+            }
+        }
+        return closest(found, limit);
+    }
+
+    /**
+     * @return The number of places queries can currently find
+     */
+    public int size() {
+        Snapshot current = snapshot;
+        int removed = 0;
+        if (!current.removedTrips().isEmpty()) {
+            for (IndexedPlace place : current.indexed()) {
+                if (current.removedTrips().contains(place.tripId())) {
+                    removed++;
+                }
+            }
+        }
+        return current.indexed().size() - removed + current.added().size();
+    }
+
+    int pendingUpdates() {
+        return snapshot.pendingUpdates();
+    }
+
+    private void rebuildIfNeeded() {
+        if (snapshot.pendingUpdates() < rebuildThreshold || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rebuildExecutor.execute(() -> {
+                try {
+                    Snapshot base = snapshot;
+                    List<IndexedPlace> live = new ArrayList<>(base.indexed().size() + base.added().size());
+                    for (IndexedPlace place : base.indexed()) {
+                        if (!base.removedTrips().contains(place.tripId())) {
+                            live.add(place);
+                        }
+                    }
+                    live.addAll(base.added());
+                    install(base, build(live), Collections.unmodifiableList(live));
+                    logger.debug("Rebuilt place index with {} places", live.size());
+                } catch (RuntimeException e) {
+                    logger.error("Place index rebuild failed: {}", e.getMessage(), e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Publishes a tree built from {@code base}, keeping the updates that arrived after {@code base} was taken.
+     */
+    private synchronized void install(Snapshot base, STRtree tree, List<IndexedPlace> indexed) {
+        Snapshot current = snapshot;
+        Set<IndexedPlace> alreadyIndexed = Collections.newSetFromMap(new IdentityHashMap<>());
+        alreadyIndexed.addAll(base.added());
+        List<IndexedPlace> added = current.added().stream().filter(place -> !alreadyIndexed.contains(place)).toList();
+        Set<Long> removedTrips = new HashSet<>(current.removedTrips());
+        removedTrips.removeAll(base.removedTrips());
+        snapshot = new Snapshot(tree, indexed, added, buildTree(added), Collections.unmodifiableSet(removedTrips));
+    }
+
+    private STRtree build(List<IndexedPlace> places) {
+        return buildTimer.record(() -> buildTree(places));
+    }
+
+    private static STRtree buildTree(List<IndexedPlace> places) {
+        STRtree tree = new STRtree();
+        for (IndexedPlace place : places) {
+            tree.insert(new Envelope(place.longitude(), place.longitude(), place.latitude(), place.latitude()), place);
+        }
+        // Built eagerly: a lazily built tree would be built by whichever reader comes first, unsynchronized
+        tree.build();
+        return tree;
+    }
+
+    private interface PlaceVisitor {
+        void visit(IndexedPlace place);
+    }
+
+    /**
+     * Visits the live places in the envelopes, which must not overlap.
+     */
+    private static void search(Snapshot current, List<Envelope> envelopes, PlaceVisitor visitor) {
+        Set<Long> removedTrips = current.removedTrips();
+        for (Envelope envelope : envelopes) {
+            current.tree().query(envelope, item -> {
+                IndexedPlace place = (IndexedPlace) item;
+                if (removedTrips.isEmpty() || !removedTrips.contains(place.tripId())) {
+                    visitor.visit(place);
+                }
+            });
+            // Places of removed trips are already dropped from the added tree
+            current.addedTree().query(envelope, item -> visitor.visit((IndexedPlace) item));
+        }
+    }
+
+    /**
+     * @return The search box of a segment, as two envelopes when it crosses the antimeridian
+     */
+    private static List<Envelope> envelopes(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude, double radiusKm) {
+        List<Envelope> envelopes = new ArrayList<>(2);
+        for (double[] box : GeometryService.boundingBoxes(fromLatitude, fromLongitude, toLatitude, toLongitude, radiusKm)) {
+            envelopes.add(new Envelope(box[1], box[3], box[0], box[2]));
+        }
+        return envelopes;
+    }
+
+    private static List<NearbyPlace> closest(Map<Long, NearbyPlace> found, int limit) {
+        return found.values().stream()
+                .sorted(Comparator.comparingDouble(NearbyPlace::distanceKm).thenComparingLong(nearby -> nearby.place().id()))
+                .limit(Math.max(1, Math.min(MAX_RESULTS, limit)))
+                .toList();
+    }
+
+    private static boolean isValid(IndexedPlace place) {
+        return Math.abs(place.latitude()) <= 90 && Math.abs(place.longitude()) <= 180;
+    }
+
+    private static void checkPoint(double latitude, double longitude) {
+        if (!(Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180)) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+    }
+
+    private static void checkRadius(double radiusKm) {
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException("radiusKm must be greater than 0 and at most " + MAX_RADIUS_KM);
+        }
+    }
+}
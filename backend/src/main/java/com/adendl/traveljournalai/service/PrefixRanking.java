@@ -0,0 +1,155 @@
+package com.adendl.traveljournalai.service;
+
+import java.util.Arrays;
+
+/**
+ * Finds the most populous cities whose names start with a prefix without visiting every match.
+ * The names with a given prefix are one contiguous range of the sorted name table of a
+ * {@link GazetteerIndex}, and city ids are assigned by population descending, so the most populous
+ * matches are the smallest city ids in that range. A sparse table over blocks of the name table
+ * answers range-minimum queries with two lookups and two short scans, and the top k come from
+ * repeatedly splitting a range around its minimum. Built once; immutable afterwards.
+ */
+final class PrefixRanking {
+
+    private static final int BLOCK_SHIFT = 5;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private final GazetteerIndex index;
+
+    /** [level][block]: the name entry with the smallest city id in blocks [block, block + 2^level). */
+    private final int[][] blockMinima;
+
+    PrefixRanking(GazetteerIndex index) {
+        this.index = index;
+        int blocks = (index.nameCount() + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int levels = blocks == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(blocks);
+        blockMinima = new int[levels][];
+        if (levels == 0) {
+            return;
+        }
+        blockMinima[0] = new int[blocks];
+        for (int block = 0; block < blocks; block++) {
+            blockMinima[0][block] = scan(block << BLOCK_SHIFT, Math.min((block + 1) << BLOCK_SHIFT, index.nameCount()));
+        }
+        for (int level = 1; level < levels; level++) {
+            int half = 1 << (level - 1);
+            int[] previous = blockMinima[level - 1];
+            int[] current = new int[blocks - (1 << level) + 1];
+            for (int block = 0; block < current.length; block++) {
+                current[block] = smaller(previous[block], previous[block + half]);
+            }
+            blockMinima[level] = current;
+        }
+    }
+
+    /**
+     * @return The approximate heap size of the sparse table in bytes
+     */
+    long heapBytes() {
+        long bytes = 0;
+        for (int[] level : blockMinima) {
+            bytes += 16 + 4L * level.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * @param from First name entry of the range
+     * @param to End of the range, exclusive
+     * @param cities Receives distinct city ids, most populous first; its length is the number wanted
+     * @return The number of cities written
+     */
+    int top(int from, int to, int[] cities) {
+        if (from >= to || cities.length == 0) {
+            return 0;
+        }
+        // Each split closes one range and opens at most two; enough unless a city matches under several names
+        int capacity = 2 * cities.length + 1;
+        int[] starts = new int[capacity];
+        int[] ends = new int[capacity];
+        int[] minima = new int[capacity];
+        starts[0] = from;
+        ends[0] = to;
+        minima[0] = rangeMinimum(from, to);
+        int ranges = 1;
+        int count = 0;
+
+        while (ranges > 0 && count < cities.length) {
+            // Few ranges are ever open, so a linear pick beats a heap
+            int best = 0;
+            for (int i = 1; i < ranges; i++) {
+                if (index.nameCity(minima[i]) < index.nameCity(minima[best])) {
+                    best = i;
+                }
+            }
+            int start = starts[best];
+            int end = ends[best];
+            int minimum = minima[best];
+            ranges--;
+            starts[best] = starts[ranges];
+            ends[best] = ends[ranges];
+            minima[best] = minima[ranges];
+
+            int city = index.nameCity(minimum);
+            if (!contains(cities, count, city)) {
+                cities[count++] = city;
+            }
+            if (ranges + 2 > starts.length) {
+                starts = Arrays.copyOf(starts, 2 * starts.length);
+                ends = Arrays.copyOf(ends, 2 * ends.length);
+                minima = Arrays.copyOf(minima, 2 * minima.length);
+            }
+            if (start < minimum) {
+                starts[ranges] = start;
+                ends[ranges] = minimum;
+                minima[ranges++] = rangeMinimum(start, minimum);
+            }
+            if (minimum + 1 < end) {
+                starts[ranges] = minimum + 1;
+                ends[ranges] = end;
+                minima[ranges++] = rangeMinimum(minimum + 1, end);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The name entry with the smallest city id in [from, to); the range must not be empty
+     */
+    int rangeMinimum(int from, int to) {
+        int firstBlock = from >> BLOCK_SHIFT;
+        int lastBlock = (to - 1) >> BLOCK_SHIFT;
+        if (firstBlock == lastBlock) {
+            return scan(from, to);
+        }
+        int minimum = smaller(scan(from, (firstBlock + 1) << BLOCK_SHIFT), scan(lastBlock << BLOCK_SHIFT, to));
+        int blocks = lastBlock - firstBlock - 1;
+        if (blocks > 0) {
+            int level = 31 - Integer.numberOfLeadingZeros(blocks);
+            minimum = smaller(minimum, smaller(blockMinima[level][firstBlock + 1], blockMinima[level][lastBlock - (1 << level)]));
+        }
+        return minimum;
+    }
+
+    private int scan(int from, int to) {
+        int minimum = from;
+        for (int entry = from + 1; entry < to; entry++) {
+            minimum = smaller(minimum, entry);
+        }
+        return minimum;
+    }
+
+    private int smaller(int entry, int other) {
+        return index.nameCity(other) < index.nameCity(entry) ? other : entry;
+    }
+
+    private static boolean contains(int[] cities, int count, int city) {
+        for (int i = 0; i < count; i++) {
+            if (cities[i] == city) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
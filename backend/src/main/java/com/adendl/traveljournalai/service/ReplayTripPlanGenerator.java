@@ -0,0 +1,79 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Serves plans recorded by the {@link OpenAiTripPlanGenerator} from
+ * {@code trips.generator.replay.directory}. A request gets the recording made for the same
+ * canonical request if there is one, otherwise a recording picked deterministically from the
+ * request, so a load test can run any mix of routes against a handful of real responses.
+ * Recordings are kept as raw JSON and parsed on every call, like a live response would be.
+ */
+@Service
+@ConditionalOnProperty(name = "trips.generator", havingValue = "replay")
+public class ReplayTripPlanGenerator implements TripPlanGenerator {
+
+    private static final Logger logger = LoggingUtils.getLogger(ReplayTripPlanGenerator.class);
+
+    private static final String EXTENSION = ".json";
+
+    private final Map<String, String> recordings = new TreeMap<>();
+    private final List<String> ordered;
+
+    @Autowired
+    public ReplayTripPlanGenerator(@Value("${trips.generator.replay.directory}") String directory) {
+        try (Stream<Path> files = Files.list(Path.of(directory))) {
+            for (Path file : files.filter(path -> path.getFileName().toString().endsWith(EXTENSION)).toList()) {
+                recordings.put(file.getFileName().toString(), Files.readString(file, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read recorded trip plans from " + directory, e);
+        }
+        if (recordings.isEmpty()) {
+            throw new IllegalStateException("No recorded trip plans found in " + directory);
+        }
+        this.ordered = new ArrayList<>(recordings.values());
+        logger.info("Loaded {} recorded trip plans from {}", recordings.size(), directory);
+    }
+
+    @Override
+    public TripPlan generate(Trip trip) {
+        TripPlanCacheKey key = TripPlanCacheKey.of(trip);
+        String content = recordings.get(fileName(key));
+        if (content == null) {
+            content = ordered.get(Math.floorMod(key.asString().hashCode(), ordered.size()));
+        }
+        try {
+            TripPlan tripPlan = TripPlanParser.parseContent(content);
+            tripPlan.setTrip(trip);
+            return tripPlan;
+        } catch (IOException | TripPlanParseException e) {
+            throw new RuntimeException("Failed to parse recorded trip plan for " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return The file a plan for this request is recorded to and replayed from
+     */
+    static String fileName(TripPlanCacheKey key) {
+        return key.asString().replaceAll("[^a-z0-9]+", "_") + EXTENSION;
+    }
+}
@@ -0,0 +1,44 @@
+package com.adendl.traveljournalai.service;
+
+import java.util.Locale;
+
+/**
+ * Identity of a routed leg: start and finish rounded to four decimal places (about 11 m), so
+ * the same towns planned for different trips share one geometry. Coordinates are held in units
+ * of 1e-4 degrees.
+ */
+public record RouteCacheKey(int fromLatitude, int fromLongitude, int toLatitude, int toLongitude) {
+
+    private static final double SCALE = 1e4;
+
+    public static RouteCacheKey of(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        return new RouteCacheKey(round(fromLatitude), round(fromLongitude), round(toLatitude), round(toLongitude));
+    }
+
+    public double fromLatitudeDegrees() {
+        return fromLatitude / SCALE;
+    }
+
+    public double fromLongitudeDegrees() {
+        return fromLongitude / SCALE;
+    }
+
+    public double toLatitudeDegrees() {
+        return toLatitude / SCALE;
+    }
+
+    public double toLongitudeDegrees() {
+        return toLongitude / SCALE;
+    }
+
+    /**
+     * @return A file name unique to this key, used by the on-disk tier
+     */
+    public String fileName() {
+        return String.format(Locale.ROOT, "%d_%d_%d_%d.json", fromLatitude, fromLongitude, toLatitude, toLongitude);
+    }
+
+    private static int round(double degrees) {
+        return (int) Math.round(degrees * SCALE);
+    }
+}
@@ -0,0 +1,16 @@
+package com.adendl.traveljournalai.service;
+
+import java.io.IOException;
+
+/**
+ * Source of driving geometry between two points. The implementation is chosen by the
+ * {@code routes.router} property.
+ */
+public interface RouteClient {
+
+    /**
+     * @return The driving route from the first point to the second
+     * @throws IOException If the router can't be reached or finds no route
+     */
+    RouteGeometry route(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) throws IOException;
+}
@@ -0,0 +1,17 @@
+package com.adendl.traveljournalai.service;
+
+/**
+ * The road geometry of one leg as returned by a {@link RouteClient}.
+ * @param coordinates [latitude, longitude] pairs from start to finish
+ * @param distanceKm The driving distance along the geometry
+ */
+public record RouteGeometry(double[][] coordinates, double distanceKm) {
+
+    /**
+     * @return The two-point line used when no road geometry could be fetched
+     */
+    public static RouteGeometry straightLine(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        return new RouteGeometry(new double[][] {{fromLatitude, fromLongitude}, {toLatitude, toLongitude}},
+                GeometryService.haversineKm(fromLatitude, fromLongitude, toLatitude, toLongitude));
+    }
+}
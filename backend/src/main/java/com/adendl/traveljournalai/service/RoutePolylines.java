@@ -0,0 +1,136 @@
+package com.adendl.traveljournalai.service;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
+
+/**
+ * Shrinks route geometry for the map. Routes are simplified with Douglas-Peucker using a
+ * tolerance of half a screen pixel at the requested Web Mercator zoom level, then written as a
+ * Google encoded polyline (five decimal places, about 1 m), which stores each point as a few
+ * characters of zigzag-varint deltas instead of two JSON numbers.
+ */
+public final class RoutePolylines {
+
+    public static final int MIN_ZOOM = 0;
+    public static final int MAX_ZOOM = 18;
+
+    /** Allowed deviation of the simplified line, in screen pixels. */
+    private static final double PIXEL_TOLERANCE = 0.5;
+
+    private static final int TILE_SIZE = 256;
+    private static final double PRECISION = 1e5;
+
+    private static final GeometryFactory geometryFactory = new GeometryFactory();
+
+    private RoutePolylines() {
+    }
+
+    /**
+     * @param latitude A latitude of the route, used to correct for Mercator stretching
+     * @return The simplification tolerance in degrees for a map at the given zoom level
+     */
+    public static double toleranceDegrees(int zoom, double latitude) {
+        int clamped = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+        double degreesPerPixel = 360.0 / ((double) TILE_SIZE * (1L << clamped));
+        // Away from the equator a degree of latitude covers more pixels than one of longitude
+        return PIXEL_TOLERANCE * degreesPerPixel * Math.cos(Math.toRadians(latitude));
+    }
+
+    /**
+     * @param coordinates [latitude, longitude] pairs
+     * @return The points of the Douglas-Peucker simplification, always keeping both ends
+     */
+    public static double[][] simplify(double[][] coordinates, int zoom) {
+        if (coordinates.length <= 2) {
+            return coordinates;
+        }
+        Coordinate[] points = new Coordinate[coordinates.length];
+        for (int i = 0; i < coordinates.length; i++) {
+            points[i] = new Coordinate(coordinates[i][1], coordinates[i][0]);
+        }
+        double tolerance = toleranceDegrees(zoom, coordinates[coordinates.length / 2][0]);
+        Geometry simplified = DouglasPeuckerSimplifier.simplify(geometryFactory.createLineString(points), tolerance);
+        Coordinate[] kept = simplified.getCoordinates();
+        if (kept.length < 2) {
+            // A leg that starts and ends in the same place collapses to nothing
+            return new double[][] {coordinates[0], coordinates[coordinates.length - 1]};
+        }
+        double[][] result = new double[kept.length][];
+        for (int i = 0; i < kept.length; i++) {
+            result[i] = new double[] {kept[i].y, kept[i].x};
+        }
+        return result;
+    }
+
+    /**
+     * @param coordinates [latitude, longitude] pairs
+     * @return The Google encoded polyline of the points
+     */
+    public static String encode(double[][] coordinates) {
+        StringBuilder encoded = new StringBuilder(coordinates.length * 8);
+        long previousLatitude = 0;
+        long previousLongitude = 0;
+        for (double[] coordinate : coordinates) {
+            long latitude = Math.round(coordinate[0] * PRECISION);
+            long longitude = Math.round(coordinate[1] * PRECISION);
+            encodeValue(latitude - previousLatitude, encoded);
+            encodeValue(longitude - previousLongitude, encoded);
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * @return The [latitude, longitude] pairs of a Google encoded polyline
+     * @throws IllegalArgumentException If the string is not a complete polyline
+     */
+    public static double[][] decode(String encoded) {
+        double[][] buffer = new double[Math.max(1, encoded.length() / 2)][];
+        int count = 0;
+        int index = 0;
+        long latitude = 0;
+        long longitude = 0;
+        long[] value = new long[1];
+        while (index < encoded.length()) {
+            index = decodeValue(encoded, index, value);
+            latitude += value[0];
+            if (index >= encoded.length()) {
+                throw new IllegalArgumentException("Polyline ends after a latitude");
+            }
+            index = decodeValue(encoded, index, value);
+            longitude += value[0];
+            buffer[count++] = new double[] {latitude / PRECISION, longitude / PRECISION};
+        }
+        double[][] coordinates = new double[count][];
+        System.arraycopy(buffer, 0, coordinates, 0, count);
+        return coordinates;
+    }
+
+    private static void encodeValue(long delta, StringBuilder encoded) {
+        long value = delta < 0 ? ~(delta << 1) : delta << 1;
+        while (value >= 0x20) {
+            encoded.append((char) ((0x20 | (value & 0x1f)) + 63));
+            value >>= 5;
+        }
+        encoded.append((char) (value + 63));
+    }
+
+    private static int decodeValue(String encoded, int index, long[] value) {
+        long result = 0;
+        int shift = 0;
+        int chunk;
+        do {
+            if (index >= encoded.length()) {
+                throw new IllegalArgumentException("Polyline ends inside a value");
+            }
+            chunk = encoded.charAt(index++) - 63;
+            result |= (long) (chunk & 0x1f) << shift;
+            shift += 5;
+        } while (chunk >= 0x20);
+        value[0] = (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+        return index;
+    }
+}
@@ -0,0 +1,267 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Driving geometry for the days of a trip. Legs are looked up in a Caffeine tier, then in one file
+ * per {@link RouteCacheKey} on disk, and only then fetched from the {@link RouteClient}; misses of
+ * one trip are fetched in parallel on the route executor. Concurrent requests for a leg share one
+ * fetch. A leg that fails, or is not ready by the deadline, is answered with its straight line and
+ * is not cached, so the next view tries again; a leg that is merely slow keeps loading in the
+ * background and is cached for the next view. Geometry is cached at full resolution and
+ * simplified per response for the zoom level of the map showing it. Files on disk older than the
+ * disk TTL are ignored and deleted by a periodic sweep, so roads that change are eventually
+ * routed again and the directory does not grow forever.
+ */
+@Service
+public class RouteService {
+
+    private static final Logger logger = LoggingUtils.getLogger(RouteService.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String METRIC_NAME = "routes.legs";
+
+    private final RouteClient routeClient;
+    private final AsyncCache<RouteCacheKey, RouteGeometry> memory;
+    private final Path directory;
+    private final Duration diskTtl;
+    private final Duration timeout;
+
+    private final Counter diskHits;
+    private final Counter routerHits;
+    private final Counter routerFailures;
+    private final Counter fallbacks;
+
+    @Autowired
+    public RouteService(RouteClient routeClient,
+                        MeterRegistry meterRegistry,
+                        @Qualifier("routeExecutor") Executor executor,
+                        @Value("${routes.cache.spec:maximumSize=10000,expireAfterAccess=24h}") String caffeineSpec,
+                        @Value("${routes.cache.directory:}") String directory,
+                        @Value("${routes.cache.disk-ttl-hours:720}") long diskTtlHours,
+                        @Value("${routes.timeout-ms:15000}") long timeoutMs) {
+        this.routeClient = routeClient;
+        this.diskTtl = Duration.ofHours(diskTtlHours);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.memory = Caffeine.from(caffeineSpec).executor(executor).recordStats().buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, memory, "routeCache");
+        this.directory = createDirectory(directory.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "roadtrip-routes")
+                : Path.of(directory));
+
+        this.diskHits = meterRegistry.counter(METRIC_NAME, "source", "disk");
+        this.routerHits = meterRegistry.counter(METRIC_NAME, "source", "router");
+        this.routerFailures = meterRegistry.counter(METRIC_NAME, "source", "router-failure");
+        this.fallbacks = meterRegistry.counter(METRIC_NAME, "source", "straight-line");
+    }
+
+    /**
+     * @param days The days of one plan, in order
+     * @param zoom The map zoom level the routes are simplified for, see {@link RoutePolylines}
+     * @return The route of every day that has both locations, in the same order
+     */
+    public List<DayRoute> routesFor(List<DayPlan> days, int zoom) {
+        long startTime = System.currentTimeMillis();
+        List<DayRoute> routes = new ArrayList<>();
+        int points = 0;
+        int simplifiedPoints = 0;
+        for (Leg leg : resolve(days)) {
+            double[][] simplified = RoutePolylines.simplify(leg.geometry().coordinates(), zoom);
+            points += leg.geometry().coordinates().length;
+            simplifiedPoints += simplified.length;
+            routes.add(new DayRoute(leg.day().getDayNumber(), Math.round(leg.geometry().distanceKm() * 10) / 10.0, leg.routed(),
+                    RoutePolylines.encode(simplified)));
+        }
+        logger.debug("Simplified {} route points to {} for zoom {}", points, simplifiedPoints, zoom);
+        LoggingUtils.logPerformance(logger, "routesFor", startTime);
+        return routes;
+    }
+
+    /**
+     * @param days The days of one plan, in order
+     * @param zoom The map zoom level the geometry is simplified for, see {@link RoutePolylines}
+     * @return The [latitude, longitude] geometry of every day that has both locations, in the same order
+     */
+    public List<double[][]> geometriesFor(List<DayPlan> days, int zoom) {
+        return resolve(days).stream()
+                .map(leg -> RoutePolylines.simplify(leg.geometry().coordinates(), zoom))
+                .toList();
+    }
+
+    private record Leg(DayPlan day, RouteGeometry geometry, boolean routed) {
+    }
+
+    private List<Leg> resolve(List<DayPlan> days) {
+        List<DayPlan> legs = new ArrayList<>();
+        List<CompletableFuture<RouteGeometry>> geometries = new ArrayList<>();
+        for (DayPlan day : days) {
+            if (day.getStartLocation() == null || day.getFinishLocation() == null) {
+                continue;
+            }
+            RouteCacheKey key = RouteCacheKey.of(day.getStartLocation().getLatitude(), day.getStartLocation().getLongitude(),
+                    day.getFinishLocation().getLatitude(), day.getFinishLocation().getLongitude());
+            legs.add(day);
+            geometries.add(memory.get(key, this::load));
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<Leg> resolved = new ArrayList<>(legs.size());
+        for (int i = 0; i < legs.size(); i++) {
+            DayPlan day = legs.get(i);
+            RouteGeometry geometry = await(geometries.get(i), deadline, day.getDayNumber());
+            boolean routed = geometry != null;
+            if (!routed) {
+                fallbacks.increment();
+                geometry = RouteGeometry.straightLine(day.getStartLocation().getLatitude(), day.getStartLocation().getLongitude(),
+                        day.getFinishLocation().getLatitude(), day.getFinishLocation().getLongitude());
+            }
+            resolved.add(new Leg(day, geometry, routed));
+        }
+        return resolved;
+    }
+
+    private RouteGeometry await(CompletableFuture<RouteGeometry> geometry, long deadline, int dayNumber) {
+        try {
+            return geometry.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Route for day {} not ready within {} ms, using a straight line", dayNumber, timeout.toMillis());
+        } catch (ExecutionException e) {
+            logger.warn("Route for day {} failed, using a straight line: {}", dayNumber, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private RouteGeometry load(RouteCacheKey key) {
+        RouteGeometry stored = read(key);
+        if (stored != null) {
+            diskHits.increment();
+            return stored;
+        }
+        try {
+            RouteGeometry geometry = routeClient.route(key.fromLatitudeDegrees(), key.fromLongitudeDegrees(),
+                    key.toLatitudeDegrees(), key.toLongitudeDegrees());
+            routerHits.increment();
+            write(key, geometry);
+            return geometry;
+        } catch (IOException e) {
+            routerFailures.increment();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private RouteGeometry read(RouteCacheKey key) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(key.fileName());
+        try {
+            if (isExpired(Files.getLastModifiedTime(file))) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return objectMapper.readValue(Files.readAllBytes(file), RouteGeometry.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable cached route {}: {}", file, e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Overwritten by the next successful fetch
+            }
+            return null;
+        }
+    }
+
+    private void write(RouteCacheKey key, RouteGeometry geometry) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            // Written aside and moved into place so readers never see a partial file
+            Path temporary = Files.createTempFile(directory, key.fileName(), ".tmp");
+            Files.write(temporary, objectMapper.writeValueAsBytes(geometry));
+            Files.move(temporary, directory.resolve(key.fileName()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not cache route {} on disk: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes cached route files older than the disk TTL. Failures are logged and retried on the next run.
+     */
+    @Scheduled(initialDelayString = "${routes.cache.disk-eviction-interval-ms:3600000}",
+            fixedDelayString = "${routes.cache.disk-eviction-interval-ms:3600000}")
+    public void evictExpired() {
+        if (directory == null) {
+            return;
+        }
+        int expired = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                try {
+                    // Left-over temporary files of failed writes go the same way
+                    if (isExpired(Files.getLastModifiedTime(file)) && Files.deleteIfExists(file)) {
+                        expired++;
+                    }
+                } catch (IOException e) {
+                    logger.debug("Could not evict cached route {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Failed to evict expired routes from {}: {}", directory, e.getMessage());
+        }
+        if (expired > 0) {
+            logger.info("Evicted {} expired routes from the disk cache", expired);
+        }
+    }
+
+    private boolean isExpired(FileTime modified) {
+        return modified.toInstant().isBefore(Instant.now().minus(diskTtl));
+    }
+
+    private static Path createDirectory(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            logger.info("Caching routes in {}", directory);
+            return directory;
+        } catch (IOException e) {
+            logger.warn("Route disk cache disabled, cannot create {}: {}", directory, e.getMessage());
+            return null;
+        }
+    }
+}
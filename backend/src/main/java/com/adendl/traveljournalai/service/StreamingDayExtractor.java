@@ -0,0 +1,107 @@
+package com.adendl.traveljournalai.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incrementally scans a growing trip plan JSON document and hands back each object in the
+ * top-level {@code "days"} array as soon as its closing brace arrives. Content can be fed in
+ * arbitrary fragments, e.g. the deltas of a streamed chat completion.
+ */
+public class StreamingDayExtractor {
+
+    private static final String DAYS_KEY = "days";
+
+    private final StringBuilder currentDay = new StringBuilder();
+    private final StringBuilder currentKey = new StringBuilder();
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private String lastRootKey;
+    private int daysArrayDepth = -1;
+    private boolean capturing;
+    private int completedDays;
+
+    /**
+     * Feeds the next fragment of the document.
+     * @param fragment The next piece of JSON text
+     * @return The day objects completed by this fragment, in document order
+     */
+    public List<String> feed(CharSequence fragment) {
+        List<String> completed = new ArrayList<>();
+        for (int i = 0; i < fragment.length(); i++) {
+            char c = fragment.charAt(i);
+            if (capturing) {
+                currentDay.append(c);
+            }
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                    if (depth == 1) {
+                        lastRootKey = currentKey.toString();
+                    }
+                } else if (depth == 1) {
+                    currentKey.append(c);
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> {
+                    inString = true;
+                    if (depth == 1) {
+                        currentKey.setLength(0);
+                    }
+                }
+                case '[' -> {
+                    depth++;
+                    if (depth == 2 && DAYS_KEY.equals(lastRootKey)) {
+                        daysArrayDepth = depth;
+                    }
+                }
+                case '{' -> {
+                    if (depth == daysArrayDepth && !capturing) {
+                        capturing = true;
+                        currentDay.setLength(0);
+                        currentDay.append(c);
+                    }
+                    depth++;
+                }
+                case '}', ']' -> {
+                    if (depth > 0) {
+                        depth--;
+                    }
+                    if (c == ']' && depth == daysArrayDepth - 1) {
+                        daysArrayDepth = -1;
+                    }
+                    if (capturing && c == '}' && depth == daysArrayDepth) {
+                        capturing = false;
+                        completedDays++;
+                        completed.add(currentDay.toString());
+                    }
+                }
+                default -> {
+                    // Separators, whitespace and scalar values need no tracking
+                }
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * @return The number of day objects completed so far
+     */
+    public int getCompletedDays() {
+        return completedDays;
+    }
+
+    /**
+     * @return Whether the document fed so far is balanced, i.e. every object and array has closed
+     */
+    public boolean isBalanced() {
+        return depth == 0 && !inString;
+    }
+}
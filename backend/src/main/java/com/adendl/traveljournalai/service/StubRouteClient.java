@@ -0,0 +1,36 @@
+package com.adendl.traveljournalai.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Offline router for tests and load testing: the straight line between the two points, split
+ * into evenly spaced points so responses are about the size of a real route.
+ */
+@Service
+@ConditionalOnProperty(name = "routes.router", havingValue = "stub")
+public class StubRouteClient implements RouteClient {
+
+    private final int points;
+
+    @Autowired
+    public StubRouteClient(@Value("${routes.stub.points:100}") int points) {
+        this.points = Math.max(2, points);
+    }
+
+    @Override
+    public RouteGeometry route(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double[][] coordinates = new double[points][];
+        for (int i = 0; i < points; i++) {
+            double fraction = (double) i / (points - 1);
+            coordinates[i] = new double[] {
+                    fromLatitude + (toLatitude - fromLatitude) * fraction,
+                    fromLongitude + (toLongitude - fromLongitude) * fraction
+            };
+        }
+        double distanceKm = RouteGeometry.straightLine(fromLatitude, fromLongitude, toLatitude, toLongitude).distanceKm();
+        return new RouteGeometry(coordinates, distanceKm);
+    }
+}
@@ -0,0 +1,179 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Offline generator for load testing. It synthesizes a plausible multi-day plan document, with
+ * coordinates that move along a route and a configurable amount of text, and runs it through the
+ * same parser as a live response after waiting a configurable latency. Output and latency are
+ * derived from the canonical request, so the same request always gets the same plan.
+ */
+@Service
+@ConditionalOnProperty(name = "trips.generator", havingValue = "stub")
+public class StubTripPlanGenerator implements TripPlanGenerator {
+
+    private static final Logger logger = LoggingUtils.getLogger(StubTripPlanGenerator.class);
+
+    // Column limits of day_plans.introduction and places_of_interest.description
+    static final int MAX_INTRODUCTION_LENGTH = 1000;
+    static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private static final double KM_PER_DEGREE = 111.0;
+
+    private static final List<String> TOWN_PREFIXES = List.of("Glen", "Port", "Mount", "Lake", "Bright", "Oak", "River", "Stone", "Red", "Fair");
+    private static final List<String> TOWN_SUFFIXES = List.of("ford", "haven", "ridge", "field", "ton", "vale", " Springs", " Creek", " Bay", "wood");
+    private static final List<String> PLACE_KINDS = List.of("Museum", "Lookout", "Market", "Gallery", "Gardens", "Heritage Trail", "Winery", "Beach", "Cafe", "National Park");
+    private static final List<String> WORDS = List.of(
+            "historic", "coastal", "vibrant", "quiet", "main", "street", "harbour", "views", "local", "produce",
+            "galleries", "walks", "across", "the", "old", "town", "with", "its", "famous", "bakery",
+            "and", "sweeping", "valley", "known", "for", "festivals", "friendly", "pubs", "river", "sunsets");
+
+    private final long latencyMs;
+    private final long latencyJitterMs;
+    private final int placesPerDay;
+    private final int introductionWords;
+
+    @Autowired
+    public StubTripPlanGenerator(@Value("${trips.generator.stub.latency-ms:2000}") long latencyMs,
+                                 @Value("${trips.generator.stub.latency-jitter-ms:500}") long latencyJitterMs,
+                                 @Value("${trips.generator.stub.places-per-day:4}") int placesPerDay,
+                                 @Value("${trips.generator.stub.introduction-words:100}") int introductionWords) {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+        this.placesPerDay = placesPerDay;
+        this.introductionWords = introductionWords;
+    }
+
+    @Override
+    public TripPlan generate(Trip trip) {
+        Random random = new Random(TripPlanCacheKey.of(trip).asString().hashCode());
+        String content;
+        try {
+            content = synthesize(trip, random);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to synthesize stub trip plan: " + e.getMessage(), e);
+        }
+        simulateLatency(random);
+        try {
+            TripPlan tripPlan = TripPlanParser.parseContent(content);
+            tripPlan.setTrip(trip);
+            logger.debug("Stub generated {} days ({} chars) for trip ID: {}", tripPlan.getDays().size(), content.length(), trip.getTripId());
+            return tripPlan;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse stub trip plan JSON: " + e.getMessage(), e);
+        }
+    }
+
+    String synthesize(Trip trip, Random random) throws IOException {
+        int days = Math.max(1, trip.getDays());
+        double dailyKm = trip.getDistanceKm() > 0 ? trip.getDistanceKm() / days : 150 + random.nextInt(250);
+        double latitude = -45 + random.nextDouble() * 90;
+        double longitude = -180 + random.nextDouble() * 360;
+        double bearing = random.nextDouble() * 2 * Math.PI;
+        String location = trip.getFromCity();
+
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = TripPlanParser.MAPPER.getFactory().createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("days");
+            for (int day = 1; day <= days; day++) {
+                if (trip.isRoundtrip() && day == days / 2 + 1) {
+                    bearing += Math.PI;
+                }
+                bearing += (random.nextDouble() - 0.5) * 0.6;
+                double distanceKm = Math.round(dailyKm * (0.8 + random.nextDouble() * 0.4));
+                double finishLatitude = clampLatitude(latitude + Math.cos(bearing) * distanceKm / KM_PER_DEGREE);
+                double finishLongitude = wrapLongitude(longitude + Math.sin(bearing) * distanceKm / KM_PER_DEGREE);
+                String finish = day < days ? townName(random) : (trip.isRoundtrip() ? trip.getFromCity() : trip.getToCity());
+
+                generator.writeStartObject();
+                generator.writeNumberField("day", day);
+                writeLocation(generator, "startLocation", location, latitude, longitude);
+                writeLocation(generator, "finishLocation", finish, finishLatitude, finishLongitude);
+                generator.writeStringField("introduction", truncate("Welcome to " + finish + ", " + words(random, introductionWords), MAX_INTRODUCTION_LENGTH));
+                generator.writeArrayFieldStart("placesOfInterest");
+                for (int place = 0; place < placesPerDay; place++) {
+                    String interest = trip.getInterests() == null || trip.getInterests().isEmpty()
+                            ? finish
+                            : trip.getInterests().get(place % trip.getInterests().size());
+                    generator.writeStartObject();
+                    generator.writeStringField("name", interest + " " + PLACE_KINDS.get(random.nextInt(PLACE_KINDS.size())));
+                    generator.writeStringField("description", truncate(words(random, 20), MAX_DESCRIPTION_LENGTH));
+                    generator.writeNumberField("latitude", finishLatitude + (random.nextDouble() - 0.5) * 0.1);
+                    generator.writeNumberField("longitude", finishLongitude + (random.nextDouble() - 0.5) * 0.1);
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+
+                location = finish;
+                latitude = finishLatitude;
+                longitude = finishLongitude;
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return writer.toString();
+    }
+
+    private void simulateLatency(Random random) {
+        long delay = latencyMs + (latencyJitterMs > 0 ? (long) (random.nextDouble() * latencyJitterMs) : 0);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while generating stub trip plan", e);
+        }
+    }
+
+    private static void writeLocation(JsonGenerator generator, String field, String name, double latitude, double longitude) throws IOException {
+        generator.writeObjectFieldStart(field);
+        generator.writeStringField("name", name);
+        generator.writeNumberField("latitude", latitude);
+        generator.writeNumberField("longitude", longitude);
+        generator.writeEndObject();
+    }
+
+    private static String townName(Random random) {
+        return TOWN_PREFIXES.get(random.nextInt(TOWN_PREFIXES.size())) + TOWN_SUFFIXES.get(random.nextInt(TOWN_SUFFIXES.size()));
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS.get(random.nextInt(WORDS.size())));
+        }
+        return text.append('.').toString();
+    }
+
+    private static String truncate(String text, int maxLength) {
+        return text.length() <= maxLength ? text : text.substring(0, maxLength);
+    }
+
+    private static double clampLatitude(double latitude) {
+        return Math.max(-85, Math.min(85, latitude));
+    }
+
+    private static double wrapLongitude(double longitude) {
+        return ((longitude + 540) % 360) - 180;
+    }
+}
@@ -0,0 +1,170 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Sizes {@code max_tokens} for each model call from what the call is expected to produce,
+ * instead of sending the same large limit for a 1 day and a 21 day trip, and flags requests that
+ * cannot fit in the model's output limit before they are sent. Prompt sizes come from
+ * {@link TokenEstimator}; both they and the expected completion sizes are continuously
+ * calibrated against the {@code usage} block of the responses, per kind of call.
+ */
+@Component
+public class TokenBudget {
+
+    private static final Logger logger = LoggingUtils.getLogger(TokenBudget.class);
+
+    private static final double CALIBRATION_SMOOTHING = 0.1;
+    private static final double MIN_SCALE = 0.5;
+    private static final double MAX_SCALE = 4.0;
+    private static final String PROMPT_SCALE = "prompt";
+    private static final String COMPLETION_SCALE = "completion:";
+
+    /**
+     * The token budget of one call.
+     * @param call The kind of call, e.g. trip, skeleton or day
+     * @param maxTokens The {@code max_tokens} to send, never above the model's output limit
+     * @param estimatedPromptTokens The calibrated prompt size estimate
+     * @param expectedCompletionTokens The calibrated expected completion size, before headroom
+     * @param fits Whether the expected completion plus headroom fits the model's limits
+     */
+    public record Allocation(String call, int maxTokens, int estimatedPromptTokens, int expectedCompletionTokens, boolean fits) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int maxOutputTokens;
+    private final int contextWindow;
+    private final double headroom;
+    private final int baseCompletionTokens;
+    private final int completionTokensPerDay;
+    private final int completionTokensPerInterestDay;
+
+    private final ConcurrentMap<String, Double> scales = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenBudget(MeterRegistry meterRegistry,
+                       @Value("${openai.tokens.max-output-tokens:32768}") int maxOutputTokens,
+                       @Value("${openai.tokens.context-window:1047576}") int contextWindow,
+                       @Value("${openai.tokens.headroom:1.5}") double headroom,
+                       @Value("${openai.tokens.completion-base:50}") int baseCompletionTokens,
+                       @Value("${openai.tokens.completion-per-day:400}") int completionTokensPerDay,
+                       @Value("${openai.tokens.completion-per-interest-day:30}") int completionTokensPerInterestDay) {
+        this.meterRegistry = meterRegistry;
+        this.maxOutputTokens = maxOutputTokens;
+        this.contextWindow = contextWindow;
+        this.headroom = headroom;
+        this.baseCompletionTokens = baseCompletionTokens;
+        this.completionTokensPerDay = completionTokensPerDay;
+        this.completionTokensPerInterestDay = completionTokensPerInterestDay;
+    }
+
+    /**
+     * @return The uncalibrated completion size of a whole trip plan
+     */
+    public int expectedTripTokens(int days, int interests) {
+        return baseCompletionTokens + days * expectedDayTokens(interests);
+    }
+
+    /**
+     * @return The uncalibrated completion size of one day's introduction and places of interest
+     */
+    public int expectedDayTokens(int interests) {
+        return completionTokensPerDay + completionTokensPerInterestDay * Math.max(1, interests);
+    }
+
+    /**
+     * Budget for generating a whole trip plan in one completion.
+     */
+    public Allocation allocateTrip(String prompt, int days, List<String> interests) {
+        return allocate("trip", prompt, expectedTripTokens(days, interests == null ? 0 : interests.size()));
+    }
+
+    /**
+     * @param call The kind of call; calibration is kept separately for each
+     * @param prompt The system and user message text that will be sent
+     * @param expectedCompletionTokens The uncalibrated expected completion size
+     */
+    public Allocation allocate(String call, String prompt, int expectedCompletionTokens) {
+        int promptTokens = (int) Math.ceil(TokenEstimator.estimate(prompt) * scale(PROMPT_SCALE));
+        int expected = (int) Math.ceil(expectedCompletionTokens * scale(COMPLETION_SCALE + call));
+        long budget = (long) Math.ceil(expected * headroom);
+        boolean fits = budget <= maxOutputTokens && promptTokens + budget <= contextWindow;
+        return new Allocation(call, (int) Math.min(budget, maxOutputTokens), promptTokens, expected, fits);
+    }
+
+    /**
+     * Counts a request that did not fit in one call.
+     * @param action What was done about it, e.g. split or rejected
+     */
+    public void recordOverflow(Allocation allocation, String action) {
+        logger.info("{} call needs about {} completion tokens, over the {} token limit; {}",
+                allocation.call(), allocation.expectedCompletionTokens(), maxOutputTokens, action);
+        meterRegistry.counter("llm.tokens.budget.overflows", "call", allocation.call(), "action", action).increment();
+    }
+
+    /**
+     * Records the billed token counts of a finished call and recalibrates the estimates with them.
+     * Responses without a usage block are ignored.
+     */
+    public void recordUsage(Allocation allocation, String completionJson) {
+        Optional<TokenUsage> usage;
+        try {
+            usage = TripPlanParser.extractUsage(completionJson);
+        } catch (Exception e) {
+            logger.debug("Could not read token usage: {}", e.getMessage());
+            return;
+        }
+        usage.ifPresent(tokens -> recordUsage(allocation, tokens));
+    }
+
+    void recordUsage(Allocation allocation, TokenUsage usage) {
+        summary("llm.tokens", allocation.call(), "prompt").record(usage.promptTokens());
+        summary("llm.tokens", allocation.call(), "completion").record(usage.completionTokens());
+        DistributionSummary.builder("llm.tokens.budget.utilisation")
+                .description("Completion tokens used as a fraction of max_tokens")
+                .tag("call", allocation.call())
+                .register(meterRegistry)
+                .record((double) usage.completionTokens() / allocation.maxTokens());
+
+        if (allocation.estimatedPromptTokens() > 0) {
+            calibrate(PROMPT_SCALE, (double) usage.promptTokens() / allocation.estimatedPromptTokens());
+        }
+        // A completion that hit the limit says nothing about how long it wanted to be
+        if (usage.completionTokens() < allocation.maxTokens() && allocation.expectedCompletionTokens() > 0) {
+            calibrate(COMPLETION_SCALE + allocation.call(), (double) usage.completionTokens() / allocation.expectedCompletionTokens());
+        }
+    }
+
+    double scale(String key) {
+        return scales.getOrDefault(key, 1.0);
+    }
+
+    private void calibrate(String key, double ratio) {
+        // The ratio is relative to the already calibrated estimate, so it corrects the current scale
+        scales.compute(key, (k, current) -> {
+            double scale = current == null ? 1.0 : current;
+            double target = scale * ratio;
+            return Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale + CALIBRATION_SMOOTHING * (target - scale)));
+        });
+    }
+
+    private DistributionSummary summary(String name, String call, String type) {
+        return DistributionSummary.builder(name)
+                .baseUnit("tokens")
+                .tag("call", call)
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
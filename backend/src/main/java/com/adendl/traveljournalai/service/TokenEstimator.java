@@ -0,0 +1,70 @@
+package com.adendl.traveljournalai.service;
+
+/**
+ * Fast local approximation of how many tokens a BPE tokenizer produces for a piece of text. It
+ * follows the pre-tokenization rules of the OpenAI encodings rather than a vocabulary: a word with
+ * its leading space is one token, or about one per five letters when long; digits are grouped in
+ * threes; runs of punctuation merge in pairs; line breaks are their own tokens. It is only an
+ * approximation, so {@link TokenBudget} calibrates it against the counts the API reports.
+ */
+public final class TokenEstimator {
+
+    private static final int SHORT_WORD_LENGTH = 7;
+    private static final int LETTERS_PER_TOKEN = 5;
+    private static final int DIGITS_PER_TOKEN = 3;
+    private static final int SYMBOLS_PER_TOKEN = 2;
+
+    private TokenEstimator() {
+    }
+
+    /**
+     * @param text Any text
+     * @return The approximate number of tokens, 0 for empty text
+     */
+    public static int estimate(CharSequence text) {
+        int tokens = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            int start = i;
+            if (Character.isLetter(c)) {
+                while (i < length && Character.isLetter(text.charAt(i))) {
+                    i++;
+                }
+                int letters = i - start;
+                tokens += letters <= SHORT_WORD_LENGTH ? 1 : ceilDiv(letters, LETTERS_PER_TOKEN);
+            } else if (Character.isDigit(c)) {
+                while (i < length && Character.isDigit(text.charAt(i))) {
+                    i++;
+                }
+                tokens += ceilDiv(i - start, DIGITS_PER_TOKEN);
+            } else if (c == '\n') {
+                i++;
+                tokens++;
+            } else if (Character.isWhitespace(c)) {
+                // A single space is merged into the following word; longer runs of indentation are not
+                while (i < length && text.charAt(i) != '\n' && Character.isWhitespace(text.charAt(i))) {
+                    i++;
+                }
+                if (i - start > 1) {
+                    tokens++;
+                }
+            } else {
+                while (i < length && isSymbol(text.charAt(i))) {
+                    i++;
+                }
+                tokens += ceilDiv(i - start, SYMBOLS_PER_TOKEN);
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isSymbol(char c) {
+        return !Character.isLetterOrDigit(c) && !Character.isWhitespace(c);
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,7 @@
+package com.adendl.traveljournalai.service;
+
+/**
+ * Token counts from the {@code usage} block of a chat completion response.
+ */
+public record TokenUsage(int promptTokens, int completionTokens) {
+}
@@ -0,0 +1,11 @@
+package com.adendl.traveljournalai.service;
+
+/**
+ * Thrown when a user asks for a trip that belongs to someone else.
+ */
+public class TripAccessDeniedException extends RuntimeException {
+
+    public TripAccessDeniedException(String message) {
+        super(message);
+    }
+}
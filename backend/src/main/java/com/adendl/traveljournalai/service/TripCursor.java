@@ -0,0 +1,35 @@
+package com.adendl.traveljournalai.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The position after the last trip of a summary page: its creation time and id, which together
+ * order trips uniquely. Clients see it only as an opaque URL-safe token.
+ */
+record TripCursor(String createdAt, long tripId) {
+
+    private static final char SEPARATOR = '|';
+
+    String encode() {
+        String position = createdAt + SEPARATOR + tripId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException If the token was not made by {@link #encode()}
+     */
+    static TripCursor decode(String token) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new TripCursor(position.substring(0, separator), Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            // Also covers bad Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
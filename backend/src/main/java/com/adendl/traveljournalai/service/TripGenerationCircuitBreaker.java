@@ -0,0 +1,222 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker around trip plan generation. It counts the outcome of the last {@code window-size}
+ * generations, treating calls slower than {@code slow-call-threshold-ms} as failures, and opens
+ * once the failure rate reaches the threshold. While open every call fails fast with
+ * {@link TripGenerationUnavailableException}. After {@code open-duration-ms} a limited number of
+ * probe calls are let through; if they all succeed the circuit closes, any failure reopens it.
+ */
+@Component
+public class TripGenerationCircuitBreaker {
+
+    private static final Logger logger = LoggingUtils.getLogger(TripGenerationCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean enabled;
+    private final double failureRateThreshold;
+    private final long slowCallThresholdNanos;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoTime;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean[] window;
+    private int windowCount;
+    private int windowNext;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int probesInFlight;
+    private int probeSuccesses;
+    private int epoch;
+
+    private final Counter shortCircuits;
+
+    @Autowired
+    public TripGenerationCircuitBreaker(MeterRegistry meterRegistry,
+                                        @Value("${trips.generation.circuit-breaker.enabled:true}") boolean enabled,
+                                        @Value("${trips.generation.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                                        @Value("${trips.generation.circuit-breaker.slow-call-threshold-ms:90000}") long slowCallThresholdMs,
+                                        @Value("${trips.generation.circuit-breaker.window-size:20}") int windowSize,
+                                        @Value("${trips.generation.circuit-breaker.minimum-calls:5}") int minimumCalls,
+                                        @Value("${trips.generation.circuit-breaker.open-duration-ms:30000}") long openDurationMs,
+                                        @Value("${trips.generation.circuit-breaker.half-open-probes:2}") int halfOpenProbes) {
+        this(meterRegistry, enabled, failureRateThreshold, slowCallThresholdMs, windowSize, minimumCalls,
+                openDurationMs, halfOpenProbes, System::nanoTime);
+    }
+
+    TripGenerationCircuitBreaker(MeterRegistry meterRegistry, boolean enabled, double failureRateThreshold,
+                                 long slowCallThresholdMs, int windowSize, int minimumCalls, long openDurationMs,
+                                 int halfOpenProbes, LongSupplier nanoTime) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowCallThresholdMs);
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.nanoTime = nanoTime;
+
+        Gauge.builder("trip.generation.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+        this.shortCircuits = meterRegistry.counter("trip.generation.circuit.short-circuits");
+    }
+
+    /**
+     * Runs the generation if the circuit allows it and records how it went.
+     * @param generation The call to the model
+     * @return The generated plan
+     * @throws TripGenerationUnavailableException When the circuit is open, without calling the model
+     */
+    public <T> T execute(Supplier<T> generation) {
+        if (!enabled) {
+            return generation.get();
+        }
+        int epoch = acquire();
+        long start = nanoTime.getAsLong();
+        Boolean failed = true;
+        try {
+            T result = generation.get();
+            failed = nanoTime.getAsLong() - start > slowCallThresholdNanos;
+            return result;
+        } catch (IllegalArgumentException e) {
+            // The request itself was invalid, which says nothing about the model's health
+            failed = null;
+            throw e;
+        } finally {
+            record(epoch, failed);
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The epoch the call was admitted in, so outcomes from before a state change are ignored
+     */
+    private int acquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                long remaining = openedAtNanos + openDurationNanos - nanoTime.getAsLong();
+                if (remaining > 0) {
+                    throw shortCircuit(Duration.ofNanos(remaining));
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight + probeSuccesses >= halfOpenProbes) {
+                    throw shortCircuit(Duration.ofNanos(openDurationNanos));
+                }
+                probesInFlight++;
+            }
+            return epoch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param failed Whether the call failed, or null when its outcome should not count either way
+     */
+    private void record(int admittedEpoch, Boolean failed) {
+        lock.lock();
+        try {
+            if (admittedEpoch != epoch) {
+                // The state changed while the call ran, e.g. another probe already decided the outcome
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                probesInFlight--;
+                if (failed == null) {
+                    return;
+                }
+                if (failed) {
+                    open();
+                } else if (++probeSuccesses >= halfOpenProbes) {
+                    transitionTo(State.CLOSED);
+                }
+                return;
+            }
+            if (failed == null) {
+                return;
+            }
+            if (windowCount == window.length) {
+                if (window[windowNext]) {
+                    windowFailures--;
+                }
+            } else {
+                windowCount++;
+            }
+            window[windowNext] = failed;
+            if (failed) {
+                windowFailures++;
+            }
+            windowNext = (windowNext + 1) % window.length;
+            if (windowCount >= minimumCalls && windowFailures >= failureRateThreshold * windowCount) {
+                logger.warn("Trip generation failure rate {}/{} reached the threshold, opening the circuit", windowFailures, windowCount);
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() {
+        openedAtNanos = nanoTime.getAsLong();
+        transitionTo(State.OPEN);
+    }
+
+    private void transitionTo(State next) {
+        if (state == next) {
+            return;
+        }
+        logger.info("Trip generation circuit {} -> {}", state, next);
+        meterRegistry.counter("trip.generation.circuit.transitions",
+                "from", state.name().toLowerCase(Locale.ROOT), "to", next.name().toLowerCase(Locale.ROOT)).increment();
+        state = next;
+        epoch++;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        if (next == State.CLOSED) {
+            windowCount = 0;
+            windowNext = 0;
+            windowFailures = 0;
+        }
+    }
+
+    private TripGenerationUnavailableException shortCircuit(Duration retryAfter) {
+        shortCircuits.increment();
+        return new TripGenerationUnavailableException("Trip generation is temporarily unavailable, please try again shortly", retryAfter);
+    }
+}
@@ -0,0 +1,108 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripGenerationJob;
+import com.adendl.traveljournalai.model.User;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Service
+public class TripGenerationJobService {
+
+    private static final Logger logger = LoggingUtils.getLogger(TripGenerationJobService.class);
+
+    private final TripService tripService;
+    private final Gazetteer gazetteer;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, TripGenerationJob> jobs;
+
+    @Autowired
+    public TripGenerationJobService(TripService tripService,
+                                    Gazetteer gazetteer,
+                                    @Qualifier("tripGenerationExecutor") ThreadPoolExecutor executor,
+                                    @Value("${trips.generation.job-ttl-minutes:60}") long jobTtlMinutes) {
+        this.tripService = tripService;
+        this.gazetteer = gazetteer;
+        this.executor = executor;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(jobTtlMinutes))
+                .build();
+    }
+
+    public TripGenerationJob submit(String jwtToken, String fromCity, String toCity, boolean roundtrip, int days, List<String> interests, double distanceKm) {
+        LoggingUtils.logMethodEntry(logger, "submit", "fromCity", fromCity, "toCity", toCity, "days", days);
+
+        // Resolve the user on the request thread so bad tokens fail immediately
+        User user = tripService.validateAndGetUserFromJwt(jwtToken);
+        // Likewise unknown cities, instead of a job that fails after waiting in the queue
+        String from = gazetteer.canonicalName(fromCity);
+        String to = gazetteer.canonicalName(toCity);
+
+        TripGenerationJob job = new TripGenerationJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setUsername(user.getUsername());
+        job.setStatus(TripGenerationJob.Status.QUEUED);
+        job.setCreatedAt(Instant.now().toString());
+        jobs.put(job.getJobId(), job);
+
+        try {
+            executor.execute(() -> run(job, user, from, to, roundtrip, days, interests, distanceKm));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getJobId());
+            logger.warn("Trip generation queue is full ({} queued, {} running), rejecting job for user: {}",
+                    executor.getQueue().size(), executor.getActiveCount(), user.getUsername());
+            throw e;
+        }
+
+        logger.info("Queued trip generation job {} for user: {}", job.getJobId(), user.getUsername());
+        LoggingUtils.logMethodExit(logger, "submit", job.getJobId());
+        return job;
+    }
+
+    public Optional<TripGenerationJob> findJob(String jwtToken, String jobId) {
+        User user = tripService.validateAndGetUserFromJwt(jwtToken);
+        TripGenerationJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (!job.getUsername().equals(user.getUsername())) {
+            LoggingUtils.logSecurityEvent(logger, "UNAUTHORIZED_JOB_ACCESS", user.getUsername(),
+                    "Attempted to read trip generation job " + jobId);
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    private void run(TripGenerationJob job, User user, String fromCity, String toCity, boolean roundtrip, int days, List<String> interests, double distanceKm) {
+        long startTime = System.currentTimeMillis();
+        job.setStatus(TripGenerationJob.Status.RUNNING);
+        try {
+            Trip trip = tripService.createTripForUser(user, fromCity, toCity, roundtrip, days, interests, distanceKm);
+            job.setTrip(trip);
+            job.setCompletedAt(Instant.now().toString());
+            job.setStatus(TripGenerationJob.Status.SUCCEEDED);
+            logger.info("Trip generation job {} succeeded with trip ID: {}", job.getJobId(), trip.getTripId());
+        } catch (Exception e) {
+            job.setError(e.getMessage());
+            job.setCompletedAt(Instant.now().toString());
+            job.setStatus(TripGenerationJob.Status.FAILED);
+            logger.error("Trip generation job {} failed: {}", job.getJobId(), e.getMessage(), e);
+        } finally {
+            LoggingUtils.logPerformance(logger, "Trip generation job " + job.getJobId(), startTime);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.adendl.traveljournalai.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of calling the model while the trip generation circuit is open.
+ */
+public class TripGenerationUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TripGenerationUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return Roughly how long until the circuit lets a probe call through
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
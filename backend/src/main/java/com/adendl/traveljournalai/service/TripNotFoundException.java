@@ -0,0 +1,11 @@
+package com.adendl.traveljournalai.service;
+
+/**
+ * Thrown when a trip that was asked for by id does not exist.
+ */
+public class TripNotFoundException extends RuntimeException {
+
+    public TripNotFoundException(Long tripId) {
+        super("Trip not found: " + tripId);
+    }
+}
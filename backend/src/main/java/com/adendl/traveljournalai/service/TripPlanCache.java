@@ -0,0 +1,171 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.CachedTripPlan;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.repository.CachedTripPlanRepository;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Two-tier cache of generated trip plans keyed by {@link TripPlanCacheKey}: a size and TTL bounded
+ * Caffeine tier in front of a persistent table. Entries are detached templates; every hit returns
+ * a fresh copy that the caller can attach to its own trip. Expired rows of the persistent tier are
+ * deleted by a scheduled task rather than on the write path.
+ */
+@Service
+public class TripPlanCache {
+
+    private static final Logger logger = LoggingUtils.getLogger(TripPlanCache.class);
+
+    private static final String METRIC_NAME = "trip.plan.cache.requests";
+
+    private final CachedTripPlanRepository repository;
+    private final Cache<TripPlanCacheKey, TripPlan> memory;
+    private final boolean enabled;
+    private final Duration persistentTtl;
+
+    private final Counter memoryHits;
+    private final Counter memoryMisses;
+    private final Counter persistentHits;
+    private final Counter persistentMisses;
+    private final Counter closestHits;
+    private final Counter closestMisses;
+
+    @Autowired
+    public TripPlanCache(CachedTripPlanRepository repository,
+                         MeterRegistry meterRegistry,
+                         @Value("${trips.plan-cache.enabled:true}") boolean enabled,
+                         @Value("${spring.cache.caffeine.spec:maximumSize=500,expireAfterWrite=600s}") String caffeineSpec,
+                         @Value("${trips.plan-cache.persistent-ttl-hours:168}") long persistentTtlHours) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.persistentTtl = Duration.ofHours(persistentTtlHours);
+        this.memory = Caffeine.from(caffeineSpec).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memory, "tripPlanCache");
+
+        this.memoryHits = meterRegistry.counter(METRIC_NAME, "tier", "memory", "result", "hit");
+        this.memoryMisses = meterRegistry.counter(METRIC_NAME, "tier", "memory", "result", "miss");
+        this.persistentHits = meterRegistry.counter(METRIC_NAME, "tier", "persistent", "result", "hit");
+        this.persistentMisses = meterRegistry.counter(METRIC_NAME, "tier", "persistent", "result", "miss");
+        this.closestHits = meterRegistry.counter(METRIC_NAME, "tier", "closest", "result", "hit");
+        this.closestMisses = meterRegistry.counter(METRIC_NAME, "tier", "closest", "result", "miss");
+    }
+
+    /**
+     * Looks a plan up in memory first, then in the persistent tier.
+     * @param key The canonical request key
+     * @return A fresh, unsaved copy of the cached plan, or empty on a miss
+     */
+    public Optional<TripPlan> get(TripPlanCacheKey key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        TripPlan template = memory.getIfPresent(key);
+        if (template != null) {
+            memoryHits.increment();
+            logger.debug("Trip plan cache memory hit for {}", key);
+            return Optional.of(TripPlans.copyOf(template));
+        }
+        memoryMisses.increment();
+
+        try {
+            Optional<CachedTripPlan> stored = repository.findById(key.asString());
+            if (stored.isPresent() && stored.get().getCreatedAt().isAfter(Instant.now().minus(persistentTtl))) {
+                template = TripPlanParser.parseContent(stored.get().getContent());
+                memory.put(key, template);
+                persistentHits.increment();
+                logger.debug("Trip plan cache persistent hit for {}", key);
+                return Optional.of(TripPlans.copyOf(template));
+            }
+        } catch (Exception e) {
+            logger.warn("Trip plan cache lookup failed for {}: {}", key, e.getMessage());
+        }
+        persistentMisses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Degraded-mode lookup used when the model can't be called: the stored plan for the same route
+     * with the closest number of days, regardless of interests or age.
+     * @param key The canonical request key
+     * @return A fresh, unsaved copy of the closest plan, or empty when the route has never been planned
+     */
+    public Optional<TripPlan> findClosest(TripPlanCacheKey key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            List<CachedTripPlan> stored = repository.findClosestForRoute(
+                    key.fromCity(), key.toCity(), key.roundtrip(), key.days(), PageRequest.of(0, 1));
+            if (!stored.isEmpty()) {
+                closestHits.increment();
+                logger.info("Serving closest cached trip plan {} for {}", stored.get(0).getCacheKey(), key);
+                return Optional.of(TripPlanParser.parseContent(stored.get(0).getContent()));
+            }
+        } catch (Exception e) {
+            logger.warn("Closest trip plan lookup failed for {}: {}", key, e.getMessage());
+        }
+        closestMisses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Stores a freshly generated plan in both tiers. Failures are logged and never affect the caller.
+     * @param key The canonical request key
+     * @param tripPlan The generated plan; a detached copy is cached
+     */
+    public void put(TripPlanCacheKey key, TripPlan tripPlan) {
+        if (!enabled) {
+            return;
+        }
+        TripPlan template = TripPlans.copyOf(tripPlan);
+        memory.put(key, template);
+        try {
+            CachedTripPlan entry = new CachedTripPlan();
+            entry.setCacheKey(key.asString());
+            entry.setFromCity(key.fromCity());
+            entry.setToCity(key.toCity());
+            entry.setRoundtrip(key.roundtrip());
+            entry.setDays(key.days());
+            entry.setContent(TripPlanParser.writeContent(template));
+            entry.setCreatedAt(Instant.now());
+            repository.save(entry);
+        } catch (Exception e) {
+            logger.warn("Failed to persist trip plan cache entry for {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes persistent entries older than the TTL. Failures are logged and retried on the next run.
+     */
+    @Scheduled(initialDelayString = "${trips.plan-cache.eviction-interval-ms:3600000}",
+            fixedDelayString = "${trips.plan-cache.eviction-interval-ms:3600000}")
+    public void evictExpired() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int expired = repository.deleteCreatedBefore(Instant.now().minus(persistentTtl));
+            if (expired > 0) {
+                logger.info("Evicted {} expired trip plans from the persistent cache", expired);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to evict expired trip plans from the persistent cache: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.Trip;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Canonical identity of a trip plan request: case-folded, whitespace-normalised cities and a
+ * sorted, de-duplicated interest list, so "Sydney " and "sydney" share one cached plan.
+ */
+public record TripPlanCacheKey(String fromCity, String toCity, boolean roundtrip, int days, List<String> interests) {
+
+    public TripPlanCacheKey {
+        interests = List.copyOf(interests);
+    }
+
+    public static TripPlanCacheKey of(Trip trip) {
+        return of(trip.getFromCity(), trip.getToCity(), trip.isRoundtrip(), trip.getDays(), trip.getInterests());
+    }
+
+    public static TripPlanCacheKey of(String fromCity, String toCity, boolean roundtrip, int days, Collection<String> interests) {
+        TreeSet<String> canonicalInterests = new TreeSet<>();
+        if (interests != null) {
+            for (String interest : interests) {
+                String canonical = canonicalize(interest);
+                if (!canonical.isEmpty()) {
+                    canonicalInterests.add(canonical);
+                }
+            }
+        }
+        return new TripPlanCacheKey(canonicalize(fromCity), canonicalize(toCity), roundtrip, days, List.copyOf(canonicalInterests));
+    }
+
+    /**
+     * @return A stable string form, used as the primary key of the persistent tier
+     */
+    public String asString() {
+        return fromCity + "|" + toCity + "|" + (roundtrip ? "roundtrip" : "oneway") + "|" + days + "|" + String.join(",", interests);
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+
+    static String canonicalize(String value) {
+        return Objects.requireNonNullElse(value, "").trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,34 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+
+import java.util.function.Consumer;
+
+/**
+ * Produces the day-by-day plan for a trip. The implementation is chosen with the
+ * {@code trips.generator} property, which each profile can set: {@code openai} (the default),
+ * {@code stub} for offline load testing, or {@code replay} to serve recorded plans.
+ */
+public interface TripPlanGenerator {
+
+    /**
+     * @param trip The trip to plan; it may not have been saved yet
+     * @return A new, unsaved plan linked to the trip, with its days and places of interest linked
+     */
+    TripPlan generate(Trip trip);
+
+    /**
+     * Generates a plan and hands over each day as soon as it is complete, so it can be shown
+     * before the rest of the plan exists. By default the whole plan is generated first.
+     * @param trip The trip to plan; it may not have been saved yet
+     * @param onDay Receives each day in order, linked to its plan and places of interest
+     * @return A new, unsaved plan linked to the trip, with its days and places of interest linked
+     */
+    default TripPlan generate(Trip trip, Consumer<DayPlan> onDay) {
+        TripPlan tripPlan = generate(trip);
+        tripPlan.getDays().forEach(onDay);
+        return tripPlan;
+    }
+}
@@ -0,0 +1,11 @@
+package com.adendl.traveljournalai.service;
+
+/**
+ * Thrown when a model response does not match the expected trip plan structure.
+ */
+public class TripPlanParseException extends RuntimeException {
+
+    public TripPlanParseException(String message) {
+        super(message);
+    }
+}
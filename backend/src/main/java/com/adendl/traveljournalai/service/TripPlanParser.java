@@ -0,0 +1,427 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Location;
+import com.adendl.traveljournalai.model.PlaceOfInterest;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Maps chat completion responses onto the trip plan entities with Jackson's streaming parser.
+ * No intermediate JSON trees are built: days and places of interest are read straight into
+ * {@link DayPlan} and {@link PlaceOfInterest} instances. All methods are thread-safe.
+ */
+public final class TripPlanParser {
+
+    /**
+     * Shared mapper for the rest of the trip generation code; ObjectMapper is thread-safe once configured.
+     */
+    public static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    private static final int DAY_NUMBER_FIELD = 1;
+
+    private TripPlanParser() {
+    }
+
+    /**
+     * Extracts the assistant message content from a chat completion response.
+     * @param completionJson The raw chat completion response body
+     * @return The message content, i.e. the trip plan JSON produced by the model
+     */
+    public static String extractContent(String completionJson) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(completionJson)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT, "completion");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                    if (parser.nextToken() != JsonToken.START_OBJECT) {
+                        throw new TripPlanParseException("Completion contains no choices");
+                    }
+                    String content = readMessageContent(parser);
+                    if (content != null) {
+                        return content;
+                    }
+                    throw new TripPlanParseException("Missing required field 'content' in choices[0].message");
+                }
+                parser.skipChildren();
+            }
+            throw new TripPlanParseException("Missing required field 'choices' in completion");
+        }
+    }
+
+    /**
+     * Reads why the model stopped generating; {@code length} means the content was cut off at max_tokens.
+     * @param completionJson The raw chat completion response body
+     * @return The finish reason of the first choice, or empty when there is none
+     */
+    public static Optional<String> extractFinishReason(String completionJson) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(completionJson)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT, "completion");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                    if (parser.nextToken() != JsonToken.START_OBJECT) {
+                        return Optional.empty();
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String choiceField = parser.currentName();
+                        JsonToken choiceValue = parser.nextToken();
+                        if ("finish_reason".equals(choiceField) && choiceValue == JsonToken.VALUE_STRING) {
+                            return Optional.of(parser.getText());
+                        }
+                        parser.skipChildren();
+                    }
+                    return Optional.empty();
+                }
+                parser.skipChildren();
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads the token counts billed for a chat completion.
+     * @param completionJson The raw chat completion response body
+     * @return The usage, or empty when the response has no complete {@code usage} block
+     */
+    public static Optional<TokenUsage> extractUsage(String completionJson) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(completionJson)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT, "completion");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("usage".equals(field) && value == JsonToken.START_OBJECT) {
+                    int promptTokens = -1;
+                    int completionTokens = -1;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String usageField = parser.currentName();
+                        JsonToken usageValue = parser.nextToken();
+                        if ("prompt_tokens".equals(usageField) && usageValue == JsonToken.VALUE_NUMBER_INT) {
+                            promptTokens = parser.getIntValue();
+                        } else if ("completion_tokens".equals(usageField) && usageValue == JsonToken.VALUE_NUMBER_INT) {
+                            completionTokens = parser.getIntValue();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    return promptTokens >= 0 && completionTokens >= 0
+                            ? Optional.of(new TokenUsage(promptTokens, completionTokens))
+                            : Optional.empty();
+                }
+                parser.skipChildren();
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Parses a full chat completion response into a trip plan.
+     * @param completionJson The raw chat completion response body
+     * @return The trip plan with days and places of interest linked; the plan is not linked to a trip
+     */
+    public static TripPlan parseCompletion(String completionJson) throws IOException {
+        return parseContent(extractContent(completionJson).trim());
+    }
+
+    /**
+     * Parses the trip plan document produced by the model.
+     * @param contentJson A JSON object with a {@code days} array
+     * @return The trip plan with days and places of interest linked; the plan is not linked to a trip
+     */
+    public static TripPlan parseContent(String contentJson) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(contentJson)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT, "trip plan");
+            List<DayPlan> days = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("days".equals(field) && value == JsonToken.START_ARRAY) {
+                    days = new ArrayList<>();
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        days.add(readDay(parser, "days[" + days.size() + "]"));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (days == null) {
+                throw new TripPlanParseException("Missing required field 'days' in trip plan");
+            }
+
+            TripPlan tripPlan = new TripPlan();
+            for (DayPlan day : days) {
+                day.setTripPlan(tripPlan);
+                for (PlaceOfInterest poi : day.getPlacesOfInterest()) {
+                    poi.setDayPlan(day);
+                }
+            }
+            tripPlan.setDays(days);
+            return tripPlan;
+        }
+    }
+
+    /**
+     * Parses a single day object, e.g. one handed back by {@link StreamingDayExtractor}.
+     * @param dayJson The day object JSON
+     * @return The day with its places of interest; no back-references are set, so it can be serialized as is
+     */
+    public static DayPlan parseDay(String dayJson) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(dayJson)) {
+            parser.nextToken();
+            return readDay(parser, "day");
+        }
+    }
+
+    /**
+     * Parses a route skeleton: the {@code days} array with only the day number, start and finish
+     * locations (and optionally the distance) of each day.
+     * @param contentJson A JSON object with a {@code days} array
+     * @return The days, without introductions or places of interest
+     */
+    public static List<DayPlan> parseSkeleton(String contentJson) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(contentJson)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT, "skeleton");
+            List<DayPlan> days = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("days".equals(field) && value == JsonToken.START_ARRAY) {
+                    days = new ArrayList<>();
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        String path = "days[" + days.size() + "]";
+                        DayPlan day = new DayPlan();
+                        int seen = readDayFields(parser, path, day);
+                        require((seen & DAY_NUMBER_FIELD) != 0, "day", path);
+                        require(day.getStartLocation() != null, "startLocation", path);
+                        require(day.getFinishLocation() != null, "finishLocation", path);
+                        days.add(day);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (days == null || days.isEmpty()) {
+                throw new TripPlanParseException("Missing required field 'days' in skeleton");
+            }
+            return days;
+        }
+    }
+
+    /**
+     * Parses the details generated for a single day of a skeleton.
+     * @param contentJson A JSON object with {@code introduction} and {@code placesOfInterest}
+     * @return A day holding the parsed fields; no back-references are set
+     */
+    public static DayPlan parseDayDetails(String contentJson) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(contentJson)) {
+            parser.nextToken();
+            DayPlan day = new DayPlan();
+            readDayFields(parser, "day details", day);
+            require(day.getIntroduction() != null, "introduction", "day details");
+            require(day.getPlacesOfInterest() != null, "placesOfInterest", "day details");
+            return day;
+        }
+    }
+
+    /**
+     * Writes a plan in the same document format the model produces, so it can be read back with {@link #parseContent}.
+     * @param tripPlan The plan to write
+     * @return A JSON object with a {@code days} array
+     */
+    public static String writeContent(TripPlan tripPlan) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = FACTORY.createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("days");
+            for (DayPlan day : tripPlan.getDays()) {
+                generator.writeStartObject();
+                generator.writeNumberField("day", day.getDayNumber());
+                writeLocation(generator, "startLocation", day.getStartLocation());
+                writeLocation(generator, "finishLocation", day.getFinishLocation());
+                generator.writeNumberField("distanceKm", day.getDistanceKm());
+                generator.writeStringField("introduction", day.getIntroduction());
+                generator.writeArrayFieldStart("placesOfInterest");
+                for (PlaceOfInterest poi : day.getPlacesOfInterest()) {
+                    generator.writeStartObject();
+                    generator.writeStringField("name", poi.getName());
+                    generator.writeStringField("description", poi.getDescription());
+                    generator.writeNumberField("latitude", poi.getLatitude());
+                    generator.writeNumberField("longitude", poi.getLongitude());
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return writer.toString();
+    }
+
+    private static void writeLocation(JsonGenerator generator, String field, Location location) throws IOException {
+        generator.writeObjectFieldStart(field);
+        generator.writeStringField("name", location.getName());
+        generator.writeNumberField("latitude", location.getLatitude());
+        generator.writeNumberField("longitude", location.getLongitude());
+        generator.writeEndObject();
+    }
+
+    private static String readMessageContent(JsonParser parser) throws IOException {
+        String content = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("message".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String messageField = parser.currentName();
+                    JsonToken messageValue = parser.nextToken();
+                    if ("content".equals(messageField) && messageValue == JsonToken.VALUE_STRING) {
+                        content = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return content;
+    }
+
+    private static DayPlan readDay(JsonParser parser, String path) throws IOException {
+        DayPlan day = new DayPlan();
+        int seen = readDayFields(parser, path, day);
+        require((seen & DAY_NUMBER_FIELD) != 0, "day", path);
+        require(day.getStartLocation() != null, "startLocation", path);
+        require(day.getFinishLocation() != null, "finishLocation", path);
+        require(day.getIntroduction() != null, "introduction", path);
+        require(day.getPlacesOfInterest() != null, "placesOfInterest", path);
+        return day;
+    }
+
+    /**
+     * Reads whichever day fields are present into {@code day}; callers decide which ones are required.
+     * @return A mask of the primitive fields that were present ({@link #DAY_NUMBER_FIELD})
+     */
+    private static int readDayFields(JsonParser parser, String path, DayPlan day) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT, path);
+        int seen = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "day" -> {
+                    day.setDayNumber(parser.getValueAsInt());
+                    seen |= DAY_NUMBER_FIELD;
+                }
+                case "startLocation" -> day.setStartLocation(readLocation(parser, path + ".startLocation"));
+                case "finishLocation" -> day.setFinishLocation(readLocation(parser, path + ".finishLocation"));
+                // Optional: distances are computed from the coordinates, older documents still carry one
+                case "distanceKm" -> day.setDistanceKm(parser.getValueAsDouble());
+                case "introduction" -> day.setIntroduction(parser.getValueAsString());
+                case "placesOfInterest" -> {
+                    expect(parser, value, JsonToken.START_ARRAY, path + ".placesOfInterest");
+                    List<PlaceOfInterest> places = new ArrayList<>();
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        places.add(readPlaceOfInterest(parser, path + ".placesOfInterest[" + places.size() + "]"));
+                    }
+                    day.setPlacesOfInterest(places);
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return seen;
+    }
+
+    private static Location readLocation(JsonParser parser, String path) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT, path);
+        Location location = new Location();
+        boolean hasLatitude = false;
+        boolean hasLongitude = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "name" -> location.setName(parser.getValueAsString());
+                case "latitude" -> {
+                    location.setLatitude(parser.getValueAsDouble());
+                    hasLatitude = true;
+                }
+                case "longitude" -> {
+                    location.setLongitude(parser.getValueAsDouble());
+                    hasLongitude = true;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        require(location.getName() != null, "name", path);
+        require(hasLatitude, "latitude", path);
+        require(hasLongitude, "longitude", path);
+        return location;
+    }
+
+    private static PlaceOfInterest readPlaceOfInterest(JsonParser parser, String path) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT, path);
+        PlaceOfInterest poi = new PlaceOfInterest();
+        boolean hasLatitude = false;
+        boolean hasLongitude = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "name" -> poi.setName(parser.getValueAsString());
+                case "description" -> poi.setDescription(parser.getValueAsString());
+                case "latitude" -> {
+                    poi.setLatitude(parser.getValueAsDouble());
+                    hasLatitude = true;
+                }
+                case "longitude" -> {
+                    poi.setLongitude(parser.getValueAsDouble());
+                    hasLongitude = true;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        require(poi.getName() != null, "name", path);
+        require(poi.getDescription() != null, "description", path);
+        require(hasLatitude, "latitude", path);
+        require(hasLongitude, "longitude", path);
+        return poi;
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected, String path) {
+        if (actual != expected) {
+            throw new TripPlanParseException("Expected " + expected + " at " + path + " but found " + actual
+                    + " (line " + parser.currentLocation().getLineNr() + ", column " + parser.currentLocation().getColumnNr() + ")");
+        }
+    }
+
+    private static void require(boolean present, String field, String path) {
+        if (!present) {
+            throw new TripPlanParseException("Missing required field '" + field + "' in " + path);
+        }
+    }
+}
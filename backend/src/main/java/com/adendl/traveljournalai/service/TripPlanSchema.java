@@ -0,0 +1,152 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Transient;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Strict JSON schemas for the {@code json_schema} structured output of the model calls, generated
+ * from the {@link DayPlan}, {@link com.adendl.traveljournalai.model.Location} and
+ * {@link com.adendl.traveljournalai.model.PlaceOfInterest} fields so the response shape cannot drift
+ * from what {@link TripPlanParser} reads. Ids, back-references and fields Jackson ignores (the
+ * route and place geometries) are left out, and field names are mapped to their wire names
+ * (dayNumber is sent as day). Distances are computed from the coordinates by
+ * {@link GeometryService}, so the model is not asked for them. Strict mode needs every property to
+ * be required and no additional properties, and the property order is the order the model writes
+ * them in, so start and finish locations come before the long text of a day.
+ */
+public final class TripPlanSchema {
+
+    private static final Map<String, String> WIRE_NAMES = Map.of("dayNumber", "day");
+
+    private static final Set<String> COMPUTED_FIELDS = Set.of("distanceKm", "placesOfInterestDistanceKm");
+
+    private static final Map<String, String> DESCRIPTIONS = Map.of(
+            "day", "Day number, starting at 1",
+            "startLocation", "Where the day starts, the previous day's finish location",
+            "finishLocation", "Where the day ends",
+            "introduction", "An in-depth introduction of roughly 100 words to the finish location",
+            "placesOfInterest", "Three to five places of interest along the way that match the traveller's interests",
+            "latitude", "Decimal degrees",
+            "longitude", "Decimal degrees");
+
+    private static final Set<String> SKELETON_FIELDS = Set.of("day", "startLocation", "finishLocation");
+    private static final Set<String> DAY_DETAIL_FIELDS = Set.of("introduction", "placesOfInterest");
+
+    /** A whole plan: {@code {"days": [day, ...]}} with every day field. */
+    public static final Map<String, Object> TRIP_PLAN = daysSchema(null);
+
+    /** The route of a plan: {@code {"days": [...]}} with only the numbers and locations of each day. */
+    public static final Map<String, Object> SKELETON = daysSchema(SKELETON_FIELDS);
+
+    /** The introduction and places of interest of a single day. */
+    public static final Map<String, Object> DAY_DETAILS = objectSchema(DayPlan.class, DAY_DETAIL_FIELDS);
+
+    private TripPlanSchema() {
+    }
+
+    /**
+     * @param name The schema name reported by the API, e.g. trip_plan
+     * @param schema One of the schemas above
+     * @return The {@code response_format} value that enforces the schema
+     */
+    public static Map<String, Object> responseFormat(String name, Map<String, Object> schema) {
+        Map<String, Object> jsonSchema = new LinkedHashMap<>();
+        jsonSchema.put("name", name);
+        jsonSchema.put("strict", true);
+        jsonSchema.put("schema", schema);
+        return Map.of("type", "json_schema", "json_schema", jsonSchema);
+    }
+
+    private static Map<String, Object> daysSchema(Set<String> dayFields) {
+        Map<String, Object> days = new LinkedHashMap<>();
+        days.put("type", "array");
+        days.put("items", objectSchema(DayPlan.class, dayFields));
+        return object(Map.of("days", days));
+    }
+
+    /**
+     * @param include The wire names to include, or null for every field
+     */
+    static Map<String, Object> objectSchema(Class<?> type, Set<String> include) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!isContent(field)) {
+                continue;
+            }
+            String name = WIRE_NAMES.getOrDefault(field.getName(), field.getName());
+            if (include == null || include.contains(name)) {
+                properties.put(name, propertySchema(name, field.getGenericType()));
+            }
+        }
+        if (properties.isEmpty()) {
+            throw new IllegalStateException("No schema properties in " + type.getSimpleName());
+        }
+        return object(properties);
+    }
+
+    private static boolean isContent(Field field) {
+        int modifiers = field.getModifiers();
+        return !field.isSynthetic() && !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)
+                && !COMPUTED_FIELDS.contains(field.getName())
+                && !field.isAnnotationPresent(Id.class)
+                && !field.isAnnotationPresent(ManyToOne.class)
+                && !field.isAnnotationPresent(Transient.class)
+                && !field.isAnnotationPresent(JsonIgnore.class);
+    }
+
+    private static Map<String, Object> propertySchema(String name, Type type) {
+        Map<String, Object> schema;
+        if (type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw && Collection.class.isAssignableFrom(raw)) {
+            schema = new LinkedHashMap<>();
+            schema.put("type", "array");
+            schema.put("items", objectSchema((Class<?>) parameterized.getActualTypeArguments()[0], null));
+        } else if (type == String.class) {
+            schema = typed("string");
+        } else if (type == int.class || type == Integer.class || type == long.class || type == Long.class) {
+            schema = typed("integer");
+        } else if (type == double.class || type == Double.class || type == float.class || type == Float.class) {
+            schema = typed("number");
+        } else if (type == boolean.class || type == Boolean.class) {
+            schema = typed("boolean");
+        } else if (type instanceof Class<?> nested) {
+            schema = new LinkedHashMap<>(objectSchema(nested, null));
+        } else {
+            throw new IllegalStateException("Unsupported schema type " + type.getTypeName() + " for " + name);
+        }
+        String description = DESCRIPTIONS.get(name);
+        if (description != null) {
+            schema.put("description", description);
+        }
+        return Collections.unmodifiableMap(schema);
+    }
+
+    private static Map<String, Object> typed(String type) {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", type);
+        return schema;
+    }
+
+    private static Map<String, Object> object(Map<String, Object> properties) {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("properties", Collections.unmodifiableMap(new LinkedHashMap<>(properties)));
+        schema.put("required", List.copyOf(properties.keySet()));
+        schema.put("additionalProperties", false);
+        return Collections.unmodifiableMap(schema);
+    }
+}
@@ -0,0 +1,122 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent generations of the same trip plan. The first caller for a key runs the
+ * generation; callers arriving while it is in flight wait on the same future and receive their own
+ * copy of the result. The in-flight map is only touched with putIfAbsent/remove, so no lock is held.
+ */
+@Component
+public class TripPlanSingleFlight {
+
+    private static final Logger logger = LoggingUtils.getLogger(TripPlanSingleFlight.class);
+
+    private static final String METRIC_NAME = "trip.plan.singleflight.calls";
+
+    private final ConcurrentMap<TripPlanCacheKey, CompletableFuture<TripPlan>> inFlight = new ConcurrentHashMap<>();
+    private final Duration followerTimeout;
+
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter followerTimeouts;
+
+    @Autowired
+    public TripPlanSingleFlight(MeterRegistry meterRegistry,
+                                @Value("${trips.generation.coalescing.follower-timeout-seconds:300}") long followerTimeoutSeconds) {
+        this.followerTimeout = Duration.ofSeconds(followerTimeoutSeconds);
+        this.leaders = meterRegistry.counter(METRIC_NAME, "role", "leader");
+        this.followers = meterRegistry.counter(METRIC_NAME, "role", "follower");
+        this.followerTimeouts = meterRegistry.counter(METRIC_NAME, "role", "follower-timeout");
+    }
+
+    /**
+     * Runs the generator unless an identical generation is already in flight, in which case the
+     * caller waits for that one instead.
+     * @param key The canonical request key
+     * @param generator Produces the plan when this caller leads
+     * @return The generated plan for the leader, or an independent copy of it for each follower
+     */
+    public TripPlan execute(TripPlanCacheKey key, Supplier<TripPlan> generator) {
+        while (true) {
+            CompletableFuture<TripPlan> call = new CompletableFuture<>();
+            CompletableFuture<TripPlan> existing = inFlight.putIfAbsent(key, call);
+            if (existing == null) {
+                return lead(key, call, generator);
+            }
+            Optional<TripPlan> result = follow(key, existing);
+            if (result.isPresent()) {
+                return result.get();
+            }
+            // The leader was abandoned; try again, either leading or joining a newer call
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private TripPlan lead(TripPlanCacheKey key, CompletableFuture<TripPlan> call, Supplier<TripPlan> generator) {
+        leaders.increment();
+        try {
+            TripPlan tripPlan = generator.get();
+            // Followers copy from a detached template, never from the leader's plan which is about to be persisted
+            call.complete(TripPlans.copyOf(tripPlan));
+            return tripPlan;
+        } catch (RuntimeException | Error e) {
+            if (Thread.currentThread().isInterrupted()) {
+                call.cancel(false);
+            } else {
+                call.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private Optional<TripPlan> follow(TripPlanCacheKey key, CompletableFuture<TripPlan> call) {
+        followers.increment();
+        logger.info("Joining in-flight trip plan generation for {}", key);
+        try {
+            TripPlan template = call.get(followerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return Optional.of(TripPlans.copyOf(template));
+        } catch (CancellationException e) {
+            logger.warn("In-flight trip plan generation for {} was abandoned, retrying", key);
+            inFlight.remove(key, call);
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Trip plan generation failed: " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            followerTimeouts.increment();
+            // Detach the stalled call so later requests start a fresh generation instead of queueing behind it
+            inFlight.remove(key, call);
+            throw new RuntimeException("Timed out waiting for an in-flight trip plan generation for " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for an in-flight trip plan generation", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Location;
+import com.adendl.traveljournalai.model.PlaceOfInterest;
+import com.adendl.traveljournalai.model.TripPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers for working with detached trip plan graphs.
+ */
+public final class TripPlans {
+
+    private TripPlans() {
+    }
+
+    /**
+     * Deep-copies a plan without ids or trip link, so the copy can be attached to a new trip and persisted.
+     * @param source The plan to copy
+     * @return A new plan whose days and places of interest are linked to each other
+     */
+    public static TripPlan copyOf(TripPlan source) {
+        TripPlan copy = new TripPlan();
+        List<DayPlan> days = new ArrayList<>();
+        if (source.getDays() != null) {
+            for (DayPlan sourceDay : source.getDays()) {
+                DayPlan day = new DayPlan();
+                day.setTripPlan(copy);
+                day.setDayNumber(sourceDay.getDayNumber());
+                day.setStartLocation(copyOf(sourceDay.getStartLocation()));
+                day.setFinishLocation(copyOf(sourceDay.getFinishLocation()));
+                day.setDistanceKm(sourceDay.getDistanceKm());
+                day.setPlacesOfInterestDistanceKm(sourceDay.getPlacesOfInterestDistanceKm());
+                day.setIntroduction(sourceDay.getIntroduction());
+
+                List<PlaceOfInterest> places = new ArrayList<>();
+                if (sourceDay.getPlacesOfInterest() != null) {
+                    for (PlaceOfInterest sourcePoi : sourceDay.getPlacesOfInterest()) {
+                        PlaceOfInterest poi = new PlaceOfInterest();
+                        poi.setDayPlan(day);
+                        poi.setName(sourcePoi.getName());
+                        poi.setDescription(sourcePoi.getDescription());
+                        poi.setLatitude(sourcePoi.getLatitude());
+                        poi.setLongitude(sourcePoi.getLongitude());
+                        places.add(poi);
+                    }
+                }
+                day.setPlacesOfInterest(places);
+                days.add(day);
+            }
+        }
+        copy.setDays(days);
+        return copy;
+    }
+
+    private static Location copyOf(Location source) {
+        if (source == null) {
+            return null;
+        }
+        Location copy = new Location();
+        copy.setName(source.getName());
+        copy.setLatitude(source.getLatitude());
+        copy.setLongitude(source.getLongitude());
+        return copy;
+    }
+}
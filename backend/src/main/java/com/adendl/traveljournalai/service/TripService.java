@@ -1,22 +1,18 @@
 package com.adendl.traveljournalai.service;
 
 import com.adendl.traveljournalai.model.*;
-import com.adendl.traveljournalai.repository.TripPlanRepository;
+import com.adendl.traveljournalai.repository.TripInterest;
 import com.adendl.traveljournalai.repository.TripRepository;
+import com.adendl.traveljournalai.repository.TripSummaryRow;
 import com.adendl.traveljournalai.repository.UserRepository;
 import com.adendl.traveljournalai.utils.LoggingUtils;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import com.adendl.traveljournalai.config.JwtConfig;
 import io.jsonwebtoken.security.Keys;
 
@@ -24,32 +20,49 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class TripService {
 
     private static final Logger logger = LoggingUtils.getLogger(TripService.class);
 
+    /** The most trip summaries returned per page. */
+    public static final int MAX_SUMMARY_PAGE_SIZE = 100;
+
     @Autowired
     private TripRepository tripRepository;
 
     @Autowired
-    private TripPlanRepository tripPlanRepository;
+    private UserRepository userRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private JwtConfig jwtConfig;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private TripPlanCache tripPlanCache;
 
     @Autowired
-    private JwtConfig jwtConfig;
+    private TripPlanSingleFlight tripPlanSingleFlight;
+
+    @Autowired
+    private TripPlanGenerator tripPlanGenerator;
+
+    @Autowired
+    private TripGenerationCircuitBreaker tripGenerationCircuitBreaker;
+
+    @Autowired
+    private GeometryService geometryService;
 
-    @Value("${openai.api.key}")
-    private String openAiApiKey;
+    @Autowired
+    private Gazetteer gazetteer;
+
+    @Autowired
+    private PlaceIndex placeIndex;
 
     public Trip createTrip(String jwtToken, String fromCity, String toCity, boolean roundtrip, int days, List<String> interests, double distanceKm) {
         LoggingUtils.logMethodEntry(logger, "createTrip", "fromCity", fromCity, "toCity", toCity, "roundtrip", roundtrip, "days", days, "interests", interests, "distanceKm", distanceKm);
@@ -59,48 +72,7 @@ public class TripService {
             logger.info("Starting createTrip process for fromCity: {} to toCity: {}", fromCity, toCity);
 
             User user = validateAndGetUserFromJwt(jwtToken);
-            Trip trip = new Trip();
-            trip.setFromCity(fromCity);
-            trip.setToCity(toCity);
-            trip.setRoundtrip(roundtrip);
-            trip.setDays(days);
-            trip.setInterests(interests);
-            trip.setDistanceKm(distanceKm);
-            trip.setCreatedAt(Instant.now().toString());
-            trip.setUser(user);
-
-            trip = tripRepository.save(trip);
-            logger.info("Trip saved with ID: {}", trip.getTripId());
-
-            TripPlan tripPlan = generateTripPlan(trip);
-            tripPlanRepository.save(tripPlan);
-            logger.info("TripPlan generated and saved with ID: {}", tripPlan.getId());
-
-            List<TripPlan> tripPlans = trip.getTripPlans();
-            if (tripPlans == null) {
-                tripPlans = new ArrayList<>();
-            }
-            tripPlans.add(tripPlan);
-            trip.setTripPlans(tripPlans);
-            Trip savedTrip = tripRepository.save(trip);
-            logger.info("Trip updated with tripPlans and saved: {}", savedTrip.getTripId());
-
-            // BREAK CIRCULAR REFERENCES FOR JSON SERIALIZATION (same as getTripsByUser)
-            if (savedTrip.getTripPlans() != null) {
-                for (TripPlan plan : savedTrip.getTripPlans()) {
-                    plan.setTrip(null);
-                    if (plan.getDays() != null) {
-                        for (DayPlan day : plan.getDays()) {
-                            day.setTripPlan(null);
-                            if (day.getPlacesOfInterest() != null) {
-                                for (PlaceOfInterest poi : day.getPlacesOfInterest()) {
-                                    poi.setDayPlan(null);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            Trip savedTrip = createTripForUser(user, fromCity, toCity, roundtrip, days, interests, distanceKm);
 
             LoggingUtils.logMethodExit(logger, "createTrip", savedTrip);
             LoggingUtils.logPerformance(logger, "createTrip", startTime);
@@ -111,7 +83,56 @@ public class TripService {
         }
     }
 
-    private User validateAndGetUserFromJwt(String jwtToken) {
+    /**
+     * Creates a trip in three steps: validate and build it in memory, generate its plan while no
+     * database connection is held, then persist the whole graph in one short transaction. Nothing
+     * is written if generation fails.
+     */
+    Trip createTripForUser(User user, String fromCity, String toCity, boolean roundtrip, int days, List<String> interests, double distanceKm) {
+        Trip trip = buildTrip(user, fromCity, toCity, roundtrip, days, interests, distanceKm);
+        TripPlan tripPlan = obtainTripPlan(trip);
+        return persistGeneratedTrip(trip, tripPlan);
+    }
+
+    Trip buildTrip(User user, String fromCity, String toCity, boolean roundtrip, int days, List<String> interests, double distanceKm) {
+        // Unknown cities are rejected here, before any model call is paid for
+        Trip trip = new Trip();
+        trip.setFromCity(gazetteer.canonicalName(fromCity));
+        trip.setToCity(gazetteer.canonicalName(toCity));
+        trip.setRoundtrip(roundtrip);
+        trip.setDays(days);
+        trip.setInterests(interests);
+        trip.setDistanceKm(distanceKm);
+        trip.setCreatedAt(Trip.formatCreatedAt(Instant.now()));
+        trip.setUser(user);
+        return trip;
+    }
+
+    /**
+     * Saves a new trip together with its generated plan. The plan, its days and their places of
+     * interest cascade from the trip, so this is a single repository save: one transaction, whose
+     * inserts Hibernate batches.
+     */
+    Trip persistGeneratedTrip(Trip trip, TripPlan tripPlan) {
+        // Distances come from the coordinates, never from the model, so every stored plan is consistent
+        trip.setDistanceKm(geometryService.applyDistances(tripPlan.getDays()));
+        tripPlan.setTrip(trip);
+        List<TripPlan> tripPlans = trip.getTripPlans();
+        if (tripPlans == null) {
+            tripPlans = new ArrayList<>();
+        }
+        tripPlans.add(tripPlan);
+        trip.setTripPlans(tripPlans);
+
+        Trip savedTrip = tripRepository.save(trip);
+        logger.info("Trip saved with ID: {} and TripPlan ID: {}", savedTrip.getTripId(), tripPlan.getId());
+        placeIndex.addTrip(savedTrip);
+
+        breakCircularReferences(savedTrip);
+        return savedTrip;
+    }
+
+    User validateAndGetUserFromJwt(String jwtToken) {
         LoggingUtils.logMethodEntry(logger, "validateAndGetUserFromJwt", "jwtToken", jwtToken.substring(0, Math.min(20, jwtToken.length())) + "...");
         
         logger.debug("Validating JWT token...");
@@ -133,17 +154,39 @@ public class TripService {
         return user;
     }
 
+    private TripPlan obtainTripPlan(Trip trip) {
+        TripPlanCacheKey cacheKey = TripPlanCacheKey.of(trip);
+        Optional<TripPlan> cached = tripPlanCache.get(cacheKey);
+        if (cached.isPresent()) {
+            logger.info("Reusing cached trip plan for {}", cacheKey);
+            TripPlan tripPlan = cached.get();
+            tripPlan.setTrip(trip);
+            return tripPlan;
+        }
+
+        TripPlan tripPlan;
+        try {
+            tripPlan = tripPlanSingleFlight.execute(cacheKey, () -> {
+                TripPlan generated = tripGenerationCircuitBreaker.execute(() -> generateTripPlan(trip));
+                tripPlanCache.put(cacheKey, generated);
+                return generated;
+            });
+        } catch (TripGenerationUnavailableException e) {
+            // Degraded mode: a plan for the same route beats failing outright
+            tripPlan = tripPlanCache.findClosest(cacheKey).orElseThrow(() -> e);
+            logger.warn("Trip generation unavailable, serving closest cached plan for {}", cacheKey);
+        }
+        tripPlan.setTrip(trip);
+        return tripPlan;
+    }
+
     private TripPlan generateTripPlan(Trip trip) {
-        LoggingUtils.logMethodEntry(logger, "generateTripPlan", "tripId", trip.getTripId());
+        LoggingUtils.logMethodEntry(logger, "generateTripPlan", "fromCity", trip.getFromCity(), "toCity", trip.getToCity());
         long startTime = System.currentTimeMillis();
         
         try {
-            logger.info("Generating trip plan for trip ID: {}", trip.getTripId());
-            String prompt = generatePrompt(trip);
-            logger.debug("Generated prompt: {}...", prompt.substring(0, Math.min(200, prompt.length())));
-            String jsonResponse = callOpenAiApi(prompt);
-            logger.debug("Received OpenAI response: {}...", jsonResponse.substring(0, Math.min(200, jsonResponse.length())));
-            TripPlan result = parseTripPlan(jsonResponse, trip);
+            logger.info("Generating trip plan from {} to {}", trip.getFromCity(), trip.getToCity());
+            TripPlan result = tripPlanGenerator.generate(trip);
             
             LoggingUtils.logMethodExit(logger, "generateTripPlan", result);
             LoggingUtils.logPerformance(logger, "generateTripPlan", startTime);
@@ -154,117 +197,37 @@ public class TripService {
         }
     }
 
-    private String generatePrompt(Trip trip) {
-        String roundtripStr = trip.isRoundtrip() ? "roundtrip" : "one-way trip";
-        String interestsStr = String.join(", ", trip.getInterests());
-        return String.format(
-                "Generate a detailed trip plan for a %s from %s to %s over %d days, with interests in %s. " +
-                        "For each day, provide the start and finish locations with their latitudes and longitudes, " +
-                        "the distance between them, an in-depth introduction (roughly 100 words) to the destination, and some places of interest along the way. " +
-                        "Return the response in JSON format with the following structure: " +
-                        "{\"days\": [{\"day\": 1, \"startLocation\": {\"name\": \"City A\", \"latitude\": 12.34, \"longitude\": 56.78}, " +
-                        "\"finishLocation\": {\"name\": \"City B\", \"latitude\": 23.45, \"longitude\": 67.89}, \"distanceKm\": 150, " +
-                        "\"introduction\": \"Welcome to City B, known for its...\", \"placesOfInterest\": [{\"name\": \"Museum X\", " +
-                        "\"description\": \"A great museum...\", \"latitude\": 23.46, \"longitude\": 67.90}, ...]}]}",
-                roundtripStr, trip.getFromCity(), trip.getToCity(), trip.getDays(), interestsStr, trip.getDistanceKm()
-        );
-    }
-
-    private String callOpenAiApi(String prompt) {
-        LoggingUtils.logMethodEntry(logger, "callOpenAiApi", "promptLength", prompt.length());
-        long startTime = System.currentTimeMillis();
-        
-        try {
-            logger.debug("Calling OpenAI API with prompt...");
-            String url = "https://api.openai.com/v1/chat/completions";
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + openAiApiKey);
-            headers.set("Content-Type", "application/json");
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("model", "gpt-4.1-mini");
-            body.put("messages", List.of(
-                    Map.of("role", "system", "content", "You are a helpful assistant that generates trip plans."),
-                    Map.of("role", "user", "content", prompt)
-            ));
-            body.put("max_tokens", 10000);
-            body.put("response_format", Map.of("type", "json_object"));
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                logger.info("OpenAI API call successful");
-                LoggingUtils.logPerformance(logger, "OpenAI API call", startTime);
-                LoggingUtils.logMethodExit(logger, "callOpenAiApi", "Response received");
-                return response.getBody();
+    /**
+     * Clears the back-references from plans, days and places of interest so the trip serializes
+     * as a tree.
+     */
+    static void breakCircularReferences(Trip trip) {
+        if (trip.getTripPlans() == null) {
+            return;
+        }
+        for (TripPlan plan : trip.getTripPlans()) {
+            plan.setTrip(null);
+            if (plan.getDays() != null) {
+                for (DayPlan day : plan.getDays()) {
+                    day.setTripPlan(null);
+                    if (day.getPlacesOfInterest() != null) {
+                        for (PlaceOfInterest poi : day.getPlacesOfInterest()) {
+                            poi.setDayPlan(null);
+                        }
+                    }
+                }
             }
-            logger.error("OpenAI API call failed with status: {}", response.getStatusCode());
-            throw new RuntimeException("Failed to call OpenAI API");
-        } catch (Exception e) {
-            LoggingUtils.logMethodExitWithException(logger, "callOpenAiApi", e);
-            throw e;
         }
     }
 
-    private TripPlan parseTripPlan(String json, Trip trip) {
-        LoggingUtils.logMethodEntry(logger, "parseTripPlan", "tripId", trip.getTripId(), "jsonLength", json.length());
-        long startTime = System.currentTimeMillis();
-        
-        try {
-            logger.debug("Parsing trip plan JSON for trip ID: {}", trip.getTripId());
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(json);
-            JsonNode contentNode = root.path("choices").get(0).path("message").path("content");
-            JsonNode tripPlanNode = mapper.readTree(contentNode.asText().trim());
-
-            TripPlan tripPlan = new TripPlan();
-            tripPlan.setTrip(trip);
-            List<DayPlan> days = new ArrayList<>();
-            for (JsonNode dayNode : tripPlanNode.get("days")) {
-                DayPlan dayPlan = new DayPlan();
-                dayPlan.setTripPlan(tripPlan);
-                dayPlan.setDayNumber(dayNode.get("day").asInt());
-
-                JsonNode startLocNode = dayNode.get("startLocation");
-                Location startLocation = new Location();
-                startLocation.setName(startLocNode.get("name").asText());
-                startLocation.setLatitude(startLocNode.get("latitude").asDouble());
-                startLocation.setLongitude(startLocNode.get("longitude").asDouble());
-                dayPlan.setStartLocation(startLocation);
-
-                JsonNode finishLocNode = dayNode.get("finishLocation");
-                Location finishLocation = new Location();
-                finishLocation.setName(finishLocNode.get("name").asText());
-                finishLocation.setLatitude(finishLocNode.get("latitude").asDouble());
-                finishLocation.setLongitude(finishLocNode.get("longitude").asDouble());
-                dayPlan.setFinishLocation(finishLocation);
-
-                dayPlan.setDistanceKm(dayNode.get("distanceKm").asDouble());
-                dayPlan.setIntroduction(dayNode.get("introduction").asText());
-
-                List<PlaceOfInterest> places = new ArrayList<>();
-                for (JsonNode poiNode : dayNode.get("placesOfInterest")) {
-                    PlaceOfInterest poi = new PlaceOfInterest();
-                    poi.setDayPlan(dayPlan);
-                    poi.setName(poiNode.get("name").asText());
-                    poi.setDescription(poiNode.get("description").asText());
-                    poi.setLatitude(poiNode.get("latitude").asDouble());
-                    poi.setLongitude(poiNode.get("longitude").asDouble());
-                    places.add(poi);
-                }
-                dayPlan.setPlacesOfInterest(places);
-                days.add(dayPlan);
+    /**
+     * Sets the back-references from places of interest to their day so the day can be persisted.
+     */
+    static void linkPlacesOfInterest(DayPlan dayPlan) {
+        if (dayPlan.getPlacesOfInterest() != null) {
+            for (PlaceOfInterest poi : dayPlan.getPlacesOfInterest()) {
+                poi.setDayPlan(dayPlan);
             }
-            tripPlan.setDays(days);
-            logger.info("Trip plan parsed successfully with {} days", days.size());
-            
-            LoggingUtils.logMethodExit(logger, "parseTripPlan", tripPlan);
-            LoggingUtils.logPerformance(logger, "parseTripPlan", startTime);
-            return tripPlan;
-        } catch (Exception e) {
-            logger.error("Failed to parse trip plan JSON: {}", e.getMessage(), e);
-            LoggingUtils.logMethodExitWithException(logger, "parseTripPlan", e);
-            throw new RuntimeException("Failed to parse trip plan JSON: " + e.getMessage(), e);
         }
     }
 
@@ -274,26 +237,11 @@ public class TripService {
         
         try {
             logger.debug("Fetching trips for user: {}", user.getUsername());
-            List<Trip> trips = tripRepository.findByUser(user);
+            List<Trip> trips = tripRepository.findByUserWithPlans(user);
             logger.info("Found {} trips for user: {}", trips.size(), user.getUsername());
             
-            // Break circular references for JSON serialization
             for (Trip trip : trips) {
-                if (trip.getTripPlans() != null) {
-                    for (TripPlan plan : trip.getTripPlans()) {
-                        plan.setTrip(null);
-                        if (plan.getDays() != null) {
-                            for (DayPlan day : plan.getDays()) {
-                                day.setTripPlan(null);
-                                if (day.getPlacesOfInterest() != null) {
-                                    for (PlaceOfInterest poi : day.getPlacesOfInterest()) {
-                                        poi.setDayPlan(null);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
+                breakCircularReferences(trip);
             }
             
             LoggingUtils.logMethodExit(logger, "getTripsByUser", trips.size() + " trips");
@@ -305,6 +253,102 @@ public class TripService {
         }
     }
 
+    /**
+     * @param cursor The previous page's {@link TripSummaryPage#nextCursor()}, or null for the first page
+     * @return Up to {@code limit} of the user's trips without their plans, newest first, in two queries
+     * @throws IllegalArgumentException If the limit is out of range or the cursor is not one we issued
+     */
+    public TripSummaryPage getTripSummaries(User user, String cursor, int limit) {
+        LoggingUtils.logMethodEntry(logger, "getTripSummaries", "userId", user.getId(), "username", user.getUsername(),
+                "cursor", cursor, "limit", limit);
+        long startTime = System.currentTimeMillis();
+        if (limit < 1 || limit > MAX_SUMMARY_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SUMMARY_PAGE_SIZE);
+        }
+        // One row past the page tells whether there is another
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<TripSummaryRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = tripRepository.findSummariesByUser(user, page);
+        } else {
+            TripCursor after = TripCursor.decode(cursor);
+            rows = tripRepository.findSummariesByUserAfter(user, after.createdAt(), after.tripId(), page);
+        }
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        Map<Long, List<String>> interests = new HashMap<>();
+        if (!rows.isEmpty()) {
+            List<Long> tripIds = rows.stream().map(TripSummaryRow::getTripId).toList();
+            for (TripInterest interest : tripRepository.findInterestsByTripIds(tripIds)) {
+                interests.computeIfAbsent(interest.getTripId(), tripId -> new ArrayList<>()).add(interest.getInterest());
+            }
+        }
+        List<TripSummary> summaries = rows.stream()
+                .map(row -> new TripSummary(row.getTripId(), row.getFromCity(), row.getToCity(), row.isRoundtrip(),
+                        row.getDays(), row.getDistanceKm(), row.getCreatedAt(),
+                        interests.getOrDefault(row.getTripId(), List.of())))
+                .toList();
+        String nextCursor = null;
+        if (hasMore) {
+            TripSummaryRow last = rows.get(rows.size() - 1);
+            nextCursor = new TripCursor(last.getCreatedAt(), last.getTripId()).encode();
+        }
+        LoggingUtils.logMethodExit(logger, "getTripSummaries", summaries.size() + " trips");
+        LoggingUtils.logPerformance(logger, "getTripSummaries", startTime);
+        return new TripSummaryPage(summaries, nextCursor);
+    }
+
+    /**
+     * @return The trip with its whole plan, after checking it belongs to the caller
+     * @throws TripNotFoundException When there is no such trip
+     * @throws TripAccessDeniedException When the trip belongs to another user
+     */
+    public Trip getTrip(String jwtToken, Long tripId) {
+        LoggingUtils.logMethodEntry(logger, "getTrip", "tripId", tripId);
+        User user = validateAndGetUserFromJwt(jwtToken);
+        Trip trip = tripRepository.findByIdWithPlans(tripId)
+                .orElseThrow(() -> new TripNotFoundException(tripId));
+        checkReadAccess(user, trip);
+        breakCircularReferences(trip);
+        LoggingUtils.logMethodExit(logger, "getTrip", trip.getTripId());
+        return trip;
+    }
+
+    /**
+     * @return The days of the trip's plan, ordered by day number, after checking the trip belongs to the caller
+     * @throws TripNotFoundException When there is no such trip
+     * @throws TripAccessDeniedException When the trip belongs to another user
+     */
+    public List<DayPlan> getTripDays(String jwtToken, Long tripId) {
+        LoggingUtils.logMethodEntry(logger, "getTripDays", "tripId", tripId);
+        User user = validateAndGetUserFromJwt(jwtToken);
+        Trip trip = tripRepository.findByIdWithPlans(tripId)
+                .orElseThrow(() -> new TripNotFoundException(tripId));
+
+        checkReadAccess(user, trip);
+
+        List<DayPlan> days = new ArrayList<>();
+        if (trip.getTripPlans() != null && !trip.getTripPlans().isEmpty() && trip.getTripPlans().get(0).getDays() != null) {
+            days.addAll(trip.getTripPlans().get(0).getDays());
+        }
+        days.sort(Comparator.comparingInt(DayPlan::getDayNumber));
+        LoggingUtils.logMethodExit(logger, "getTripDays", days.size() + " days");
+        return days;
+    }
+
+    private void checkReadAccess(User user, Trip trip) {
+        if (!trip.getUser().getId().equals(user.getId())) {
+            logger.warn("Unauthorized access attempt - User {} tried to read trip {} owned by user ID {}",
+                       user.getUsername(), trip.getTripId(), trip.getUser().getId());
+            LoggingUtils.logSecurityEvent(logger, "UNAUTHORIZED_READ_ATTEMPT", user.getUsername(),
+                                        "Attempted to read trip " + trip.getTripId());
+            throw new TripAccessDeniedException("Unauthorized to read this trip");
+        }
+    }
+
     public boolean deleteTrip(String jwtToken, Long tripId) {
         LoggingUtils.logMethodEntry(logger, "deleteTrip", "tripId", tripId);
         long startTime = System.currentTimeMillis();
@@ -316,14 +360,15 @@ public class TripService {
                     .orElseThrow(() -> new RuntimeException("Trip not found"));
             
             if (!trip.getUser().getId().equals(user.getId())) {
-                logger.warn("Unauthorized delete attempt - User {} tried to delete trip {} owned by user {}", 
-                           user.getUsername(), tripId, trip.getUser().getUsername());
+                logger.warn("Unauthorized delete attempt - User {} tried to delete trip {} owned by user ID {}",
+                           user.getUsername(), tripId, trip.getUser().getId());
                 LoggingUtils.logSecurityEvent(logger, "UNAUTHORIZED_DELETE_ATTEMPT", user.getUsername(), 
                                             "Attempted to delete trip " + tripId);
                 throw new RuntimeException("Unauthorized to delete this trip");
             }
             
             tripRepository.delete(trip);
+            placeIndex.removeTrip(tripId);
             logger.info("Successfully deleted trip with ID: {} for user: {}", tripId, user.getUsername());
             
             LoggingUtils.logMethodExit(logger, "deleteTrip", true);
@@ -0,0 +1,164 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.model.User;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Generates a trip with the configured {@link TripPlanGenerator} and pushes each day to the
+ * client as a Server-Sent Event as soon as the generator hands it over. Generation goes through
+ * the same cache, single flight and circuit breaker as {@link TripService#createTrip}, so a
+ * plan that was not generated here is sent all at once.
+ */
+@Service
+public class TripStreamingService {
+
+    private static final Logger logger = LoggingUtils.getLogger(TripStreamingService.class);
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private TripPlanGenerator tripPlanGenerator;
+
+    @Autowired
+    private TripPlanCache tripPlanCache;
+
+    @Autowired
+    private TripPlanSingleFlight tripPlanSingleFlight;
+
+    @Autowired
+    private TripGenerationCircuitBreaker tripGenerationCircuitBreaker;
+
+    @Autowired
+    private GeometryService geometryService;
+
+    @Autowired
+    @Qualifier("tripGenerationExecutor")
+    private ThreadPoolExecutor executor;
+
+    @Value("${trips.streaming.emitter-timeout-ms:600000}")
+    private long emitterTimeoutMs;
+
+    public SseEmitter streamTrip(String jwtToken, String fromCity, String toCity, boolean roundtrip, int days, List<String> interests, double distanceKm) {
+        LoggingUtils.logMethodEntry(logger, "streamTrip", "fromCity", fromCity, "toCity", toCity, "days", days);
+        User user = tripService.validateAndGetUserFromJwt(jwtToken);
+        Trip trip = tripService.buildTrip(user, fromCity, toCity, roundtrip, days, interests, distanceKm);
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        executor.execute(() -> generate(emitter, trip));
+        return emitter;
+    }
+
+    void generate(SseEmitter emitter, Trip trip) {
+        long startTime = System.currentTimeMillis();
+        try {
+            TripPlanCacheKey cacheKey = TripPlanCacheKey.of(trip);
+            List<DayPlan> sentDays = new ArrayList<>();
+            AtomicBoolean listening = new AtomicBoolean(true);
+            TripPlan tripPlan;
+            Optional<TripPlan> cached = tripPlanCache.get(cacheKey);
+            if (cached.isPresent()) {
+                logger.info("Streaming cached trip plan for {}", cacheKey);
+                tripPlan = cached.get();
+            } else {
+                try {
+                    tripPlan = tripPlanSingleFlight.execute(cacheKey, () -> {
+                        TripPlan generated = tripGenerationCircuitBreaker.execute(() ->
+                                tripPlanGenerator.generate(trip, dayPlan -> {
+                                    if (sentDays.isEmpty()) {
+                                        LoggingUtils.logPerformance(logger, "Streaming first day", startTime);
+                                    }
+                                    sentDays.add(dayPlan);
+                                    trySendDay(emitter, dayPlan, listening);
+                                }));
+                        tripPlanCache.put(cacheKey, generated);
+                        return generated;
+                    });
+                } catch (TripGenerationUnavailableException e) {
+                    // Degraded mode: a plan for the same route beats failing outright
+                    tripPlan = tripPlanCache.findClosest(cacheKey).orElseThrow(() -> e);
+                    logger.warn("Trip generation unavailable, streaming closest cached plan for {}", cacheKey);
+                }
+            }
+
+            // Cached, shared with a concurrent request or served in degraded mode
+            if (sentDays.isEmpty()) {
+                for (DayPlan dayPlan : tripPlan.getDays()) {
+                    sendDay(emitter, dayPlan);
+                }
+            }
+            tripPlan.setTrip(trip);
+            sendComplete(emitter, tripService.persistGeneratedTrip(trip, tripPlan), tripPlan.getDays().size());
+            LoggingUtils.logPerformance(logger, "Streaming trip generation", startTime);
+        } catch (Exception e) {
+            logger.error("Streaming trip generation failed: {}", e.getMessage(), e);
+            try {
+                emitter.send(SseEmitter.event().name("error").data(String.valueOf(e.getMessage())));
+                emitter.complete();
+            } catch (Exception sendFailure) {
+                // The client has most likely disconnected
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * Sends a day while generation is running. A client that stopped listening must not fail the
+     * generation, which would count against the circuit breaker; the plan is still saved.
+     */
+    private void trySendDay(SseEmitter emitter, DayPlan dayPlan, AtomicBoolean listening) {
+        if (!listening.get()) {
+            return;
+        }
+        try {
+            sendDay(emitter, dayPlan);
+        } catch (IOException | IllegalStateException e) {
+            listening.set(false);
+            logger.info("Client stopped listening to the trip stream: {}", e.getMessage());
+        }
+    }
+
+    private void sendDay(SseEmitter emitter, DayPlan dayPlan) throws IOException {
+        geometryService.applyDistances(List.of(dayPlan));
+        TripPlan tripPlan = dayPlan.getTripPlan();
+        // Break the back-references while serializing, the plan and its days link to each other
+        dayPlan.setTripPlan(null);
+        if (dayPlan.getPlacesOfInterest() != null) {
+            dayPlan.getPlacesOfInterest().forEach(poi -> poi.setDayPlan(null));
+        }
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("day")
+                    .data(TripPlanParser.MAPPER.writeValueAsString(dayPlan), MediaType.APPLICATION_JSON));
+        } finally {
+            dayPlan.setTripPlan(tripPlan);
+            TripService.linkPlacesOfInterest(dayPlan);
+        }
+    }
+
+    private void sendComplete(SseEmitter emitter, Trip savedTrip, int dayCount) throws IOException {
+        emitter.send(SseEmitter.event()
+                .name("complete")
+                .data(TripPlanParser.MAPPER.writeValueAsString(Map.of("tripId", savedTrip.getTripId(), "days", dayCount)),
+                        MediaType.APPLICATION_JSON));
+        emitter.complete();
+    }
+}
@@ -0,0 +1,10 @@
+package com.adendl.traveljournalai.service;
+
+import java.util.List;
+
+/**
+ * What a dashboard card shows of a trip; the plan itself is fetched per trip when opened.
+ */
+public record TripSummary(Long tripId, String fromCity, String toCity, boolean roundtrip, int days,
+                          double distanceKm, String createdAt, List<String> interests) {
+}
@@ -0,0 +1,11 @@
+package com.adendl.traveljournalai.service;
+
+import java.util.List;
+
+/**
+ * One page of a user's trip summaries, newest first.
+ *
+ * @param nextCursor Opaque token for the following page, or null on the last one
+ */
+public record TripSummaryPage(List<TripSummary> trips, String nextCursor) {
+}
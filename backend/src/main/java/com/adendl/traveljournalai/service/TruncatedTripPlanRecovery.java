@@ -0,0 +1,189 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Location;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.LoggingUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Completes a trip plan whose completion was cut off at max_tokens or came back as unbalanced
+ * JSON, instead of failing the request and having the user pay for the whole generation again.
+ * Every fully closed day object is kept, and the model is asked to continue from the last of
+ * them, so only the missing days are generated and paid for. Continuations reuse the static
+ * prefix of the original request, so their prompts are mostly served from the provider's cache.
+ */
+@Component
+public class TruncatedTripPlanRecovery {
+
+    private static final Logger logger = LoggingUtils.getLogger(TruncatedTripPlanRecovery.class);
+
+    private final LlmHttpClient llmHttpClient;
+    private final TokenBudget tokenBudget;
+    private final MeterRegistry meterRegistry;
+    private final String openAiApiKey;
+    private final int maxContinuations;
+
+    @Autowired
+    public TruncatedTripPlanRecovery(LlmHttpClient llmHttpClient,
+                                     TokenBudget tokenBudget,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${openai.api.key}") String openAiApiKey,
+                                     @Value("${trips.generation.continuation.max-attempts:2}") int maxContinuations) {
+        this.llmHttpClient = llmHttpClient;
+        this.tokenBudget = tokenBudget;
+        this.meterRegistry = meterRegistry;
+        this.openAiApiKey = openAiApiKey;
+        this.maxContinuations = maxContinuations;
+    }
+
+    /**
+     * @param completionJson The truncated or unparseable completion
+     * @return True when the model stopped because it reached max_tokens
+     */
+    public static boolean isTruncated(String completionJson) {
+        try {
+            return TripPlanParser.extractFinishReason(completionJson).filter("length"::equals).isPresent();
+        } catch (IOException | TripPlanParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param trip The trip being planned
+     * @param prompt The user message of the original request
+     * @param completionJson The truncated or unparseable completion
+     * @param cause Why the completion could not be used as it is
+     * @return The merged plan with days and places of interest linked; the plan is not linked to the trip
+     * @throws RuntimeException When the missing days could not be generated either
+     */
+    public TripPlan recover(Trip trip, String prompt, String completionJson, Exception cause) {
+        return recover(trip, prompt, salvage(completionJson, trip.getDays()), cause);
+    }
+
+    /**
+     * Completes a streamed plan that was cut off, from the days that closed before it ended.
+     * @param trip The trip being planned
+     * @param prompt The user message of the original request
+     * @param closedDays The valid days received, in order
+     * @param cause Why the streamed plan could not be used as it is
+     * @return The merged plan with days and places of interest linked; the plan is not linked to the trip
+     * @throws RuntimeException When the missing days could not be generated either
+     */
+    public TripPlan recover(Trip trip, String prompt, List<DayPlan> closedDays, Exception cause) {
+        LoggingUtils.logMethodEntry(logger, "recover", "tripId", trip.getTripId(), "days", trip.getDays());
+        long startTime = System.currentTimeMillis();
+
+        List<DayPlan> days = new ArrayList<>(closedDays.subList(0, Math.min(closedDays.size(), trip.getDays())));
+        int salvaged = days.size();
+        logger.warn("Trip plan completion for trip ID {} unusable ({}); salvaged {} of {} days",
+                trip.getTripId(), cause.getMessage(), salvaged, trip.getDays());
+
+        for (int attempt = 0; attempt < maxContinuations && days.size() < trip.getDays(); attempt++) {
+            List<DayPlan> continued = continueFrom(trip, prompt, days);
+            if (continued.isEmpty()) {
+                break;
+            }
+            days.addAll(continued);
+        }
+
+        if (days.size() < trip.getDays()) {
+            count("failed");
+            RuntimeException failure = new RuntimeException("Failed to parse trip plan JSON: " + cause.getMessage()
+                    + " (recovered " + days.size() + " of " + trip.getDays() + " days)", cause);
+            LoggingUtils.logMethodExitWithException(logger, "recover", failure);
+            throw failure;
+        }
+
+        count(salvaged > 0 ? "salvaged" : "full_retry");
+        meterRegistry.counter("trip.generation.truncation.days", "source", "salvaged").increment(salvaged);
+        meterRegistry.counter("trip.generation.truncation.days", "source", "continued").increment(days.size() - salvaged);
+
+        TripPlan tripPlan = new TripPlan();
+        for (DayPlan day : days) {
+            day.setTripPlan(tripPlan);
+            TripService.linkPlacesOfInterest(day);
+        }
+        tripPlan.setDays(days);
+        LoggingUtils.logPerformance(logger, "Recovery of " + (days.size() - salvaged) + " missing days", startTime);
+        LoggingUtils.logMethodExit(logger, "recover", days.size() + " days");
+        return tripPlan;
+    }
+
+    static String continuationPrompt(String prompt, List<DayPlan> days, int totalDays) {
+        if (days.isEmpty()) {
+            return prompt;
+        }
+        int last = days.size();
+        Location finish = days.get(last - 1).getFinishLocation();
+        return String.format("%s Days 1 to %d are already planned, and day %d finishes at %s (%.4f, %.4f). "
+                        + "Continue the trip with only days %d to %d, numbered from %d, with day %d starting at %s.",
+                prompt, last, last, finish.getName(), finish.getLatitude(), finish.getLongitude(),
+                last + 1, totalDays, last + 1, last + 1, finish.getName());
+    }
+
+    private List<DayPlan> continueFrom(Trip trip, String prompt, List<DayPlan> days) {
+        int missing = trip.getDays() - days.size();
+        int interests = trip.getInterests() == null ? 0 : trip.getInterests().size();
+        String continuation = continuationPrompt(prompt, days, trip.getDays());
+        TokenBudget.Allocation allocation = tokenBudget.allocate("continuation",
+                OpenAiTripPlanGenerator.SYSTEM_PROMPT + continuation, tokenBudget.expectedTripTokens(missing, interests));
+        if (!allocation.fits()) {
+            tokenBudget.recordOverflow(allocation, "rejected");
+            return List.of();
+        }
+        try {
+            String requestJson = TripPlanParser.MAPPER.writeValueAsString(
+                    OpenAiTripPlanGenerator.tripPlanRequestBody(continuation, allocation.maxTokens()));
+            String response = llmHttpClient.postJson(OpenAiTripPlanGenerator.OPENAI_CHAT_COMPLETIONS_URL, openAiApiKey, requestJson);
+            tokenBudget.recordUsage(allocation, response);
+            List<DayPlan> continued = salvage(response, missing);
+            // The model may restart its numbering; the merged plan is numbered by position
+            for (int i = 0; i < continued.size(); i++) {
+                continued.get(i).setDayNumber(days.size() + i + 1);
+            }
+            logger.info("Continuation for trip ID {} added {} of {} missing days", trip.getTripId(), continued.size(), missing);
+            return continued;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize OpenAI request", e);
+        }
+    }
+
+    /**
+     * @return Every fully closed and valid day of the completion, in order, up to the first broken one
+     */
+    private static List<DayPlan> salvage(String completionJson, int maxDays) {
+        List<DayPlan> days = new ArrayList<>();
+        String content;
+        try {
+            content = TripPlanParser.extractContent(completionJson);
+        } catch (IOException | TripPlanParseException e) {
+            return days;
+        }
+        for (String dayJson : new StreamingDayExtractor().feed(content)) {
+            if (days.size() == maxDays) {
+                break;
+            }
+            try {
+                days.add(TripPlanParser.parseDay(dayJson));
+            } catch (IOException | TripPlanParseException e) {
+                logger.debug("Stopped salvaging at an invalid day: {}", e.getMessage());
+                break;
+            }
+        }
+        return days;
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("trip.generation.truncations", "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,97 @@
+package com.adendl.traveljournalai.controller;
+
+import com.adendl.traveljournalai.config.JwtConfig;
+import com.adendl.traveljournalai.service.Gazetteer;
+import com.adendl.traveljournalai.service.IndexedPlace;
+import com.adendl.traveljournalai.service.NearbyPlace;
+import com.adendl.traveljournalai.service.PlaceIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PlaceController.class)
+class PlaceControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private Gazetteer gazetteer;
+
+    @MockBean
+    private PlaceIndex placeIndex;
+
+    @MockBean
+    private JwtConfig jwtConfig;
+
+    @Test
+    void suggest_ReturnsCanonicalNamesMostPopulousFirst() throws Exception {
+        // Given
+        when(gazetteer.suggest("per", 5)).thenReturn(List.of(
+                new Gazetteer.City(7, "Perth", "WA", "AU", -31.9505, 115.8605, 2192229, true),
+                new Gazetteer.City(50, "Perth", "SCT", "GB", 56.395, -3.4308, 47430, false)));
+
+        // When & Then
+        mockMvc.perform(get("/api/places/suggest").param("q", "per").param("limit", "5")
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=3600, public"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Perth"))
+                .andExpect(jsonPath("$[0].displayName").value("Perth, WA, AU"))
+                .andExpect(jsonPath("$[1].name").value("Perth, SCT, GB"))
+                .andExpect(jsonPath("$[1].population").value(47430));
+    }
+
+    @Test
+    void suggest_DefaultsToTenSuggestions() throws Exception {
+        // Given
+        when(gazetteer.suggest("x", 10)).thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/api/places/suggest").param("q", "x")
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        verify(gazetteer).suggest("x", 10);
+    }
+
+    @Test
+    void nearby_ReturnsClosestPlacesFirst() throws Exception {
+        // Given
+        when(placeIndex.nearby(-33.8688, 151.2093, 5.0, 20)).thenReturn(List.of(
+                new NearbyPlace(new IndexedPlace(1, 10, "Sydney Opera House", -33.8568, 151.2153), 1.4321),
+                new NearbyPlace(new IndexedPlace(2, 11, "Bondi Beach", -33.8908, 151.2743), 6.6)));
+
+        // When & Then
+        mockMvc.perform(get("/api/places/nearby").param("lat", "-33.8688").param("lon", "151.2093").param("radiusKm", "5")
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Sydney Opera House"))
+                .andExpect(jsonPath("$[0].distanceKm").value(1.4))
+                .andExpect(jsonPath("$[0].latitude").value(-33.8568));
+    }
+
+    @Test
+    void nearby_RadiusOutOfRange_ReturnsBadRequest() throws Exception {
+        // Given
+        when(placeIndex.nearby(anyDouble(), anyDouble(), eq(500.0), anyInt()))
+                .thenThrow(new IllegalArgumentException("radiusKm must be greater than 0 and at most 100.0"));
+
+        // When & Then
+        mockMvc.perform(get("/api/places/nearby").param("lat", "0").param("lon", "0").param("radiusKm", "500")
+                .with(user("testuser")))
+                .andExpect(status().isBadRequest());
+    }
+}
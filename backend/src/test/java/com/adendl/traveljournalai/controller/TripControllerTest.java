@@ -1,9 +1,23 @@
 package com.adendl.traveljournalai.controller;
 
+import com.adendl.traveljournalai.model.DayPlan;
 import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripGenerationJob;
 import com.adendl.traveljournalai.model.User;
 import com.adendl.traveljournalai.repository.UserRepository;
+import com.adendl.traveljournalai.service.DayRoute;
+import com.adendl.traveljournalai.service.IndexedPlace;
+import com.adendl.traveljournalai.service.NearbyPlace;
+import com.adendl.traveljournalai.service.PlaceIndex;
+import com.adendl.traveljournalai.service.RouteService;
+import com.adendl.traveljournalai.service.TripGenerationJobService;
+import com.adendl.traveljournalai.service.TripGenerationUnavailableException;
+import com.adendl.traveljournalai.service.TripAccessDeniedException;
+import com.adendl.traveljournalai.service.TripNotFoundException;
 import com.adendl.traveljournalai.service.TripService;
+import com.adendl.traveljournalai.service.TripStreamingService;
+import com.adendl.traveljournalai.service.TripSummary;
+import com.adendl.traveljournalai.service.TripSummaryPage;
 import com.adendl.traveljournalai.utils.TestUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,11 +29,15 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.adendl.traveljournalai.config.JwtConfig;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -40,6 +58,21 @@ class TripControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private TripGenerationJobService tripGenerationJobService;
+
+    @MockBean
+    private TripStreamingService tripStreamingService;
+
+    @MockBean
+    private RouteService routeService;
+
+    @MockBean
+    private PlaceIndex placeIndex;
+
+    @Autowired
+    private TripController tripController;
+
     @MockBean
     private JwtConfig jwtConfig;
 
@@ -49,18 +82,47 @@ class TripControllerTest {
     void setUp() {
         objectMapper = new ObjectMapper();
         when(jwtConfig.getSecretKey()).thenReturn("test-secret-key-for-jwt-signing");
+        ReflectionTestUtils.setField(tripController, "asyncGenerationEnabled", true);
     }
 
     @Test
     void createTrip_Success() throws Exception {
         // Given
         String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
-        User testUser = TestUtils.createTestUser();
+        TripGenerationJob job = new TripGenerationJob();
+        job.setJobId("job-123");
+        job.setStatus(TripGenerationJob.Status.QUEUED);
+
+        when(tripGenerationJobService.submit(anyString(), anyString(), anyString(), anyBoolean(),
+                anyInt(), anyList(), anyDouble()))
+                .thenReturn(job);
+
+        // When & Then
+        mockMvc.perform(post("/api/trips/create")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtils.createTripRequestJson("Sydney", "Melbourne", true, 5, 
+                        Arrays.asList("Beaches", "Food")))
+                .with(csrf())
+                .with(user("testuser")))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-123"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        verify(tripGenerationJobService).submit(eq(jwtToken), eq("Sydney"), eq("Melbourne"), 
+                eq(true), eq(5), anyList(), eq(500.0));
+        verify(tripService, never()).createTrip(anyString(), anyString(), anyString(),
+                anyBoolean(), anyInt(), anyList(), anyDouble());
+    }
+
+    @Test
+    void createTrip_SynchronousMode_Success() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(tripController, "asyncGenerationEnabled", false);
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
         Trip testTrip = TestUtils.createTestTrip();
         testTrip.setTripId(1L);
-        
-        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
-                .thenReturn(Optional.of(testUser));
+
         when(tripService.createTrip(anyString(), anyString(), anyString(), anyBoolean(), 
                 anyInt(), anyList(), anyDouble()))
                 .thenReturn(testTrip);
@@ -80,6 +142,50 @@ class TripControllerTest {
 
         verify(tripService).createTrip(eq(jwtToken), eq("Sydney"), eq("Melbourne"), 
                 eq(true), eq(5), anyList(), eq(500.0));
+        verify(tripGenerationJobService, never()).submit(anyString(), anyString(), anyString(),
+                anyBoolean(), anyInt(), anyList(), anyDouble());
+    }
+
+    @Test
+    void createTrip_GenerationAtCapacity() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+
+        when(tripGenerationJobService.submit(anyString(), anyString(), anyString(), anyBoolean(),
+                anyInt(), anyList(), anyDouble()))
+                .thenThrow(new RejectedExecutionException("Queue full"));
+
+        // When & Then
+        mockMvc.perform(post("/api/trips/create")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtils.createTripRequestJson("Sydney", "Melbourne", true, 5,
+                        Arrays.asList("Beaches", "Food")))
+                .with(csrf())
+                .with(user("testuser")))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void createTrip_GenerationUnavailable_Returns503WithRetryAfter() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(tripController, "asyncGenerationEnabled", false);
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+
+        when(tripService.createTrip(anyString(), anyString(), anyString(), anyBoolean(),
+                anyInt(), anyList(), anyDouble()))
+                .thenThrow(new TripGenerationUnavailableException("Trip generation is temporarily unavailable", Duration.ofSeconds(20)));
+
+        // When & Then
+        mockMvc.perform(post("/api/trips/create")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtils.createTripRequestJson("Sydney", "Melbourne", true, 5,
+                        Arrays.asList("Beaches", "Food")))
+                .with(csrf())
+                .with(user("testuser")))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "20"));
     }
 
     @Test
@@ -98,6 +204,8 @@ class TripControllerTest {
 
         verify(tripService, never()).createTrip(anyString(), anyString(), anyString(), 
                 anyBoolean(), anyInt(), anyList(), anyDouble());
+        verify(tripGenerationJobService, never()).submit(anyString(), anyString(), anyString(),
+                anyBoolean(), anyInt(), anyList(), anyDouble());
     }
 
     @Test
@@ -108,7 +216,7 @@ class TripControllerTest {
         
         when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
                 .thenReturn(Optional.of(testUser));
-        when(tripService.createTrip(anyString(), anyString(), anyString(), anyBoolean(), 
+        when(tripGenerationJobService.submit(anyString(), anyString(), anyString(), anyBoolean(),
                 anyInt(), anyList(), anyDouble()))
                 .thenThrow(new RuntimeException("Service error"));
 
@@ -123,6 +231,68 @@ class TripControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void streamTrip_StartsEventStream() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(tripStreamingService.streamTrip(anyString(), anyString(), anyString(), anyBoolean(),
+                anyInt(), anyList(), anyDouble()))
+                .thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(post("/api/trips/stream")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtils.createTripRequestJson("Sydney", "Melbourne", true, 5,
+                        Arrays.asList("Beaches", "Food")))
+                .with(csrf())
+                .with(user("testuser")))
+                .andExpect(request().asyncStarted());
+
+        verify(tripStreamingService).streamTrip(eq(jwtToken), eq("Sydney"), eq("Melbourne"),
+                eq(true), eq(5), anyList(), eq(500.0));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getJob_Success() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        Trip testTrip = TestUtils.createTestTrip();
+        testTrip.setTripId(7L);
+        TripGenerationJob job = new TripGenerationJob();
+        job.setJobId("job-123");
+        job.setStatus(TripGenerationJob.Status.SUCCEEDED);
+        job.setTrip(testTrip);
+
+        when(tripGenerationJobService.findJob(jwtToken, "job-123"))
+                .thenReturn(Optional.of(job));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/jobs/job-123")
+                .header("Authorization", "Bearer " + jwtToken)
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCEEDED"))
+                .andExpect(jsonPath("$.trip.tripId").value(7));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getJob_NotFound() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+
+        when(tripGenerationJobService.findJob(jwtToken, "missing"))
+                .thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/jobs/missing")
+                .header("Authorization", "Bearer " + jwtToken)
+                .with(user("testuser")))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithMockUser(username = "testuser")
     void getUserTrips_Success() throws Exception {
@@ -157,6 +327,136 @@ class TripControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser(username = "testuser")
+    void getUserTripSummaries_Success() throws Exception {
+        // Given
+        User testUser = TestUtils.createTestUser();
+        TripSummary summary = new TripSummary(1L, "Sydney", "Melbourne", false, 3, 900.0,
+                "2025-01-01T10:00:00", List.of("nature"));
+
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripService.getTripSummaries(testUser, null, 20))
+                .thenReturn(new TripSummaryPage(List.of(summary), "next"));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/summaries")
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trips[0].tripId").value(1))
+                .andExpect(jsonPath("$.trips[0].fromCity").value("Sydney"))
+                .andExpect(jsonPath("$.trips[0].interests[0]").value("nature"))
+                .andExpect(jsonPath("$.trips[0].tripPlans").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getUserTripSummaries_PassesCursorAndLimit() throws Exception {
+        // Given
+        User testUser = TestUtils.createTestUser();
+
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripService.getTripSummaries(testUser, "abc", 5))
+                .thenReturn(new TripSummaryPage(List.of(), null));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/summaries")
+                .param("cursor", "abc")
+                .param("limit", "5")
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trips").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getUserTripSummaries_InvalidCursor() throws Exception {
+        // Given
+        User testUser = TestUtils.createTestUser();
+
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripService.getTripSummaries(testUser, "bad", 20))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/summaries")
+                .param("cursor", "bad")
+                .with(user("testuser")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUserTripSummaries_NoAuthentication() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/trips/summaries"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getTrip_Success() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        Trip testTrip = TestUtils.createTestTrip();
+        testTrip.setTripId(1L);
+
+        when(tripService.getTrip(jwtToken, 1L)).thenReturn(testTrip);
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/1")
+                .header("Authorization", "Bearer " + jwtToken)
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tripId").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getTrip_NotFound() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(tripService.getTrip(jwtToken, 99L)).thenThrow(new TripNotFoundException(99L));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/99")
+                .header("Authorization", "Bearer " + jwtToken)
+                .with(user("testuser")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getTrip_OtherUsersTrip_Forbidden() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(tripService.getTrip(jwtToken, 2L)).thenThrow(new TripAccessDeniedException("Unauthorized to read this trip"));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/2")
+                .header("Authorization", "Bearer " + jwtToken)
+                .with(user("testuser")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getTripRoutes_OtherUsersTrip_Forbidden() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(tripService.getTripDays(jwtToken, 2L)).thenThrow(new TripAccessDeniedException("Unauthorized to read this trip"));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/2/routes")
+                .header("Authorization", "Bearer " + jwtToken)
+                .with(user("testuser")))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @WithMockUser(username = "testuser")
     void deleteTrip_Success() throws Exception {
@@ -213,6 +513,62 @@ class TripControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void getTripRoutes_Success() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        List<DayPlan> days = List.of(TestUtils.createTestDayPlan(1));
+        when(tripService.getTripDays(jwtToken, 1L)).thenReturn(days);
+        when(routeService.routesFor(days, 10)).thenReturn(List.of(new DayRoute(1, 877.4, true, "~~umEca|y[rxrGrbuKjtmNbzlX")));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/1/routes?zoom=10")
+                .header("Authorization", "Bearer " + jwtToken)
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=86400, private"))
+                .andExpect(jsonPath("$[0].dayNumber").value(1))
+                .andExpect(jsonPath("$[0].routed").value(true))
+                .andExpect(jsonPath("$[0].polyline").value("~~umEca|y[rxrGrbuKjtmNbzlX"));
+    }
+
+    @Test
+    void getTripRoutes_StraightLineFallback_NotCached() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(tripService.getTripDays(jwtToken, 1L)).thenReturn(List.of());
+        when(routeService.routesFor(List.of(), 12)).thenReturn(List.of(new DayRoute(1, 713.4, false, "~~umEca|y[rxrGrbuKjtmNbzlX")));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/1/routes")
+                .header("Authorization", "Bearer " + jwtToken)
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath("$[0].routed").value(false));
+    }
+
+    @Test
+    void getNearbyPlaces_SearchesAlongOneDay() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        List<DayPlan> days = List.of(TestUtils.createTestDayPlan(1), TestUtils.createTestDayPlan(2));
+        List<double[][]> route = List.<double[][]>of(new double[][] {{-33.8688, 151.2093}, {-37.8136, 144.9631}});
+        when(tripService.getTripDays(jwtToken, 1L)).thenReturn(days);
+        when(routeService.geometriesFor(List.of(days.get(1)), 10)).thenReturn(route);
+        when(placeIndex.nearRoute(route, 15.0, 1L, 20)).thenReturn(List.of(
+                new NearbyPlace(new IndexedPlace(7, 2, "Bowral Tulip Time", -34.4777, 150.4177), 3.14159)));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips/1/nearby-places?radiusKm=15&day=2")
+                .header("Authorization", "Bearer " + jwtToken)
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Bowral Tulip Time"))
+                .andExpect(jsonPath("$[0].distanceKm").value(3.1))
+                .andExpect(jsonPath("$[0].tripId").doesNotExist());
+    }
+
     @Test
     void deleteTrip_InvalidJwtToken() throws Exception {
         // Given
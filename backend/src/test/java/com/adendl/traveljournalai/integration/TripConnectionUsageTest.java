@@ -0,0 +1,132 @@
+package com.adendl.traveljournalai.integration;
+
+import com.adendl.traveljournalai.model.User;
+import com.adendl.traveljournalai.repository.TripRepository;
+import com.adendl.traveljournalai.repository.UserRepository;
+import com.adendl.traveljournalai.service.LlmHttpClient;
+import com.adendl.traveljournalai.utils.TestUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reads the HikariCP {@code hikaricp.connections.active} gauge while the OpenAI call of a
+ * synchronous {@code POST /api/trips/create} is in flight. Not transactional, since a test
+ * transaction would itself hold a connection.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:connectiondb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "openai.api.key=test-api-key",
+    "trips.generation.async-enabled=false",
+    "trips.generation.parallel.enabled=false",
+    "jwt.secret=KkhKkw5AOvp4DAMGu2DLEMaXO1z6epEnPgLcY0hzmGk="
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TripConnectionUsageTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @MockBean
+    private LlmHttpClient llmHttpClient;
+
+    private String jwtToken;
+
+    @BeforeEach
+    void setUp() {
+        User testUser = TestUtils.createTestUser();
+        testUser.setPassword(passwordEncoder.encode(testUser.getPassword()));
+        userRepository.save(testUser);
+        jwtToken = TestUtils.createTestJwtToken(testUser.getUsername());
+    }
+
+    @Test
+    void createTrip_HoldsNoConnectionDuringGeneration() throws Exception {
+        // Given
+        List<Double> activeDuringCall = new ArrayList<>();
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            activeDuringCall.add(activeConnections());
+            return createMockOpenAiResponse();
+        });
+        // The gauge does see a connection while one is held
+        Double activeInTransaction = new TransactionTemplate(transactionManager).execute(status -> {
+            userRepository.count();
+            return activeConnections();
+        });
+
+        // When
+        mockMvc.perform(post("/api/trips/create")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromCity\": \"Sydney\", \"toCity\": \"Melbourne\", \"roundtrip\": false, " +
+                        "\"days\": 1, \"interests\": [\"Food\"], \"distanceKm\": 880}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tripId").isNumber())
+                .andExpect(jsonPath("$.user").doesNotExist());
+
+        // Then
+        assertEquals(1.0, activeInTransaction);
+        assertEquals(List.of(0.0), activeDuringCall);
+        assertEquals(0.0, activeConnections());
+        assertEquals(1, tripRepository.count());
+    }
+
+    private double activeConnections() {
+        return meterRegistry.get("hikaricp.connections.active").gauge().value();
+    }
+
+    private String createMockOpenAiResponse() {
+        return """
+                {
+                    "choices": [
+                        {
+                            "message": {
+                                "content": "{\\"days\\": [{\\"day\\": 1, \\"startLocation\\": {\\"name\\": \\"Sydney\\", \\"latitude\\": -33.8688, \\"longitude\\": 151.2093}, \\"finishLocation\\": {\\"name\\": \\"Melbourne\\", \\"latitude\\": -37.8136, \\"longitude\\": 144.9631}, \\"distanceKm\\": 880, \\"introduction\\": \\"From the harbour to the laneways.\\", \\"placesOfInterest\\": [{\\"name\\": \\"Federation Square\\", \\"description\\": \\"The heart of Melbourne\\", \\"latitude\\": -37.8180, \\"longitude\\": 144.9691}]}]}"
+                            }
+                        }
+                    ]
+                }
+                """;
+    }
+}
@@ -4,6 +4,8 @@ import com.adendl.traveljournalai.model.Trip;
 import com.adendl.traveljournalai.model.User;
 import com.adendl.traveljournalai.repository.TripRepository;
 import com.adendl.traveljournalai.repository.UserRepository;
+import com.adendl.traveljournalai.service.LlmHttpClient;
+import com.adendl.traveljournalai.service.LlmHttpException;
 import com.adendl.traveljournalai.service.TripService;
 import com.adendl.traveljournalai.utils.TestUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,14 +13,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.Arrays;
 import java.util.List;
@@ -36,6 +35,7 @@ import static org.mockito.Mockito.*;
     "spring.jpa.show-sql=true",
     "logging.level.com.adendl.traveljournalai=DEBUG",
     "openai.api.key=test-api-key",
+    "trips.generation.parallel.enabled=false",
     "jwt.secret=KkhKkw5AOvp4DAMGu2DLEMaXO1z6epEnPgLcY0hzmGk="
 })
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -55,7 +55,7 @@ class TripIntegrationTest {
     private BCryptPasswordEncoder passwordEncoder;
 
     @MockBean
-    private RestTemplate restTemplate;
+    private LlmHttpClient llmHttpClient;
 
     private User testUser;
     private String jwtToken;
@@ -76,9 +76,8 @@ class TripIntegrationTest {
 
         // Mock OpenAI API response for all tests
         String mockOpenAiResponse = createMockOpenAiResponse();
-        ResponseEntity<String> mockResponseEntity = new ResponseEntity<>(mockOpenAiResponse, HttpStatus.OK);
-        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
-                .thenReturn(mockResponseEntity);
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
+                .thenReturn(mockOpenAiResponse);
     }
 
     @Test
@@ -101,14 +100,15 @@ class TripIntegrationTest {
         assertEquals(roundtrip, result.isRoundtrip());
         assertEquals(days, result.getDays());
         assertEquals(interests, result.getInterests());
-        assertEquals(distanceKm, result.getDistanceKm());
+        // Computed from the plan's coordinates rather than taken from the request or the model
+        assertEquals(713.4, result.getDistanceKm());
         assertEquals(testUser.getId(), result.getUser().getId());
 
         // Verify trip was saved to database
         assertTrue(tripRepository.findById(result.getTripId()).isPresent());
 
         // Verify OpenAI API was called
-        verify(restTemplate).postForEntity(anyString(), any(), eq(String.class));
+        verify(llmHttpClient).postJson(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -175,18 +175,18 @@ class TripIntegrationTest {
         double distanceKm = 800.0;
 
         // Reset mock to return failure
-        reset(restTemplate);
-        ResponseEntity<String> mockResponseEntity = new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
-                .thenReturn(mockResponseEntity);
+        reset(llmHttpClient);
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
+                .thenThrow(new LlmHttpException(500, "OpenAI API call failed with status 500"));
 
         // When & Then
         assertThrows(RuntimeException.class, () -> {
             tripService.createTrip(jwtToken, fromCity, toCity, roundtrip, days, interests, distanceKm);
         });
 
-        // Verify OpenAI API was called
-        verify(restTemplate).postForEntity(anyString(), any(), eq(String.class));
+        // Verify OpenAI API was called, and nothing was saved since generation failed
+        verify(llmHttpClient).postJson(anyString(), anyString(), anyString());
+        assertEquals(0, tripRepository.count());
     }
 
     private String createMockOpenAiResponse() {
@@ -0,0 +1,155 @@
+package com.adendl.traveljournalai.repository;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.PlaceOfInterest;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.model.User;
+import com.adendl.traveljournalai.utils.TestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The spatial repository methods on H2, which answers them from the latitude and longitude columns.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:spatialdb;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class SpatialQueriesTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlaceOfInterestRepository placeOfInterestRepository;
+
+    @Autowired
+    private DayPlanRepository dayPlanRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private DayPlan sydneyToCanberra;
+    private DayPlan canberraToMelbourne;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(TestUtils.createTestUser());
+
+        sydneyToCanberra = day(1, -33.8688, 151.2093, -35.2809, 149.1300,
+                TestUtils.createTestPlaceOfInterest("Sydney Opera House", "Sails", -33.8568, 151.2153),
+                TestUtils.createTestPlaceOfInterest("Bondi Beach", "Surf", -33.8908, 151.2743),
+                TestUtils.createTestPlaceOfInterest("Big Merino", "Wool", -34.7547, 149.7186));
+        canberraToMelbourne = day(2, -35.2809, 149.1300, -37.8136, 144.9631,
+                TestUtils.createTestPlaceOfInterest("Parliament House", "Politics", -35.3082, 149.1244),
+                TestUtils.createTestPlaceOfInterest("Federation Square", "Culture", -37.8180, 144.9691));
+        saveTrip(sydneyToCanberra, canberraToMelbourne);
+    }
+
+    @Test
+    void save_WritesSpatialColumnsFromCoordinates() {
+        // When
+        PlaceOfInterest place = placeOfInterestRepository.findWithinBox(-33.86, 151.21, -33.85, 151.22).get(0);
+        DayPlan day = dayPlanRepository.findById(sydneyToCanberra.getId()).orElseThrow();
+
+        // Then
+        assertEquals(151.2153, place.getLocation().getX(), 1e-9);
+        assertEquals(-33.8568, place.getLocation().getY(), 1e-9);
+        assertEquals(2, day.getRoute().getNumPoints());
+        assertEquals(149.13, day.getRoute().getEndPoint().getX(), 1e-9);
+    }
+
+    @Test
+    void findWithinBox_ReturnsPlacesInsideInIdOrder() {
+        // When: a box around Sydney
+        List<PlaceOfInterest> result = placeOfInterestRepository.findWithinBox(-34.0, 151.0, -33.8, 151.3);
+
+        // Then
+        assertEquals(List.of("Sydney Opera House", "Bondi Beach"), result.stream().map(PlaceOfInterest::getName).toList());
+    }
+
+    @Test
+    void findWithinDistance_ReturnsPlacesWithinRadiusClosestFirst() {
+        // When: 10 km around Bondi reaches the Opera House, 7 km away, but not Canberra or Melbourne
+        List<PlaceOfInterest> result = placeOfInterestRepository.findWithinDistance(-33.8908, 151.2743, 10);
+
+        // Then
+        assertEquals(List.of("Bondi Beach", "Sydney Opera House"), result.stream().map(PlaceOfInterest::getName).toList());
+        assertTrue(placeOfInterestRepository.findWithinDistance(-33.8908, 151.2743, 5).stream()
+                .noneMatch(place -> place.getName().equals("Sydney Opera House")));
+    }
+
+    @Test
+    void findLegsWithinDistance_MatchesLegsPassingNearby() {
+        // When: Goulburn lies on the Sydney to Canberra leg, well inside its endpoints
+        List<DayPlan> nearGoulburn = dayPlanRepository.findLegsWithinDistance(-34.7547, 149.7186, 20);
+        // Canberra is where both legs meet
+        List<DayPlan> nearCanberra = dayPlanRepository.findLegsWithinDistance(-35.2809, 149.1300, 5);
+
+        // Then
+        assertEquals(List.of(sydneyToCanberra.getId()), nearGoulburn.stream().map(DayPlan::getId).toList());
+        assertEquals(2, nearCanberra.size());
+        assertTrue(dayPlanRepository.findLegsWithinDistance(-25.3444, 131.0369, 100).isEmpty());
+    }
+
+    @Test
+    void findWithinDistanceAndLegs_AcrossTheAntimeridian() {
+        // Given: a leg from Suva to Taveuni, which crosses 180 degrees of longitude
+        DayPlan suvaToTaveuni = day(1, -18.1416, 178.4419, -16.8500, -179.9700,
+                TestUtils.createTestPlaceOfInterest("Bouma Falls", "Waterfalls", -16.8100, -179.9800));
+        saveTrip(suvaToTaveuni);
+
+        // When: searching from just west of the antimeridian
+        List<PlaceOfInterest> places = placeOfInterestRepository.findWithinDistance(-16.8200, 179.9900, 10);
+        List<DayPlan> legs = dayPlanRepository.findLegsWithinDistance(-16.9000, 179.9900, 30);
+
+        // Then
+        assertEquals(List.of("Bouma Falls"), places.stream().map(PlaceOfInterest::getName).toList());
+        assertEquals(List.of(suvaToTaveuni.getId()), legs.stream().map(DayPlan::getId).toList());
+    }
+
+    private void saveTrip(DayPlan... days) {
+        TripPlan tripPlan = new TripPlan();
+        tripPlan.setDays(new ArrayList<>(List.of(days)));
+        for (DayPlan day : days) {
+            day.setTripPlan(tripPlan);
+        }
+        Trip trip = TestUtils.createTestTrip();
+        trip.setUser(user);
+        trip.setTripPlans(new ArrayList<>(List.of(tripPlan)));
+        tripPlan.setTrip(trip);
+        tripRepository.save(trip);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static DayPlan day(int dayNumber, double startLatitude, double startLongitude,
+                               double finishLatitude, double finishLongitude, PlaceOfInterest... places) {
+        DayPlan day = new DayPlan();
+        day.setDayNumber(dayNumber);
+        day.setStartLocation(TestUtils.createTestLocation("Start", startLatitude, startLongitude));
+        day.setFinishLocation(TestUtils.createTestLocation("Finish", finishLatitude, finishLongitude));
+        day.setPlacesOfInterest(new ArrayList<>(List.of(places)));
+        for (PlaceOfInterest place : places) {
+            place.setDayPlan(day);
+        }
+        return day;
+    }
+}
@@ -1,16 +1,27 @@
 package com.adendl.traveljournalai.repository;
 
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.PlaceOfInterest;
 import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
 import com.adendl.traveljournalai.model.User;
 import com.adendl.traveljournalai.utils.TestUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,7 +32,11 @@ import static org.junit.jupiter.api.Assertions.*;
 @TestPropertySource(properties = {
     "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
     "spring.jpa.hibernate.ddl-auto=create-drop",
-    "spring.jpa.show-sql=true"
+    "spring.jpa.show-sql=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    // As in application-prod.yml
+    "spring.jpa.properties.hibernate.jdbc.batch_size=20",
+    "spring.jpa.properties.hibernate.order_inserts=true"
 })
 class TripRepositoryTest {
 
@@ -31,6 +46,12 @@ class TripRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private User testUser;
 
     @BeforeEach
@@ -191,4 +212,231 @@ class TripRepositoryTest {
         // Then
         assertFalse(tripRepository.findById(savedTrip.getTripId()).isPresent());
     }
-} 
\ No newline at end of file
+
+    @Test
+    @Transactional
+    void findByUserWithPlans_LoadsWholeGraph() {
+        // Given
+        saveTripsWithPlans(2);
+
+        // When
+        List<Trip> trips = tripRepository.findByUserWithPlans(testUser);
+
+        // Then
+        assertEquals(2, trips.size());
+        for (Trip trip : trips) {
+            assertEquals(List.of("Beaches", "Food", "Culture"), trip.getInterests());
+            assertEquals(1, trip.getTripPlans().size());
+            assertEquals(2, trip.getTripPlans().get(0).getDays().size());
+            assertEquals(2, trip.getTripPlans().get(0).getDays().get(0).getPlacesOfInterest().size());
+        }
+    }
+
+    @Test
+    @Transactional
+    void findByUserWithPlans_QueryCountIndependentOfTripCount() {
+        // Given
+        saveTripsWithPlans(1);
+        long oneTrip = countStatements(() -> touchGraph(tripRepository.findByUserWithPlans(testUser)));
+        saveTripsWithPlans(24);
+
+        // When
+        long manyTrips = countStatements(() -> touchGraph(tripRepository.findByUserWithPlans(testUser)));
+        long lazyLoaded = countStatements(() -> touchGraph(tripRepository.findByUser(testUser)));
+
+        // Then
+        assertEquals(4, oneTrip);
+        assertEquals(oneTrip, manyTrips);
+        // What the dashboard cost before: a query per lazy collection
+        assertTrue(lazyLoaded > 25 * 3, "lazy loading took " + lazyLoaded + " statements");
+    }
+
+    @Test
+    @Transactional
+    void findByUserWithPlans_TripWithoutPlans() {
+        // Given
+        Trip trip = TestUtils.createTestTrip();
+        trip.setUser(testUser);
+        tripRepository.save(trip);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<Trip> trips = tripRepository.findByUserWithPlans(testUser);
+
+        // Then
+        assertEquals(1, trips.size());
+        assertTrue(trips.get(0).getTripPlans().isEmpty());
+        assertEquals(3, trips.get(0).getInterests().size());
+    }
+
+    @Test
+    @Transactional
+    void findSummariesByUser_NewestFirstWithInterestsOfThePage() {
+        // Given
+        saveTripsWithPlans(3);
+        List<Trip> saved = tripRepository.findByUser(testUser);
+        saved.get(0).setCreatedAt("2025-01-03T10:00:00Z");
+        saved.get(1).setCreatedAt("2025-01-01T10:00:00Z");
+        saved.get(2).setCreatedAt("2025-01-02T10:00:00Z");
+        entityManager.flush();
+
+        // When
+        List<TripSummaryRow> summaries = new ArrayList<>();
+        List<TripInterest> interests = new ArrayList<>();
+        long statements = countStatements(() -> {
+            summaries.addAll(tripRepository.findSummariesByUser(testUser, PageRequest.of(0, 2)));
+            interests.addAll(tripRepository.findInterestsByTripIds(
+                    summaries.stream().map(TripSummaryRow::getTripId).toList()));
+        });
+
+        // Then
+        assertEquals(2, statements);
+        assertEquals(List.of(saved.get(0).getTripId(), saved.get(2).getTripId()),
+                summaries.stream().map(TripSummaryRow::getTripId).toList());
+        assertEquals("Sydney", summaries.get(0).getFromCity());
+        assertEquals(6, interests.size());
+    }
+
+    @Test
+    @Transactional
+    void findSummariesByUserAfter_PagesThroughEveryTripOnce() {
+        // Given: trips sharing creation times, so pages split between trips with equal timestamps
+        for (int i = 0; i < 7; i++) {
+            Trip trip = TestUtils.createTestTrip();
+            trip.setUser(testUser);
+            trip.setCreatedAt("2025-01-0" + (1 + i / 3) + "T10:00:00Z");
+            tripRepository.save(trip);
+        }
+        User otherUser = TestUtils.createTestUser();
+        otherUser.setUsername("otheruser");
+        otherUser.setEmail("other@test.com");
+        otherUser = userRepository.save(otherUser);
+        Trip otherTrip = TestUtils.createTestTrip();
+        otherTrip.setUser(otherUser);
+        tripRepository.save(otherTrip);
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> expected = tripRepository.findByUser(testUser).stream()
+                .sorted(Comparator.comparing(Trip::getCreatedAt).thenComparing(Trip::getTripId).reversed())
+                .map(Trip::getTripId)
+                .toList();
+
+        // When
+        List<Long> paged = new ArrayList<>();
+        List<TripSummaryRow> page = tripRepository.findSummariesByUser(testUser, PageRequest.of(0, 2));
+        while (!page.isEmpty()) {
+            page.forEach(row -> paged.add(row.getTripId()));
+            TripSummaryRow last = page.get(page.size() - 1);
+            page = tripRepository.findSummariesByUserAfter(testUser, last.getCreatedAt(), last.getTripId(), PageRequest.of(0, 2));
+        }
+
+        // Then
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    @Transactional
+    void findSummariesByUser_OrdersTripsCreatedWithinOneSecond() {
+        // Given: creation times whose Instant.toString() forms have different fraction widths
+        Instant second = Instant.parse("2025-01-01T10:00:00Z");
+        List<Long> expected = new ArrayList<>();
+        for (Instant createdAt : List.of(second, second.plusNanos(123_000), second.plusMillis(500))) {
+            Trip trip = TestUtils.createTestTrip();
+            trip.setUser(testUser);
+            trip.setCreatedAt(Trip.formatCreatedAt(createdAt));
+            expected.add(0, tripRepository.save(trip).getTripId());
+        }
+        entityManager.flush();
+
+        // When
+        List<TripSummaryRow> summaries = tripRepository.findSummariesByUser(testUser, PageRequest.of(0, 3));
+
+        // Then
+        assertEquals(expected, summaries.stream().map(TripSummaryRow::getTripId).toList());
+        assertEquals("2025-01-01T10:00:00.500000000Z", summaries.get(0).getCreatedAt());
+    }
+
+    @Test
+    @Transactional
+    void save_PlanInsertsAreBatched() {
+        // Given: a 14 day plan with 84 places of interest
+        Trip trip = TestUtils.createTestTrip();
+        trip.setUser(testUser);
+        TripPlan tripPlan = new TripPlan();
+        tripPlan.setTrip(trip);
+        tripPlan.setDays(new ArrayList<>());
+        for (int dayNumber = 1; dayNumber <= 14; dayNumber++) {
+            DayPlan day = new DayPlan();
+            day.setDayNumber(dayNumber);
+            day.setStartLocation(TestUtils.createTestLocation("Start", -33.8 - dayNumber * 0.1, 151.2));
+            day.setFinishLocation(TestUtils.createTestLocation("Finish", -33.9 - dayNumber * 0.1, 151.2));
+            day.setTripPlan(tripPlan);
+            day.setPlacesOfInterest(new ArrayList<>());
+            for (int i = 0; i < 6; i++) {
+                PlaceOfInterest place = TestUtils.createTestPlaceOfInterest("Place " + dayNumber + "." + i, "Stop",
+                        -33.8 - dayNumber * 0.1, 151.2 - i * 0.1);
+                place.setDayPlan(day);
+                day.getPlacesOfInterest().add(place);
+            }
+            tripPlan.getDays().add(day);
+        }
+        trip.setTripPlans(new ArrayList<>(List.of(tripPlan)));
+
+        // When
+        long statements = countStatements(() -> {
+            tripRepository.save(trip);
+            entityManager.flush();
+        });
+
+        // Then: five sequence calls (one per table, two for the places) and one prepared insert per
+        // table and batch of 20; identity ids took one insert per row, over a hundred
+        assertTrue(statements <= 15, "saving the plan took " + statements + " statements");
+        entityManager.clear();
+        Trip saved = tripRepository.findByIdWithPlans(trip.getTripId()).orElseThrow();
+        assertEquals(14, saved.getTripPlans().get(0).getDays().size());
+        assertEquals(84, saved.getTripPlans().get(0).getDays().stream()
+                .mapToInt(day -> day.getPlacesOfInterest().size()).sum());
+    }
+
+    private void saveTripsWithPlans(int count) {
+        for (int i = 0; i < count; i++) {
+            Trip trip = TestUtils.createTestTrip();
+            trip.setUser(testUser);
+            TripPlan tripPlan = TestUtils.createTestTripPlan();
+            tripPlan.setTrip(trip);
+            for (DayPlan day : tripPlan.getDays()) {
+                day.setTripPlan(tripPlan);
+                for (PlaceOfInterest place : day.getPlacesOfInterest()) {
+                    place.setDayPlan(day);
+                }
+            }
+            trip.setTripPlans(new ArrayList<>(List.of(tripPlan)));
+            tripRepository.save(trip);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Reads every collection the dashboard serializes.
+     */
+    private static void touchGraph(List<Trip> trips) {
+        for (Trip trip : trips) {
+            trip.getInterests().size();
+            for (TripPlan tripPlan : trip.getTripPlans()) {
+                for (DayPlan day : tripPlan.getDays()) {
+                    day.getPlacesOfInterest().size();
+                }
+            }
+        }
+    }
+
+    private long countStatements(Runnable work) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        work.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,160 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.service.AdaptiveConcurrencyLimiter.Outcome;
+import com.adendl.traveljournalai.service.AdaptiveConcurrencyLimiter.Permit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long LATENCY = Duration.ofSeconds(2).toNanos();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_UpToLimit_ThenRejectsAtDeadline() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 4, 4);
+        limiter.acquire(deadlineIn(100));
+        limiter.acquire(deadlineIn(100));
+
+        // When
+        LlmHttpException exception = assertThrows(LlmHttpException.class, () -> limiter.acquire(deadlineIn(50)));
+
+        // Then
+        assertTrue(exception.getMessage().startsWith("Too many concurrent requests to api.openai.com"));
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+        assertEquals(1.0, meterRegistry.counter("llm.limiter.rejections", "host", "api.openai.com", "reason", "timeout").count());
+    }
+
+    @Test
+    void acquire_QueueFull_RejectsImmediately() throws Exception {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, 1);
+        Permit permit = limiter.acquire(deadlineIn(100));
+        CompletableFuture<Permit> queued = CompletableFuture.supplyAsync(() -> limiter.acquire(deadlineIn(5000)));
+        awaitQueued(limiter, 1);
+
+        // When
+        LlmHttpException exception = assertThrows(LlmHttpException.class, () -> limiter.acquire(deadlineIn(5000)));
+
+        // Then
+        assertTrue(exception.getMessage().endsWith("wait queue is full"));
+        permit.release(Outcome.IGNORED, 0L);
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void release_Success_GrowsLimitAdditively() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10, 4);
+
+        // When
+        for (int round = 0; round < 2; round++) {
+            List<Permit> permits = new ArrayList<>();
+            permits.add(limiter.acquire(deadlineIn(100)));
+            permits.add(limiter.acquire(deadlineIn(100)));
+            permits.forEach(permit -> permit.release(Outcome.SUCCESS, LATENCY));
+        }
+
+        // Then
+        assertTrue(limiter.getLimit() > 2.0);
+        assertTrue(limiter.getLimit() < 4.0);
+    }
+
+    @Test
+    void release_Idle_DoesNotGrowLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 1, 16, 4);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire(deadlineIn(100)).release(Outcome.SUCCESS, LATENCY);
+        }
+
+        // Then
+        assertEquals(8.0, limiter.getLimit());
+    }
+
+    @Test
+    void release_Dropped_CutsLimitMultiplicativelyDownToMinimum() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 2, 16, 4);
+
+        // When
+        limiter.acquire(deadlineIn(100)).release(Outcome.DROPPED, 0L);
+
+        // Then
+        assertEquals(6.0, limiter.getLimit());
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(deadlineIn(100)).release(Outcome.DROPPED, 0L);
+        }
+        assertEquals(2.0, limiter.getLimit());
+        assertEquals(11.0, meterRegistry.counter("llm.limiter.decreases", "host", "api.openai.com").count());
+    }
+
+    @Test
+    void release_LatencySpike_CutsLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 16, 4);
+        limiter.acquire(deadlineIn(100)).release(Outcome.SUCCESS, LATENCY);
+
+        // When
+        limiter.acquire(deadlineIn(100)).release(Outcome.SUCCESS, LATENCY * 5);
+
+        // Then
+        assertEquals(3.0, limiter.getLimit());
+    }
+
+    @Test
+    void release_IsIdempotent() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 4, 4);
+        Permit permit = limiter.acquire(deadlineIn(100));
+
+        // When
+        permit.release(Outcome.IGNORED, 0L);
+        permit.release(Outcome.IGNORED, 0L);
+
+        // Then
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void gauges_ReportLimiterState() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(3, 1, 4, 4);
+
+        // When
+        limiter.acquire(deadlineIn(100));
+
+        // Then
+        assertEquals(3.0, meterRegistry.get("llm.limiter.limit").tag("host", "api.openai.com").gauge().value());
+        assertEquals(1.0, meterRegistry.get("llm.limiter.in-flight").tag("host", "api.openai.com").gauge().value());
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit, int maxQueued) {
+        return new AdaptiveConcurrencyLimiter("api.openai.com",
+                new AdaptiveConcurrencyLimiter.Settings(initialLimit, minLimit, maxLimit, maxQueued, 0.75, 3.0), meterRegistry);
+    }
+
+    private static long deadlineIn(long millis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static void awaitQueued(AdaptiveConcurrencyLimiter limiter, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (limiter.getQueued() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.utils.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GazetteerTest {
+
+    private final Gazetteer gazetteer = TestUtils.createTestGazetteer();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void resolve_IgnoresCaseAccentsAndPunctuation() {
+        // When
+        Gazetteer.City sydney = gazetteer.resolve("  sYDNEY ").orElseThrow();
+
+        // Then
+        assertEquals("Sydney", sydney.name());
+        assertEquals("NSW", sydney.admin1());
+        assertEquals(-33.8688, sydney.latitude(), 1e-4);
+        assertEquals(151.2093, sydney.longitude(), 1e-4);
+        assertEquals("Wagga Wagga", gazetteer.resolve("WAGGA-WAGGA").orElseThrow().name());
+        assertEquals("Wagga Wagga", gazetteer.resolve("wagga").orElseThrow().name());
+        assertEquals("Yulara", gazetteer.resolve("Uluru").orElseThrow().name());
+        assertTrue(gazetteer.resolve("Syd ney").isEmpty());
+        assertTrue(gazetteer.resolve("").isEmpty());
+        assertTrue(gazetteer.resolve(null).isEmpty());
+    }
+
+    @Test
+    void resolve_AmbiguousName_PrefersMostPopulousUnlessQualified() {
+        // When
+        Gazetteer.City perth = gazetteer.resolve("Perth").orElseThrow();
+        Gazetteer.City scottishPerth = gazetteer.resolve("Perth, SCT").orElseThrow();
+
+        // Then
+        assertEquals("AU", perth.country());
+        assertTrue(perth.primary());
+        assertEquals("Perth", perth.canonicalName());
+        assertEquals("GB", scottishPerth.country());
+        assertFalse(scottishPerth.primary());
+        assertEquals("Perth, SCT, GB", scottishPerth.canonicalName());
+        assertEquals(scottishPerth, gazetteer.resolve(scottishPerth.canonicalName()).orElseThrow());
+        assertEquals("US", gazetteer.resolve("Portland").orElseThrow().country());
+        assertEquals("AU", gazetteer.resolve("portland, au").orElseThrow().country());
+        assertTrue(gazetteer.resolve("Perth, QLD").isEmpty());
+    }
+
+    @Test
+    void suggest_RanksPrefixMatchesByPopulation() {
+        // When
+        List<String> port = gazetteer.suggest("Port", 4).stream().map(Gazetteer.City::canonicalName).toList();
+        List<String> perth = gazetteer.suggest("PER", 10).stream().map(Gazetteer.City::canonicalName).toList();
+
+        // Then
+        assertEquals(List.of("Portland", "Port Macquarie", "Port Lincoln", "Port Hedland"), port);
+        assertEquals(List.of("Perth", "Perth, SCT, GB"), perth);
+        assertEquals("Wagga Wagga", gazetteer.suggest("wagga w", 10).get(0).name());
+        assertEquals(1, gazetteer.suggest("wagga", 10).size(), "a city matching under several names is suggested once");
+        assertTrue(gazetteer.suggest("zz", 10).isEmpty());
+        assertTrue(gazetteer.suggest(" - ", 10).isEmpty());
+        assertTrue(gazetteer.suggest("Syd", 0).isEmpty());
+    }
+
+    @Test
+    void suggest_CapsLimit() throws IOException {
+        // Given
+        String[] rows = new String[30];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = "Town " + i + "\tTown " + i + "\t\t-30.0\t150.0\tAU\tNSW\t" + (1000 + i);
+        }
+        Gazetteer towns = new Gazetteer(new SimpleMeterRegistry(), dataset("towns.tsv", rows), directory.resolve("towns.idx").toString(), true);
+
+        // When
+        List<Gazetteer.City> suggestions = towns.suggest("town", 1000);
+
+        // Then
+        assertEquals(Gazetteer.MAX_SUGGESTIONS, suggestions.size());
+        assertEquals("Town 29", suggestions.get(0).name());
+        assertEquals("Town 10", suggestions.get(Gazetteer.MAX_SUGGESTIONS - 1).name());
+    }
+
+    @Test
+    void suggest_CityWithManyNamesSharingThePrefix_StillFillsTheLimit() throws IOException {
+        // Given: the most populous city matches "sa" under 21 names
+        StringBuilder alternates = new StringBuilder();
+        for (int i = 1; i <= 20; i++) {
+            alternates.append(i == 1 ? "" : ",").append("Sa Alias ").append(i);
+        }
+        Gazetteer cities = new Gazetteer(new SimpleMeterRegistry(), dataset("aliases.tsv",
+                "Sa City\tSa City\t" + alternates + "\t-30.0\t150.0\tAU\tNSW\t500000",
+                "Sa Town 1\tSa Town 1\t\t-30.0\t150.0\tAU\tNSW\t3000",
+                "Sa Town 2\tSa Town 2\t\t-30.0\t150.0\tAU\tNSW\t2000",
+                "Sa Town 3\tSa Town 3\t\t-30.0\t150.0\tAU\tNSW\t1000"),
+                directory.resolve("aliases.idx").toString(), true);
+
+        // When
+        List<String> suggestions = cities.suggest("sa", 4).stream().map(Gazetteer.City::name).toList();
+
+        // Then
+        assertEquals(List.of("Sa City", "Sa Town 1", "Sa Town 2", "Sa Town 3"), suggestions);
+    }
+
+    @Test
+    void canonicalName_UnknownCity_Throws() {
+        // When
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> gazetteer.canonicalName(" Atlantis "));
+
+        // Then
+        assertEquals("Unknown city: Atlantis", exception.getMessage());
+        assertEquals("Newcastle upon Tyne", gazetteer.canonicalName("Newcastle, GB"));
+    }
+
+    @Test
+    void canonicalName_UnknownCityAllowed_KeepsNameAsTyped() throws IOException {
+        // Given
+        Gazetteer lenient = new Gazetteer(new SimpleMeterRegistry(), dataset("cities.tsv", "Hobart\tHobart\t\t-42.8821\t147.3272\tAU\tTAS\t247068"),
+                directory.resolve("cities.idx").toString(), false);
+
+        // Then
+        assertEquals("Mudgee", lenient.canonicalName(" Mudgee "));
+        assertEquals("Hobart", lenient.canonicalName("hobart"));
+    }
+
+    @Test
+    void load_ReusesIndexUntilDatasetChanges() throws IOException {
+        // Given
+        String index = directory.resolve("cities.idx").toString();
+        FileSystemResource dataset = dataset("cities.tsv", "Hobart\tHobart\t\t-42.8821\t147.3272\tAU\tTAS\t247068");
+        SimpleMeterRegistry first = new SimpleMeterRegistry();
+        SimpleMeterRegistry second = new SimpleMeterRegistry();
+        SimpleMeterRegistry third = new SimpleMeterRegistry();
+
+        // When
+        new Gazetteer(first, dataset, index, true);
+        new Gazetteer(second, dataset, index, true);
+        Files.writeString(dataset.getFile().toPath(), "Launceston\tLaunceston\t\t-41.4332\t147.1441\tAU\tTAS\t90953\n", StandardOpenOption.APPEND);
+        Gazetteer changed = new Gazetteer(third, dataset, index, true);
+
+        // Then
+        assertEquals(1, first.timer("gazetteer.load", "index", "built").count());
+        assertEquals(1, second.timer("gazetteer.load", "index", "mapped").count());
+        assertEquals(1, third.timer("gazetteer.load", "index", "built").count());
+        assertEquals(2, changed.size());
+        assertEquals(2.0, third.get("gazetteer.cities").gauge().value());
+    }
+
+    @Test
+    void load_AcceptsGeoNamesRows() throws IOException {
+        // Given: a cities500.txt row has 19 columns
+        String row = String.join("\t", "2078025", "Adelaide", "Adelaide", "ADL,Adelaid,Tarntanya", "-34.92866", "138.59863",
+                "P", "PPLA", "AU", "", "05", "", "", "", "1225235", "", "48", "Australia/Adelaide", "2019-07-09");
+        Gazetteer geoNames = new Gazetteer(new SimpleMeterRegistry(), dataset("cities500.txt", row),
+                directory.resolve("cities500.idx").toString(), true);
+
+        // When
+        Gazetteer.City adelaide = geoNames.resolve("Tarntanya").orElseThrow();
+
+        // Then
+        assertEquals("Adelaide", adelaide.name());
+        assertEquals("05", adelaide.admin1());
+        assertEquals("AU", adelaide.country());
+        assertEquals(1225235, adelaide.population());
+    }
+
+    private FileSystemResource dataset(String name, String... rows) throws IOException {
+        Path file = directory.resolve(name);
+        Files.writeString(file, "# test dataset\n" + String.join("\n", rows) + "\n");
+        return new FileSystemResource(file);
+    }
+}
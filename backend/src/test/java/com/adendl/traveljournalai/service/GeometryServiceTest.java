@@ -0,0 +1,156 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Location;
+import com.adendl.traveljournalai.model.PlaceOfInterest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeometryServiceTest {
+
+    private final GeometryService geometryService = new GeometryService();
+
+    @Test
+    void haversineKm_MatchesKnownDistances() {
+        // Given: Sydney to Melbourne, a point to itself, and a quarter of the equator
+        double[] fromLatitudes = {-33.8688, 10.0, 0.0};
+        double[] fromLongitudes = {151.2093, 20.0, 0.0};
+        double[] toLatitudes = {-37.8136, 10.0, 0.0};
+        double[] toLongitudes = {144.9631, 20.0, 90.0};
+        double[] distances = new double[3];
+
+        // When
+        GeometryService.haversineKm(fromLatitudes, fromLongitudes, toLatitudes, toLongitudes, distances, 3);
+
+        // Then
+        assertEquals(713.4, distances[0], 0.1);
+        assertEquals(0.0, distances[1]);
+        assertEquals(Math.PI / 2 * GeometryService.EARTH_RADIUS_KM, distances[2], 1e-6);
+    }
+
+    @Test
+    void haversineKm_AntipodalPoints_AreHalfTheCircumference() {
+        // Given
+        double[] distances = new double[1];
+
+        // When
+        GeometryService.haversineKm(new double[]{45.0}, new double[]{-30.0}, new double[]{-45.0}, new double[]{150.0}, distances, 1);
+
+        // Then
+        assertEquals(Math.PI * GeometryService.EARTH_RADIUS_KM, distances[0], 1e-3);
+    }
+
+    @Test
+    void applyDistances_SetsLegAndPlacesOfInterestChain() {
+        // Given
+        DayPlan first = day(location("Sydney", -33.8688, 151.2093), location("Canberra", -35.2809, 149.13));
+        first.setDistanceKm(999);
+        DayPlan second = day(location("Canberra", -35.2809, 149.13), location("Melbourne", -37.8136, 144.9631),
+                poi(-37.8136, 144.9631), poi(-37.8304, 144.9796));
+
+        // When
+        double total = geometryService.applyDistances(List.of(first, second));
+
+        // Then
+        assertEquals(246.8, first.getDistanceKm());
+        assertEquals(246.8, first.getPlacesOfInterestDistanceKm());
+        assertEquals(466.7, second.getDistanceKm());
+        assertTrue(second.getPlacesOfInterestDistanceKm() > second.getDistanceKm());
+        assertEquals(713.4, total);
+    }
+
+    @Test
+    void applyDistances_SkipsDaysWithoutLocations() {
+        // Given
+        DayPlan incomplete = new DayPlan();
+        DayPlan complete = day(location("Sydney", -33.8688, 151.2093), location("Melbourne", -37.8136, 144.9631));
+
+        // When
+        double total = geometryService.applyDistances(List.of(incomplete, complete));
+
+        // Then
+        assertEquals(0.0, incomplete.getDistanceKm());
+        assertEquals(713.4, total);
+        assertEquals(0.0, geometryService.applyDistances(List.of()));
+    }
+
+    @Test
+    void segmentDistanceKm_MeasuresToNearestPointOfSegment() {
+        // Given: a segment along the equator
+        double[] from = {0, 0};
+        double[] to = {0, 1};
+
+        // When & Then
+        assertEquals(GeometryService.haversineKm(0.1, 0.5, 0, 0.5), GeometryService.segmentDistanceKm(0.1, 0.5, from, to), 0.01);
+        assertEquals(GeometryService.haversineKm(0, 1.1, 0, 1), GeometryService.segmentDistanceKm(0, 1.1, from, to), 0.01);
+    }
+
+    @Test
+    void boundingBox_ContainsEveryPointWithinRadius() {
+        // Given
+        double radiusKm = 50;
+
+        // When
+        double[] box = GeometryService.boundingBox(-33.8688, 151.2093, -35.2809, 149.13, radiusKm);
+
+        // Then: the points the radius reaches due south of the southern end and due east of the eastern end
+        assertEquals(-35.2809 - radiusKm / GeometryService.KM_PER_DEGREE, box[0], 1e-9);
+        assertTrue(box[1] < 149.13 && box[3] > 151.2093 && box[2] > -33.8688);
+        assertTrue(GeometryService.haversineKm(-35.2809, 149.13, -35.2809, box[1]) >= radiusKm);
+        assertTrue(GeometryService.haversineKm(-33.8688, 151.2093, -33.8688, box[3]) >= radiusKm);
+    }
+
+    @Test
+    void boundingBox_CrossingTheAntimeridian_WrapsAround() {
+        // When: a segment from 179 to -179 degrees, the short way round
+        double[] box = GeometryService.boundingBox(-17, 179, -17, -179, 20);
+        List<double[]> boxes = GeometryService.boundingBoxes(-17, 179, -17, -179, 20);
+
+        // Then
+        assertTrue(box[1] > box[3]);
+        assertTrue(box[1] < 179 && box[1] > 178);
+        assertTrue(box[3] > -179 && box[3] < -178);
+        assertEquals(2, boxes.size());
+        assertArrayEquals(new double[] {box[0], box[1], box[2], 180}, boxes.get(0));
+        assertArrayEquals(new double[] {box[0], -180, box[2], box[3]}, boxes.get(1));
+        assertEquals(0, GeometryService.segmentDistanceKm(-17, 180, new double[] {-17, 179}, new double[] {-17, -179}), 0.5);
+    }
+
+    @Test
+    void boundingBox_ReachingAPole_SpansEveryLongitude() {
+        // When
+        double[] box = GeometryService.boundingBox(89.9, 10, 89.9, 10, 50);
+
+        // Then
+        assertArrayEquals(new double[] {89.9 - 50 / GeometryService.KM_PER_DEGREE, -180, 90, 180}, box, 1e-9);
+        assertEquals(1, GeometryService.boundingBoxes(89.9, 10, 89.9, 10, 50).size());
+    }
+
+    private static DayPlan day(Location start, Location finish, PlaceOfInterest... places) {
+        DayPlan day = new DayPlan();
+        day.setStartLocation(start);
+        day.setFinishLocation(finish);
+        day.setPlacesOfInterest(new ArrayList<>(List.of(places)));
+        return day;
+    }
+
+    private static Location location(String name, double latitude, double longitude) {
+        Location location = new Location();
+        location.setName(name);
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+
+    private static PlaceOfInterest poi(double latitude, double longitude) {
+        PlaceOfInterest poi = new PlaceOfInterest();
+        poi.setName("Place");
+        poi.setLatitude(latitude);
+        poi.setLongitude(longitude);
+        return poi;
+    }
+}
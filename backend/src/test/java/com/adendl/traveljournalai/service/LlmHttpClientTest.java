@@ -0,0 +1,310 @@
+package com.adendl.traveljournalai.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises the client against a local stub server.
+ */
+class LlmHttpClientTest {
+
+    private static final String COMPLETION = "{\"choices\": [{\"message\": {\"content\": \"{}\"}}]}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final List<Integer> remotePorts = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.createContext("/v1/chat/completions", exchange -> respond(exchange, 200, COMPLETION));
+        server.createContext("/v1/error", exchange -> respond(exchange, 429, "{\"error\": \"rate limited\"}"));
+        server.createContext("/v1/slow", exchange -> {
+            awaitRelease();
+            respond(exchange, 200, COMPLETION);
+        });
+        server.createContext("/v1/long", exchange -> {
+            // Headers at once, then a body that takes a while to write, like a long completion
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("{\"choices\": [".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                sleep(300);
+                out.write("]}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/v1/stream", exchange -> respond(exchange, 200,
+                "data: {\"choices\": [{\"delta\": {\"content\": \"{\\\"days\\\"\"}}]}\n\ndata: [DONE]\n\n"));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void postJson_ReusesConnectionAcrossCalls() {
+        // Given
+        LlmHttpClient client = client(1000, 5000, 10000, 4, LlmRetryPolicy.NO_RETRIES);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertEquals(COMPLETION, client.postJson(url("/v1/chat/completions"), "test-api-key", "{\"model\": \"test\"}"));
+        }
+
+        // Then
+        assertEquals(5, remotePorts.size());
+        Set<Integer> distinctPorts = remotePorts.stream().collect(Collectors.toSet());
+        assertEquals(1, distinctPorts.size(), "Expected every call to reuse one connection, saw ports " + remotePorts);
+        assertEquals("Bearer test-api-key", authorizations.get(0));
+    }
+
+    @Test
+    void postJson_LongBody_IsNotALatencySpike() {
+        // Given: a latency baseline from short completions
+        LlmHttpClient client = client(1000, 5000, 10000, 4, LlmRetryPolicy.NO_RETRIES);
+        for (int i = 0; i < 3; i++) {
+            client.postJson(url("/v1/chat/completions"), "test-api-key", "{}");
+        }
+
+        // When: a completion whose body takes far longer than the baseline
+        String body = client.postJson(url("/v1/long"), "test-api-key", "{}");
+
+        // Then: the limiter samples the time to the headers, so the limit is not cut
+        assertEquals("{\"choices\": []}", body);
+        assertEquals(4.0, client.limiterFor(URI.create(url("/v1/long"))).getLimit());
+    }
+
+    @Test
+    void postJson_ErrorStatus_ThrowsWithStatusCode() {
+        // Given
+        LlmHttpClient client = client(1000, 5000, 10000, 4, LlmRetryPolicy.NO_RETRIES);
+
+        // When
+        LlmHttpException exception = assertThrows(LlmHttpException.class,
+                () -> client.postJson(url("/v1/error"), "test-api-key", "{}"));
+
+        // Then
+        assertEquals(429, exception.getStatusCode());
+        assertEquals("Request to 127.0.0.1:" + server.getAddress().getPort() + " failed with status 429", exception.getMessage());
+    }
+
+    @Test
+    void postJson_NoResponseBeforeFirstByteTimeout_Throws() {
+        // Given
+        LlmHttpClient client = client(1000, 200, 10000, 4, LlmRetryPolicy.NO_RETRIES);
+
+        // When
+        LlmHttpException exception = assertThrows(LlmHttpException.class,
+                () -> client.postJson(url("/v1/slow"), "test-api-key", "{}"));
+
+        // Then
+        assertEquals(0, exception.getStatusCode());
+        assertTrue(exception.getMessage().startsWith("No response from"), exception.getMessage());
+    }
+
+    @Test
+    void postJson_TotalDeadlineExceeded_Throws() {
+        // Given
+        LlmHttpClient client = client(1000, 5000, 300, 4, LlmRetryPolicy.NO_RETRIES);
+
+        // When
+        LlmHttpException exception = assertThrows(LlmHttpException.class,
+                () -> client.postJson(url("/v1/slow"), "test-api-key", "{}"));
+
+        // Then
+        assertTrue(exception.getMessage().contains("exceeded the deadline"), exception.getMessage());
+    }
+
+    @Test
+    void postJson_HostConcurrencyLimitReached_Throws() throws Exception {
+        // Given
+        LlmHttpClient client = client(1000, 200, 10000, 1, LlmRetryPolicy.NO_RETRIES);
+
+        try (InputStream openStream = client.postJsonForStream(url("/v1/stream"), "test-api-key", "{}")) {
+            // When
+            LlmHttpException exception = assertThrows(LlmHttpException.class,
+                    () -> client.postJson(url("/v1/chat/completions"), "test-api-key", "{}"));
+
+            // Then
+            assertTrue(exception.getMessage().startsWith("Too many concurrent requests"), exception.getMessage());
+        }
+        assertEquals(COMPLETION, client.postJson(url("/v1/chat/completions"), "test-api-key", "{}"));
+    }
+
+    @Test
+    void postJsonForStream_ReturnsBodyAndReleasesPermitOnClose() throws Exception {
+        // Given
+        LlmHttpClient client = client(1000, 5000, 10000, 1, LlmRetryPolicy.NO_RETRIES);
+
+        // When
+        String first;
+        try (InputStream body = client.postJsonForStream(url("/v1/stream"), "test-api-key", "{}")) {
+            first = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        // The single permit is available again once the first stream is closed
+        try (InputStream body = client.postJsonForStream(url("/v1/stream"), "test-api-key", "{}")) {
+            body.readAllBytes();
+        }
+
+        // Then
+        assertTrue(first.startsWith("data: "));
+        assertTrue(first.contains("[DONE]"));
+    }
+
+    @Test
+    void postJsonForStream_CloseCancelsDeadline() throws Exception {
+        // Given
+        LlmHttpClient client = client(1000, 5000, 600000, 2, LlmRetryPolicy.NO_RETRIES);
+
+        // When
+        InputStream body = client.postJsonForStream(url("/v1/stream"), "test-api-key", "{}");
+        int scheduled = LlmHttpClient.DEADLINES.getQueue().size();
+        body.close();
+
+        // Then
+        assertTrue(scheduled >= 1);
+        assertEquals(scheduled - 1, LlmHttpClient.DEADLINES.getQueue().size());
+    }
+
+    @Test
+    void postJson_RetriesServerErrorsThenSucceeds() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        server.createContext("/v1/flaky", exchange -> {
+            if (calls.incrementAndGet() < 3) {
+                respond(exchange, 503, "{\"error\": \"overloaded\"}");
+            } else {
+                respond(exchange, 200, COMPLETION);
+            }
+        });
+        LlmHttpClient client = client(1000, 5000, 10000, 4, new LlmRetryPolicy(3, Duration.ofMillis(10), Duration.ofMillis(50)));
+
+        // When
+        String response = client.postJson(url("/v1/flaky"), "test-api-key", "{}");
+
+        // Then
+        assertEquals(COMPLETION, response);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.counter("llm.http.retries", "host", "127.0.0.1:" + server.getAddress().getPort(), "reason", "503").count());
+        // Each 503 is an overload signal, so the limit was cut from its initial value
+        assertTrue(client.limiterFor(URI.create(url("/"))).getLimit() < 4);
+    }
+
+    @Test
+    void postJson_HonoursRetryAfter() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        server.createContext("/v1/limited", exchange -> {
+            if (calls.incrementAndGet() == 1) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 429, "{\"error\": \"rate limited\"}");
+            } else {
+                respond(exchange, 200, COMPLETION);
+            }
+        });
+        LlmHttpClient client = client(1000, 5000, 10000, 4, new LlmRetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(1)));
+
+        // When
+        long startTime = System.nanoTime();
+        String response = client.postJson(url("/v1/limited"), "test-api-key", "{}");
+
+        // Then
+        assertEquals(COMPLETION, response);
+        assertTrue(Duration.ofNanos(System.nanoTime() - startTime).toMillis() >= 1000);
+    }
+
+    @Test
+    void postJson_ClientErrorIsNotRetried() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        server.createContext("/v1/bad-request", exchange -> {
+            calls.incrementAndGet();
+            respond(exchange, 400, "{\"error\": \"invalid\"}");
+        });
+        LlmHttpClient client = client(1000, 5000, 10000, 4, new LlmRetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(1)));
+
+        // When
+        LlmHttpException exception = assertThrows(LlmHttpException.class,
+                () -> client.postJson(url("/v1/bad-request"), "test-api-key", "{}"));
+
+        // Then
+        assertEquals(400, exception.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    private LlmHttpClient client(long connectTimeoutMs, long firstByteTimeoutMs, long totalTimeoutMs, int maxConcurrent, LlmRetryPolicy retryPolicy) {
+        return new LlmHttpClient(
+                LlmHttpClient.newHttpClient(Duration.ofMillis(connectTimeoutMs)),
+                Duration.ofMillis(firstByteTimeoutMs),
+                Duration.ofMillis(totalTimeoutMs),
+                retryPolicy,
+                new AdaptiveConcurrencyLimiter.Settings(maxConcurrent, 1, maxConcurrent, 8, 0.75, 3.0),
+                meterRegistry);
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        remotePorts.add(exchange.getRemoteAddress().getPort());
+        authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelTripPlanGeneratorTest {
+
+    private static final String SKELETON = "{\"days\": ["
+            + "{\"day\": 1, \"startLocation\": {\"name\": \"Sydney\", \"latitude\": -33.8688, \"longitude\": 151.2093}, "
+            + "\"finishLocation\": {\"name\": \"Canberra\", \"latitude\": -35.2809, \"longitude\": 149.13}, \"distanceKm\": 286}, "
+            + "{\"day\": 2, \"startLocation\": {\"name\": \"Canberra\", \"latitude\": -35.2809, \"longitude\": 149.13}, "
+            + "\"finishLocation\": {\"name\": \"Albury\", \"latitude\": -36.0737, \"longitude\": 146.9135}, \"distanceKm\": 340}, "
+            + "{\"day\": 3, \"startLocation\": {\"name\": \"Albury\", \"latitude\": -36.0737, \"longitude\": 146.9135}, "
+            + "\"finishLocation\": {\"name\": \"Melbourne\", \"latitude\": -37.8136, \"longitude\": 144.9631}, \"distanceKm\": 326}]}";
+
+    private static final Pattern DAY_NUMBER = Pattern.compile("Day (\\d+) of a");
+
+    @Mock
+    private LlmHttpClient llmHttpClient;
+
+    private ThreadPoolExecutor dayExecutor;
+    private ParallelTripPlanGenerator generator;
+    private Trip trip;
+
+    @BeforeEach
+    void setUp() {
+        dayExecutor = new ThreadPoolExecutor(3, 3, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(10));
+        generator = new ParallelTripPlanGenerator(llmHttpClient, TestUtils.createTestTokenBudget(), dayExecutor, "test-api-key");
+        trip = TestUtils.createTestTrip();
+        trip.setDays(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dayExecutor.shutdownNow();
+    }
+
+    @Test
+    void generate_FetchesDaysInParallelAndAssemblesPlan() throws Exception {
+        // Given
+        CountDownLatch allDaysRequested = new CountDownLatch(3);
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            String request = invocation.getArgument(2);
+            if (request.contains("Plan the route")) {
+                return completion(SKELETON);
+            }
+            // Every day call waits for the others, so this only completes if they run concurrently
+            allDaysRequested.countDown();
+            assertTrue(allDaysRequested.await(5, TimeUnit.SECONDS));
+            return completion(dayDetails(dayNumber(request)));
+        });
+
+        // When
+        TripPlan tripPlan = generator.generate(trip);
+
+        // Then
+        List<DayPlan> days = tripPlan.getDays();
+        assertEquals(3, days.size());
+        assertSame(trip, tripPlan.getTrip());
+        for (int i = 0; i < days.size(); i++) {
+            DayPlan day = days.get(i);
+            assertEquals(i + 1, day.getDayNumber());
+            assertEquals("Introduction for day " + (i + 1), day.getIntroduction());
+            assertEquals("Place " + (i + 1), day.getPlacesOfInterest().get(0).getName());
+            assertSame(tripPlan, day.getTripPlan());
+            assertSame(day, day.getPlacesOfInterest().get(0).getDayPlan());
+        }
+        assertEquals("Albury", days.get(1).getFinishLocation().getName());
+        assertEquals(340.0, days.get(1).getDistanceKm());
+        verify(llmHttpClient, times(4)).postJson(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void generate_DayFailure_FailsWholePlan() throws Exception {
+        // Given
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            String request = invocation.getArgument(2);
+            if (request.contains("Plan the route")) {
+                return completion(SKELETON);
+            }
+            int dayNumber = dayNumber(request);
+            return completion(dayNumber == 2 ? "{\"introduction\": \"No places\"}" : dayDetails(dayNumber));
+        });
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> generator.generate(trip));
+
+        // Then
+        assertTrue(exception.getMessage().startsWith("Failed to parse day 2 JSON"), exception.getMessage());
+    }
+
+    @Test
+    void generate_InvalidSkeleton_Throws() throws Exception {
+        // Given
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString())).thenReturn(completion("{\"days\": []}"));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> generator.generate(trip));
+
+        // Then
+        assertTrue(exception.getMessage().startsWith("Failed to parse trip skeleton JSON"), exception.getMessage());
+        verify(llmHttpClient, times(1)).postJson(anyString(), anyString(), anyString());
+    }
+
+    private static int dayNumber(String request) {
+        Matcher matcher = DAY_NUMBER.matcher(request);
+        assertTrue(matcher.find(), "Day prompt should name its day");
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static String dayDetails(int dayNumber) {
+        return "{\"introduction\": \"Introduction for day " + dayNumber + "\", \"placesOfInterest\": ["
+                + "{\"name\": \"Place " + dayNumber + "\", \"description\": \"Worth a stop\", \"latitude\": -35.0, \"longitude\": 148.0}]}";
+    }
+
+    private static String completion(String content) throws Exception {
+        return TripPlanParser.MAPPER.writeValueAsString(
+                Map.of("choices", List.of(Map.of("message", Map.of("role", "assistant", "content", content)))));
+    }
+}
@@ -0,0 +1,262 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.PlaceOfInterest;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.repository.PlaceLocation;
+import com.adendl.traveljournalai.repository.PlaceOfInterestRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PlaceIndexTest {
+
+    private static final IndexedPlace OPERA_HOUSE = new IndexedPlace(1, 10, "Sydney Opera House", -33.8568, 151.2153);
+    private static final IndexedPlace BONDI = new IndexedPlace(2, 10, "Bondi Beach", -33.8908, 151.2743);
+    private static final IndexedPlace BOWRAL = new IndexedPlace(3, 11, "Bowral", -34.4777, 150.4177);
+    private static final IndexedPlace GOULBURN = new IndexedPlace(4, 12, "Big Merino", -34.7547, 149.7186);
+    private static final IndexedPlace ULURU = new IndexedPlace(5, 13, "Uluru", -25.3444, 131.0369);
+
+    private PlaceOfInterestRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private PlaceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PlaceOfInterestRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        index = new PlaceIndex(repository, meterRegistry, 1000, Runnable::run);
+        index.rebuild(List.of(OPERA_HOUSE, BONDI, BOWRAL, GOULBURN, ULURU));
+    }
+
+    @Test
+    void nearby_ReturnsPlacesWithinRadiusClosestFirst() {
+        // When
+        List<NearbyPlace> result = index.nearby(-33.8688, 151.2093, 10, 20);
+
+        // Then
+        assertEquals(List.of(OPERA_HOUSE, BONDI), result.stream().map(NearbyPlace::place).toList());
+        assertEquals(1.4, result.get(0).distanceKm(), 0.1);
+        assertTrue(result.get(1).distanceKm() <= 10);
+    }
+
+    @Test
+    void nearby_AcrossTheAntimeridian() {
+        // Given: Taveuni, Fiji, just east of 180 degrees
+        IndexedPlace taveuni = new IndexedPlace(6, 14, "Bouma Falls", -16.8100, -179.9800);
+        index.rebuild(List.of(OPERA_HOUSE, taveuni));
+        index.add(List.of(new IndexedPlace(7, 15, "Lavena", -16.8600, -179.8900)));
+
+        // When: searching from just west of it
+        List<NearbyPlace> result = index.nearby(-16.8200, 179.9900, 15, 20);
+
+        // Then: both the indexed and the pending place are found
+        assertEquals(List.of(6L, 7L), result.stream().map(nearby -> nearby.place().id()).toList());
+    }
+
+    @Test
+    void nearby_MatchesLinearScan() {
+        // Given
+        SplittableRandom random = new SplittableRandom(42);
+        List<IndexedPlace> places = randomPlaces(random, 5000);
+        index.rebuild(places);
+
+        // When & Then
+        assertMatchesLinearScan(places, random);
+    }
+
+    @Test
+    void nearby_PendingAdditionsMatchLinearScan() {
+        // Given: half the places in the tree, half added trip by trip since it was built
+        SplittableRandom random = new SplittableRandom(7);
+        List<IndexedPlace> places = randomPlaces(random, 5000);
+        index = new PlaceIndex(repository, meterRegistry, Integer.MAX_VALUE, Runnable::run);
+        index.rebuild(places.subList(0, 2500));
+        for (int i = 2500; i < places.size(); i += 50) {
+            index.add(places.subList(i, i + 50));
+        }
+
+        // When & Then
+        assertEquals(2500, index.pendingUpdates());
+        assertMatchesLinearScan(places, random);
+    }
+
+    @Test
+    void nearRoute_FindsPlacesAlongCorridorExcludingOwnTrip() {
+        // Given: Sydney to Canberra, passing Bowral and Goulburn
+        List<double[][]> routes = List.<double[][]>of(new double[][] {
+                {-33.8688, 151.2093}, {-34.4777, 150.4300}, {-34.7547, 149.7300}, {-35.2809, 149.1300}});
+
+        // When
+        List<NearbyPlace> result = index.nearRoute(routes, 5, 10, 20);
+
+        // Then
+        assertEquals(List.of(BOWRAL, GOULBURN), result.stream().map(NearbyPlace::place).sorted((a, b) -> Long.compare(a.id(), b.id())).toList());
+        assertTrue(result.stream().allMatch(nearby -> nearby.distanceKm() <= 5));
+    }
+
+    @Test
+    void addTripAndRemoveTrip_VisibleBeforeRebuild() {
+        // Given
+        Trip trip = trip(20L, poi(100L, "Manly Beach", -33.7969, 151.2878));
+
+        // When
+        index.addTrip(trip);
+
+        // Then
+        assertEquals(1, index.pendingUpdates());
+        assertEquals(6, index.size());
+        assertTrue(index.nearby(-33.7969, 151.2878, 1, 20).stream().anyMatch(nearby -> nearby.place().id() == 100));
+
+        // When
+        index.removeTrip(20L);
+        index.removeTrip(10L);
+
+        // Then
+        assertEquals(3, index.size());
+        assertTrue(index.nearby(-33.8688, 151.2093, 30, 20).isEmpty());
+    }
+
+    @Test
+    void addTrip_UnsavedTripIgnored() {
+        // When
+        index.addTrip(trip(null, poi(100L, "Manly Beach", -33.7969, 151.2878)));
+
+        // Then
+        assertEquals(0, index.pendingUpdates());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void pendingUpdatesOverThreshold_FoldedIntoTree() {
+        // Given
+        index = new PlaceIndex(repository, meterRegistry, 2, Runnable::run);
+        index.rebuild(List.of(OPERA_HOUSE, BONDI, BOWRAL));
+
+        // When
+        index.addTrip(trip(20L, poi(100L, "Manly Beach", -33.7969, 151.2878)));
+        index.removeTrip(11L);
+
+        // Then
+        assertEquals(0, index.pendingUpdates());
+        assertEquals(3, index.size());
+        assertEquals(List.of(100L, 1L, 2L), index.nearby(-33.7969, 151.2878, 20, 20).stream().map(nearby -> nearby.place().id()).toList());
+        assertTrue(index.nearby(BOWRAL.latitude(), BOWRAL.longitude(), 5, 20).isEmpty());
+    }
+
+    @Test
+    void load_ReadsRepositoryInBatches() {
+        // Given
+        when(repository.findLocationsAfter(anyLong(), any(Pageable.class))).thenReturn(List.of(
+                location(OPERA_HOUSE), location(BOWRAL), location(new IndexedPlace(9, 14, "Nowhere", 95, 0))));
+
+        // When
+        index.load();
+
+        // Then
+        assertEquals(2, index.size());
+        assertEquals(1, index.nearby(-33.8688, 151.2093, 10, 20).size());
+        verify(repository).findLocationsAfter(eq(0L), any(Pageable.class));
+        assertEquals(2, meterRegistry.timer("places.index.build").count());
+    }
+
+    @Test
+    void load_KeepsTripsAddedOrRemovedDuringTheScan() {
+        // Given: Bowral's trip is deleted and Manly's trip saved while the first page is read
+        IndexedPlace manly = new IndexedPlace(100, 20, "Manly Beach", -33.7969, 151.2878);
+        when(repository.findLocationsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            index.removeTrip(11L);
+            index.addTrip(trip(20L, poi(100L, "Manly Beach", -33.7969, 151.2878)));
+            return List.of(location(OPERA_HOUSE), location(BOWRAL), location(manly));
+        });
+
+        // When
+        index.load();
+
+        // Then
+        assertTrue(index.nearby(BOWRAL.latitude(), BOWRAL.longitude(), 5, 20).isEmpty());
+        assertEquals(List.of(100L), index.nearby(manly.latitude(), manly.longitude(), 1, 20).stream()
+                .map(nearby -> nearby.place().id()).toList());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void outOfRangeArguments_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(-33.8688, 151.2093, 0, 20));
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(-33.8688, 151.2093, PlaceIndex.MAX_RADIUS_KM + 1, 20));
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(91, 151.2093, 10, 20));
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(Double.NaN, 151.2093, 10, 20));
+        assertThrows(IllegalArgumentException.class,
+                () -> index.nearRoute(List.<double[][]>of(new double[][] {{0, 0}, {0, 200}}), 10, 0, 20));
+    }
+
+    private static List<IndexedPlace> randomPlaces(SplittableRandom random, int count) {
+        List<IndexedPlace> places = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            places.add(new IndexedPlace(i, i % 50, "Place " + i, random.nextDouble(-36, -32), random.nextDouble(149, 153)));
+        }
+        return places;
+    }
+
+    private void assertMatchesLinearScan(List<IndexedPlace> places, SplittableRandom random) {
+        for (int query = 0; query < 50; query++) {
+            double latitude = random.nextDouble(-36, -32);
+            double longitude = random.nextDouble(149, 153);
+            double radiusKm = random.nextDouble(1, 30);
+            List<Long> expected = places.stream()
+                    .filter(place -> GeometryService.haversineKm(latitude, longitude, place.latitude(), place.longitude()) <= radiusKm)
+                    .sorted((a, b) -> Double.compare(
+                            GeometryService.haversineKm(latitude, longitude, a.latitude(), a.longitude()),
+                            GeometryService.haversineKm(latitude, longitude, b.latitude(), b.longitude())))
+                    .limit(PlaceIndex.MAX_RESULTS)
+                    .map(IndexedPlace::id)
+                    .toList();
+
+            List<NearbyPlace> result = index.nearby(latitude, longitude, radiusKm, PlaceIndex.MAX_RESULTS);
+
+            assertEquals(expected, result.stream().map(nearby -> nearby.place().id()).toList());
+        }
+    }
+
+    private static Trip trip(Long tripId, PlaceOfInterest... places) {
+        DayPlan day = new DayPlan();
+        day.setPlacesOfInterest(new ArrayList<>(List.of(places)));
+        TripPlan plan = new TripPlan();
+        plan.setDays(new ArrayList<>(List.of(day)));
+        Trip trip = new Trip();
+        trip.setTripId(tripId);
+        trip.setTripPlans(new ArrayList<>(List.of(plan)));
+        return trip;
+    }
+
+    private static PlaceOfInterest poi(Long id, String name, double latitude, double longitude) {
+        PlaceOfInterest poi = new PlaceOfInterest();
+        poi.setId(id);
+        poi.setName(name);
+        poi.setLatitude(latitude);
+        poi.setLongitude(longitude);
+        return poi;
+    }
+
+    private static PlaceLocation location(IndexedPlace place) {
+        return new PlaceLocation() {
+            public Long getId() { return place.id(); }
+            public Long getTripId() { return place.tripId(); }
+            public String getName() { return place.name(); }
+            public double getLatitude() { return place.latitude(); }
+            public double getLongitude() { return place.longitude(); }
+        };
+    }
+}
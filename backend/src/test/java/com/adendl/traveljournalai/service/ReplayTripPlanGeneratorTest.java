@@ -0,0 +1,88 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplayTripPlanGeneratorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void generate_RecordedRequest_ReplaysItsRecording() throws Exception {
+        // Given
+        Trip trip = TestUtils.createTestTrip();
+        TripPlan recorded = TestUtils.createTestTripPlan();
+        recorded.getDays().get(0).setIntroduction("Recorded for this request");
+        Files.writeString(directory.resolve(ReplayTripPlanGenerator.fileName(TripPlanCacheKey.of(trip))), TripPlanParser.writeContent(recorded));
+        Files.writeString(directory.resolve("other.json"), TripPlanParser.writeContent(TestUtils.createTestTripPlan()));
+
+        // When
+        TripPlan tripPlan = new ReplayTripPlanGenerator(directory.toString()).generate(trip);
+
+        // Then
+        assertSame(trip, tripPlan.getTrip());
+        assertEquals("Recorded for this request", tripPlan.getDays().get(0).getIntroduction());
+        assertSame(tripPlan, tripPlan.getDays().get(0).getTripPlan());
+    }
+
+    @Test
+    void generate_UnknownRequest_PicksARecordingDeterministically() throws Exception {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            TripPlan recorded = TestUtils.createTestTripPlan();
+            recorded.getDays().get(0).setIntroduction("Recording " + i);
+            Files.writeString(directory.resolve("recording-" + i + ".json"), TripPlanParser.writeContent(recorded));
+        }
+        ReplayTripPlanGenerator generator = new ReplayTripPlanGenerator(directory.toString());
+        Trip trip = TestUtils.createTestTrip();
+        trip.setToCity("Adelaide");
+
+        // When
+        String first = generator.generate(trip).getDays().get(0).getIntroduction();
+        String second = generator.generate(trip).getDays().get(0).getIntroduction();
+
+        // Then
+        assertTrue(first.startsWith("Recording "));
+        assertEquals(first, second);
+    }
+
+    @Test
+    void generate_ReplaysPlansRecordedByOpenAiGenerator() throws Exception {
+        // Given
+        String content = TripPlanParser.writeContent(TestUtils.createTestTripPlan());
+        String completion = TripPlanParser.MAPPER.writeValueAsString(
+                Map.of("choices", List.of(Map.of("message", Map.of("content", content)))));
+        LlmHttpClient llmHttpClient = mock(LlmHttpClient.class);
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString())).thenReturn(completion);
+        OpenAiTripPlanGenerator recorder = new OpenAiTripPlanGenerator(llmHttpClient, TestUtils.createTestTokenBudget(), null, null, "test-api-key",
+                false, 4, directory.toString());
+        Trip trip = TestUtils.createTestTrip();
+        recorder.generate(trip);
+
+        // When
+        TripPlan replayed = new ReplayTripPlanGenerator(directory.toString()).generate(trip);
+
+        // Then
+        assertEquals(content, TripPlanParser.writeContent(replayed));
+    }
+
+    @Test
+    void constructor_NoRecordings_Fails() {
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> new ReplayTripPlanGenerator(directory.toString()));
+    }
+}
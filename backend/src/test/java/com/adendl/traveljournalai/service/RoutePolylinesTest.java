@@ -0,0 +1,94 @@
+package com.adendl.traveljournalai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutePolylinesTest {
+
+    private static final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    void encode_MatchesGoogleReference() {
+        // Given: the example from Google's polyline algorithm documentation
+        double[][] coordinates = {{38.5, -120.2}, {40.7, -120.95}, {43.252, -126.453}};
+
+        // When
+        String encoded = RoutePolylines.encode(coordinates);
+
+        // Then
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", encoded);
+        assertArrayEquals(coordinates, RoutePolylines.decode(encoded));
+        assertEquals("", RoutePolylines.encode(new double[0][]));
+        assertThrows(IllegalArgumentException.class, () -> RoutePolylines.decode("_p~iF"));
+    }
+
+    @Test
+    void simplify_StaysWithinHalfAPixelAndShrinksPayload() throws Exception {
+        // Given
+        double[][] route = road(20_000, 7);
+        int zoom = 12;
+
+        // When
+        double[][] simplified = RoutePolylines.simplify(route, zoom);
+        String encoded = RoutePolylines.encode(simplified);
+
+        // Then
+        assertArrayEquals(route[0], simplified[0]);
+        assertArrayEquals(route[route.length - 1], simplified[simplified.length - 1]);
+        double tolerance = RoutePolylines.toleranceDegrees(zoom, route[route.length / 2][0]);
+        LineString line = line(simplified);
+        for (double[] point : route) {
+            assertTrue(line.distance(geometryFactory.createPoint(new Coordinate(point[1], point[0]))) <= tolerance * 1.0001);
+        }
+        int jsonBytes = new ObjectMapper().writeValueAsBytes(route).length;
+        assertTrue(jsonBytes / encoded.length() >= 10, "payload " + jsonBytes + " bytes as JSON, " + encoded.length() + " encoded");
+        assertTrue(RoutePolylines.simplify(route, 6).length < simplified.length);
+    }
+
+    @Test
+    void simplify_ClosedLegKeepsEnds() {
+        // Given
+        double[][] loop = {{-33.8688, 151.2093}, {-33.8688, 151.2093}, {-33.8688, 151.2093}};
+
+        // When
+        double[][] simplified = RoutePolylines.simplify(loop, 12);
+
+        // Then
+        assertTrue(simplified.length >= 2);
+        assertArrayEquals(loop[0], simplified[0]);
+    }
+
+    private static LineString line(double[][] coordinates) {
+        Coordinate[] points = new Coordinate[coordinates.length];
+        for (int i = 0; i < coordinates.length; i++) {
+            points[i] = new Coordinate(coordinates[i][1], coordinates[i][0]);
+        }
+        return geometryFactory.createLineString(points);
+    }
+
+    /**
+     * Synthetic road geometry like a router returns: points every 5 to 15 m on a course that bends gently.
+     */
+    private static double[][] road(int points, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] route = new double[points][];
+        double latitude = -33.8688;
+        double longitude = 151.2093;
+        double heading = random.nextDouble(0, 2 * Math.PI);
+        for (int i = 0; i < points; i++) {
+            route[i] = new double[] {latitude, longitude};
+            heading += random.nextDouble(-0.05, 0.05);
+            double metres = random.nextDouble(5, 15);
+            latitude += metres * Math.cos(heading) / 111_320.0;
+            longitude += metres * Math.sin(heading) / (111_320.0 * Math.cos(Math.toRadians(latitude)));
+        }
+        return route;
+    }
+}
@@ -0,0 +1,202 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.utils.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteServiceTest {
+
+    private static final String CACHE_SPEC = "maximumSize=100";
+    private static final int ZOOM = 12;
+    private static final long DISK_TTL_HOURS = 24;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final StubRouteClient stub = new StubRouteClient(10);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @TempDir
+    private Path directory;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void routesFor_FetchesEachLegOnceAcrossViews() {
+        // Given: a roundtrip whose last leg repeats the first
+        RouteService routeService = routeService(countingClient(), 5000);
+        List<DayPlan> days = List.of(
+                day(1, -33.8688, 151.2093, -35.2809, 149.1300),
+                day(2, -35.2809, 149.1300, -37.8136, 144.9631),
+                day(3, -33.8688, 151.2093, -35.2809, 149.1300));
+
+        // When
+        List<DayRoute> first = routeService.routesFor(days, ZOOM);
+        List<DayRoute> second = routeService.routesFor(days, ZOOM);
+
+        // Then
+        assertEquals(2, calls.get());
+        assertEquals(List.of(1, 2, 3), first.stream().map(DayRoute::dayNumber).toList());
+        assertTrue(first.stream().allMatch(DayRoute::routed));
+        assertEquals(-35.2809, RoutePolylines.decode(first.get(1).polyline())[0][0], 1e-5);
+        assertEquals(second.get(2).distanceKm(), first.get(0).distanceKm());
+        assertEquals(2.0, meterRegistry.counter("routes.legs", "source", "router").count());
+    }
+
+    @Test
+    void routesFor_ReadsDiskTierAfterRestart() {
+        // Given
+        List<DayPlan> days = List.of(day(1, -33.8688, 151.2093, -35.2809, 149.1300));
+        routeService(countingClient(), 5000).routesFor(days, ZOOM);
+        RouteClient unreachable = (fromLatitude, fromLongitude, toLatitude, toLongitude) -> {
+            throw new IOException("router down");
+        };
+
+        // When
+        List<DayRoute> routes = routeService(unreachable, 5000).routesFor(days, ZOOM);
+
+        // Then
+        assertTrue(routes.get(0).routed());
+        assertEquals(1.0, meterRegistry.counter("routes.legs", "source", "disk").count());
+    }
+
+    @Test
+    void routesFor_ExpiredDiskEntry_IsRoutedAgain() throws IOException {
+        // Given
+        List<DayPlan> days = List.of(day(1, -33.8688, 151.2093, -35.2809, 149.1300));
+        routeService(countingClient(), 5000).routesFor(days, ZOOM);
+        age(Duration.ofHours(DISK_TTL_HOURS + 1));
+
+        // When
+        List<DayRoute> routes = routeService(countingClient(), 5000).routesFor(days, ZOOM);
+
+        // Then
+        assertTrue(routes.get(0).routed());
+        assertEquals(2, calls.get());
+        assertEquals(0.0, meterRegistry.counter("routes.legs", "source", "disk").count());
+    }
+
+    @Test
+    void evictExpired_DeletesOnlyFilesOlderThanTtl() throws IOException {
+        // Given
+        RouteService routeService = routeService(countingClient(), 5000);
+        routeService.routesFor(List.of(day(1, -33.8688, 151.2093, -35.2809, 149.1300)), ZOOM);
+        age(Duration.ofHours(DISK_TTL_HOURS + 1));
+        routeService.routesFor(List.of(day(1, -35.2809, 149.1300, -37.8136, 144.9631)), ZOOM);
+
+        // When
+        routeService.evictExpired();
+
+        // Then
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void routesFor_RouterFails_FallsBackToStraightLineAndRetries() {
+        // Given: the router fails once
+        RouteClient flaky = (fromLatitude, fromLongitude, toLatitude, toLongitude) -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new IOException("503 from router");
+            }
+            return stub.route(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        };
+        RouteService routeService = routeService(flaky, 5000);
+        List<DayPlan> days = List.of(day(1, -33.8688, 151.2093, -37.8136, 144.9631));
+
+        // When
+        DayRoute failed = routeService.routesFor(days, ZOOM).get(0);
+        DayRoute retried = routeService.routesFor(days, ZOOM).get(0);
+
+        // Then
+        assertFalse(failed.routed());
+        assertArrayEquals(new double[][] {{-33.8688, 151.2093}, {-37.8136, 144.9631}}, RoutePolylines.decode(failed.polyline()));
+        assertEquals(713.4, failed.distanceKm(), 1.0);
+        assertTrue(retried.routed());
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.counter("routes.legs", "source", "straight-line").count());
+    }
+
+    @Test
+    void routesFor_SlowLeg_AnswersStraightLineAndKeepsLoading() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        RouteClient slow = (fromLatitude, fromLongitude, toLatitude, toLongitude) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            calls.incrementAndGet();
+            return stub.route(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        };
+        RouteService routeService = routeService(slow, 50);
+        List<DayPlan> days = List.of(day(1, -33.8688, 151.2093, -37.8136, 144.9631));
+
+        // When
+        DayRoute early = routeService.routesFor(days, ZOOM).get(0);
+        release.countDown();
+        DayRoute later = early;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!later.routed() && System.nanoTime() < deadline) {
+            later = routeService.routesFor(days, ZOOM).get(0);
+        }
+
+        // Then
+        assertFalse(early.routed());
+        assertTrue(later.routed());
+        assertEquals(1, calls.get());
+    }
+
+    private RouteService routeService(RouteClient client, long timeoutMs) {
+        return new RouteService(client, meterRegistry, executor, CACHE_SPEC, directory.toString(), DISK_TTL_HOURS, timeoutMs);
+    }
+
+    /**
+     * Backdates every file of the disk tier.
+     */
+    private void age(Duration age) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+            }
+        }
+    }
+
+    private RouteClient countingClient() {
+        return (fromLatitude, fromLongitude, toLatitude, toLongitude) -> {
+            calls.incrementAndGet();
+            return stub.route(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        };
+    }
+
+    private static DayPlan day(int dayNumber, double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        DayPlan day = new DayPlan();
+        day.setDayNumber(dayNumber);
+        day.setStartLocation(TestUtils.createTestLocation("Start", fromLatitude, fromLongitude));
+        day.setFinishLocation(TestUtils.createTestLocation("Finish", toLatitude, toLongitude));
+        return day;
+    }
+}
@@ -0,0 +1,67 @@
+package com.adendl.traveljournalai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingDayExtractorTest {
+
+    private static final String PLAN = "{\"title\": \"Coast {run}\", \"days\": ["
+            + "{\"day\": 1, \"introduction\": \"Brace yourself: } and ] \\\"inside\\\" strings\", \"placesOfInterest\": [{\"name\": \"A\"}]},"
+            + "{\"day\": 2, \"introduction\": \"Day two\", \"placesOfInterest\": []}"
+            + "], \"notes\": [{\"day\": 99}]}";
+
+    @Test
+    void feed_WholeDocument_ReturnsEachDay() {
+        // Given
+        StreamingDayExtractor extractor = new StreamingDayExtractor();
+
+        // When
+        List<String> days = extractor.feed(PLAN);
+
+        // Then
+        assertEquals(2, days.size());
+        assertTrue(days.get(0).startsWith("{\"day\": 1"));
+        assertTrue(days.get(0).endsWith("[{\"name\": \"A\"}]}"));
+        assertEquals("{\"day\": 2, \"introduction\": \"Day two\", \"placesOfInterest\": []}", days.get(1));
+        assertTrue(extractor.isBalanced());
+    }
+
+    @Test
+    void feed_OneCharacterAtATime_EmitsDaysAsTheyClose() {
+        // Given
+        StreamingDayExtractor extractor = new StreamingDayExtractor();
+        List<String> days = new ArrayList<>();
+        int firstDayCompletedAt = -1;
+
+        // When
+        for (int i = 0; i < PLAN.length(); i++) {
+            days.addAll(extractor.feed(PLAN.substring(i, i + 1)));
+            if (firstDayCompletedAt < 0 && !days.isEmpty()) {
+                firstDayCompletedAt = i;
+            }
+        }
+
+        // Then
+        assertEquals(2, days.size());
+        assertEquals(PLAN.indexOf("]},") + 1, firstDayCompletedAt);
+    }
+
+    @Test
+    void feed_TruncatedDocument_KeepsOnlyClosedDays() {
+        // Given
+        StreamingDayExtractor extractor = new StreamingDayExtractor();
+        String truncated = PLAN.substring(0, PLAN.indexOf("Day two"));
+
+        // When
+        List<String> days = extractor.feed(truncated);
+
+        // Then
+        assertEquals(1, days.size());
+        assertEquals(1, extractor.getCompletedDays());
+        assertFalse(extractor.isBalanced());
+    }
+}
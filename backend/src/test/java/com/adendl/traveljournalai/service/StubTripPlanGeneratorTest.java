@@ -0,0 +1,105 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StubTripPlanGeneratorTest {
+
+    @Test
+    void generate_ProducesLinkedPlanOfRequestedShape() {
+        // Given
+        StubTripPlanGenerator generator = new StubTripPlanGenerator(0, 0, 3, 50);
+        Trip trip = trip(false, 5);
+
+        // When
+        TripPlan tripPlan = generator.generate(trip);
+
+        // Then
+        assertSame(trip, tripPlan.getTrip());
+        assertEquals(5, tripPlan.getDays().size());
+        for (int i = 0; i < 5; i++) {
+            DayPlan day = tripPlan.getDays().get(i);
+            assertEquals(i + 1, day.getDayNumber());
+            assertSame(tripPlan, day.getTripPlan());
+            assertEquals(3, day.getPlacesOfInterest().size());
+            assertSame(day, day.getPlacesOfInterest().get(0).getDayPlan());
+            assertTrue(day.getIntroduction().startsWith("Welcome to " + day.getFinishLocation().getName()));
+            if (i > 0) {
+                assertEquals(tripPlan.getDays().get(i - 1).getFinishLocation(), day.getStartLocation());
+            }
+        }
+        assertEquals("Sydney", tripPlan.getDays().get(0).getStartLocation().getName());
+        assertEquals("Melbourne", tripPlan.getDays().get(4).getFinishLocation().getName());
+        assertTrue(new GeometryService().applyDistances(tripPlan.getDays()) > 0);
+    }
+
+    @Test
+    void generate_Roundtrip_FinishesAtStart() {
+        // Given
+        StubTripPlanGenerator generator = new StubTripPlanGenerator(0, 0, 2, 20);
+
+        // When
+        TripPlan tripPlan = generator.generate(trip(true, 4));
+
+        // Then
+        assertEquals("Sydney", tripPlan.getDays().get(3).getFinishLocation().getName());
+    }
+
+    @Test
+    void generate_IsDeterministicPerRequest() throws Exception {
+        // Given
+        StubTripPlanGenerator generator = new StubTripPlanGenerator(0, 0, 4, 100);
+
+        // When
+        String first = TripPlanParser.writeContent(generator.generate(trip(false, 3)));
+        String second = TripPlanParser.writeContent(generator.generate(trip(false, 3)));
+        String other = TripPlanParser.writeContent(generator.generate(trip(true, 3)));
+
+        // Then
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    void generate_LargePayload_StaysWithinColumnLimits() {
+        // Given
+        StubTripPlanGenerator generator = new StubTripPlanGenerator(0, 0, 1, 1000);
+
+        // When
+        TripPlan tripPlan = generator.generate(trip(false, 2));
+
+        // Then
+        assertEquals(StubTripPlanGenerator.MAX_INTRODUCTION_LENGTH, tripPlan.getDays().get(0).getIntroduction().length());
+    }
+
+    @Test
+    void generate_WaitsConfiguredLatency() {
+        // Given
+        StubTripPlanGenerator generator = new StubTripPlanGenerator(100, 0, 1, 10);
+        long start = System.nanoTime();
+
+        // When
+        generator.generate(trip(false, 1));
+
+        // Then
+        assertTrue(System.nanoTime() - start >= 100_000_000L);
+    }
+
+    private static Trip trip(boolean roundtrip, int days) {
+        Trip trip = TestUtils.createTestTrip();
+        trip.setFromCity("Sydney");
+        trip.setToCity("Melbourne");
+        trip.setRoundtrip(roundtrip);
+        trip.setDays(days);
+        trip.setInterests(List.of("Beaches", "Food"));
+        trip.setDistanceKm(900);
+        return trip;
+    }
+}
@@ -0,0 +1,93 @@
+package com.adendl.traveljournalai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBudgetTest {
+
+    private static final String PROMPT = "Plan a trip from Sydney to Melbourne over two days.";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TokenBudget budget = new TokenBudget(meterRegistry, 32768, 1047576, 1.5, 50, 400, 30);
+
+    @Test
+    void allocateTrip_ScalesWithDaysAndInterests() {
+        // When
+        TokenBudget.Allocation oneDay = budget.allocateTrip(PROMPT, 1, List.of("Food"));
+        TokenBudget.Allocation week = budget.allocateTrip(PROMPT, 7, List.of("Food", "Beaches", "Wine"));
+
+        // Then
+        assertEquals(480, oneDay.expectedCompletionTokens());
+        assertEquals(720, oneDay.maxTokens());
+        assertEquals(7 * 490 + 50, week.expectedCompletionTokens());
+        assertTrue(week.fits());
+        assertEquals(TokenEstimator.estimate(PROMPT), oneDay.estimatedPromptTokens());
+    }
+
+    @Test
+    void allocate_OverOutputLimit_DoesNotFit() {
+        // When
+        TokenBudget.Allocation allocation = budget.allocateTrip(PROMPT, 60, List.of("Food"));
+
+        // Then
+        assertFalse(allocation.fits());
+        assertEquals(32768, allocation.maxTokens());
+    }
+
+    @Test
+    void recordUsage_RecordsHistogramsAndCalibrates() {
+        // Given
+        TokenBudget.Allocation allocation = budget.allocateTrip(PROMPT, 2, List.of("Food"));
+
+        // When
+        budget.recordUsage(allocation, new TokenUsage(allocation.estimatedPromptTokens() * 2, allocation.expectedCompletionTokens() / 2));
+
+        // Then
+        assertEquals(1, meterRegistry.get("llm.tokens").tag("call", "trip").tag("type", "completion").summary().count());
+        assertEquals(allocation.expectedCompletionTokens() / 2,
+                meterRegistry.get("llm.tokens").tag("call", "trip").tag("type", "completion").summary().totalAmount());
+        assertEquals(1.1, budget.scale("prompt"), 1e-9);
+        assertEquals(0.95, budget.scale("completion:trip"), 1e-9);
+        assertTrue(budget.allocateTrip(PROMPT, 2, List.of("Food")).maxTokens() < allocation.maxTokens());
+    }
+
+    @Test
+    void recordUsage_TruncatedCompletion_DoesNotCalibrateCompletion() {
+        // Given
+        TokenBudget.Allocation allocation = budget.allocateTrip(PROMPT, 2, List.of("Food"));
+
+        // When
+        budget.recordUsage(allocation, new TokenUsage(allocation.estimatedPromptTokens(), allocation.maxTokens()));
+
+        // Then
+        assertEquals(1.0, budget.scale("completion:trip"));
+        assertEquals(1.0, meterRegistry.get("llm.tokens.budget.utilisation").summary().max());
+    }
+
+    @Test
+    void recordUsage_ReadsUsageFromResponse() {
+        // Given
+        TokenBudget.Allocation allocation = budget.allocateTrip(PROMPT, 1, List.of("Food"));
+
+        // When
+        budget.recordUsage(allocation, "{\"choices\": [], \"usage\": {\"prompt_tokens\": 120, \"completion_tokens\": 400, \"total_tokens\": 520}}");
+        budget.recordUsage(allocation, "{\"choices\": []}");
+
+        // Then
+        assertEquals(120, meterRegistry.get("llm.tokens").tag("type", "prompt").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("llm.tokens").tag("type", "prompt").summary().count());
+    }
+
+    @Test
+    void recordOverflow_CountsAction() {
+        // When
+        budget.recordOverflow(budget.allocateTrip(PROMPT, 60, List.of("Food")), "split");
+
+        // Then
+        assertEquals(1.0, meterRegistry.counter("llm.tokens.budget.overflows", "call", "trip", "action", "split").count());
+    }
+}
@@ -0,0 +1,28 @@
+package com.adendl.traveljournalai.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenEstimatorTest {
+
+    @Test
+    void estimate_CountsWordsNumbersAndSymbols() {
+        // Then
+        assertEquals(0, TokenEstimator.estimate(""));
+        assertEquals(4, TokenEstimator.estimate("Welcome to the coast"));
+        assertEquals(3, TokenEstimator.estimate("Extraordinarily"));
+        assertEquals(3, TokenEstimator.estimate("1234567"));
+        assertEquals(5, TokenEstimator.estimate("{\"day\": 12}"));
+        assertEquals(4, TokenEstimator.estimate("a\n\nb"));
+    }
+
+    @Test
+    void estimate_GrowsWithPromptSize() {
+        // Given
+        String shortText = "Plan a trip from Sydney to Melbourne.";
+
+        // Then
+        assertTrue(TokenEstimator.estimate(shortText.repeat(10)) >= 9 * TokenEstimator.estimate(shortText));
+    }
+}
@@ -0,0 +1,176 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.service.TripGenerationCircuitBreaker.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripGenerationCircuitBreakerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void execute_FailureRateReached_OpensAndFailsFast() {
+        // Given
+        TripGenerationCircuitBreaker breaker = breaker(1);
+        succeed(breaker);
+        fail(breaker);
+        fail(breaker);
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        TripGenerationUnavailableException exception = assertThrows(TripGenerationUnavailableException.class,
+                () -> breaker.execute(calls::incrementAndGet));
+
+        // Then
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(0, calls.get());
+        assertEquals(Duration.ofSeconds(30), exception.getRetryAfter());
+        assertEquals(1.0, meterRegistry.counter("trip.generation.circuit.short-circuits").count());
+        assertEquals(1.0, transitions("closed", "open"));
+        assertEquals(1.0, meterRegistry.get("trip.generation.circuit.state").gauge().value());
+    }
+
+    @Test
+    void execute_BelowMinimumCalls_StaysClosed() {
+        // Given
+        TripGenerationCircuitBreaker breaker = breaker(1);
+
+        // When
+        fail(breaker);
+        fail(breaker);
+
+        // Then
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void execute_SlowCalls_CountAsFailures() {
+        // Given
+        TripGenerationCircuitBreaker breaker = breaker(1);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            String result = breaker.execute(() -> {
+                clock.addAndGet(Duration.ofSeconds(90).toNanos());
+                return "slow";
+            });
+            assertEquals("slow", result);
+        }
+
+        // Then
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void execute_AfterOpenDuration_ProbesAndCloses() {
+        // Given
+        TripGenerationCircuitBreaker breaker = breaker(2);
+        openCircuit(breaker);
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        // When
+        succeed(breaker);
+
+        // Then
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        succeed(breaker);
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(1.0, transitions("open", "half_open"));
+        assertEquals(1.0, transitions("half_open", "closed"));
+    }
+
+    @Test
+    void execute_HalfOpenProbeFails_Reopens() {
+        // Given
+        TripGenerationCircuitBreaker breaker = breaker(1);
+        openCircuit(breaker);
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        // When
+        fail(breaker);
+
+        // Then
+        assertEquals(State.OPEN, breaker.getState());
+        assertThrows(TripGenerationUnavailableException.class, () -> succeed(breaker));
+        assertEquals(1.0, transitions("half_open", "open"));
+    }
+
+    @Test
+    void execute_HalfOpen_LimitsConcurrentProbes() {
+        // Given
+        TripGenerationCircuitBreaker breaker = breaker(1);
+        openCircuit(breaker);
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        // When
+        String result = breaker.execute(() -> {
+            assertThrows(TripGenerationUnavailableException.class, () -> succeed(breaker));
+            return "probe";
+        });
+
+        // Then
+        assertEquals("probe", result);
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void execute_InvalidRequests_DoNotCount() {
+        // Given
+        TripGenerationCircuitBreaker breaker = breaker(1);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalArgumentException.class, () -> breaker.execute(() -> {
+                throw new IllegalArgumentException("A 90 day trip is too long to generate in one request");
+            }));
+        }
+
+        // Then
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void execute_Disabled_NeverOpens() {
+        // Given
+        TripGenerationCircuitBreaker breaker = new TripGenerationCircuitBreaker(
+                meterRegistry, false, 0.5, 60000, 4, 3, 30000, 1, clock::get);
+
+        // When
+        openCircuit(breaker);
+
+        // Then
+        assertEquals(State.CLOSED, breaker.getState());
+        succeed(breaker);
+    }
+
+    private TripGenerationCircuitBreaker breaker(int halfOpenProbes) {
+        return new TripGenerationCircuitBreaker(meterRegistry, true, 0.5, 60000, 4, 3, 30000, halfOpenProbes, clock::get);
+    }
+
+    private void openCircuit(TripGenerationCircuitBreaker breaker) {
+        for (int i = 0; i < 3; i++) {
+            fail(breaker);
+        }
+    }
+
+    private static void succeed(TripGenerationCircuitBreaker breaker) {
+        breaker.execute(() -> "ok");
+    }
+
+    private static void fail(TripGenerationCircuitBreaker breaker) {
+        assertThrows(LlmHttpException.class, () -> breaker.execute(() -> {
+            throw new LlmHttpException(503, "OpenAI API call failed with status 503");
+        }));
+    }
+
+    private double transitions(String from, String to) {
+        return meterRegistry.counter("trip.generation.circuit.transitions", "from", from, "to", to).count();
+    }
+}
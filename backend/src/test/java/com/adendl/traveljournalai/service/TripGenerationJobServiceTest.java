@@ -0,0 +1,151 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripGenerationJob;
+import com.adendl.traveljournalai.model.User;
+import com.adendl.traveljournalai.utils.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TripGenerationJobServiceTest {
+
+    private static final String JWT = "jwt-token";
+
+    @Mock
+    private TripService tripService;
+
+    private ThreadPoolExecutor executor;
+    private TripGenerationJobService jobService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        jobService = new TripGenerationJobService(tripService, TestUtils.createTestGazetteer(), executor, 60);
+        testUser = TestUtils.createTestUser();
+        testUser.setId(1L);
+        lenient().when(tripService.validateAndGetUserFromJwt(JWT)).thenReturn(testUser);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void submit_RunsGenerationInBackground() throws Exception {
+        // Given
+        Trip trip = TestUtils.createTestTrip();
+        trip.setTripId(42L);
+        when(tripService.createTripForUser(eq(testUser), eq("Sydney"), eq("Melbourne"), eq(true), eq(5), anyList(), eq(800.0)))
+                .thenReturn(trip);
+
+        // When
+        TripGenerationJob job = jobService.submit(JWT, "Sydney", "Melbourne", true, 5, Arrays.asList("Beaches"), 800.0);
+
+        // Then
+        assertNotNull(job.getJobId());
+        awaitCompletion(job);
+        assertEquals(TripGenerationJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(42L, job.getTrip().getTripId());
+        assertNotNull(job.getCompletedAt());
+    }
+
+    @Test
+    void submit_RecordsFailure() throws Exception {
+        // Given
+        when(tripService.createTripForUser(any(), anyString(), anyString(), anyBoolean(), anyInt(), anyList(), anyDouble()))
+                .thenThrow(new RuntimeException("Failed to call OpenAI API"));
+
+        // When
+        TripGenerationJob job = jobService.submit(JWT, "Sydney", "Melbourne", true, 5, Arrays.asList("Beaches"), 800.0);
+
+        // Then
+        awaitCompletion(job);
+        assertEquals(TripGenerationJob.Status.FAILED, job.getStatus());
+        assertEquals("Failed to call OpenAI API", job.getError());
+        assertNull(job.getTrip());
+    }
+
+    @Test
+    void submit_InvalidJwt_FailsBeforeQueueing() {
+        // Given
+        when(tripService.validateAndGetUserFromJwt("bad")).thenThrow(new RuntimeException("Invalid JWT token"));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () ->
+                jobService.submit("bad", "Sydney", "Melbourne", true, 5, Arrays.asList("Beaches"), 800.0));
+        assertEquals(0, executor.getTaskCount());
+    }
+
+    @Test
+    void submit_UnknownCity_FailsBeforeQueueing() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () ->
+                jobService.submit(JWT, "Sydney", "Atlantis", true, 5, Arrays.asList("Beaches"), 800.0));
+        verify(tripService, never()).createTripForUser(any(), anyString(), anyString(), anyBoolean(), anyInt(), anyList(), anyDouble());
+        assertEquals(0, executor.getTaskCount());
+    }
+
+    @Test
+    void submit_RejectsWhenAtCapacity() throws Exception {
+        // Given - one running job and one queued job fill the executor
+        CountDownLatch release = new CountDownLatch(1);
+        when(tripService.createTripForUser(any(), anyString(), anyString(), anyBoolean(), anyInt(), anyList(), anyDouble()))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return TestUtils.createTestTrip();
+                });
+        jobService.submit(JWT, "Sydney", "Melbourne", true, 5, Arrays.asList("Beaches"), 800.0);
+        jobService.submit(JWT, "Sydney", "Melbourne", true, 5, Arrays.asList("Beaches"), 800.0);
+
+        // When & Then
+        try {
+            assertThrows(RejectedExecutionException.class, () ->
+                    jobService.submit(JWT, "Sydney", "Melbourne", true, 5, Arrays.asList("Beaches"), 800.0));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void findJob_OtherUserCannotSeeJob() throws Exception {
+        // Given
+        lenient().when(tripService.createTripForUser(any(), anyString(), anyString(), anyBoolean(), anyInt(), anyList(), anyDouble()))
+                .thenReturn(TestUtils.createTestTrip());
+        TripGenerationJob job = jobService.submit(JWT, "Sydney", "Melbourne", true, 5, Arrays.asList("Beaches"), 800.0);
+
+        User otherUser = TestUtils.createTestUser();
+        otherUser.setUsername("otheruser");
+        when(tripService.validateAndGetUserFromJwt("other-jwt")).thenReturn(otherUser);
+
+        // When & Then
+        assertTrue(jobService.findJob(JWT, job.getJobId()).isPresent());
+        assertTrue(jobService.findJob("other-jwt", job.getJobId()).isEmpty());
+        assertTrue(jobService.findJob(JWT, "unknown-job").isEmpty());
+    }
+
+    private void awaitCompletion(TripGenerationJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline
+                && (job.getStatus() == TripGenerationJob.Status.QUEUED || job.getStatus() == TripGenerationJob.Status.RUNNING)) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.CachedTripPlan;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.repository.CachedTripPlanRepository;
+import com.adendl.traveljournalai.utils.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TripPlanCacheTest {
+
+    private static final TripPlanCacheKey KEY = TripPlanCacheKey.of("Sydney", "Melbourne", true, 2, List.of("Food", "Beaches"));
+
+    @Mock
+    private CachedTripPlanRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TripPlanCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TripPlanCache(repository, meterRegistry, true, "maximumSize=10,expireAfterWrite=60s", 24);
+    }
+
+    @Test
+    void cacheKey_IsCanonical() {
+        // When
+        TripPlanCacheKey other = TripPlanCacheKey.of(" sydney ", "MELBOURNE", true, 2, List.of("beaches", "food ", "Food"));
+
+        // Then
+        assertEquals(KEY, other);
+        assertEquals("sydney|melbourne|roundtrip|2|beaches,food", other.asString());
+        assertNotEquals(KEY, TripPlanCacheKey.of("Sydney", "Melbourne", false, 2, List.of("Food", "Beaches")));
+    }
+
+    @Test
+    void get_MemoryHit_ReturnsIndependentCopy() {
+        // Given
+        cache.put(KEY, TestUtils.createTestTripPlan());
+
+        // When
+        TripPlan first = cache.get(KEY).orElseThrow();
+        first.getDays().get(0).setIntroduction("changed");
+        TripPlan second = cache.get(KEY).orElseThrow();
+
+        // Then
+        assertNotSame(first, second);
+        assertEquals("This is a test introduction for day 1", second.getDays().get(0).getIntroduction());
+        assertSame(second, second.getDays().get(0).getTripPlan());
+        assertNull(second.getId());
+        verify(repository, never()).findById(any());
+        assertEquals(2.0, count("memory", "hit"));
+    }
+
+    @Test
+    void put_StoresContentInPersistentTier() throws Exception {
+        // When
+        cache.put(KEY, TestUtils.createTestTripPlan());
+
+        // Then
+        ArgumentCaptor<CachedTripPlan> captor = ArgumentCaptor.forClass(CachedTripPlan.class);
+        verify(repository).save(captor.capture());
+        CachedTripPlan stored = captor.getValue();
+        assertEquals(KEY.asString(), stored.getCacheKey());
+        assertEquals("sydney", stored.getFromCity());
+        assertEquals(2, TripPlanParser.parseContent(stored.getContent()).getDays().size());
+        verify(repository, never()).deleteCreatedBefore(any(Instant.class));
+    }
+
+    @Test
+    void evictExpired_DeletesEntriesOlderThanTtl() {
+        // Given
+        when(repository.deleteCreatedBefore(any(Instant.class))).thenReturn(3);
+        Instant before = Instant.now();
+
+        // When
+        cache.evictExpired();
+
+        // Then
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).deleteCreatedBefore(cutoff.capture());
+        assertFalse(cutoff.getValue().isBefore(before.minus(Duration.ofHours(24))));
+        assertTrue(cutoff.getValue().isBefore(before.minus(Duration.ofHours(23))));
+    }
+
+    @Test
+    void evictExpired_RepositoryFailure_IsLogged() {
+        // Given
+        when(repository.deleteCreatedBefore(any(Instant.class))).thenThrow(new RuntimeException("Database unavailable"));
+
+        // When / Then
+        assertDoesNotThrow(() -> cache.evictExpired());
+    }
+
+    @Test
+    void get_PersistentHit_PromotesToMemory() throws Exception {
+        // Given
+        when(repository.findById(KEY.asString())).thenReturn(Optional.of(stored(Instant.now())));
+
+        // When
+        Optional<TripPlan> first = cache.get(KEY);
+        Optional<TripPlan> second = cache.get(KEY);
+
+        // Then
+        assertTrue(first.isPresent());
+        assertTrue(second.isPresent());
+        assertEquals(2, first.get().getDays().size());
+        verify(repository, times(1)).findById(KEY.asString());
+        assertEquals(1.0, count("persistent", "hit"));
+        assertEquals(1.0, count("memory", "hit"));
+    }
+
+    @Test
+    void get_ExpiredPersistentEntry_IsMiss() throws Exception {
+        // Given
+        when(repository.findById(KEY.asString())).thenReturn(Optional.of(stored(Instant.now().minus(Duration.ofDays(2)))));
+
+        // When
+        Optional<TripPlan> result = cache.get(KEY);
+
+        // Then
+        assertTrue(result.isEmpty());
+        assertEquals(1.0, count("memory", "miss"));
+        assertEquals(1.0, count("persistent", "miss"));
+    }
+
+    @Test
+    void get_RepositoryFailure_IsMiss() {
+        // Given
+        when(repository.findById(KEY.asString())).thenThrow(new RuntimeException("Database unavailable"));
+
+        // When / Then
+        assertTrue(cache.get(KEY).isEmpty());
+    }
+
+    @Test
+    void disabledCache_NeverStoresOrHits() {
+        // Given
+        TripPlanCache disabled = new TripPlanCache(repository, meterRegistry, false, "maximumSize=10", 24);
+
+        // When
+        disabled.put(KEY, TestUtils.createTestTripPlan());
+
+        // Then
+        assertTrue(disabled.get(KEY).isEmpty());
+        verifyNoInteractions(repository);
+    }
+
+    private CachedTripPlan stored(Instant createdAt) throws Exception {
+        CachedTripPlan entry = new CachedTripPlan();
+        entry.setCacheKey(KEY.asString());
+        entry.setContent(TripPlanParser.writeContent(TestUtils.createTestTripPlan()));
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+
+    @Test
+    void findClosest_ReturnsNearestPlanForRoute() throws Exception {
+        // Given
+        CachedTripPlan stored = new CachedTripPlan();
+        stored.setCacheKey("sydney|melbourne|roundtrip|3|food");
+        stored.setContent(TripPlanParser.writeContent(TestUtils.createTestTripPlan()));
+        when(repository.findClosestForRoute(eq("sydney"), eq("melbourne"), eq(true), eq(2), any()))
+                .thenReturn(List.of(stored));
+
+        // When
+        Optional<TripPlan> closest = cache.findClosest(KEY);
+
+        // Then
+        assertTrue(closest.isPresent());
+        assertEquals("This is a test introduction for day 1", closest.get().getDays().get(0).getIntroduction());
+        assertEquals(1.0, count("closest", "hit"));
+    }
+
+    @Test
+    void findClosest_UnknownRoute_ReturnsEmpty() {
+        // Given
+        when(repository.findClosestForRoute(any(), any(), anyBoolean(), anyInt(), any())).thenReturn(List.of());
+
+        // When & Then
+        assertTrue(cache.findClosest(KEY).isEmpty());
+        assertEquals(1.0, count("closest", "miss"));
+    }
+
+    private double count(String tier, String result) {
+        return meterRegistry.counter("trip.plan.cache.requests", "tier", tier, "result", result).count();
+    }
+}
@@ -0,0 +1,173 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.PlaceOfInterest;
+import com.adendl.traveljournalai.model.TripPlan;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripPlanParserTest {
+
+    private static final String DAY_ONE = "{\"day\": 1, \"startLocation\": {\"name\": \"Sydney\", \"latitude\": -33.8688, \"longitude\": 151.2093}, "
+            + "\"finishLocation\": {\"name\": \"Canberra\", \"latitude\": -35.2809, \"longitude\": 149.1300}, \"distanceKm\": 286, "
+            + "\"introduction\": \"Welcome to Canberra.\", \"placesOfInterest\": ["
+            + "{\"name\": \"Parliament House\", \"description\": \"Seat of government\", \"latitude\": -35.3081, \"longitude\": 149.1245}]}";
+
+    private static final String DAY_TWO = "{\"day\": \"2\", \"startLocation\": {\"name\": \"Canberra\", \"latitude\": -35.2809, \"longitude\": 149.1300}, "
+            + "\"finishLocation\": {\"name\": \"Melbourne\", \"latitude\": \"-37.8136\", \"longitude\": 144.9631, \"country\": \"AU\"}, \"distanceKm\": 660.5, "
+            + "\"introduction\": \"Welcome to Melbourne.\", \"weather\": {\"summary\": \"mild\"}, \"placesOfInterest\": []}";
+
+    @Test
+    void parseCompletion_MapsDaysAndPlaces() throws Exception {
+        // Given
+        String completion = completion("{\"days\": [" + DAY_ONE + ", " + DAY_TWO + "]}");
+
+        // When
+        TripPlan tripPlan = TripPlanParser.parseCompletion(completion);
+
+        // Then
+        List<DayPlan> days = tripPlan.getDays();
+        assertEquals(2, days.size());
+        DayPlan first = days.get(0);
+        assertEquals(1, first.getDayNumber());
+        assertEquals("Sydney", first.getStartLocation().getName());
+        assertEquals(-35.2809, first.getFinishLocation().getLatitude());
+        assertEquals(286.0, first.getDistanceKm());
+        assertEquals("Welcome to Canberra.", first.getIntroduction());
+        assertSame(tripPlan, first.getTripPlan());
+
+        PlaceOfInterest poi = first.getPlacesOfInterest().get(0);
+        assertEquals("Parliament House", poi.getName());
+        assertEquals(149.1245, poi.getLongitude());
+        assertSame(first, poi.getDayPlan());
+
+        DayPlan second = days.get(1);
+        assertEquals(2, second.getDayNumber());
+        assertEquals(-37.8136, second.getFinishLocation().getLatitude());
+        assertTrue(second.getPlacesOfInterest().isEmpty());
+    }
+
+    @Test
+    void parseDay_LeavesBackReferencesUnset() throws Exception {
+        // When
+        DayPlan day = TripPlanParser.parseDay(DAY_ONE);
+
+        // Then
+        assertNull(day.getTripPlan());
+        assertNull(day.getPlacesOfInterest().get(0).getDayPlan());
+        assertDoesNotThrow(() -> TripPlanParser.MAPPER.writeValueAsString(day));
+    }
+
+    @Test
+    void parseDay_WithoutDistance_IsAccepted() throws Exception {
+        // When
+        DayPlan day = TripPlanParser.parseDay(DAY_ONE.replace("\"distanceKm\": 286, ", ""));
+
+        // Then
+        assertEquals(0.0, day.getDistanceKm());
+        assertEquals("Canberra", day.getFinishLocation().getName());
+    }
+
+    @Test
+    void parseCompletion_MissingPoiLatitude_ReportsPath() {
+        // Given
+        String broken = DAY_ONE.replace("\"latitude\": -35.3081, ", "");
+        String completion = completion("{\"days\": [" + DAY_TWO + ", " + broken + "]}");
+
+        // When & Then
+        TripPlanParseException e = assertThrows(TripPlanParseException.class,
+                () -> TripPlanParser.parseCompletion(completion));
+        assertEquals("Missing required field 'latitude' in days[1].placesOfInterest[0]", e.getMessage());
+    }
+
+    @Test
+    void parseCompletion_NullIntroduction_IsReportedAsMissing() {
+        // Given
+        String broken = DAY_ONE.replace("\"Welcome to Canberra.\"", "null");
+
+        // When & Then
+        TripPlanParseException e = assertThrows(TripPlanParseException.class,
+                () -> TripPlanParser.parseCompletion(completion("{\"days\": [" + broken + "]}")));
+        assertEquals("Missing required field 'introduction' in days[0]", e.getMessage());
+    }
+
+    @Test
+    void parseCompletion_MissingDays() {
+        // When & Then
+        TripPlanParseException e = assertThrows(TripPlanParseException.class,
+                () -> TripPlanParser.parseCompletion(completion("{\"itinerary\": []}")));
+        assertEquals("Missing required field 'days' in trip plan", e.getMessage());
+    }
+
+    @Test
+    void parseCompletion_NoChoices() {
+        // When & Then
+        assertThrows(TripPlanParseException.class,
+                () -> TripPlanParser.parseCompletion("{\"id\": \"chatcmpl-1\", \"choices\": []}"));
+        assertThrows(TripPlanParseException.class,
+                () -> TripPlanParser.parseCompletion("{\"id\": \"chatcmpl-1\"}"));
+    }
+
+    @Test
+    void extractUsage_ReadsTokenCounts() throws Exception {
+        // When
+        Optional<TokenUsage> usage = TripPlanParser.extractUsage(
+                "{\"id\": \"chatcmpl-1\", \"choices\": [{\"message\": {\"content\": \"{}\"}}], "
+                        + "\"usage\": {\"prompt_tokens\": 312, \"completion_tokens\": 1480, \"total_tokens\": 1792, "
+                        + "\"completion_tokens_details\": {\"reasoning_tokens\": 0}}}");
+
+        // Then
+        assertEquals(Optional.of(new TokenUsage(312, 1480)), usage);
+        assertTrue(TripPlanParser.extractUsage("{\"id\": \"chatcmpl-1\", \"choices\": []}").isEmpty());
+    }
+
+    @Test
+    void parseSkeleton_ReadsRouteWithoutDetails() throws Exception {
+        // Given
+        String skeleton = "{\"days\": [{\"day\": 1, \"startLocation\": {\"name\": \"Sydney\", \"latitude\": -33.8688, \"longitude\": 151.2093}, "
+                + "\"finishLocation\": {\"name\": \"Canberra\", \"latitude\": -35.2809, \"longitude\": 149.1300}}]}";
+
+        // When
+        List<DayPlan> days = TripPlanParser.parseSkeleton(skeleton);
+
+        // Then
+        assertEquals(1, days.size());
+        assertEquals("Canberra", days.get(0).getFinishLocation().getName());
+        assertNull(days.get(0).getIntroduction());
+        TripPlanParseException e = assertThrows(TripPlanParseException.class,
+                () -> TripPlanParser.parseSkeleton("{\"days\": [{\"day\": 1}]}"));
+        assertEquals("Missing required field 'startLocation' in days[0]", e.getMessage());
+    }
+
+    @Test
+    void parseDayDetails_RequiresIntroductionAndPlaces() throws Exception {
+        // When
+        DayPlan day = TripPlanParser.parseDayDetails("{\"introduction\": \"Welcome.\", \"placesOfInterest\": []}");
+
+        // Then
+        assertEquals("Welcome.", day.getIntroduction());
+        assertTrue(day.getPlacesOfInterest().isEmpty());
+        TripPlanParseException e = assertThrows(TripPlanParseException.class,
+                () -> TripPlanParser.parseDayDetails("{\"introduction\": \"Welcome.\"}"));
+        assertEquals("Missing required field 'placesOfInterest' in day details", e.getMessage());
+    }
+
+    private static String completion(String content) {
+        try {
+            return TripPlanParser.MAPPER.writeValueAsString(Map.of(
+                    "id", "chatcmpl-test",
+                    "choices", List.of(Map.of(
+                            "index", 0,
+                            "message", Map.of("role", "assistant", "content", content),
+                            "finish_reason", "stop")),
+                    "usage", Map.of("prompt_tokens", 250, "completion_tokens", 900)));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
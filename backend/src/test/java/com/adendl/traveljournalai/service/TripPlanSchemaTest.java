@@ -0,0 +1,106 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripPlanSchemaTest {
+
+    @Test
+    void tripPlan_MapsDayPlanFieldsToWireNames() {
+        // When
+        Map<String, Object> day = items(TripPlanSchema.TRIP_PLAN);
+
+        // Then
+        assertEquals(List.of("day", "startLocation", "finishLocation", "introduction", "placesOfInterest"),
+                List.copyOf(properties(day).keySet()));
+        assertEquals("integer", properties(day).get("day").get("type"));
+        assertEquals(List.of("name", "latitude", "longitude"), List.copyOf(properties(properties(day).get("startLocation")).keySet()));
+        assertEquals(List.of("name", "description", "latitude", "longitude"),
+                List.copyOf(properties(items(properties(day).get("placesOfInterest"))).keySet()));
+    }
+
+    @Test
+    void tripPlan_LeavesOutTheSpatialColumns() {
+        // When
+        Map<String, Object> day = items(TripPlanSchema.TRIP_PLAN);
+        Map<String, Object> place = items(properties(day).get("placesOfInterest"));
+
+        // Then
+        assertFalse(properties(day).containsKey("route"));
+        assertFalse(properties(place).containsKey("location"));
+        assertEquals(List.of("introduction", "placesOfInterest"), List.copyOf(properties(TripPlanSchema.DAY_DETAILS).keySet()));
+        assertEquals(List.of("name", "description", "latitude", "longitude"), List.copyOf(properties(place).keySet()));
+    }
+
+    @Test
+    void tripPlan_IsStrict() {
+        // When
+        Map<String, Object> day = items(TripPlanSchema.TRIP_PLAN);
+        Map<String, Object> place = items(properties(day).get("placesOfInterest"));
+
+        // Then
+        for (Map<String, Object> object : List.of(TripPlanSchema.TRIP_PLAN, day, place, properties(day).get("finishLocation"))) {
+            assertEquals(false, object.get("additionalProperties"));
+            assertEquals(List.copyOf(properties(object).keySet()), object.get("required"));
+        }
+    }
+
+    @Test
+    void skeletonAndDayDetails_SplitTheDayFields() {
+        // Then
+        assertEquals(List.of("day", "startLocation", "finishLocation"),
+                List.copyOf(properties(items(TripPlanSchema.SKELETON)).keySet()));
+        assertEquals(List.of("introduction", "placesOfInterest"), List.copyOf(properties(TripPlanSchema.DAY_DETAILS).keySet()));
+    }
+
+    @Test
+    void responseFormat_EnforcesSchema() {
+        // When
+        Map<String, Object> format = TripPlanSchema.responseFormat("trip_plan", TripPlanSchema.TRIP_PLAN);
+
+        // Then
+        assertEquals("json_schema", format.get("type"));
+        Map<?, ?> jsonSchema = (Map<?, ?>) format.get("json_schema");
+        assertEquals("trip_plan", jsonSchema.get("name"));
+        assertEquals(true, jsonSchema.get("strict"));
+        assertSame(TripPlanSchema.TRIP_PLAN, jsonSchema.get("schema"));
+    }
+
+    @Test
+    void tripPlan_AcceptsWhatTheParserReads() throws Exception {
+        // Given
+        Trip trip = new Trip();
+        trip.setFromCity("Sydney");
+        trip.setToCity("Melbourne");
+        trip.setDays(2);
+        trip.setInterests(List.of("Food"));
+        String content = new StubTripPlanGenerator(0, 0, 2, 10).synthesize(trip, new Random(1));
+
+        // When
+        TripPlan tripPlan = TripPlanParser.parseContent(content);
+
+        // Then
+        Map<String, Object> schemaDay = items(TripPlanSchema.TRIP_PLAN);
+        Map<?, ?> contentDay = (Map<?, ?>) ((List<?>) TripPlanParser.MAPPER.readValue(content, Map.class).get("days")).get(0);
+        assertEquals(properties(schemaDay).keySet(), contentDay.keySet());
+        assertEquals(2, tripPlan.getDays().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Object>> properties(Map<String, Object> schema) {
+        return (Map<String, Map<String, Object>>) schema.get("properties");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> items(Map<String, Object> schema) {
+        Map<String, Object> array = schema.containsKey("items") ? schema : properties(schema).get("days");
+        return (Map<String, Object>) array.get("items");
+    }
+}
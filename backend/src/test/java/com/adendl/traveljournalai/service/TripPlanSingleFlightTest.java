@@ -0,0 +1,178 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripPlanSingleFlightTest {
+
+    private static final TripPlanCacheKey KEY = TripPlanCacheKey.of("Sydney", "Melbourne", true, 2, List.of("Food"));
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_ConcurrentCallers_ShareOneGeneration() throws Exception {
+        // Given
+        TripPlanSingleFlight singleFlight = new TripPlanSingleFlight(meterRegistry, 5);
+        AtomicInteger generations = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<TripPlan> leader = executor.submit(() -> singleFlight.execute(KEY, () -> {
+            generations.incrementAndGet();
+            leaderStarted.countDown();
+            await(release);
+            return TestUtils.createTestTripPlan();
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        Future<TripPlan> first = executor.submit(() -> singleFlight.execute(KEY, () -> {
+            generations.incrementAndGet();
+            return TestUtils.createTestTripPlan();
+        }));
+        Future<TripPlan> second = executor.submit(() -> singleFlight.execute(KEY, () -> {
+            generations.incrementAndGet();
+            return TestUtils.createTestTripPlan();
+        }));
+        awaitFollowers(2);
+        release.countDown();
+
+        // Then
+        TripPlan leaderPlan = leader.get(5, TimeUnit.SECONDS);
+        TripPlan firstPlan = first.get(5, TimeUnit.SECONDS);
+        TripPlan secondPlan = second.get(5, TimeUnit.SECONDS);
+        assertEquals(1, generations.get());
+        assertNotSame(leaderPlan, firstPlan);
+        assertNotSame(firstPlan, secondPlan);
+        assertNotSame(firstPlan.getDays().get(0), secondPlan.getDays().get(0));
+        assertEquals(leaderPlan.getDays().size(), secondPlan.getDays().size());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_LeaderFailure_PropagatesToFollowers() throws Exception {
+        // Given
+        TripPlanSingleFlight singleFlight = new TripPlanSingleFlight(meterRegistry, 5);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<TripPlan> leader = executor.submit(() -> singleFlight.execute(KEY, () -> {
+            leaderStarted.countDown();
+            await(release);
+            throw new RuntimeException("OpenAI API call failed");
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        Future<TripPlan> follower = executor.submit(() -> singleFlight.execute(KEY, TestUtils::createTestTripPlan));
+        awaitFollowers(1);
+
+        // When
+        release.countDown();
+
+        // Then
+        Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertEquals("OpenAI API call failed", leaderError.getCause().getMessage());
+        assertEquals("OpenAI API call failed", followerError.getCause().getMessage());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_StalledLeader_FollowerTimesOut() throws Exception {
+        // Given
+        TripPlanSingleFlight singleFlight = new TripPlanSingleFlight(meterRegistry, 1);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.submit(() -> singleFlight.execute(KEY, () -> {
+            leaderStarted.countDown();
+            await(release);
+            return TestUtils.createTestTripPlan();
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> singleFlight.execute(KEY, TestUtils::createTestTripPlan));
+
+        // Then
+        assertTrue(exception.getMessage().startsWith("Timed out waiting for an in-flight trip plan generation"));
+        assertEquals(0, singleFlight.inFlightCount());
+        assertEquals(1.0, meterRegistry.counter("trip.plan.singleflight.calls", "role", "follower-timeout").count());
+
+        // A later caller no longer queues behind the stalled leader
+        assertNotNull(singleFlight.execute(KEY, TestUtils::createTestTripPlan));
+        release.countDown();
+    }
+
+    @Test
+    void execute_AbandonedLeader_FollowerTakesOver() throws Exception {
+        // Given
+        TripPlanSingleFlight singleFlight = new TripPlanSingleFlight(meterRegistry, 5);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        AtomicInteger generations = new AtomicInteger();
+
+        Future<TripPlan> leader = executor.submit(() -> singleFlight.execute(KEY, () -> {
+            generations.incrementAndGet();
+            leaderStarted.countDown();
+            await(new CountDownLatch(1));
+            return TestUtils.createTestTripPlan();
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        Future<TripPlan> follower = executor.submit(() -> singleFlight.execute(KEY, () -> {
+            generations.incrementAndGet();
+            return TestUtils.createTestTripPlan();
+        }));
+        awaitFollowers(1);
+
+        // When
+        leader.cancel(true);
+
+        // Then
+        assertNotNull(follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, generations.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    private void awaitFollowers(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.counter("trip.plan.singleflight.calls", "role", "follower").count() < expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Generation interrupted", e);
+        }
+    }
+}
@@ -2,8 +2,9 @@ package com.adendl.traveljournalai.service;
 
 import com.adendl.traveljournalai.config.JwtConfig;
 import com.adendl.traveljournalai.model.*;
-import com.adendl.traveljournalai.repository.TripPlanRepository;
+import com.adendl.traveljournalai.repository.TripInterest;
 import com.adendl.traveljournalai.repository.TripRepository;
+import com.adendl.traveljournalai.repository.TripSummaryRow;
 import com.adendl.traveljournalai.repository.UserRepository;
 import com.adendl.traveljournalai.utils.LoggingUtils;
 import com.adendl.traveljournalai.utils.TestUtils;
@@ -12,22 +13,26 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,21 +45,42 @@ class TripServiceTest {
     @Mock
     private TripRepository tripRepository;
 
-    @Mock
-    private TripPlanRepository tripPlanRepository;
-
     @Mock
     private UserRepository userRepository;
 
     @Mock
-    private RestTemplate restTemplate;
+    private LlmHttpClient llmHttpClient;
 
     @Mock
     private JwtConfig jwtConfig;
 
+    @Mock
+    private TripPlanCache tripPlanCache;
+
+    @Mock
+    private ParallelTripPlanGenerator parallelTripPlanGenerator;
+
+    @Spy
+    private TripPlanSingleFlight tripPlanSingleFlight = new TripPlanSingleFlight(new SimpleMeterRegistry(), 5);
+
+    @Spy
+    private TripGenerationCircuitBreaker tripGenerationCircuitBreaker =
+            new TripGenerationCircuitBreaker(new SimpleMeterRegistry(), true, 0.5, 60000, 10, 2, 30000, 1, System::nanoTime);
+
+    @Spy
+    private GeometryService geometryService = new GeometryService();
+
+    @Spy
+    private Gazetteer gazetteer = TestUtils.createTestGazetteer();
+
+    @Mock
+    private PlaceIndex placeIndex;
+
     @InjectMocks
     private TripService tripService;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private User testUser;
     private Trip testTrip;
     private TripPlan testTripPlan;
@@ -67,8 +93,8 @@ class TripServiceTest {
         testTrip.setUser(testUser); // Ensure trip is owned by testUser
         testTripPlan = TestUtils.createTestTripPlan();
         
-        // Set private fields using reflection
-        ReflectionTestUtils.setField(tripService, "openAiApiKey", "test-api-key");
+        // Generate through the OpenAI implementation so the mocked HTTP client is exercised
+        ReflectionTestUtils.setField(tripService, "tripPlanGenerator", openAiGenerator(false));
     }
 
     @Test
@@ -90,17 +116,11 @@ class TripServiceTest {
             savedTrip.setTripId(1L); // Set the ID that would be generated
             return savedTrip;
         });
-        when(tripPlanRepository.save(any(TripPlan.class))).thenAnswer(invocation -> {
-            TripPlan savedPlan = invocation.getArgument(0);
-            savedPlan.setId(1L); // Set the ID that would be generated
-            return savedPlan;
-        });
 
         // Mock OpenAI API response
         String mockOpenAiResponse = createMockOpenAiResponse();
-        ResponseEntity<String> mockResponseEntity = new ResponseEntity<>(mockOpenAiResponse, HttpStatus.OK);
-        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
-                .thenReturn(mockResponseEntity);
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
+                .thenReturn(mockOpenAiResponse);
 
         // When
         Trip result = tripService.createTrip(jwtToken, fromCity, toCity, roundtrip, days, interests, distanceKm);
@@ -113,11 +133,230 @@ class TripServiceTest {
         assertEquals(roundtrip, result.isRoundtrip());
         assertEquals(days, result.getDays());
         assertEquals(interests, result.getInterests());
-        assertEquals(distanceKm, result.getDistanceKm());
+        // Computed from the plan's coordinates rather than taken from the request or the model
+        assertEquals(713.4, result.getDistanceKm());
+
+        // The plan cascades from the trip, so the whole graph is one save after generation
+        verify(tripRepository).save(any(Trip.class));
+        assertEquals(1, result.getTripPlans().size());
+        verify(llmHttpClient).postJson(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void createTrip_CachedPlan_SkipsOpenAi() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.save(any(Trip.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(tripPlanCache.get(TripPlanCacheKey.of("sydney", "melbourne", true, 5, List.of("Food"))))
+                .thenReturn(Optional.of(TripPlans.copyOf(testTripPlan)));
+
+        // When
+        Trip result = tripService.createTrip(jwtToken, " Sydney", "Melbourne ", true, 5, List.of("food"), 800.0);
+
+        // Then
+        assertNotNull(result);
+        assertEquals(1, result.getTripPlans().size());
+        verify(llmHttpClient, never()).postJson(anyString(), anyString(), anyString());
+        verify(tripPlanCache, never()).put(any(), any());
+    }
+
+    @Test
+    void createTrip_LongTrip_UsesParallelGeneration() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(tripService, "tripPlanGenerator", openAiGenerator(true));
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.save(any(Trip.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(parallelTripPlanGenerator.generate(any(Trip.class))).thenReturn(testTripPlan);
+
+        // When
+        Trip result = tripService.createTrip(jwtToken, "Sydney", "Perth", false, 14, List.of("Beaches"), 4000.0);
+
+        // Then
+        assertEquals(1, result.getTripPlans().size());
+        verify(parallelTripPlanGenerator).generate(any(Trip.class));
+        verify(llmHttpClient, never()).postJson(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void createTrip_CircuitOpen_ServesClosestCachedPlan() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.save(any(Trip.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
+                .thenThrow(new LlmHttpException(503, "OpenAI API call failed with status 503"));
+        when(tripPlanCache.findClosest(any(TripPlanCacheKey.class)))
+                .thenReturn(Optional.of(TripPlans.copyOf(testTripPlan)));
+        for (int i = 0; i < 2; i++) {
+            assertThrows(LlmHttpException.class, () ->
+                    tripService.createTrip(jwtToken, "Sydney", "Melbourne", true, 3, List.of("Food"), 800.0));
+        }
+
+        // When
+        Trip result = tripService.createTrip(jwtToken, "Sydney", "Melbourne", true, 3, List.of("Food"), 800.0);
+
+        // Then
+        assertEquals(TripGenerationCircuitBreaker.State.OPEN, tripGenerationCircuitBreaker.getState());
+        assertEquals(1, result.getTripPlans().size());
+        verify(llmHttpClient, times(2)).postJson(anyString(), anyString(), anyString());
+        verify(tripPlanCache).findClosest(TripPlanCacheKey.of("Sydney", "Melbourne", true, 3, List.of("Food")));
+    }
+
+    @Test
+    void createTrip_CircuitOpen_NoCachedPlan_Throws() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
+                .thenThrow(new LlmHttpException(503, "OpenAI API call failed with status 503"));
+        when(tripPlanCache.findClosest(any(TripPlanCacheKey.class))).thenReturn(Optional.empty());
+        for (int i = 0; i < 2; i++) {
+            assertThrows(LlmHttpException.class, () ->
+                    tripService.createTrip(jwtToken, "Sydney", "Melbourne", true, 3, List.of("Food"), 800.0));
+        }
+
+        // When & Then
+        assertThrows(TripGenerationUnavailableException.class, () ->
+                tripService.createTrip(jwtToken, "Sydney", "Melbourne", true, 3, List.of("Food"), 800.0));
+        verify(llmHttpClient, times(2)).postJson(anyString(), anyString(), anyString());
+        verify(tripRepository, never()).save(any(Trip.class));
+    }
+
+    @Test
+    void createTrip_SizesMaxTokensFromTrip() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.save(any(Trip.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString())).thenReturn(createMockOpenAiResponse());
+
+        // When
+        tripService.createTrip(jwtToken, "Sydney", "Melbourne", false, 2, List.of("Food"), 800.0);
+
+        // Then
+        ArgumentCaptor<String> request = ArgumentCaptor.forClass(String.class);
+        verify(llmHttpClient).postJson(anyString(), anyString(), request.capture());
+        // 50 + 2 days * (400 + 30 per interest), with 50% headroom
+        assertEquals(1365, TripPlanParser.MAPPER.readTree(request.getValue()).path("max_tokens").asInt());
+    }
+
+    @Test
+    void createTrip_SendsStaticPrefixAndJsonSchema() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.save(any(Trip.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString())).thenReturn(createMockOpenAiResponse());
+
+        // When
+        tripService.createTrip(jwtToken, "Sydney", "Melbourne", false, 2, List.of("Food"), 800.0);
+        tripService.createTrip(jwtToken, "Perth", "Broome", true, 3, List.of("Beaches", "Wildlife"), 0.0);
+
+        // Then
+        ArgumentCaptor<String> request = ArgumentCaptor.forClass(String.class);
+        verify(llmHttpClient, times(2)).postJson(anyString(), anyString(), request.capture());
+        JsonNode first = TripPlanParser.MAPPER.readTree(request.getAllValues().get(0));
+        JsonNode second = TripPlanParser.MAPPER.readTree(request.getAllValues().get(1));
+        assertEquals("system", first.path("messages").get(0).path("role").asText());
+        assertEquals(first.path("messages").get(0), second.path("messages").get(0));
+        assertEquals(first.path("response_format"), second.path("response_format"));
+        assertEquals("json_schema", first.path("response_format").path("type").asText());
+        assertEquals("Plan a one-way trip from Sydney to Melbourne over 2 days, with interests in Food. The whole route is about 800 km.",
+                first.path("messages").get(1).path("content").asText());
+        assertTrue(request.getAllValues().get(0).indexOf("\"messages\"") < request.getAllValues().get(0).indexOf("\"max_tokens\""));
+    }
+
+    @Test
+    void createTrip_TruncatedCompletion_ContinuesInsteadOfFailing() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.save(any(Trip.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        String content = TripPlanParser.extractContent(createMockOpenAiResponse());
+        String dayOne = content.substring("{\"days\": [".length(), content.length() - 2);
+        String truncated = TripPlanParser.MAPPER.writeValueAsString(Map.of("choices", List.of(Map.of(
+                "message", Map.of("content", "{\"days\": [" + dayOne + ", {\"day\": 2, \"startLoc"),
+                "finish_reason", "length"))));
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
+                .thenReturn(truncated)
+                .thenReturn(createMockOpenAiResponse());
+
+        // When
+        Trip result = tripService.createTrip(jwtToken, "Sydney", "Melbourne", false, 2, List.of("Food"), 800.0);
+
+        // Then
+        List<DayPlan> days = result.getTripPlans().get(0).getDays();
+        assertEquals(List.of(1, 2), days.stream().map(DayPlan::getDayNumber).toList());
+        verify(llmHttpClient, times(2)).postJson(anyString(), anyString(), anyString());
+        assertEquals(1.0, meterRegistry.counter("trip.generation.truncations", "outcome", "salvaged").count());
+    }
+
+    @Test
+    void createTrip_TooLongForOneCall_RejectedBeforeCallingOpenAi() {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () ->
+                tripService.createTrip(jwtToken, "Sydney", "Perth", false, 90, List.of("Beaches", "Food"), 4000.0));
+        verify(llmHttpClient, never()).postJson(anyString(), anyString(), anyString());
+        verify(tripRepository, never()).save(any(Trip.class));
+        assertEquals(TripGenerationCircuitBreaker.State.CLOSED, tripGenerationCircuitBreaker.getState());
+    }
+
+    @Test
+    void createTrip_UnknownCity_RejectedBeforeSaving() {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
 
-        verify(tripRepository, times(2)).save(any(Trip.class));
-        verify(tripPlanRepository).save(any(TripPlan.class));
-        verify(restTemplate).postForEntity(anyString(), any(), eq(String.class));
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                tripService.createTrip(jwtToken, "Sydney", "Atlantis", true, 5, List.of("Food"), 800.0));
+        assertEquals("Unknown city: Atlantis", exception.getMessage());
+        verify(tripRepository, never()).save(any(Trip.class));
+        verify(llmHttpClient, never()).postJson(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void createTrip_StoresCanonicalCityNames() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.save(any(Trip.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(tripPlanCache.get(TripPlanCacheKey.of("wagga wagga", "portland, vic, au", false, 2, List.of("Food"))))
+                .thenReturn(Optional.of(TripPlans.copyOf(testTripPlan)));
+
+        // When
+        Trip result = tripService.createTrip(jwtToken, "wagga", "Portland, VIC", false, 2, List.of("Food"), 0);
+
+        // Then
+        assertEquals("Wagga Wagga", result.getFromCity());
+        assertEquals("Portland, VIC, AU", result.getToCity());
+        verify(llmHttpClient, never()).postJson(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -134,7 +373,7 @@ class TripServiceTest {
         });
 
         verify(tripRepository, never()).save(any(Trip.class));
-        verify(restTemplate, never()).postForEntity(anyString(), any(), eq(String.class));
+        verify(llmHttpClient, never()).postJson(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -153,7 +392,7 @@ class TripServiceTest {
         });
 
         verify(tripRepository, never()).save(any(Trip.class));
-        verify(restTemplate, never()).postForEntity(anyString(), any(), eq(String.class));
+        verify(llmHttpClient, never()).postJson(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -171,9 +410,8 @@ class TripServiceTest {
         });
 
         // Mock OpenAI API failure
-        ResponseEntity<String> mockResponseEntity = new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
-                .thenReturn(mockResponseEntity);
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
+                .thenThrow(new LlmHttpException(500, "OpenAI API call failed with status 500"));
 
         // When & Then
         assertThrows(RuntimeException.class, () -> {
@@ -181,7 +419,7 @@ class TripServiceTest {
                     Arrays.asList("Beaches"), 800.0);
         });
 
-        verify(restTemplate).postForEntity(anyString(), any(), eq(String.class));
+        verify(llmHttpClient).postJson(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -199,7 +437,7 @@ class TripServiceTest {
         });
 
         // Mock OpenAI API exception
-        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
                 .thenThrow(new RuntimeException("Network error"));
 
         // When & Then
@@ -208,14 +446,14 @@ class TripServiceTest {
                     Arrays.asList("Beaches"), 800.0);
         });
 
-        verify(restTemplate).postForEntity(anyString(), any(), eq(String.class));
+        verify(llmHttpClient).postJson(anyString(), anyString(), anyString());
     }
 
     @Test
     void getTripsByUser_Success() {
         // Given
         List<Trip> expectedTrips = Arrays.asList(testTrip);
-        when(tripRepository.findByUser(testUser)).thenReturn(expectedTrips);
+        when(tripRepository.findByUserWithPlans(testUser)).thenReturn(expectedTrips);
 
         // When
         List<Trip> result = tripService.getTripsByUser(testUser);
@@ -231,7 +469,7 @@ class TripServiceTest {
     @Test
     void getTripsByUser_EmptyList() {
         // Given
-        when(tripRepository.findByUser(testUser)).thenReturn(Arrays.asList());
+        when(tripRepository.findByUserWithPlans(testUser)).thenReturn(Arrays.asList());
 
         // When
         List<Trip> result = tripService.getTripsByUser(testUser);
@@ -260,6 +498,7 @@ class TripServiceTest {
         // Then
         assertTrue(result);
         verify(tripRepository).delete(testTrip);
+        verify(placeIndex).removeTrip(tripId);
     }
 
     @Test
@@ -307,6 +546,192 @@ class TripServiceTest {
         verify(tripRepository, never()).delete(any(Trip.class));
     }
 
+    @Test
+    void getTripDays_ReturnsDaysInOrder() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        testTripPlan.setDays(new ArrayList<>(List.of(TestUtils.createTestDayPlan(2), TestUtils.createTestDayPlan(1))));
+        testTrip.setTripPlans(List.of(testTripPlan));
+
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.findByIdWithPlans(1L)).thenReturn(Optional.of(testTrip));
+
+        // When
+        List<DayPlan> days = tripService.getTripDays(jwtToken, 1L);
+
+        // Then
+        assertEquals(List.of(1, 2), days.stream().map(DayPlan::getDayNumber).toList());
+    }
+
+    @Test
+    void getTripDays_UnauthorizedUser() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        User differentUser = TestUtils.createTestUser();
+        differentUser.setId(2L);
+        differentUser.setUsername("differentuser");
+        testTrip.setUser(differentUser);
+
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.findByIdWithPlans(1L)).thenReturn(Optional.of(testTrip));
+
+        // When & Then
+        assertThrows(TripAccessDeniedException.class, () -> tripService.getTripDays(jwtToken, 1L));
+    }
+
+    @Test
+    void getTripSummaries_AttachesInterestsToTheirTrips() {
+        // Given
+        when(tripRepository.findSummariesByUser(eq(testUser), any(Pageable.class))).thenReturn(List.of(
+                summaryRow(2L, "Perth", "Margaret River"), summaryRow(1L, "Sydney", "Melbourne")));
+        when(tripRepository.findInterestsByTripIds(List.of(2L, 1L))).thenReturn(List.of(
+                interest(1L, "Beaches"), interest(2L, "Wine"), interest(1L, "Food")));
+
+        // When
+        TripSummaryPage result = tripService.getTripSummaries(testUser, null, 20);
+
+        // Then
+        assertEquals(List.of(2L, 1L), result.trips().stream().map(TripSummary::tripId).toList());
+        assertEquals(List.of("Wine"), result.trips().get(0).interests());
+        assertEquals(List.of("Beaches", "Food"), result.trips().get(1).interests());
+        assertEquals("Margaret River", result.trips().get(0).toCity());
+        assertNull(result.nextCursor());
+        verify(tripRepository).findSummariesByUser(testUser, PageRequest.of(0, 21));
+        verify(tripRepository, never()).findByUserWithPlans(any());
+    }
+
+    @Test
+    void getTripSummaries_NextCursorResumesAfterLastTrip() {
+        // Given: one row more than the page
+        when(tripRepository.findSummariesByUser(eq(testUser), any(Pageable.class))).thenReturn(List.of(
+                summaryRow(3L, "Perth", "Albany"), summaryRow(2L, "Perth", "Margaret River"), summaryRow(1L, "Sydney", "Melbourne")));
+        when(tripRepository.findInterestsByTripIds(List.of(3L, 2L))).thenReturn(List.of());
+        TripSummaryPage first = tripService.getTripSummaries(testUser, null, 2);
+        when(tripRepository.findSummariesByUserAfter(eq(testUser), eq("2025-01-02T00:00:00Z"), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(summaryRow(1L, "Sydney", "Melbourne")));
+        when(tripRepository.findInterestsByTripIds(List.of(1L))).thenReturn(List.of(interest(1L, "Beaches")));
+
+        // When
+        TripSummaryPage second = tripService.getTripSummaries(testUser, first.nextCursor(), 2);
+
+        // Then
+        assertEquals(List.of(3L, 2L), first.trips().stream().map(TripSummary::tripId).toList());
+        assertNotNull(first.nextCursor());
+        assertFalse(first.nextCursor().contains("2025"), "the cursor should be opaque");
+        assertEquals(List.of(1L), second.trips().stream().map(TripSummary::tripId).toList());
+        assertEquals(List.of("Beaches"), second.trips().get(0).interests());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void getTripSummaries_EmptyPageSkipsInterests() {
+        // Given
+        when(tripRepository.findSummariesByUser(eq(testUser), any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        TripSummaryPage result = tripService.getTripSummaries(testUser, null, 20);
+
+        // Then
+        assertTrue(result.trips().isEmpty());
+        assertNull(result.nextCursor());
+        verify(tripRepository, never()).findInterestsByTripIds(any());
+    }
+
+    @Test
+    void getTripSummaries_InvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> tripService.getTripSummaries(testUser, null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> tripService.getTripSummaries(testUser, null, TripService.MAX_SUMMARY_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> tripService.getTripSummaries(testUser, "not a cursor!", 20));
+        assertThrows(IllegalArgumentException.class, () -> tripService.getTripSummaries(testUser, "bm9zZXBhcmF0b3I", 20));
+        verifyNoInteractions(tripRepository);
+    }
+
+    @Test
+    void getTrip_ReturnsWholePlanWithoutBackReferences() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        testTripPlan.setTrip(testTrip);
+        testTripPlan.getDays().forEach(day -> day.setTripPlan(testTripPlan));
+        testTrip.setTripPlans(new ArrayList<>(List.of(testTripPlan)));
+
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.findByIdWithPlans(1L)).thenReturn(Optional.of(testTrip));
+
+        // When
+        Trip result = tripService.getTrip(jwtToken, 1L);
+
+        // Then
+        assertSame(testTrip, result);
+        assertNull(result.getTripPlans().get(0).getTrip());
+        assertTrue(result.getTripPlans().get(0).getDays().stream().allMatch(day -> day.getTripPlan() == null));
+        assertEquals(2, result.getTripPlans().get(0).getDays().get(0).getPlacesOfInterest().size());
+    }
+
+    @Test
+    void getTrip_UnauthorizedUser() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        User differentUser = TestUtils.createTestUser();
+        differentUser.setId(2L);
+        differentUser.setUsername("differentuser");
+        testTrip.setUser(differentUser);
+
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.findByIdWithPlans(1L)).thenReturn(Optional.of(testTrip));
+
+        // When & Then
+        TripAccessDeniedException exception = assertThrows(TripAccessDeniedException.class, () -> tripService.getTrip(jwtToken, 1L));
+        assertEquals("Unauthorized to read this trip", exception.getMessage());
+    }
+
+    @Test
+    void getTrip_NotFound() throws Exception {
+        // Given
+        String jwtToken = TestUtils.createTestJwtToken(TestUtils.TEST_USERNAME);
+        when(jwtConfig.getSecretKey()).thenReturn(TestUtils.TEST_JWT_SECRET);
+        when(userRepository.findByUsername(TestUtils.TEST_USERNAME))
+                .thenReturn(Optional.of(testUser));
+        when(tripRepository.findByIdWithPlans(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(TripNotFoundException.class, () -> tripService.getTrip(jwtToken, 99L));
+    }
+
+    private static TripSummaryRow summaryRow(Long tripId, String fromCity, String toCity) {
+        return new TripSummaryRow() {
+            public Long getTripId() { return tripId; }
+            public String getFromCity() { return fromCity; }
+            public String getToCity() { return toCity; }
+            public boolean isRoundtrip() { return false; }
+            public int getDays() { return 3; }
+            public double getDistanceKm() { return 280.0; }
+            public String getCreatedAt() { return "2025-01-0" + tripId + "T00:00:00Z"; }
+        };
+    }
+
+    private static TripInterest interest(Long tripId, String interest) {
+        return new TripInterest() {
+            public Long getTripId() { return tripId; }
+            public String getInterest() { return interest; }
+        };
+    }
+
+    private OpenAiTripPlanGenerator openAiGenerator(boolean parallelGenerationEnabled) {
+        TokenBudget tokenBudget = TestUtils.createTestTokenBudget();
+        TruncatedTripPlanRecovery recovery = new TruncatedTripPlanRecovery(llmHttpClient, tokenBudget, meterRegistry, "test-api-key", 2);
+        return new OpenAiTripPlanGenerator(llmHttpClient, tokenBudget, parallelTripPlanGenerator, recovery,
+                "test-api-key", parallelGenerationEnabled, 4, "");
+    }
+
     private String createMockOpenAiResponse() {
         return """
                 {
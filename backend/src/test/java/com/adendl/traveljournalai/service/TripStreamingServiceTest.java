@@ -0,0 +1,322 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TripStreamingServiceTest {
+
+    @Mock
+    private TripService tripService;
+
+    @Mock
+    private TripPlanCache tripPlanCache;
+
+    @Spy
+    private StubTripPlanGenerator tripPlanGenerator = new StubTripPlanGenerator(0, 0, 2, 20);
+
+    @Spy
+    private TripPlanSingleFlight tripPlanSingleFlight = new TripPlanSingleFlight(new SimpleMeterRegistry(), 5);
+
+    // A single failure opens the circuit
+    @Spy
+    private TripGenerationCircuitBreaker tripGenerationCircuitBreaker =
+            new TripGenerationCircuitBreaker(new SimpleMeterRegistry(), true, 0.5, 60000, 1, 1, 30000, 1, System::nanoTime);
+
+    @Spy
+    private GeometryService geometryService = new GeometryService();
+
+    @Mock
+    private SseEmitter emitter;
+
+    @InjectMocks
+    private TripStreamingService tripStreamingService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Trip trip;
+
+    @BeforeEach
+    void setUp() {
+        trip = TestUtils.createTestTrip();
+        trip.setRoundtrip(false);
+        trip.setDays(3);
+    }
+
+    @Test
+    void generate_SendsEachDayFromTheConfiguredGenerator() throws Exception {
+        // Given
+        when(tripPlanCache.get(any())).thenReturn(Optional.empty());
+        when(tripService.persistGeneratedTrip(same(trip), any(TripPlan.class))).thenAnswer(invocation -> savedTrip());
+
+        // When
+        tripStreamingService.generate(emitter, trip);
+
+        // Then
+        verify(tripPlanGenerator).generate(same(trip), any());
+        assertEquals(List.of("day", "day", "day", "complete"), eventNames(sentEvents()));
+        verify(tripPlanCache).put(eq(TripPlanCacheKey.of(trip)), any(TripPlan.class));
+        verify(emitter).complete();
+    }
+
+    @Test
+    void generate_OpenAi_SendsDaysAsTheyStreamIn() throws Exception {
+        // Given
+        LlmHttpClient llmHttpClient = useOpenAiGenerator();
+        String content = tripPlanGenerator.synthesize(trip, new Random(7));
+        when(llmHttpClient.postJsonForStream(anyString(), eq("test-api-key"), contains("\"include_usage\":true")))
+                .thenReturn(sseStream(content, "stop", true));
+        when(tripPlanCache.get(any())).thenReturn(Optional.empty());
+        ArgumentCaptor<TripPlan> persisted = ArgumentCaptor.forClass(TripPlan.class);
+        when(tripService.persistGeneratedTrip(same(trip), persisted.capture())).thenAnswer(invocation -> savedTrip());
+
+        // When
+        tripStreamingService.generate(emitter, trip);
+
+        // Then
+        assertEquals(List.of("day", "day", "day", "complete"), eventNames(sentEvents()));
+        List<DayPlan> days = persisted.getValue().getDays();
+        assertEquals(3, days.size());
+        assertSame(persisted.getValue(), days.get(2).getTripPlan());
+        assertSame(days.get(2), days.get(2).getPlacesOfInterest().get(0).getDayPlan());
+        assertEquals(900, meterRegistry.get("llm.tokens").tag("call", "trip").tag("type", "completion").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("llm.tokens").tag("call", "trip").tag("type", "prompt").summary().count());
+    }
+
+    @Test
+    void generate_OpenAi_CutOffStream_ContinuesFromTheClosedDays() throws Exception {
+        // Given
+        LlmHttpClient llmHttpClient = useOpenAiGenerator();
+        String content = tripPlanGenerator.synthesize(trip, new Random(7));
+        // Two days close, the third is cut off
+        when(llmHttpClient.postJsonForStream(anyString(), eq("test-api-key"), anyString()))
+                .thenReturn(sseStream(content.substring(0, content.length() * 5 / 6), "length", true));
+        when(llmHttpClient.postJson(anyString(), eq("test-api-key"), contains("Continue the trip with only days 3 to 3")))
+                .thenReturn(completion(content));
+        when(tripPlanCache.get(any())).thenReturn(Optional.empty());
+        ArgumentCaptor<TripPlan> persisted = ArgumentCaptor.forClass(TripPlan.class);
+        when(tripService.persistGeneratedTrip(same(trip), persisted.capture())).thenAnswer(invocation -> savedTrip());
+
+        // When
+        tripStreamingService.generate(emitter, trip);
+
+        // Then
+        assertEquals(List.of("day", "day", "day", "complete"), eventNames(sentEvents()));
+        List<DayPlan> days = persisted.getValue().getDays();
+        assertEquals(3, days.size());
+        assertEquals(3, days.get(2).getDayNumber());
+        assertSame(persisted.getValue(), days.get(0).getTripPlan());
+        verify(tripPlanCache).put(TripPlanCacheKey.of(trip), persisted.getValue());
+        assertEquals(1.0, meterRegistry.counter("trip.generation.truncations", "outcome", "salvaged").count());
+    }
+
+    @Test
+    void generate_OpenAi_ConnectionResetMidStream_ContinuesFromTheClosedDays() throws Exception {
+        // Given
+        LlmHttpClient llmHttpClient = useOpenAiGenerator();
+        String content = tripPlanGenerator.synthesize(trip, new Random(7));
+        InputStream reset = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+        when(llmHttpClient.postJsonForStream(anyString(), eq("test-api-key"), anyString()))
+                .thenReturn(new SequenceInputStream(sseStream(content.substring(0, content.length() * 5 / 6), null, false), reset));
+        when(llmHttpClient.postJson(anyString(), eq("test-api-key"), contains("Continue the trip with only days 3 to 3")))
+                .thenReturn(completion(content));
+        when(tripPlanCache.get(any())).thenReturn(Optional.empty());
+        when(tripService.persistGeneratedTrip(same(trip), any(TripPlan.class))).thenAnswer(invocation -> savedTrip());
+
+        // When
+        tripStreamingService.generate(emitter, trip);
+
+        // Then
+        assertEquals(List.of("day", "day", "day", "complete"), eventNames(sentEvents()));
+        verify(tripPlanCache).put(eq(TripPlanCacheKey.of(trip)), any(TripPlan.class));
+    }
+
+    @Test
+    void generate_OpenAi_DroppedStreamThatCannotBeContinued_IsNeitherCachedNorSaved() throws Exception {
+        // Given
+        LlmHttpClient llmHttpClient = useOpenAiGenerator();
+        String content = tripPlanGenerator.synthesize(trip, new Random(7));
+        // No finish reason and no [DONE]: the connection dropped during the third day
+        when(llmHttpClient.postJsonForStream(anyString(), eq("test-api-key"), anyString()))
+                .thenReturn(sseStream(content.substring(0, content.length() * 5 / 6), null, false));
+        when(llmHttpClient.postJson(anyString(), eq("test-api-key"), anyString()))
+                .thenReturn(completion("{\"days\": ["));
+        when(tripPlanCache.get(any())).thenReturn(Optional.empty());
+
+        // When
+        tripStreamingService.generate(emitter, trip);
+
+        // Then
+        assertEquals(List.of("day", "day", "error"), eventNames(sentEvents()));
+        verify(tripPlanCache, never()).put(any(), any());
+        verify(tripService, never()).persistGeneratedTrip(any(), any());
+        assertEquals(1.0, meterRegistry.counter("trip.generation.truncations", "outcome", "failed").count());
+    }
+
+    @Test
+    void generate_CachedPlan_SkipsTheGenerator() throws Exception {
+        // Given
+        TripPlan cached = new StubTripPlanGenerator(0, 0, 2, 20).generate(trip);
+        when(tripPlanCache.get(TripPlanCacheKey.of(trip))).thenReturn(Optional.of(cached));
+        when(tripService.persistGeneratedTrip(trip, cached)).thenAnswer(invocation -> savedTrip());
+
+        // When
+        tripStreamingService.generate(emitter, trip);
+
+        // Then
+        verify(tripPlanGenerator, never()).generate(any(Trip.class), any());
+        assertEquals(List.of("day", "day", "day", "complete"), eventNames(sentEvents()));
+        assertSame(cached, cached.getDays().get(0).getTripPlan());
+    }
+
+    @Test
+    void generate_CircuitOpen_StreamsClosestCachedPlan() throws Exception {
+        // Given
+        TripPlan closest = new StubTripPlanGenerator(0, 0, 2, 20).generate(trip);
+        when(tripPlanCache.get(any())).thenReturn(Optional.empty());
+        doThrow(new TripGenerationUnavailableException("Circuit open", Duration.ofSeconds(30)))
+                .when(tripGenerationCircuitBreaker).execute(any());
+        when(tripPlanCache.findClosest(TripPlanCacheKey.of(trip))).thenReturn(Optional.of(closest));
+        when(tripService.persistGeneratedTrip(trip, closest)).thenAnswer(invocation -> savedTrip());
+
+        // When
+        tripStreamingService.generate(emitter, trip);
+
+        // Then
+        verify(tripPlanGenerator, never()).generate(any(Trip.class), any());
+        assertEquals(List.of("day", "day", "day", "complete"), eventNames(sentEvents()));
+    }
+
+    @Test
+    void generate_CircuitOpen_NoCachedPlan_SendsError() throws Exception {
+        // Given
+        when(tripPlanCache.get(any())).thenReturn(Optional.empty());
+        doThrow(new TripGenerationUnavailableException("Circuit open", Duration.ofSeconds(30)))
+                .when(tripGenerationCircuitBreaker).execute(any());
+        when(tripPlanCache.findClosest(any())).thenReturn(Optional.empty());
+
+        // When
+        tripStreamingService.generate(emitter, trip);
+
+        // Then
+        verify(tripService, never()).persistGeneratedTrip(any(), any());
+        assertEquals(List.of("error"), eventNames(sentEvents()));
+    }
+
+    @Test
+    void generate_ClientDisconnected_SavesPlanWithoutTrippingTheCircuit() throws Exception {
+        // Given
+        when(tripPlanCache.get(any())).thenReturn(Optional.empty());
+        doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        when(tripService.persistGeneratedTrip(same(trip), any(TripPlan.class))).thenAnswer(invocation -> savedTrip());
+
+        // When
+        tripStreamingService.generate(emitter, trip);
+
+        // Then
+        verify(tripPlanCache).put(eq(TripPlanCacheKey.of(trip)), any(TripPlan.class));
+        verify(tripService).persistGeneratedTrip(same(trip), any(TripPlan.class));
+        assertEquals(TripGenerationCircuitBreaker.State.CLOSED, tripGenerationCircuitBreaker.getState());
+    }
+
+    /**
+     * Streams with a real OpenAI generator over a mocked HTTP client.
+     * @return The mocked HTTP client
+     */
+    private LlmHttpClient useOpenAiGenerator() {
+        LlmHttpClient llmHttpClient = mock(LlmHttpClient.class);
+        TokenBudget tokenBudget = new TokenBudget(meterRegistry, 32768, 1047576, 1.5, 50, 400, 30);
+        OpenAiTripPlanGenerator openAiGenerator = new OpenAiTripPlanGenerator(llmHttpClient, tokenBudget,
+                mock(ParallelTripPlanGenerator.class),
+                new TruncatedTripPlanRecovery(llmHttpClient, tokenBudget, meterRegistry, "test-api-key", 2),
+                "test-api-key", false, 4, "");
+        ReflectionTestUtils.setField(tripStreamingService, "tripPlanGenerator", openAiGenerator);
+        return llmHttpClient;
+    }
+
+    private Trip savedTrip() {
+        trip.setTripId(42L);
+        return trip;
+    }
+
+    private List<SseEmitter.SseEventBuilder> sentEvents() throws Exception {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, atLeastOnce()).send(events.capture());
+        return events.getAllValues();
+    }
+
+    private static List<String> eventNames(List<SseEmitter.SseEventBuilder> events) {
+        List<String> names = new ArrayList<>();
+        for (SseEmitter.SseEventBuilder event : events) {
+            // The first part of a named event is "event:<name>\ndata:"
+            String head = event.build().iterator().next().getData().toString();
+            names.add(head.substring("event:".length(), head.indexOf('\n')));
+        }
+        return names;
+    }
+
+    /**
+     * The content as a streamed chat completion, in fragments that split days mid-object.
+     * @param finishReason Sent in a chunk without content, unless null; the usage chunk follows it
+     * @param done Whether the stream ends with its [DONE] marker
+     */
+    private static InputStream sseStream(String content, String finishReason, boolean done) throws Exception {
+        StringBuilder stream = new StringBuilder();
+        for (int i = 0; i < content.length(); i += 37) {
+            String delta = content.substring(i, Math.min(content.length(), i + 37));
+            stream.append(sseChunk(Map.of("choices", List.of(Map.of("delta", Map.of("content", delta))))));
+        }
+        if (finishReason != null) {
+            stream.append(sseChunk(Map.of("choices", List.of(Map.of("delta", Map.of(), "finish_reason", finishReason)))));
+        }
+        stream.append(sseChunk(Map.of("choices", List.of(),
+                "usage", Map.of("prompt_tokens", 120, "completion_tokens", 900, "total_tokens", 1020))));
+        if (done) {
+            stream.append("data: [DONE]\n\n");
+        }
+        return new ByteArrayInputStream(stream.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String completion(String content) throws Exception {
+        return TripPlanParser.MAPPER.writeValueAsString(Map.of("choices",
+                List.of(Map.of("message", Map.of("content", content), "finish_reason", "stop"))));
+    }
+
+    private static String sseChunk(Map<String, Object> chunk) throws Exception {
+        return "data: " + TripPlanParser.MAPPER.writeValueAsString(chunk) + "\n\n";
+    }
+}
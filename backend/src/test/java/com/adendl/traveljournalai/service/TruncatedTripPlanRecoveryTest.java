@@ -0,0 +1,173 @@
+package com.adendl.traveljournalai.service;
+
+import com.adendl.traveljournalai.model.DayPlan;
+import com.adendl.traveljournalai.model.Trip;
+import com.adendl.traveljournalai.model.TripPlan;
+import com.adendl.traveljournalai.utils.TestUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TruncatedTripPlanRecoveryTest {
+
+    private static final String PROMPT = "Plan a roundtrip from Sydney to Melbourne over 3 days, with interests in Beaches, Food, Culture.";
+
+    @Mock
+    private LlmHttpClient llmHttpClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TruncatedTripPlanRecovery recovery;
+    private Trip trip;
+
+    @BeforeEach
+    void setUp() {
+        recovery = new TruncatedTripPlanRecovery(llmHttpClient, TestUtils.createTestTokenBudget(), meterRegistry, "test-api-key", 2);
+        trip = TestUtils.createTestTrip();
+        trip.setDays(3);
+    }
+
+    @Test
+    void isTruncated_ReadsFinishReason() throws Exception {
+        // Then
+        assertTrue(TruncatedTripPlanRecovery.isTruncated(completion("{\"days\": [", "length")));
+        assertFalse(TruncatedTripPlanRecovery.isTruncated(completion("{\"days\": []}", "stop")));
+        assertFalse(TruncatedTripPlanRecovery.isTruncated("not json"));
+    }
+
+    @Test
+    void recover_ContinuesFromLastCompleteDay() throws Exception {
+        // Given
+        String truncated = completion("{\"days\": [" + day(1, "Sydney", "Canberra") + ", " + day(2, "Canberra", "Albury")
+                + ", {\"day\": 3, \"startLocation\": {\"name\": \"Alb", "length");
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
+                .thenReturn(completion("{\"days\": [" + day(1, "Albury", "Melbourne") + "]}", "stop"));
+
+        // When
+        TripPlan tripPlan = recovery.recover(trip, PROMPT, truncated, new TripPlanParseException("Completion was cut off at max_tokens"));
+
+        // Then
+        List<DayPlan> days = tripPlan.getDays();
+        assertEquals(3, days.size());
+        assertEquals(List.of(1, 2, 3), days.stream().map(DayPlan::getDayNumber).toList());
+        assertEquals("Melbourne", days.get(2).getFinishLocation().getName());
+        assertSame(tripPlan, days.get(2).getTripPlan());
+        assertSame(days.get(2), days.get(2).getPlacesOfInterest().get(0).getDayPlan());
+
+        JsonNode request = request(1).get(0);
+        String continuation = request.path("messages").get(1).path("content").asText();
+        assertTrue(continuation.startsWith(PROMPT));
+        assertTrue(continuation.contains("Days 1 to 2 are already planned, and day 2 finishes at Albury"), continuation);
+        assertTrue(continuation.contains("only days 3 to 3"), continuation);
+        // Only the missing day is paid for: (50 + 1 day * (400 + 30 * 3 interests)) * 1.5
+        assertEquals(810, request.path("max_tokens").asInt());
+
+        assertEquals(1.0, meterRegistry.counter("trip.generation.truncations", "outcome", "salvaged").count());
+        assertEquals(2.0, meterRegistry.counter("trip.generation.truncation.days", "source", "salvaged").count());
+        assertEquals(1.0, meterRegistry.counter("trip.generation.truncation.days", "source", "continued").count());
+    }
+
+    @Test
+    void recover_TruncatedContinuation_ContinuesAgain() throws Exception {
+        // Given
+        String truncated = completion("{\"days\": [" + day(1, "Sydney", "Canberra") + ", {\"day\": 2", "length");
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
+                .thenReturn(completion("{\"days\": [" + day(2, "Canberra", "Albury") + ", {\"da", "length"))
+                .thenReturn(completion("{\"days\": [" + day(3, "Albury", "Melbourne") + "]}", "stop"));
+
+        // When
+        TripPlan tripPlan = recovery.recover(trip, PROMPT, truncated, new TripPlanParseException("Completion was cut off at max_tokens"));
+
+        // Then
+        assertEquals(List.of("Canberra", "Albury", "Melbourne"),
+                tripPlan.getDays().stream().map(day -> day.getFinishLocation().getName()).toList());
+        String second = request(2).get(1).path("messages").get(1).path("content").asText();
+        assertTrue(second.contains("Days 1 to 2 are already planned"), second);
+    }
+
+    @Test
+    void recover_NothingSalvaged_RegeneratesWholePlan() throws Exception {
+        // Given
+        String truncated = completion("{\"days\": [{\"day\": 1, \"startLoc", "length");
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
+                .thenReturn(completion("{\"days\": [" + day(1, "Sydney", "Canberra") + ", " + day(2, "Canberra", "Albury")
+                        + ", " + day(3, "Albury", "Melbourne") + "]}", "stop"));
+
+        // When
+        TripPlan tripPlan = recovery.recover(trip, PROMPT, truncated, new TripPlanParseException("Completion was cut off at max_tokens"));
+
+        // Then
+        assertEquals(3, tripPlan.getDays().size());
+        assertEquals(PROMPT, request(1).get(0).path("messages").get(1).path("content").asText());
+        assertEquals(1.0, meterRegistry.counter("trip.generation.truncations", "outcome", "full_retry").count());
+    }
+
+    @Test
+    void recover_InvalidDay_ContinuesFromTheDayBefore() throws Exception {
+        // Given
+        String invalid = completion("{\"days\": [" + day(1, "Sydney", "Canberra") + ", {\"day\": 2, \"introduction\": \"No locations\"}, "
+                + day(3, "Albury", "Melbourne") + "]}", "stop");
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString()))
+                .thenReturn(completion("{\"days\": [" + day(2, "Canberra", "Albury") + ", " + day(3, "Albury", "Melbourne") + "]}", "stop"));
+
+        // When
+        TripPlan tripPlan = recovery.recover(trip, PROMPT, invalid, new TripPlanParseException("Missing required field 'startLocation' in days[1]"));
+
+        // Then
+        assertEquals(List.of("Canberra", "Albury", "Melbourne"),
+                tripPlan.getDays().stream().map(day -> day.getFinishLocation().getName()).toList());
+    }
+
+    @Test
+    void recover_ContinuationAddsNothing_Throws() throws Exception {
+        // Given
+        String truncated = completion("{\"days\": [" + day(1, "Sydney", "Canberra") + ", {\"day\": 2", "length");
+        when(llmHttpClient.postJson(anyString(), anyString(), anyString())).thenReturn(completion("{\"days\": [{\"da", "length"));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                recovery.recover(trip, PROMPT, truncated, new TripPlanParseException("Completion was cut off at max_tokens")));
+
+        // Then
+        assertTrue(exception.getMessage().startsWith("Failed to parse trip plan JSON"), exception.getMessage());
+        assertTrue(exception.getMessage().contains("recovered 1 of 3 days"), exception.getMessage());
+        verify(llmHttpClient, times(1)).postJson(anyString(), anyString(), anyString());
+        assertEquals(1.0, meterRegistry.counter("trip.generation.truncations", "outcome", "failed").count());
+    }
+
+    private List<JsonNode> request(int calls) throws Exception {
+        ArgumentCaptor<String> request = ArgumentCaptor.forClass(String.class);
+        verify(llmHttpClient, times(calls)).postJson(anyString(), anyString(), request.capture());
+        List<JsonNode> requests = new ArrayList<>();
+        for (String json : request.getAllValues()) {
+            requests.add(TripPlanParser.MAPPER.readTree(json));
+        }
+        return requests;
+    }
+
+    private static String day(int day, String from, String to) {
+        return "{\"day\": " + day + ", \"startLocation\": {\"name\": \"" + from + "\", \"latitude\": -35.0, \"longitude\": 149.0}, "
+                + "\"finishLocation\": {\"name\": \"" + to + "\", \"latitude\": -36.0, \"longitude\": 147.0}, \"distanceKm\": 300, "
+                + "\"introduction\": \"Welcome to " + to + ".\", \"placesOfInterest\": ["
+                + "{\"name\": \"" + to + " Museum\", \"description\": \"Worth a stop\", \"latitude\": -36.01, \"longitude\": 147.01}]}";
+    }
+
+    private static String completion(String content, String finishReason) throws Exception {
+        return TripPlanParser.MAPPER.writeValueAsString(Map.of("choices", List.of(Map.of(
+                "message", Map.of("role", "assistant", "content", content),
+                "finish_reason", finishReason))));
+    }
+}
@@ -1,8 +1,12 @@
 package com.adendl.traveljournalai.utils;
 
 import com.adendl.traveljournalai.model.*;
+import com.adendl.traveljournalai.service.Gazetteer;
+import com.adendl.traveljournalai.service.TokenBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
@@ -64,7 +68,7 @@ public class TestUtils {
         trip.setDays(5);
         trip.setInterests(new ArrayList<>(Arrays.asList("Beaches", "Food", "Culture")));
         trip.setDistanceKm(800.0);
-        trip.setCreatedAt(Instant.now().toString());
+        trip.setCreatedAt(Trip.formatCreatedAt(Instant.now()));
         return trip;
     }
 
@@ -120,6 +124,20 @@ public class TestUtils {
         return tripPlan;
     }
 
+    /**
+     * Create a token budget with the default sizing and a throwaway meter registry
+     */
+    public static TokenBudget createTestTokenBudget() {
+        return new TokenBudget(new SimpleMeterRegistry(), 32768, 1047576, 1.5, 50, 400, 30);
+    }
+
+    /**
+     * Create a gazetteer of the bundled cities dataset, rejecting unknown cities
+     */
+    public static Gazetteer createTestGazetteer() {
+        return new Gazetteer(new SimpleMeterRegistry(), new ClassPathResource("gazetteer/cities.tsv"), "", true);
+    }
+
     /**
      * Helper method to add JWT token to request
      */
@@ -3,7 +3,8 @@ import { MapContainer, TileLayer, Marker, Popup, Polyline } from 'react-leaflet'
 import 'leaflet/dist/leaflet.css';
 import L from 'leaflet';
 import { generateGoogleSearchUrl, openBookingSearch } from '../utils/googleSearch';
-import { fetchDrivingRoute } from '../utils/routeService';
+import { fetchTripRoutes } from '../utils/routeService';
+import { useAuth } from '../context/AuthContext';
 
 interface Location {
   name: string;
@@ -29,6 +30,7 @@ interface DayPlan {
 }
 
 interface DayDetailsProps {
+  tripId: number;
   selectedDay: DayPlan;
 }
 
@@ -42,7 +44,8 @@ const createCustomIcon = (color: string, size: number = 12) => {
   });
 };
 
-const DayDetails: React.FC<DayDetailsProps> = ({ selectedDay }) => {
+const DayDetails: React.FC<DayDetailsProps> = ({ tripId, selectedDay }) => {
+  const { token } = useAuth();
   const midLatitude = (selectedDay.startLocation.latitude + selectedDay.finishLocation.latitude) / 2;
   const midLongitude = (selectedDay.startLocation.longitude + selectedDay.finishLocation.longitude) / 2;
   const midCoordinates: [number, number] = [midLatitude, midLongitude];
@@ -59,22 +62,29 @@ const DayDetails: React.FC<DayDetailsProps> = ({ selectedDay }) => {
   const [loading, setLoading] = useState(true);
 
   useEffect(() => {
-    const fetchRoute = async () => {
-      try {
-        const route = await fetchDrivingRoute(
-          { latitude: selectedDay.startLocation.latitude, longitude: selectedDay.startLocation.longitude },
-          { latitude: selectedDay.finishLocation.latitude, longitude: selectedDay.finishLocation.longitude }
-        );
-        setRouteCoordinates(route);
-        setLoading(false);
-      } catch (error) {
+    if (!token) {
+      return;
+    }
+    let cancelled = false;
+    setRouteCoordinates([]);
+    fetchTripRoutes(tripId, token)
+      .then(routes => {
+        const route = routes.find(r => r.dayNumber === selectedDay.dayNumber);
+        if (!cancelled) {
+          setRouteCoordinates(route && route.routed ? route.coordinates : []);
+          setLoading(false);
+        }
+      })
+      .catch(error => {
         console.error('Error fetching route:', error);
-        setLoading(false);
-      }
+        if (!cancelled) {
+          setLoading(false);
+        }
+      });
+    return () => {
+      cancelled = true;
     };
-
-    fetchRoute();
-  }, [selectedDay.startLocation.latitude, selectedDay.startLocation.longitude, selectedDay.finishLocation.latitude, selectedDay.finishLocation.longitude]);
+  }, [tripId, token, selectedDay.dayNumber]);
 
   return (
     <div className="w-full h-full rounded overflow-hidden relative z-0">
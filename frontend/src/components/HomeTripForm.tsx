@@ -4,6 +4,7 @@ import { validateTripForm } from '../utils/TripFormValidation';
 import { useAuth } from '../context/AuthContext';
 import { useNavigate } from 'react-router-dom';
 import { INTEREST_TYPES, formatInterestName } from '../utils/constants';
+import { usePlaceSuggestions } from '../utils/usePlaceSuggestions';
 
 interface Trip {
   id: number;
@@ -40,6 +41,8 @@ const HomeTripForm: React.FC<HomeTripFormProps> = ({ onTripData }) => {
     createdAt: new Date().toISOString(),
     tripPlans: [],
   });
+  const fromSuggestions = usePlaceSuggestions(tripData.from);
+  const toSuggestions = usePlaceSuggestions(tripData.to);
 
   const handleInputChange = useCallback((e: React.ChangeEvent<HTMLInputElement | HTMLSelectElement>) => {
     const { name, value, type, checked } = e.target as HTMLInputElement;
@@ -98,6 +101,8 @@ const HomeTripForm: React.FC<HomeTripFormProps> = ({ onTripData }) => {
           type="text"
           name="from"
           value={tripData.from}
+          list="home-from-suggestions"
+          autoComplete="off"
           onChange={handleInputChange}
           placeholder="From"
           className="w-full px-4 py-3 bg-white bg-opacity-90 border border-white border-opacity-50 text-gray-800 rounded-lg focus:outline-none focus:ring-2 focus:ring-blue-500 font-roboto shadow-sm backdrop-blur-sm"
@@ -106,10 +111,22 @@ const HomeTripForm: React.FC<HomeTripFormProps> = ({ onTripData }) => {
           type="text"
           name="to"
           value={tripData.to}
+          list="home-to-suggestions"
+          autoComplete="off"
           onChange={handleInputChange}
           placeholder="To"
           className="w-full px-4 py-3 bg-white bg-opacity-90 border border-white border-opacity-50 text-gray-800 rounded-lg focus:outline-none focus:ring-2 focus:ring-blue-500 font-roboto shadow-sm backdrop-blur-sm"
         />
+        <datalist id="home-from-suggestions">
+          {fromSuggestions.map((place) => (
+            <option key={place.displayName} value={place.name}>{place.displayName}</option>
+          ))}
+        </datalist>
+        <datalist id="home-to-suggestions">
+          {toSuggestions.map((place) => (
+            <option key={place.displayName} value={place.name}>{place.displayName}</option>
+          ))}
+        </datalist>
       </div>
 
       {validationErrors.length > 0 && (
@@ -2,8 +2,9 @@ import React, { useState, useEffect, useCallback } from 'react';
 import Button from './Button';
 import { PlusIcon, MinusIcon, CheckIcon, CogIcon } from '@heroicons/react/24/outline';
 import { validateTripForm } from '../utils/TripFormValidation';
-import { buildApiUrl, getApiHeaders, API_ENDPOINTS, fetchWithTimeout } from '../utils/api';
+import { buildApiUrl, getApiHeaders, API_ENDPOINTS, fetchWithTimeout, waitForTripJob } from '../utils/api';
 import { INTEREST_TYPES, formatInterestName } from '../utils/constants';
+import { usePlaceSuggestions } from '../utils/usePlaceSuggestions';
 
 // Define interfaces for new data models
 interface Location {
@@ -71,6 +72,8 @@ const TripForm: React.FC<TripFormProps> = ({
 }) => {
   const [validationErrors, setValidationErrors] = useState<string[]>([]);
   const [generationMessages, setGenerationMessages] = useState<string[]>([]);
+  const fromSuggestions = usePlaceSuggestions(newTrip.from);
+  const toSuggestions = usePlaceSuggestions(newTrip.to);
 
   // Messages to display during AI generation
   const aiMessages = [
@@ -131,13 +134,17 @@ const TripForm: React.FC<TripFormProps> = ({
           interests: newTrip.interests,
           distanceKm: 500,
         }),
-      }, 600000); // 10 minutes timeout for trip generation
+      }, 30000); // Generation runs as a background job, so only the submission needs to be quick
 
       if (!response.ok) {
         throw new Error(`HTTP error! status: ${response.status}`);
       }
 
-      const data = await response.json();
+      let data = await response.json();
+      if (response.status === 202 && data && data.jobId) {
+        // Backend accepted the trip as a background job; poll until it completes
+        data = await waitForTripJob(data.jobId, token, 600000);
+      }
       console.log('Backend response:', data); // Debug the response
       if (data && data.tripId) {
         // Map backend fields to frontend fields
@@ -182,6 +189,8 @@ const TripForm: React.FC<TripFormProps> = ({
             type="text"
             name="from"
             value={newTrip.from}
+            list="trip-from-suggestions"
+            autoComplete="off"
             onChange={onInputChange}
             placeholder="From"
             className="w-full px-4 py-2 bg-white border border-gray-300 text-gray-800 rounded-md focus:outline-none focus:ring-2 focus:ring-indigo-500 font-roboto"
@@ -190,10 +199,22 @@ const TripForm: React.FC<TripFormProps> = ({
             type="text"
             name="to"
             value={newTrip.to}
+            list="trip-to-suggestions"
+            autoComplete="off"
             onChange={onInputChange}
             placeholder="To"
             className="w-full px-4 py-2 bg-white border border-gray-300 text-gray-800 rounded-md focus:outline-none focus:ring-2 focus:ring-indigo-500 font-roboto"
           />
+          <datalist id="trip-from-suggestions">
+            {fromSuggestions.map((place) => (
+              <option key={place.displayName} value={place.name}>{place.displayName}</option>
+            ))}
+          </datalist>
+          <datalist id="trip-to-suggestions">
+            {toSuggestions.map((place) => (
+              <option key={place.displayName} value={place.name}>{place.displayName}</option>
+            ))}
+          </datalist>
         </div>
         {validationErrors.length > 0 && (
           <div className="text-red-600 text-sm mt-2">
@@ -2,7 +2,8 @@ import React, { useEffect, useState } from 'react';
 import { MapContainer, TileLayer, Marker, Popup, Polyline } from 'react-leaflet';
 import 'leaflet/dist/leaflet.css';
 import L from 'leaflet';
-import { fetchDrivingRoute } from '../utils/routeService';
+import { fetchTripRoutes, DayRoute } from '../utils/routeService';
+import { useAuth } from '../context/AuthContext';
 
 interface Location {
   name: string;
@@ -28,6 +29,7 @@ interface DayPlan {
 }
 
 interface TripOverviewMapProps {
+  tripId: number;
   dayPlans: DayPlan[];
   tripTitle: string;
 }
@@ -42,7 +44,27 @@ const createCustomIcon = (color: string, size: number = 12) => {
   });
 };
 
-const TripOverviewMap: React.FC<TripOverviewMapProps> = ({ dayPlans, tripTitle }) => {
+const TripOverviewMap: React.FC<TripOverviewMapProps> = ({ tripId, dayPlans, tripTitle }) => {
+  const { token } = useAuth();
+  const [routes, setRoutes] = useState<DayRoute[]>([]);
+
+  useEffect(() => {
+    if (!token) {
+      return;
+    }
+    let cancelled = false;
+    fetchTripRoutes(tripId, token)
+      .then(result => {
+        if (!cancelled) {
+          setRoutes(result);
+        }
+      })
+      .catch(error => console.error('Error fetching routes:', error));
+    return () => {
+      cancelled = true;
+    };
+  }, [tripId, token]);
+
   // Calculate the center point of the entire trip
   const allCoordinates = dayPlans.flatMap(day => [
     [day.startLocation.latitude, day.startLocation.longitude],
@@ -62,9 +84,19 @@ const TripOverviewMap: React.FC<TripOverviewMapProps> = ({ dayPlans, tripTitle }
     const colors = ['#10B981', '#3B82F6', '#F59E0B', '#EF4444', '#8B5CF6', '#06B6D4', '#84CC16'];
     const color = colors[index % colors.length];
     const dayIcon = createCustomIcon(color, 16);
+    const route = routes.find(r => r.dayNumber === day.dayNumber);
 
     return (
       <React.Fragment key={day.id}>
+        {/* Driving route of the day, dashed where it could only be drawn as a straight line */}
+        <Polyline
+          positions={route ? route.coordinates : [startCoordinates, finishCoordinates]}
+          color={color}
+          weight={3}
+          opacity={0.8}
+          dashArray={route && route.routed ? undefined : "10, 5"}
+        />
+
         {/* Start location marker */}
         <Marker position={startCoordinates} icon={dayIcon}>
           <Popup>
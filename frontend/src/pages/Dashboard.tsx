@@ -95,67 +95,71 @@ const Dashboard: React.FC = () => {
   const [trips, setTrips] = useState<Trip[]>([]);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState<string | null>(null);
+  // Cursor for the next page of trips; null once every trip is loaded
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
 
-  useEffect(() => {
-    const fetchUserTrips = async () => {
-      const token = localStorage.getItem('token');
-      if (!token) {
-        setError('No JWT token found. Please log in again.');
-        return;
-      }
-
-      try {
-        setLoading(true);
-        const response = await fetchWithTimeout(buildApiUrl(API_ENDPOINTS.TRIPS.GET_USER_TRIPS), {
-          method: 'GET',
-          headers: getApiHeaders(token),
-        }, 30000); // 30 seconds timeout for fetching trips
+  const fetchUserTrips = useCallback(async (cursor: string | null) => {
+    const token = localStorage.getItem('token');
+    if (!token) {
+      setError('No JWT token found. Please log in again.');
+      return;
+    }
 
-        if (!response.ok) {
-          const text = await response.text();
-          console.error('HTTP error response:', text);
-          throw new Error(`HTTP error! status: ${response.status}, body: ${text.substring(0, 500)}...`);
-        }
+    try {
+      setLoading(true);
+      const response = await fetchWithTimeout(buildApiUrl(API_ENDPOINTS.TRIPS.GET_USER_TRIP_SUMMARIES(cursor)), {
+        method: 'GET',
+        headers: getApiHeaders(token),
+      }, 30000); // 30 seconds timeout for fetching trips
 
-        const contentType = response.headers.get('content-type');
-        if (!contentType || !contentType.includes('application/json')) {
-          const text = await response.text();
-          console.error('Non-JSON response:', text);
-          throw new Error('Response is not JSON');
-        }
+      if (!response.ok) {
+        const text = await response.text();
+        console.error('HTTP error response:', text);
+        throw new Error(`HTTP error! status: ${response.status}, body: ${text.substring(0, 500)}...`);
+      }
 
-        const responseText = await response.text();
-        let data;
-        try {
-          data = JSON.parse(responseText);
-        } catch (parseError) {
-          console.error('JSON parse error:', parseError, 'Raw response:', responseText.substring(0, 2000));
-          throw new Error('Failed to parse JSON response');
-        }
+      const contentType = response.headers.get('content-type');
+      if (!contentType || !contentType.includes('application/json')) {
+        const text = await response.text();
+        console.error('Non-JSON response:', text);
+        throw new Error('Response is not JSON');
+      }
 
-        const mappedTrips: Trip[] = Array.isArray(data) ? data.map((item: any) => ({
-          id: item.tripId || item.id || 0,
-          from: item.fromCity || item.from || 'Unknown',
-          to: item.toCity || item.to || 'Unknown',
-          roundtrip: item.roundtrip || false,
-          days: item.days || 1,
-          interests: item.interests || [],
-          distanceKm: item.distanceKm || 0,
-          createdAt: item.createdAt || new Date().toISOString(),
-          tripPlans: item.tripPlans || [],
-        })) : [];
-        setTrips(mappedTrips);
-      } catch (error) {
-        console.error('Error fetching user trips:', error);
-        setError('Failed to load user trips. Please try again or check your connection.');
-      } finally {
-        setLoading(false);
+      const responseText = await response.text();
+      let data;
+      try {
+        data = JSON.parse(responseText);
+      } catch (parseError) {
+        console.error('JSON parse error:', parseError, 'Raw response:', responseText.substring(0, 2000));
+        throw new Error('Failed to parse JSON response');
       }
-    };
 
-    fetchUserTrips();
+      const mappedTrips: Trip[] = Array.isArray(data.trips) ? data.trips.map((item: any) => ({
+        id: item.tripId || item.id || 0,
+        from: item.fromCity || item.from || 'Unknown',
+        to: item.toCity || item.to || 'Unknown',
+        roundtrip: item.roundtrip || false,
+        days: item.days || 1,
+        interests: item.interests || [],
+        distanceKm: item.distanceKm || 0,
+        createdAt: item.createdAt || new Date().toISOString(),
+        // Summaries carry no plans; they are loaded when a trip is selected
+        tripPlans: [],
+      })) : [];
+      setTrips((prev) => (cursor ? [...prev, ...mappedTrips] : mappedTrips));
+      setNextCursor(data.nextCursor || null);
+    } catch (error) {
+      console.error('Error fetching user trips:', error);
+      setError('Failed to load user trips. Please try again or check your connection.');
+    } finally {
+      setLoading(false);
+    }
   }, []);
 
+  useEffect(() => {
+    fetchUserTrips(null);
+  }, [fetchUserTrips]);
+
   const handleInputChange = useCallback((e: React.ChangeEvent<HTMLInputElement | HTMLSelectElement>) => {
     const { name, value, type, checked } = e.target as HTMLInputElement;
     setNewTrip((prev) => {
@@ -186,8 +190,8 @@ const Dashboard: React.FC = () => {
   }, []);
 
   const handleSubmit = useCallback((e: React.FormEvent, trip: Trip) => {
-    // Add the newly created trip to the trips array
-    setTrips((prevTrips) => [...prevTrips, trip]);
+    // Add the newly created trip to the top of the trips array, which is newest first
+    setTrips((prevTrips) => [trip, ...prevTrips]);
     
     // Reset the form
     setNewTrip({
@@ -208,6 +212,37 @@ const Dashboard: React.FC = () => {
     console.log('Trip created successfully:', trip);
   }, []);
 
+  const handleSelectTrip = useCallback(async (trip: Trip) => {
+    setSelectedTrip(trip);
+    setSelectedDay(null);
+    if (trip.tripPlans.length > 0) {
+      return;
+    }
+
+    const token = localStorage.getItem('token');
+    if (!token) {
+      setError('No JWT token found. Please log in again.');
+      return;
+    }
+
+    try {
+      const response = await fetchWithTimeout(buildApiUrl(API_ENDPOINTS.TRIPS.GET(trip.id)), {
+        method: 'GET',
+        headers: getApiHeaders(token),
+      }, 30000);
+      if (!response.ok) {
+        throw new Error(`HTTP error! status: ${response.status}`);
+      }
+      const data = await response.json();
+      const loaded: Trip = { ...trip, tripPlans: data.tripPlans || [] };
+      setTrips((prev) => prev.map((t) => (t.id === trip.id ? loaded : t)));
+      setSelectedTrip((current) => (current && current.id === trip.id ? loaded : current));
+    } catch (error) {
+      console.error('Error fetching trip:', error);
+      setError('Failed to load trip details. Please try again.');
+    }
+  }, []);
+
   const handleDeleteTrip = useCallback((id: number) => {
     setTrips((prev) => prev.filter((trip) => trip.id !== id));
   }, []);
@@ -244,16 +279,25 @@ const Dashboard: React.FC = () => {
               >
                 <TripCard
                   trip={trip}
-                  onSelect={() => {
-                    setSelectedTrip(trip);
-                    setSelectedDay(null);
-                  }}
+                  onSelect={() => handleSelectTrip(trip)}
                   onDelete={handleDeleteTrip}
                   setError={setError}
                 />
               </motion.div>
             ))}
           </div>
+          {nextCursor && (
+            <div className="flex justify-center mb-10">
+              <button
+                type="button"
+                onClick={() => fetchUserTrips(nextCursor)}
+                disabled={loading}
+                className="px-6 py-2 font-roboto bg-blue-600 hover:bg-blue-700 disabled:bg-gray-400 text-white rounded-full shadow-md hover:shadow-lg transition-all duration-300 focus:outline-none focus:ring-2 focus:ring-blue-500 focus:ring-opacity-50"
+              >
+                Load more trips
+              </button>
+            </div>
+          )}
           {selectedTrip && (
             <motion.div
               initial={{ opacity: 0, y: 50 }}
@@ -268,9 +312,10 @@ const Dashboard: React.FC = () => {
                 />
                 <div className="md:w-1/2 bg-white rounded-lg shadow-md overflow-hidden min-h-[500px] relative z-0">
                   {selectedDay ? (
-                    <DayDetails selectedDay={selectedDay} />
+                    <DayDetails tripId={selectedTrip.id} selectedDay={selectedDay} />
                   ) : (
                     <TripOverviewMap 
+                      tripId={selectedTrip.id}
                       dayPlans={selectedTrip.tripPlans.length > 0 ? selectedTrip.tripPlans[0].days : []}
                       tripTitle={`${selectedTrip.from} to ${selectedTrip.to}`}
                     />
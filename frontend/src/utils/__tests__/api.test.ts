@@ -93,6 +93,10 @@ describe('API Utils', () => {
     it('should generate dynamic endpoints correctly', () => {
       const deleteEndpoint = API_ENDPOINTS.TRIPS.DELETE('123');
       expect(deleteEndpoint).toBe('api/trips/123');
+      expect(API_ENDPOINTS.TRIPS.JOB('abc')).toBe('api/trips/jobs/abc');
+      expect(API_ENDPOINTS.TRIPS.GET(42)).toBe('api/trips/42');
+      expect(API_ENDPOINTS.TRIPS.GET_USER_TRIP_SUMMARIES()).toBe('api/trips/summaries');
+      expect(API_ENDPOINTS.TRIPS.GET_USER_TRIP_SUMMARIES('a/b=')).toBe('api/trips/summaries?cursor=a%2Fb%3D');
     });
   });
 }); 
\ No newline at end of file
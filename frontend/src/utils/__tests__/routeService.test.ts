@@ -0,0 +1,15 @@
+import { decodePolyline } from '../routeService';
+
+describe('decodePolyline', () => {
+  it('should decode the reference polyline', () => {
+    expect(decodePolyline('_p~iF~ps|U_ulLnnqC_mqNvxq`@')).toEqual([
+      [38.5, -120.2],
+      [40.7, -120.95],
+      [43.252, -126.453],
+    ]);
+  });
+
+  it('should decode an empty polyline to no points', () => {
+    expect(decodePolyline('')).toEqual([]);
+  });
+});
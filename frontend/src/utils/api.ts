@@ -74,6 +74,60 @@ export const fetchWithTimeout = async (
   }
 };
 
+// Poll an asynchronous trip generation job until it finishes and return the generated trip
+export const waitForTripJob = async (
+  jobId: string,
+  token: string,
+  timeout: number = API_CONFIG.TIMEOUT,
+  pollInterval: number = 3000
+): Promise<any> => {
+  const deadline = Date.now() + timeout;
+  while (Date.now() < deadline) {
+    const response = await fetchWithTimeout(buildApiUrl(API_ENDPOINTS.TRIPS.JOB(jobId)), {
+      method: 'GET',
+      headers: getApiHeaders(token),
+    }, 30000);
+    if (!response.ok) {
+      throw new Error(`HTTP error! status: ${response.status}`);
+    }
+    const job = await response.json();
+    if (job.status === 'SUCCEEDED') {
+      return job.trip;
+    }
+    if (job.status === 'FAILED') {
+      throw new Error(job.error || 'Trip generation failed');
+    }
+    await new Promise(resolve => setTimeout(resolve, pollInterval));
+  }
+  throw new Error(`Request timed out after ${timeout / 1000} seconds`);
+};
+
+// A city the backend can plan trips for; name is what should be sent back as fromCity/toCity
+export interface PlaceSuggestion {
+  name: string;
+  displayName: string;
+  admin1: string;
+  country: string;
+  latitude: number;
+  longitude: number;
+  population: number;
+}
+
+// Known cities starting with the query, most populous first; empty on any error so typing is never blocked
+export const suggestPlaces = async (query: string, limit: number = 8): Promise<PlaceSuggestion[]> => {
+  if (query.trim().length === 0) {
+    return [];
+  }
+  try {
+    const response = await fetchWithTimeout(buildApiUrl(API_ENDPOINTS.PLACES.SUGGEST(query, limit)), {
+      method: 'GET',
+    }, 5000);
+    return response.ok ? await response.json() : [];
+  } catch (error) {
+    return [];
+  }
+};
+
 // API endpoints
 export const API_ENDPOINTS = {
   LOGIN: 'api/users/login',
@@ -81,6 +135,14 @@ export const API_ENDPOINTS = {
   TRIPS: {
     CREATE: 'api/trips/create',
     GET_USER_TRIPS: 'api/trips/user',
+    GET_USER_TRIP_SUMMARIES: (cursor?: string | null) =>
+      cursor ? `api/trips/summaries?cursor=${encodeURIComponent(cursor)}` : 'api/trips/summaries',
+    GET: (tripId: string | number) => `api/trips/${tripId}`,
     DELETE: (tripId: string | number) => `api/trips/${tripId}`,
+    JOB: (jobId: string) => `api/trips/jobs/${jobId}`,
+    ROUTES: (tripId: string | number, zoom: number) => `api/trips/${tripId}/routes?zoom=${zoom}`,
+  },
+  PLACES: {
+    SUGGEST: (query: string, limit: number) => `api/places/suggest?q=${encodeURIComponent(query)}&limit=${limit}`,
   }
 } as const; 
\ No newline at end of file
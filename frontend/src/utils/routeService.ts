@@ -1,65 +1,77 @@
-interface RouteCoordinates {
-  latitude: number;
-  longitude: number;
-}
+import { buildApiUrl, getApiHeaders, API_ENDPOINTS, fetchWithTimeout } from './api';
 
-interface GraphHopperResponse {
-  paths: Array<{
-    points: {
-      coordinates: number[][];
-    };
-  }>;
+// Driving route of one day, routed by the backend; routed is false when it fell back to the straight line
+export interface DayRoute {
+  dayNumber: number;
+  distanceKm: number;
+  routed: boolean;
+  coordinates: [number, number][];
 }
 
-interface OSRMResponse {
-  routes: Array<{
-    geometry: {
-      coordinates: number[][];
-    };
-  }>;
+interface EncodedDayRoute {
+  dayNumber: number;
+  distanceKm: number;
+  routed: boolean;
+  polyline: string;
 }
 
-export const fetchDrivingRoute = async (
-  start: RouteCoordinates,
-  end: RouteCoordinates
-): Promise<[number, number][]> => {
-  try {
-    // Try GraphHopper API first (free tier: 10,000 requests/month)
-    const graphHopperKey = import.meta.env.VITE_GRAPHHOPPER_API_KEY || 'demo'; // Use environment variable or fallback to demo
-    const graphHopperUrl = `https://graphhopper.com/api/1/route?point=${start.latitude},${start.longitude}&point=${end.latitude},${end.longitude}&vehicle=car&key=${graphHopperKey}`;
-    
-    const response = await fetch(graphHopperUrl);
-    
-    if (response.ok) {
-      const data: GraphHopperResponse = await response.json();
-      
-      if (data.paths && data.paths.length > 0) {
-        // Convert coordinates from [lng, lat] to [lat, lng] for Leaflet
-        return data.paths[0].points.coordinates.map(coord => [coord[1], coord[0]]);
-      }
-    }
-    
-    // Fallback to OSRM (completely free, no API key needed)
-    const osrmUrl = `https://router.project-osrm.org/route/v1/driving/${start.longitude},${start.latitude};${end.longitude},${end.latitude}?overview=full&geometries=geojson`;
-    
-    const osrmResponse = await fetch(osrmUrl);
-    
-    if (osrmResponse.ok) {
-      const osrmData: OSRMResponse = await osrmResponse.json();
-      
-      if (osrmData.routes && osrmData.routes.length > 0) {
-        // Convert coordinates from [lng, lat] to [lat, lng] for Leaflet
-        return osrmData.routes[0].geometry.coordinates.map(coord => [coord[1], coord[0]]);
-      }
-    }
-    
-    throw new Error('No route found from either service');
-  } catch (error) {
-    console.error('Error fetching route:', error);
-    // Fallback to straight line if both APIs fail
-    return [
-      [start.latitude, start.longitude],
-      [end.latitude, end.longitude]
-    ];
+// Routes are simplified on the server to stay within half a pixel at this zoom level
+const ROUTE_ZOOM = 12;
+
+// Decodes a Google encoded polyline (five decimal places) into [lat, lng] pairs for Leaflet
+export const decodePolyline = (encoded: string): [number, number][] => {
+  const coordinates: [number, number][] = [];
+  let index = 0;
+  let latitude = 0;
+  let longitude = 0;
+  const nextValue = () => {
+    let result = 0;
+    let shift = 0;
+    let chunk;
+    do {
+      chunk = encoded.charCodeAt(index++) - 63;
+      result += (chunk & 0x1f) * Math.pow(2, shift);
+      shift += 5;
+    } while (chunk >= 0x20);
+    return result % 2 === 1 ? -(result + 1) / 2 : result / 2;
+  };
+  while (index < encoded.length) {
+    latitude += nextValue();
+    longitude += nextValue();
+    coordinates.push([latitude / 1e5, longitude / 1e5]);
+  }
+  return coordinates;
+};
+
+// One request per trip, shared by every map that shows it
+const tripRoutes = new Map<number, Promise<DayRoute[]>>();
+
+const requestTripRoutes = async (tripId: number, token: string): Promise<DayRoute[]> => {
+  const response = await fetchWithTimeout(buildApiUrl(API_ENDPOINTS.TRIPS.ROUTES(tripId, ROUTE_ZOOM)), {
+    method: 'GET',
+    headers: getApiHeaders(token),
+  }, 30000);
+  if (!response.ok) {
+    throw new Error(`HTTP error! status: ${response.status}`);
+  }
+  const routes: EncodedDayRoute[] = await response.json();
+  return routes.map(({ polyline, ...route }) => ({ ...route, coordinates: decodePolyline(polyline) }));
+};
+
+export const fetchTripRoutes = (tripId: number, token: string): Promise<DayRoute[]> => {
+  let routes = tripRoutes.get(tripId);
+  if (!routes) {
+    routes = requestTripRoutes(tripId, token);
+    tripRoutes.set(tripId, routes);
+    // Errors and straight-line fallbacks are forgotten so the next view asks again
+    routes.then(
+      result => {
+        if (!result.every(route => route.routed)) {
+          tripRoutes.delete(tripId);
+        }
+      },
+      () => tripRoutes.delete(tripId)
+    );
   }
-}; 
\ No newline at end of file
+  return routes;
+};
@@ -0,0 +1,27 @@
+import { useEffect, useState } from 'react';
+import { suggestPlaces, PlaceSuggestion } from './api';
+
+// Debounced city suggestions for a trip form input; stale responses are ignored
+export const usePlaceSuggestions = (query: string, delay: number = 150): PlaceSuggestion[] => {
+  const [suggestions, setSuggestions] = useState<PlaceSuggestion[]>([]);
+
+  useEffect(() => {
+    if (query.trim().length === 0) {
+      setSuggestions([]);
+      return;
+    }
+    let cancelled = false;
+    const timeoutId = setTimeout(async () => {
+      const places = await suggestPlaces(query);
+      if (!cancelled) {
+        setSuggestions(places);
+      }
+    }, delay);
+    return () => {
+      cancelled = true;
+      clearTimeout(timeoutId);
+    };
+  }, [query, delay]);
+
+  return suggestions;
+};